@@ -83,4 +83,28 @@ public interface Checksum extends CodecType {
             return compute(b, 0, b.length);
         }
     }
+
+    /**
+     * 流式计算多个缓冲区的校验和，不修改缓冲区的位置
+     *
+     * @param buffers 缓冲区
+     * @return 校验和
+     */
+    default long compute(final ByteBuffer[] buffers) {
+        if (buffers.length == 1) {
+            return compute(buffers[0].duplicate());
+        }
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+        byte[] b = new byte[length];
+        int pos = 0;
+        for (ByteBuffer buffer : buffers) {
+            int remaining = buffer.remaining();
+            buffer.duplicate().get(b, pos, remaining);
+            pos += remaining;
+        }
+        return compute(b, 0, length);
+    }
 }
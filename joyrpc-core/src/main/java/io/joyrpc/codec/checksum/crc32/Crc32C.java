@@ -20,6 +20,7 @@ package io.joyrpc.codec.checksum.crc32;
  * #L%
  */
 
+import java.nio.ByteBuffer;
 import java.util.zip.Checksum;
 
 /**
@@ -112,6 +113,29 @@ public final class Crc32C implements Checksum {
         crc = (crc >>> 8) ^ T[T8_0_START + ((crc ^ b) & 0xff)];
     }
 
+    /**
+     * 更新缓冲区的数据，堆外内存分块读取
+     *
+     * @param buffer 缓冲区
+     */
+    public void update(final ByteBuffer buffer) {
+        int remaining = buffer.remaining();
+        if (remaining <= 0) {
+            return;
+        } else if (buffer.hasArray()) {
+            update(buffer.array(), buffer.arrayOffset() + buffer.position(), remaining);
+            buffer.position(buffer.limit());
+        } else {
+            byte[] chunk = new byte[Math.min(remaining, 4096)];
+            int length;
+            while (buffer.hasRemaining()) {
+                length = Math.min(buffer.remaining(), chunk.length);
+                buffer.get(chunk, 0, length);
+                update(chunk, 0, length);
+            }
+        }
+    }
+
     // CRC polynomial tables generated by:
     // java -cp build/test/classes/:build/classes/ \
     //   org.apache.hadoop.util.TestPureJavaCrc32\$Table 82F63B78
@@ -23,12 +23,43 @@ package io.joyrpc.codec.checksum.crc32;
 import io.joyrpc.codec.checksum.Checksum;
 import io.joyrpc.extension.Extension;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
 /**
- * 纯净的CRC32-C的Java实现，100以下的小字节数组性能比crc32快
+ * CRC32-C校验和，JDK9及以上使用java.util.zip.CRC32C的硬件加速实现，否则使用纯净的Java实现
  */
 @Extension(value = "crc32-c", provider = "c")
 public class Crc32CChecksum implements Checksum {
 
+    /**
+     * java.util.zip.CRC32C的构造函数
+     */
+    protected static final MethodHandle CONSTRUCTOR;
+    /**
+     * java.util.zip.Checksum.update(ByteBuffer)方法
+     */
+    protected static final MethodHandle UPDATE;
+
+    static {
+        MethodHandle constructor = null;
+        MethodHandle update = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> clazz = Class.forName("java.util.zip.CRC32C");
+            constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(java.util.zip.Checksum.class));
+            update = lookup.findVirtual(java.util.zip.Checksum.class, "update", MethodType.methodType(void.class, ByteBuffer.class));
+        } catch (Throwable ignored) {
+            constructor = null;
+            update = null;
+        }
+        CONSTRUCTOR = constructor;
+        UPDATE = update;
+    }
+
     @Override
     public byte getTypeId() {
         return CRC32C;
@@ -36,9 +67,58 @@ public class Crc32CChecksum implements Checksum {
 
     @Override
     public long compute(final byte[] data, final int offset, final int length) {
-        Crc32C crc32c = new Crc32C();
-        crc32c.update(data, 0, data.length);
-        return crc32c.getValue();
+        java.util.zip.Checksum checksum = create();
+        checksum.update(data, offset, length);
+        return checksum.getValue();
+    }
+
+    @Override
+    public long compute(final ByteBuffer buffer) {
+        java.util.zip.Checksum checksum = create();
+        update(checksum, buffer);
+        return checksum.getValue();
+    }
+
+    @Override
+    public long compute(final ByteBuffer[] buffers) {
+        java.util.zip.Checksum checksum = create();
+        for (ByteBuffer buffer : buffers) {
+            update(checksum, buffer.duplicate());
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * 创建校验和计算器
+     *
+     * @return 校验和计算器
+     */
+    protected java.util.zip.Checksum create() {
+        if (CONSTRUCTOR != null) {
+            try {
+                return (java.util.zip.Checksum) CONSTRUCTOR.invokeExact();
+            } catch (Throwable ignored) {
+            }
+        }
+        return new Crc32C();
+    }
+
+    /**
+     * 更新缓冲区数据
+     *
+     * @param checksum 校验和计算器
+     * @param buffer   缓冲区
+     */
+    protected void update(final java.util.zip.Checksum checksum, final ByteBuffer buffer) {
+        if (checksum instanceof Crc32C) {
+            ((Crc32C) checksum).update(buffer);
+        } else {
+            try {
+                UPDATE.invokeExact(checksum, buffer);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
     }
 
 }
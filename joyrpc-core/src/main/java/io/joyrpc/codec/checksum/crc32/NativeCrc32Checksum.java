@@ -52,4 +52,13 @@ public class NativeCrc32Checksum implements Checksum {
         crc32.update(buffer);
         return crc32.getValue();
     }
+
+    @Override
+    public long compute(final ByteBuffer[] buffers) {
+        CRC32 crc32 = new CRC32();
+        for (ByteBuffer buffer : buffers) {
+            crc32.update(buffer.duplicate());
+        }
+        return crc32.getValue();
+    }
 }
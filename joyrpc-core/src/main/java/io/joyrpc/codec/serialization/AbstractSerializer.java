@@ -52,11 +52,40 @@ public abstract class AbstractSerializer implements Serializer {
      */
     protected abstract ObjectReader createReader(InputStream is, Class clazz) throws IOException;
 
+    /**
+     * 构造使用字符串表的数据写对象
+     *
+     * @param os     输出流
+     * @param object 对象
+     * @param table  发送表
+     * @return 数据写对象
+     */
+    protected ObjectWriter createWriter(final OutputStream os, final Object object, final StringTable.Sender table) throws IOException {
+        return createWriter(os, object);
+    }
+
+    /**
+     * 构造使用字符串表的数据读对象
+     *
+     * @param is    输入流
+     * @param clazz 类型
+     * @param table 接收表
+     * @return 数据读对象
+     */
+    protected ObjectReader createReader(final InputStream is, final Class clazz, final StringTable.Receiver table) throws IOException {
+        return createReader(is, clazz);
+    }
+
     @Override
     public <T> void serialize(final OutputStream os, final T object) throws SerializerException {
+        serialize(os, object, null);
+    }
+
+    @Override
+    public <T> void serialize(final OutputStream os, final T object, final StringTable.Sender table) throws SerializerException {
         ObjectWriter output = null;
         try {
-            output = createWriter(os, object);
+            output = table == null ? createWriter(os, object) : createWriter(os, object, table);
             if (object instanceof Codec) {
                 ((Codec) object).encode(output);
             } else {
@@ -73,13 +102,19 @@ public abstract class AbstractSerializer implements Serializer {
     }
 
     @Override
-    public <T> T deserialize(final InputStream is, Type type) throws SerializerException {
+    public <T> T deserialize(final InputStream is, final Type type) throws SerializerException {
+        return deserialize(is, type, null);
+    }
+
+    @Override
+    public <T> T deserialize(final InputStream is, final Type type, final StringTable.Receiver table) throws SerializerException {
         if (!(type instanceof Class)) {
             throw new SerializerException("type must be a Class " + type);
         }
+        ObjectReader input = null;
         try {
             Class<T> clazz = (Class<T>) type;
-            ObjectReader input = createReader(is, clazz);
+            input = table == null ? createReader(is, clazz) : createReader(is, clazz, table);
             if (Codec.class.isAssignableFrom(clazz)) {
                 Codec codec = (Codec) ClassUtils.newInstance(clazz);
                 codec.decode(input);
@@ -88,6 +123,10 @@ public abstract class AbstractSerializer implements Serializer {
             return input.readObject(clazz);
         } catch (Exception e) {
             throw new SerializerException("Error occurred while deserializing class " + type, e);
+        } finally {
+            if (input != null) {
+                input.release();
+            }
         }
     }
 
@@ -164,4 +164,11 @@ public interface ObjectReader extends ObjectInput {
 
         return n - remaining;
     }
+
+    /**
+     * 释放资源
+     */
+    default void release() {
+    }
+
 }
@@ -126,4 +126,22 @@ public interface Serialization extends CodecType {
         return true;
     }
 
+    /**
+     * 获取按照声明类型编解码的序列化器，根对象不写入类型描述，反序列化时由调用方提供类型
+     *
+     * @return 序列化器，不支持返回null
+     */
+    default Serializer getTypedSerializer() {
+        return null;
+    }
+
+    /**
+     * 是否支持会话的字符串表
+     *
+     * @return 支持字符串表
+     */
+    default boolean stringTable() {
+        return false;
+    }
+
 }
@@ -52,4 +52,31 @@ public interface Serializer {
      * @throws SerializerException
      */
     <T> T deserialize(InputStream is, Type type) throws SerializerException;
+
+    /**
+     * 使用会话的字符串表序列化
+     *
+     * @param os     输出流
+     * @param object 对象
+     * @param table  发送表
+     * @param <T>
+     * @throws SerializerException
+     */
+    default <T> void serialize(OutputStream os, T object, StringTable.Sender table) throws SerializerException {
+        serialize(os, object);
+    }
+
+    /**
+     * 使用会话的字符串表反序列化
+     *
+     * @param is    输入流
+     * @param type  类型
+     * @param table 接收表
+     * @param <T>
+     * @return 对象
+     * @throws SerializerException
+     */
+    default <T> T deserialize(InputStream is, Type type, StringTable.Receiver table) throws SerializerException {
+        return deserialize(is, type);
+    }
 }
@@ -23,17 +23,17 @@ package io.joyrpc.codec.serialization;
 import io.joyrpc.permission.BlackList;
 import io.joyrpc.util.Resource;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 /**
- * 序列化黑名单，处理安全漏洞
+ * 序列化黑名单，处理安全漏洞。<br/>
+ * 名单项是类的全路径名称，以".*"或"."结尾的名单项表示包前缀，匹配该包及其子包下的所有类。<br/>
+ * 名单编译成不可变的规则，更新的时候整体替换，判断过程无锁；按类判断的结果缓存在规则上的ClassValue中。
  */
 public class SerializerBlackList implements BlackList<String> {
 
-    //合并后的黑名单
-    protected volatile Set<String> blacks = new HashSet<>(0);
+    //合并后的规则
+    protected volatile Rule rule = new Rule(new HashSet<>(0));
     //本地黑名单
     protected Set<String> locals = new HashSet<>(0);
     //远程黑名单
@@ -52,14 +52,14 @@ public class SerializerBlackList implements BlackList<String> {
      */
     public synchronized BlackList<String> load() {
         locals = add(new HashSet<>(200), Resource.lines(blackListFiles, false));
-        blacks = merge(locals, remotes);
+        rule = new Rule(merge(locals, remotes));
         return this;
     }
 
     @Override
     public synchronized void updateBlack(final Collection<String> targets) {
         remotes = add(new HashSet<>(targets == null ? 0 : targets.size()), targets);
-        blacks = merge(locals, remotes);
+        rule = new Rule(merge(locals, remotes));
     }
 
     /**
@@ -86,8 +86,11 @@ public class SerializerBlackList implements BlackList<String> {
     protected Set<String> add(final Set<String> targets, final Collection<String> sources) {
         if (sources != null) {
             for (String target : sources) {
-                if (target != null && !target.isEmpty()) {
-                    targets.add(target);
+                if (target != null) {
+                    target = target.trim();
+                    if (!target.isEmpty()) {
+                        targets.add(target);
+                    }
                 }
             }
         }
@@ -96,6 +99,159 @@ public class SerializerBlackList implements BlackList<String> {
 
     @Override
     public boolean isBlack(final String clazz) {
-        return blacks.contains(clazz);
+        return clazz != null && rule.test(clazz);
+    }
+
+    /**
+     * 判断类型是否在黑名单中，结果按类缓存
+     *
+     * @param clazz 类型
+     * @return 黑名单标识
+     */
+    public boolean isBlack(final Class<?> clazz) {
+        return clazz != null && rule.decisions.get(clazz);
+    }
+
+    /**
+     * 编译后的不可变规则
+     */
+    protected static class Rule {
+        /**
+         * 全路径名称
+         */
+        protected final Set<String> names;
+        /**
+         * 包前缀字典树
+         */
+        protected final Node prefixes;
+        /**
+         * 按类缓存的判断结果，规则替换后随之失效
+         */
+        protected final ClassValue<Boolean> decisions = new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(final Class<?> type) {
+                return test(type.getName());
+            }
+        };
+
+        public Rule(final Set<String> blacks) {
+            Set<String> names = new HashSet<>(blacks.size());
+            Builder builder = new Builder();
+            for (String black : blacks) {
+                if (black.endsWith(".*")) {
+                    builder.add(black.substring(0, black.length() - 1));
+                } else if (black.endsWith(".")) {
+                    builder.add(black);
+                } else {
+                    names.add(black);
+                }
+            }
+            this.names = names;
+            this.prefixes = builder.isEmpty() ? null : builder.build();
+        }
+
+        /**
+         * 判断名称是否在黑名单中
+         *
+         * @param name 类名
+         * @return 黑名单标识
+         */
+        protected boolean test(final String name) {
+            return names.contains(name) || prefixes != null && prefixes.match(name);
+        }
+    }
+
+    /**
+     * 字典树节点，子节点按字符排序，二分查找
+     */
+    protected static class Node {
+        /**
+         * 子节点字符
+         */
+        protected final char[] chars;
+        /**
+         * 子节点
+         */
+        protected final Node[] children;
+        /**
+         * 是否是前缀的结尾
+         */
+        protected final boolean end;
+
+        public Node(final char[] chars, final Node[] children, final boolean end) {
+            this.chars = chars;
+            this.children = children;
+            this.end = end;
+        }
+
+        /**
+         * 判断名称是否以某个前缀开头
+         *
+         * @param name 名称
+         * @return 匹配标识
+         */
+        protected boolean match(final String name) {
+            Node node = this;
+            int length = name.length();
+            int pos;
+            for (int i = 0; i < length; i++) {
+                pos = Arrays.binarySearch(node.chars, name.charAt(i));
+                if (pos < 0) {
+                    return false;
+                }
+                node = node.children[pos];
+                if (node.end) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 字典树构建器
+     */
+    protected static class Builder {
+        /**
+         * 子节点
+         */
+        protected final TreeMap<Character, Builder> children = new TreeMap<>();
+        /**
+         * 是否是前缀的结尾
+         */
+        protected boolean end;
+
+        /**
+         * 添加前缀
+         *
+         * @param prefix 前缀
+         */
+        public void add(final String prefix) {
+            Builder builder = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                builder = builder.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+            }
+            builder.end = true;
+        }
+
+        public boolean isEmpty() {
+            return children.isEmpty();
+        }
+
+        /**
+         * 构建不可变节点
+         *
+         * @return 节点
+         */
+        public Node build() {
+            char[] chars = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                chars[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            return new Node(chars, nodes, end);
+        }
     }
 }
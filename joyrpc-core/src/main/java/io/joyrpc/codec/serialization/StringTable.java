@@ -0,0 +1,292 @@
+package io.joyrpc.codec.serialization;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.exception.SerializerException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 会话级的字符串表，重复出现的字符串只在第一次传输内容，后续只传输表中的序号。<br/>
+ * 发送方按照LRU淘汰，新字符串占用的序号随内容一起传输，接收方只按照序号保存，两端不需要同步淘汰顺序。<br/>
+ * 两端的表依赖消息按照顺序编解码，编码或解码失败后通过消息头的标识重置。
+ */
+public class StringTable {
+
+    /**
+     * 消息体使用了字符串表
+     */
+    public static final byte USE = 1;
+    /**
+     * 发送方已经清空，接收方解码前清空
+     */
+    public static final byte RESET = 2;
+    /**
+     * 发送方的接收表已经失效，请求对端重置
+     */
+    public static final byte SYNC = 4;
+    /**
+     * 最大容量
+     */
+    public static final int MAX_CAPACITY = 1 << 16;
+    /**
+     * 进入表的最小长度，太短的字符串用序号替换没有收益
+     */
+    public static final int MIN_LENGTH = 3;
+    /**
+     * 进入表的最大长度，长字符串很少重复，避免占用表的空间
+     */
+    public static final int MAX_LENGTH = 256;
+
+    /**
+     * 发送表
+     */
+    protected final Sender sender;
+    /**
+     * 接收表
+     */
+    protected final Receiver receiver;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 容量
+     */
+    public StringTable(final int capacity) {
+        int size = Math.max(1, Math.min(capacity, MAX_CAPACITY));
+        this.sender = new Sender(size);
+        this.receiver = new Receiver(size);
+    }
+
+    public Sender getSender() {
+        return sender;
+    }
+
+    public Receiver getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * 获取发送消息的标识，在编码消息头之前调用
+     *
+     * @return 标识
+     */
+    public byte getFlag() {
+        int result = USE;
+        if (sender.reset) {
+            result |= RESET;
+        }
+        if (receiver.broken) {
+            result |= SYNC;
+        }
+        return (byte) result;
+    }
+
+    /**
+     * 消息编码结束，失败的消息没有发出去，接收方缺少其中定义的字符串，需要清空并通知对端重置
+     *
+     * @param flag    标识
+     * @param success 成功标识
+     */
+    public void encoded(final byte flag, final boolean success) {
+        if (!success) {
+            sender.invalidate();
+        } else if ((flag & RESET) != 0) {
+            sender.reset = false;
+        }
+    }
+
+    /**
+     * 开始解码消息
+     *
+     * @param flag 标识
+     * @return 接收表
+     * @throws SerializerException 接收表已经失效，等待发送方重置
+     */
+    public Receiver decode(final byte flag) throws SerializerException {
+        if ((flag & SYNC) != 0) {
+            sender.invalidate();
+        }
+        if ((flag & RESET) != 0) {
+            receiver.reset();
+        }
+        if (receiver.broken) {
+            throw new SerializerException("string table is out of sync, waiting for reset.");
+        }
+        return receiver;
+    }
+
+    /**
+     * 消息解码结束，失败的消息可能遗漏了定义的字符串，接收表失效直到发送方重置
+     *
+     * @param success 成功标识
+     */
+    public void decoded(final boolean success) {
+        if (!success) {
+            receiver.invalidate();
+        }
+    }
+
+    /**
+     * 判断字符串是否可以进入表
+     *
+     * @param value 字符串
+     * @return 可以进入表标识
+     */
+    public static boolean accept(final String value) {
+        int length = value == null ? 0 : value.length();
+        return length >= MIN_LENGTH && length <= MAX_LENGTH;
+    }
+
+    /**
+     * 发送表，只在通道的IO线程上编码时访问
+     */
+    public static class Sender {
+        /**
+         * 容量
+         */
+        protected final int capacity;
+        /**
+         * 字符串的序号，按照访问顺序排列
+         */
+        protected final LinkedHashMap<String, Integer> indexes;
+        /**
+         * 待通知接收方重置
+         */
+        protected volatile boolean reset;
+
+        public Sender(final int capacity) {
+            this.capacity = capacity;
+            this.indexes = new LinkedHashMap<>(Math.min(capacity, 256) * 4 / 3 + 1, 0.75f, true);
+        }
+
+        /**
+         * 查找字符串的序号
+         *
+         * @param value 字符串
+         * @return 序号，不存在返回-1
+         */
+        public int indexOf(final String value) {
+            Integer result = indexes.get(value);
+            return result == null ? -1 : result;
+        }
+
+        /**
+         * 添加字符串，表满了则淘汰最久没有使用的字符串并复用其序号
+         *
+         * @param value 字符串
+         * @return 序号，不能进入表返回-1
+         */
+        public int add(final String value) {
+            if (!accept(value)) {
+                return -1;
+            }
+            int result;
+            if (indexes.size() < capacity) {
+                result = indexes.size();
+            } else {
+                Iterator<Map.Entry<String, Integer>> it = indexes.entrySet().iterator();
+                result = it.next().getValue();
+                it.remove();
+            }
+            indexes.put(value, result);
+            return result;
+        }
+
+        /**
+         * 清空，并在下一个消息通知接收方重置
+         */
+        public void invalidate() {
+            indexes.clear();
+            reset = true;
+        }
+
+        public int size() {
+            return indexes.size();
+        }
+    }
+
+    /**
+     * 接收表，只在通道的IO线程上解码时访问
+     */
+    public static class Receiver {
+        /**
+         * 按照序号保存的字符串
+         */
+        protected final String[] values;
+        /**
+         * 已经失效
+         */
+        protected volatile boolean broken;
+
+        public Receiver(final int capacity) {
+            this.values = new String[capacity];
+        }
+
+        /**
+         * 获取字符串
+         *
+         * @param index 序号
+         * @return 字符串
+         * @throws SerializerException 序号不存在
+         */
+        public String get(final int index) throws SerializerException {
+            String result = index >= 0 && index < values.length ? values[index] : null;
+            if (result == null) {
+                throw new SerializerException(String.format("string %d is not found in string table.", index));
+            }
+            return result;
+        }
+
+        /**
+         * 保存字符串
+         *
+         * @param index 序号
+         * @param value 字符串
+         * @throws SerializerException 序号越界
+         */
+        public void put(final int index, final String value) throws SerializerException {
+            if (index < 0 || index >= values.length) {
+                throw new SerializerException(String.format("string %d is out of string table.", index));
+            }
+            values[index] = value;
+        }
+
+        /**
+         * 失效，直到发送方重置
+         */
+        public void invalidate() {
+            Arrays.fill(values, null);
+            broken = true;
+        }
+
+        /**
+         * 重置
+         */
+        public void reset() {
+            Arrays.fill(values, null);
+            broken = false;
+        }
+    }
+}
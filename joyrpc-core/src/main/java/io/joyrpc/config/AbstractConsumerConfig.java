@@ -41,7 +41,10 @@ import io.joyrpc.extension.Parametric;
 import io.joyrpc.extension.URL;
 import io.joyrpc.protocol.message.Invocation;
 import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.protocol.message.ResponseMessage;
+import io.joyrpc.stream.StreamIterator;
 import io.joyrpc.transport.channel.ChannelManagerFactory;
+import io.joyrpc.transport.message.Message;
 import io.joyrpc.util.Futures;
 import io.joyrpc.util.Status;
 import io.joyrpc.util.SystemClock;
@@ -1066,7 +1069,9 @@ public abstract class AbstractConsumerConfig<T> extends AbstractInterfaceConfig
                 if (result.isException()) {
                     throw result.getException();
                 }
-                return result.getValue();
+                Object value = result.getValue();
+                recycle(result);
+                return value;
             } catch (CompletionException | ExecutionException e) {
                 throw e.getCause() != null ? e.getCause() : e;
             } finally {
@@ -1097,7 +1102,9 @@ public abstract class AbstractConsumerConfig<T> extends AbstractInterfaceConfig
                     if (throwable != null) {
                         response.completeExceptionally(throwable);
                     } else {
-                        response.complete(res.getValue());
+                        Object value = res.getValue();
+                        recycle(res);
+                        response.complete(value);
                     }
                 });
             } catch (CompletionException e) {
@@ -1113,6 +1120,21 @@ public abstract class AbstractConsumerConfig<T> extends AbstractInterfaceConfig
             return response;
         }
 
+        /**
+         * 结果值已经取出，回收应答消息
+         *
+         * @param result 结果
+         */
+        protected void recycle(final Result result) {
+            if (ResponseMessage.isRecycling()) {
+                Message message = result.getMessage();
+                //流式调用的应答还会被流引用
+                if (message instanceof ResponseMessage && !(result.getValue() instanceof StreamIterator)) {
+                    ((ResponseMessage<?>) message).recycle();
+                }
+            }
+        }
+
     }
 
 
@@ -34,12 +34,14 @@ import io.joyrpc.permission.BlackWhiteList;
 import io.joyrpc.protocol.message.Invocation;
 import io.joyrpc.protocol.message.RequestMessage;
 import io.joyrpc.proxy.MethodCaller;
+import io.joyrpc.thread.Bulkhead;
 import io.joyrpc.util.GenericMethod;
 import io.joyrpc.util.GrpcType;
 
 import javax.validation.Validator;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
 import java.util.function.Supplier;
@@ -328,6 +330,146 @@ public interface InterfaceOption {
          */
         MethodCaller getCaller();
 
+        /**
+         * 获取舱壁
+         *
+         * @return 舱壁，为空表示使用服务的业务线程池
+         */
+        Bulkhead getBulkhead();
+
+        /**
+         * 获取内联执行策略
+         *
+         * @return 内联执行策略，为空表示在业务线程池中执行
+         */
+        Inline getInline();
+
+    }
+
+    /**
+     * 内联执行策略，判断方法是否直接在IO线程中执行
+     */
+    class Inline {
+
+        /**
+         * 自动模式切换内联前的最少采样次数
+         */
+        protected static final int WARMUP = 64;
+
+        /**
+         * 自动模式
+         */
+        protected final boolean auto;
+        /**
+         * 阈值(纳秒)
+         */
+        protected final long threshold;
+        /**
+         * 单次调用的预算(纳秒)，内联调用超过预算立即退回业务线程池
+         */
+        protected final long budget;
+        /**
+         * 是否内联
+         */
+        protected volatile boolean enabled;
+        /**
+         * 平均执行时间(纳秒)，指数加权移动平均
+         */
+        protected volatile long average;
+        /**
+         * 采样次数
+         */
+        protected volatile int samples;
+        /**
+         * 正在执行的调用数
+         */
+        protected final AtomicInteger running = new AtomicInteger();
+        /**
+         * 最近一次调用开始或完成的时间(纳秒)，用于发现阻塞的调用
+         */
+        protected volatile long progress;
+
+        /**
+         * 构造函数
+         *
+         * @param auto      自动模式
+         * @param threshold 阈值(纳秒)
+         */
+        public Inline(final boolean auto, final long threshold) {
+            this.auto = auto;
+            this.threshold = threshold;
+            this.budget = threshold << 2;
+            this.enabled = !auto;
+        }
+
+        public boolean isAuto() {
+            return auto;
+        }
+
+        /**
+         * 是否内联，自动模式下有调用超过预算还没有完成，说明方法可能阻塞了，退回业务线程池
+         *
+         * @return 内联标识
+         */
+        public boolean isEnabled() {
+            if (enabled && auto && running.get() > 0 && System.nanoTime() - progress > budget) {
+                demote();
+            }
+            return enabled;
+        }
+
+        public long getAverage() {
+            return average;
+        }
+
+        /**
+         * 调用开始
+         */
+        public void begin() {
+            if (auto && running.getAndIncrement() == 0) {
+                progress = System.nanoTime();
+            }
+        }
+
+        /**
+         * 调用结束，记录执行时间。自动模式下单次超过预算或者平均变慢的方法退回业务线程池，稳定变快的方法再切换到内联。<br/>
+         * 统计允许并发更新丢失，只影响切换的时机
+         *
+         * @param nanos 执行时间(纳秒)
+         */
+        public void record(final long nanos) {
+            if (!auto) {
+                return;
+            }
+            running.decrementAndGet();
+            progress = System.nanoTime();
+            //单次采样不超过预算，避免偶发的停顿(如GC)过度拉高平均值
+            long sample = Math.min(nanos, budget);
+            int count = samples;
+            long avg = count == 0 ? sample : average + (sample - average) / 16;
+            average = avg;
+            if (enabled) {
+                if (nanos >= budget || avg > threshold) {
+                    //变慢了，避免阻塞IO线程，重新采样
+                    demote();
+                }
+            } else {
+                if (count < WARMUP) {
+                    samples = ++count;
+                }
+                if (count >= WARMUP && avg < threshold / 2) {
+                    enabled = true;
+                }
+            }
+        }
+
+        /**
+         * 退回业务线程池，重新采样
+         */
+        protected void demote() {
+            enabled = false;
+            samples = 0;
+        }
     }
 
     /**
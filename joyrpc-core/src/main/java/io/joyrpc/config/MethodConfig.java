@@ -89,6 +89,18 @@ public class MethodConfig extends AbstractConfig {
      * The concurrency. 最大并发执行（不管服务端还是客户端）
      */
     protected Integer concurrency;
+    /**
+     * 舱壁，服务端方法独占的业务线程池最大线程数，0表示不使用接口的舱壁
+     */
+    protected Integer bulkhead;
+    /**
+     * 舱壁的队列大小
+     */
+    protected Integer bulkheadQueues;
+    /**
+     * 服务端方法的分发方式，pool在业务线程池中执行，inline在IO线程中执行，auto按照执行时间自动切换
+     */
+    protected String dispatch;
     /**
      * 结果缓存插件名称
      */
@@ -218,6 +230,30 @@ public class MethodConfig extends AbstractConfig {
         this.concurrency = concurrency;
     }
 
+    public Integer getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Integer bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public Integer getBulkheadQueues() {
+        return bulkheadQueues;
+    }
+
+    public void setBulkheadQueues(Integer bulkheadQueues) {
+        this.bulkheadQueues = bulkheadQueues;
+    }
+
+    public String getDispatch() {
+        return dispatch;
+    }
+
+    public void setDispatch(String dispatch) {
+        this.dispatch = dispatch;
+    }
+
     public Boolean getCache() {
         return cache;
     }
@@ -334,6 +370,9 @@ public class MethodConfig extends AbstractConfig {
         addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.TIMEOUT_OPTION.getName()), timeout);
         addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.VALIDATION_OPTION.getName()), validation);
         addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.CONCURRENCY_OPTION.getName()), concurrency);
+        addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.BULKHEAD_OPTION.getName()), bulkhead);
+        addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.BULKHEAD_QUEUES_OPTION.getName()), bulkheadQueues);
+        addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.DISPATCH_OPTION.getName()), dispatch);
         addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.COMPRESS_OPTION.getName()), compress);
         addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.DST_PARAM_OPTION.getName()), dstParam);
         addElement2Map(params, METHOD_KEY_FUNC.apply(name, Constants.CACHE_OPTION.getName()), cache);
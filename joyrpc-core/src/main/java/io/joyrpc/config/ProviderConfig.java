@@ -97,6 +97,18 @@ public class ProviderConfig<T> extends AbstractInterfaceConfig implements Serial
      * 权重
      */
     protected Integer weight;
+    /**
+     * 舱壁，接口独占的业务线程池最大线程数
+     */
+    protected Integer bulkhead;
+    /**
+     * 舱壁的队列大小
+     */
+    protected Integer bulkheadQueues;
+    /**
+     * 方法的分发方式，pool、inline或auto
+     */
+    protected String dispatch;
     /**
      * 包含的方法
      */
@@ -387,6 +399,9 @@ public class ProviderConfig<T> extends AbstractInterfaceConfig implements Serial
         addElement2Map(params, Constants.WEIGHT_OPTION, weight);
         addElement2Map(params, Constants.DYNAMIC_OPTION, dynamic);
         addElement2Map(params, Constants.DELAY_OPTION, delay);
+        addElement2Map(params, Constants.BULKHEAD_OPTION, bulkhead);
+        addElement2Map(params, Constants.BULKHEAD_QUEUES_OPTION, bulkheadQueues);
+        addElement2Map(params, Constants.DISPATCH_OPTION, dispatch);
         addElement2Map(params, Constants.ROLE_OPTION, Constants.SIDE_PROVIDER);
         addElement2Map(params, Constants.TIMESTAMP_KEY, String.valueOf(SystemClock.now()));
         addElement2Map(params, Constants.ENABLE_VALIDATOR_OPTION, enableValidator);
@@ -506,6 +521,30 @@ public class ProviderConfig<T> extends AbstractInterfaceConfig implements Serial
         this.weight = weight;
     }
 
+    public Integer getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Integer bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public Integer getBulkheadQueues() {
+        return bulkheadQueues;
+    }
+
+    public void setBulkheadQueues(Integer bulkheadQueues) {
+        this.bulkheadQueues = bulkheadQueues;
+    }
+
+    public String getDispatch() {
+        return dispatch;
+    }
+
+    public void setDispatch(String dispatch) {
+        this.dispatch = dispatch;
+    }
+
     public String getInclude() {
         return include;
     }
@@ -85,7 +85,7 @@ public class ServerConfig extends AbstractIdConfig implements Serializable {
      */
     protected Integer maxThreads;
     /**
-     * 业务线程池队列类型
+     * 业务线程池队列类型，normal、priority或deadline(按照截止时间排序，丢弃超时和过载的请求)
      */
     protected String queueType;
     /**
@@ -28,26 +28,29 @@ import io.joyrpc.context.limiter.LimiterConfiguration.ClassLimiter;
 import io.joyrpc.extension.URL;
 import io.joyrpc.extension.WrapperParametric;
 import io.joyrpc.invoker.CallbackMethod;
+import io.joyrpc.invoker.ServiceManager;
 import io.joyrpc.permission.BlackWhiteList;
 import io.joyrpc.permission.StringBlackWhiteList;
-import io.joyrpc.proxy.JCompiler;
+import io.joyrpc.proxy.LambdaCaller;
 import io.joyrpc.proxy.MethodCaller;
-import io.joyrpc.util.ClassUtils;
+import io.joyrpc.thread.Bulkhead;
+import io.joyrpc.thread.NamedThreadFactory;
 import io.joyrpc.util.GenericMethod;
 import io.joyrpc.util.GrpcMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.validation.Validator;
-import java.lang.reflect.*;
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
-import static io.joyrpc.Plugin.COMPILER;
+import static io.joyrpc.Plugin.THREAD_POOL;
 import static io.joyrpc.constants.Constants.*;
 import static io.joyrpc.context.auth.IPPermissionConfiguration.IP_PERMISSION;
 import static io.joyrpc.context.limiter.LimiterConfiguration.LIMITERS;
-import static io.joyrpc.util.ClassUtils.inbox;
 import static io.joyrpc.util.ClassUtils.isReturnFuture;
 
 /**
@@ -78,9 +81,21 @@ public class InnerProviderOption extends AbstractInterfaceOption {
      */
     protected boolean precompilation;
     /**
-     * 编译器
+     * 接口的舱壁
      */
-    protected JCompiler compiler;
+    protected Bulkhead bulkhead;
+    /**
+     * 创建的舱壁，包括接口和方法的
+     */
+    protected List<Bulkhead> bulkheads = new CopyOnWriteArrayList<>();
+    /**
+     * 分发方式
+     */
+    protected String dispatch;
+    /**
+     * 自动分发的内联阈值(微秒)
+     */
+    protected long dispatchThreshold;
 
     /**
      * 构造函数
@@ -94,7 +109,6 @@ public class InnerProviderOption extends AbstractInterfaceOption {
         super(interfaceClass, interfaceName, url);
         this.ref = ref;
         this.generic = false;
-        this.compiler = COMPILER.get();
         setup();
         buildOptions();
     }
@@ -114,6 +128,10 @@ public class InnerProviderOption extends AbstractInterfaceOption {
         this.precompilation = url.getBoolean(METHOD_PRECOMPILATION);
         this.ipPermissions = new IntfConfiguration<>(IP_PERMISSION, interfaceName);
         this.limiters = new IntfConfiguration<>(LIMITERS, interfaceName);
+        this.bulkhead = createBulkhead(null, url.getInteger(BULKHEAD_OPTION), url.getInteger(BULKHEAD_CORE_SIZE_OPTION),
+                url.getInteger(BULKHEAD_QUEUES_OPTION));
+        this.dispatch = url.getString(DISPATCH_OPTION);
+        this.dispatchThreshold = url.getLong(DISPATCH_THRESHOLD_OPTION);
     }
 
     @Override
@@ -121,6 +139,11 @@ public class InnerProviderOption extends AbstractInterfaceOption {
         super.doClose();
         ipPermissions.close();
         limiters.close();
+        bulkheads.forEach(o -> {
+            ServiceManager.removeBulkhead(o);
+            o.close();
+        });
+        bulkheads.clear();
     }
 
     @Override
@@ -128,6 +151,7 @@ public class InnerProviderOption extends AbstractInterfaceOption {
         GrpcMethod grpcMethod = getMethod(parametric.getName());
         Method method = grpcMethod == null ? null : grpcMethod.getMethod();
         EnableTrace enableTrace = method == null ? null : method.getAnnotation(EnableTrace.class);
+        Bulkhead bulkhead = getBulkhead(parametric);
         return new InnerProviderMethodOption(
                 grpcMethod,
                 genericClass.get(method),
@@ -143,66 +167,83 @@ public class InnerProviderOption extends AbstractInterfaceOption {
                 methodBlackWhiteList,
                 ipPermissions,
                 limiters,
-                precompilation ? compile(method) : null);
+                precompilation ? compile(method) : null,
+                bulkhead,
+                bulkhead != null ? null : getInline(parametric));
+    }
+
+    /**
+     * 获取方法的内联执行策略
+     *
+     * @param parametric 参数
+     * @return 内联执行策略，在业务线程池中执行返回null
+     */
+    protected Inline getInline(final WrapperParametric parametric) {
+        String value = parametric.getString(DISPATCH_OPTION.getName(), dispatch);
+        if (DISPATCH_INLINE.equalsIgnoreCase(value)) {
+            return new Inline(false, 0);
+        } else if (DISPATCH_AUTO.equalsIgnoreCase(value)) {
+            return new Inline(true, parametric.getLong(DISPATCH_THRESHOLD_OPTION.getName(), dispatchThreshold) * 1000L);
+        }
+        return null;
+    }
+
+    /**
+     * 获取方法的舱壁，方法没有配置则使用接口的舱壁
+     *
+     * @param parametric 参数
+     * @return 舱壁
+     */
+    protected Bulkhead getBulkhead(final WrapperParametric parametric) {
+        Integer max = parametric.getInteger(BULKHEAD_OPTION.getName());
+        if (max == null) {
+            return bulkhead;
+        }
+        return createBulkhead(parametric.getName(), max,
+                parametric.getInteger(BULKHEAD_CORE_SIZE_OPTION.getName(), url.getInteger(BULKHEAD_CORE_SIZE_OPTION)),
+                parametric.getInteger(BULKHEAD_QUEUES_OPTION.getName(), url.getInteger(BULKHEAD_QUEUES_OPTION)));
     }
 
     /**
-     * 动态编译方法
+     * 创建舱壁
+     *
+     * @param method 方法，为空表示接口的舱壁
+     * @param max    最大线程数
+     * @param core   核心线程数
+     * @param queues 队列大小
+     * @return 舱壁，最大线程数小于等于0或者已经关闭返回null
+     */
+    protected Bulkhead createBulkhead(final String method, final int max, final int core, final int queues) {
+        if (max <= 0 || closed.get()) {
+            return null;
+        }
+        String name = EXPORTER_NAME_FUNC.apply(interfaceName, url.getString(ALIAS_OPTION))
+                + (method == null ? "" : "#" + method) + ":" + url.getPort();
+        URL config = url.add(MAX_SIZE_OPTION.getName(), max)
+                .add(CORE_SIZE_OPTION.getName(), core > 0 ? Math.min(core, max) : max)
+                .add(QUEUES_OPTION.getName(), queues);
+        Bulkhead result = new Bulkhead(name, THREAD_POOL.getOrDefault(url.getString(THREADPOOL_OPTION)).get(config,
+                new NamedThreadFactory("RPC-BH-" + name, true)));
+        bulkheads.add(result);
+        ServiceManager.addBulkhead(result);
+        return result;
+    }
+
+    /**
+     * 构造方法调用
      *
      * @param method 方法
-     * @return 动态编译
+     * @return 方法调用，失败返回null，退化成反射调用
      */
     protected MethodCaller compile(final Method method) {
-        if (method == null || compiler == null) {
+        if (method == null) {
             return null;
         }
-        String name = method.getName();
-        name = Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Caller";
-        String simpleName = interfaceClass.getSimpleName() + "$" + name;
-        String fullName = interfaceClass.getName() + "$" + name;
-        boolean isVoid = method.getReturnType() == void.class;
-        StringBuilder builder = new StringBuilder(300).
-                append("package ").append(interfaceClass.getPackage().getName()).append(";\n").
-                append("public class ").append(simpleName).append(" implements ").append(MethodCaller.class.getCanonicalName()).append("{\n").
-                append("\t").append("protected ").append(interfaceClass.getCanonicalName()).append(" ref").append(";\n").
-                append("\t").append("public ").append(simpleName).append("(").append(interfaceClass.getCanonicalName()).append(" ref").append(')').append("{\n").
-                append("\t\t").append("this.ref=ref;").append("\n").
-                append("\t}\n").
-                append("\t@SuppressWarnings(\"unchecked\")\n").
-                append("\t").append("public Object invoke(Object[] args) throws java.lang.reflect.InvocationTargetException").append("{\n").
-                append("\t\ttry{\n").
-                append("\t\t\t").append(!isVoid ? "return " : "").
-                append(Modifier.isStatic(method.getModifiers()) ? interfaceClass.getCanonicalName() : "ref").append('.').
-                append(method.getName()).append("(");
-        //参数
-        int index = 0;
-        Class<?> type;
-        for (Parameter parameter : method.getParameters()) {
-            //强制类型转换
-            type = parameter.getType();
-            builder.append(index > 0 ? "," : "").append("(").append(inbox(type).getCanonicalName()).append(")").append("args[").append(index++).append("]");
-        }
-        builder.append(");").append("\n").
-                append(isVoid ? "\t\t\treturn null;\n" : "").
-                append("\t\t}catch(Throwable e){\n").
-                append("\t\t\tthrow new java.lang.reflect.InvocationTargetException(e);\n").
-                append("\t\t}\n").
-                append("\t}\n").append("}");
         try {
-            Class<?> clazz = ClassUtils.forName(fullName, (n) -> {
-                try {
-                    return compiler.compile(n, builder);
-                } catch (Throwable e) {
-                    logger.error(e.getMessage() + " java:\n" + builder.toString());
-                    return null;
-                }
-            });
-            if (clazz == null) {
-                return null;
-            }
-            Constructor[] constructors = clazz.getConstructors();
-            return (MethodCaller) constructors[0].newInstance(ref);
-        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+            return LambdaCaller.build(method, ref);
+        } catch (IllegalAccessException | RuntimeException e) {
+            logger.error(String.format("Error occurs while building caller of %s.%s, caused by %s",
+                    interfaceName, method.getName(), e.getMessage()));
             return null;
         }
     }
@@ -227,6 +268,14 @@ public class InnerProviderOption extends AbstractInterfaceOption {
          * 动态生成的方法调用
          */
         protected MethodCaller caller;
+        /**
+         * 舱壁
+         */
+        protected Bulkhead bulkhead;
+        /**
+         * 内联执行策略
+         */
+        protected Inline inline;
 
         public InnerProviderMethodOption(final GrpcMethod grpcMethod, final GenericMethod genericMethod,
                                          final Map<String, ?> implicits, final int timeout,
@@ -235,12 +284,16 @@ public class InnerProviderOption extends AbstractInterfaceOption {
                                          final BlackWhiteList<String> methodBlackWhiteList,
                                          final Supplier<IPPermission> iPPermission,
                                          final Supplier<ClassLimiter> limiter,
-                                         final MethodCaller caller) {
+                                         final MethodCaller caller,
+                                         final Bulkhead bulkhead,
+                                         final Inline inline) {
             super(grpcMethod, genericMethod, implicits, timeout, concurrency, cachePolicy, validator, token, async, trace, callback);
             this.methodBlackWhiteList = methodBlackWhiteList;
             this.iPPermission = iPPermission;
             this.limiter = limiter;
             this.caller = caller;
+            this.bulkhead = bulkhead;
+            this.inline = inline;
         }
 
         @Override
@@ -262,6 +315,16 @@ public class InnerProviderOption extends AbstractInterfaceOption {
         public MethodCaller getCaller() {
             return caller;
         }
+
+        @Override
+        public Bulkhead getBulkhead() {
+            return bulkhead;
+        }
+
+        @Override
+        public Inline getInline() {
+            return inline;
+        }
     }
 
 }
@@ -22,6 +22,7 @@ package io.joyrpc.config.validator.standard;
 
 import io.joyrpc.config.validator.InterfaceValidator;
 import io.joyrpc.extension.Extension;
+import io.joyrpc.stream.StreamIterator;
 import io.joyrpc.util.GenericChecker;
 import io.joyrpc.util.GenericChecker.Scope;
 import io.joyrpc.util.Resource;
@@ -226,8 +227,8 @@ public class StandardValidator implements InterfaceValidator {
          * @param clazz
          */
         protected void onCustomInterface(final Class clazz, final Scope scope) {
-            //参数允许是Callback
-            if (scope == Scope.PARAMETER) {
+            //参数允许是Callback，参数和返回值允许是流
+            if (scope == Scope.PARAMETER || clazz == StreamIterator.class) {
                 return;
             }
             throw new ValidationException(String.format("The interface is not allowed at %s. %s, it may cause serialization problems.", scope.getName(), clazz.getName()));
@@ -354,6 +354,22 @@ public class Constants {
      * 应用分组
      */
     public final static String KEY_APPGROUP = "appGroup";
+    /**
+     * 方法字典，协商时传递
+     */
+    public final static String KEY_METHOD_DICTIONARY = "methodDictionary";
+    /**
+     * 参数类型省略，协商时传递
+     */
+    public final static String KEY_TYPE_ELISION = "typeElision";
+    /**
+     * 字符串表的容量，协商时传递
+     */
+    public final static String KEY_STRING_TABLE = "stringTable";
+    /**
+     * 二进制参数分离，协商时传递
+     */
+    public final static String KEY_BINARY = "binary";
     /**
      * 服务名称
      */
@@ -636,6 +652,10 @@ public class Constants {
     public static final URLOption<Boolean> VALIDATION_OPTION = new URLOption<>("validation", false);
     //默认不压缩
     public static final URLOption<String> COMPRESS_OPTION = new URLOption<>("compress", (String) null);
+    /**
+     * 校验和，为空表示不校验
+     */
+    public static final URLOption<String> CHECKSUM_OPTION = new URLOption<>("checksum", (String) null);
     /**
      * 默认候选者算法
      */
@@ -725,6 +745,33 @@ public class Constants {
     public static final URLOption<Integer> KEEP_ALIVE_TIME_OPTION = new URLOption<>("thread.keepAliveTime", 60000);
     public static final URLOption<Integer> QUEUES_OPTION = new URLOption<>("queues", 0);
     public static final URLOption<String> QUEUE_TYPE_OPTION = new URLOption<>("queueType", "normal");
+    /**
+     * 按照截止时间排序并丢弃超时和过载请求的队列类型
+     */
+    public static final String QUEUE_TYPE_DEADLINE = "deadline";
+    /**
+     * 截止时间队列的排队时间目标值(毫秒)和观察窗口(毫秒)
+     */
+    public static final URLOption<Long> QUEUE_TARGET_OPTION = new URLOption<>("queue.target", 5L);
+    public static final URLOption<Long> QUEUE_INTERVAL_OPTION = new URLOption<>("queue.interval", 100L);
+    /**
+     * 舱壁，接口或方法独占的业务线程池最大线程数，0表示使用服务的业务线程池
+     */
+    public static final URLOption<Integer> BULKHEAD_OPTION = new URLOption<>("bulkhead", 0);
+    public static final URLOption<Integer> BULKHEAD_CORE_SIZE_OPTION = new URLOption<>("bulkhead.coreSize", 0);
+    public static final URLOption<Integer> BULKHEAD_QUEUES_OPTION = new URLOption<>("bulkhead.queues", 0);
+    /**
+     * 服务端方法的分发方式，pool在业务线程池中执行，inline在IO线程中执行，auto按照执行时间自动切换。<br/>
+     * 内联需要在IO线程中不解码消息体就确定方法，只对协商了方法字典的请求生效
+     */
+    public static final String DISPATCH_POOL = "pool";
+    public static final String DISPATCH_INLINE = "inline";
+    public static final String DISPATCH_AUTO = "auto";
+    public static final URLOption<String> DISPATCH_OPTION = new URLOption<>("dispatch", DISPATCH_POOL);
+    /**
+     * 自动分发的内联阈值(微秒)，平均执行时间低于阈值的一半开始内联，超过阈值退回业务线程池
+     */
+    public static final URLOption<Long> DISPATCH_THRESHOLD_OPTION = new URLOption<>("dispatch.threshold", 50L);
 
     public static final String REGISTRY_NAME_KEY = "name";
     public static final URLOption<Boolean> REGISTRY_BACKUP_ENABLED_OPTION = new URLOption<>("reg.backupEnabled", Boolean.TRUE);
@@ -771,8 +818,60 @@ public class Constants {
      * 插件默认常量
      */
     public static final URLOption<String> CHANNEL_MANAGER_FACTORY_OPTION = new URLOption<>("channelManagerFactory", "shared");
+    /**
+     * 连接池模式下每个节点的连接数
+     */
+    public static final URLOption<Integer> CHANNEL_CONNECTIONS_OPTION = new URLOption<>("channel.connections", 4);
+    /**
+     * 连接池模式下按需创建连接，连接数为最大连接数
+     */
+    public static final URLOption<Boolean> CHANNEL_ADAPTIVE_OPTION = new URLOption<>("channel.adaptive", false);
+    /**
+     * 按需创建连接时，已有连接的最小待应答请求数达到该值才创建新的连接
+     */
+    public static final URLOption<Integer> CHANNEL_ADAPTIVE_REQUESTS_OPTION = new URLOption<>("channel.adaptive.requests", 64);
 
     public static final URLOption<Integer> PAYLOAD = new URLOption<>("payload", 8388608);
+    /**
+     * 延迟解码，IO线程只解码消息头，消息体在业务线程中反序列化
+     */
+    public static final URLOption<Boolean> LAZY_DECODE_OPTION = new URLOption<>("lazyDecode", false);
+    /**
+     * 方法字典，协商时交换方法签名和ID的映射，调用时只传输方法ID
+     */
+    public static final URLOption<Boolean> METHOD_DICTIONARY_OPTION = new URLOption<>("methodDictionary", false);
+    /**
+     * 流式调用的接收窗口，接收方消费一半后补充授信
+     */
+    public static final URLOption<Integer> STREAM_WINDOW_OPTION = new URLOption<>("stream.window", 64);
+    /**
+     * 消费者不支持流式调用时，服务端把流式结果整体返回的最大元素数量，超过则返回异常
+     */
+    public static final URLOption<Integer> STREAM_AGGREGATE_LIMIT_OPTION = new URLOption<>("stream.aggregateLimit", 10000);
+    /**
+     * 参数类型省略，协商后和声明类型一致的参数按照声明类型编码，不写入类型描述
+     */
+    public static final URLOption<Boolean> TYPE_ELISION_OPTION = new URLOption<>("typeElision", false);
+    /**
+     * 开启应答消息的对象回收，启动参数
+     */
+    public static final URLOption<Boolean> MESSAGE_RECYCLE_OPTION = new URLOption<>("message.recycle", false);
+    /**
+     * grpc消费者按照原生protobuf格式编码生成的protobuf消息，启动参数。老版本的服务端按照protostuff解码，确认服务端已经升级或者是原生grpc服务后再开启
+     */
+    public static final URLOption<Boolean> GRPC_PROTOBUF_CODEC_OPTION = new URLOption<>("grpc.protobufCodec", false);
+    /**
+     * 每个线程缓存的最大应答消息数
+     */
+    public static final URLOption<Integer> MESSAGE_RECYCLE_CAPACITY_OPTION = new URLOption<>("message.recycle.capacity", 256);
+    /**
+     * 会话级的字符串表，协商后重复出现的字符串只传输表中的序号
+     */
+    public static final URLOption<Boolean> STRING_TABLE_OPTION = new URLOption<>("stringTable", false);
+    /**
+     * 字符串表的容量，超过后按照LRU淘汰
+     */
+    public static final URLOption<Integer> STRING_TABLE_CAPACITY_OPTION = new URLOption<>("stringTable.capacity", 1024);
 
     public static final String IO_THREADS_KEY = "ioThreads";
     public static final String BOSS_THREADS_KEY = "bossThreads";
@@ -781,6 +880,19 @@ public class Constants {
     public static final String BUFFER_PREFER_DIRECT_KEY = "buffer.preferDirect";
 
     public static final URLOption<Boolean> TCP_NODELAY = new URLOption<>("tcpNoDelay", Boolean.TRUE);
+    /**
+     * 刷新合并，IO线程空闲的时候或者达到最大消息数的时候才真正刷新
+     */
+    public static final URLOption<Boolean> FLUSH_CONSOLIDATION_OPTION = new URLOption<>("flush.consolidation", Boolean.FALSE);
+    /**
+     * 刷新合并的最大消息数
+     */
+    public static final URLOption<Integer> FLUSH_MAX_MESSAGES_OPTION = new URLOption<>("flush.maxMessages", 256);
+    /**
+     * 二进制参数零拷贝的阈值，大于等于该长度的byte[]和ByteBuffer参数不经过序列化，直接追加到消息体后面，0表示不启用。<br/>
+     * 改变了消息体的格式，需要协商，对端不支持的时候按照原有格式编码
+     */
+    public static final URLOption<Integer> BINARY_THRESHOLD_OPTION = new URLOption<>("binary.threshold", 0);
     public static final String USE_EPOLL_KEY = "useEpoll";
     public static final String REUSE_PORT_KEY = "reusePort";
 
@@ -792,6 +904,10 @@ public class Constants {
     public static final URLOption<Integer> CONNECT_TIMEOUT_OPTION = new URLOption<>("connectTimeout", 5000);
     public static final URLOption<Integer> WRITE_BUFFER_HIGH_WATERMARK_OPTION = new URLOption<>("highWaterMark", DEFAULT_HIGH_WATER_MARK);
     public static final URLOption<Integer> WRITE_BUFFER_LOW_WATERMARK_OPTION = new URLOption<>("lowWaterMark", DEFAULT_LOW_WATER_MARK);
+    /**
+     * 通道不可写时的发送队列大小，超过水位线的消息先进入队列，可写后再发送，0表示不启用
+     */
+    public static final URLOption<Integer> SEND_QUEUE_SIZE_OPTION = new URLOption<>("send.queueSize", 1024);
     public static final URLOption<Integer> SO_RECEIVE_BUF_OPTION = new URLOption<>("soRevBuf", 8192 * 128);
     public static final URLOption<Integer> SO_SEND_BUF_OPTION = new URLOption<>("soSndBuf", 8192 * 128);
     public static final URLOption<Boolean> SO_KEEPALIVE_OPTION = new URLOption<>("soKeepAlive", Boolean.TRUE);
@@ -1027,4 +1143,44 @@ public class Constants {
      * 兼容老版本的网关请求
      */
     public static final Head HEAD_GENERIC = new Head((byte) 12, Byte.class);
+    /**
+     * 零拷贝的二进制参数描述，格式为"参数索引:类型:长度"，多个用逗号分隔，应答结果的索引为-1
+     */
+    public static final Head HEAD_BINARY = new Head((byte) 13, String.class);
+    /**
+     * 消息体校验和的类型
+     */
+    public static final Head HEAD_CHECKSUM_TYPE = new Head((byte) 14, Byte.class);
+    /**
+     * 消息体校验和，编码时作为最后一个扩展属性写入
+     */
+    public static final Head HEAD_CHECKSUM = new Head((byte) 15, Integer.class);
+    /**
+     * 方法字典中的方法ID
+     */
+    public static final Head HEAD_METHOD_ID = new Head((byte) 16, Short.class);
+    /**
+     * 流ID，由消费者生成
+     */
+    public static final Head HEAD_STREAM_ID = new Head((byte) 17, Integer.class);
+    /**
+     * 流的授信数量，接收方允许发送方继续发送的元素数量
+     */
+    public static final Head HEAD_STREAM_CREDIT = new Head((byte) 18, Integer.class);
+    /**
+     * 流结束标识
+     */
+    public static final Head HEAD_STREAM_END = new Head((byte) 19, Byte.class);
+    /**
+     * 流式参数的位置
+     */
+    public static final Head HEAD_STREAM_ARG = new Head((byte) 21, Byte.class);
+    /**
+     * 省略了类型描述的参数位置，按位标识
+     */
+    public static final Head HEAD_TYPE_ELISION = new Head((byte) 22, Integer.class);
+    /**
+     * 字符串表的标识
+     */
+    public static final Head HEAD_STRING_TABLE = new Head((byte) 23, Byte.class);
 }
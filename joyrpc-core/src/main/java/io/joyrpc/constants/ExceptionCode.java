@@ -145,6 +145,8 @@ public abstract class ExceptionCode {
     public static final String CODEC_IO_EXCEPTION = CODEC_PREFIX + CONFIG_LEVEL + "008";
     //编解码header格式异常
     public static final String CODEC_HEADER_FORMAT_EXCEPTION = CODEC_PREFIX + CONFIG_LEVEL + "008";
+    //消息体校验和不匹配
+    public static final String CODEC_CHECKSUM_EXCEPTION = CODEC_PREFIX + CONFIG_LEVEL + "009";
     //编解码异常
     public static final String CODEC_DEFAULT_EXCEPTION = CODEC_PREFIX + CONFIG_LEVEL + "100";
 
@@ -299,8 +299,17 @@ public class Exporter extends AbstractService {
 
     @Override
     public void setup(final RequestMessage<Invocation> request) {
+        setup(request, option.getOption(request.getPayLoad().getMethodName()));
+    }
+
+    /**
+     * 使用已经解析好的方法选项构建请求
+     *
+     * @param request 请求
+     * @param option  方法选项
+     */
+    public void setup(final RequestMessage<Invocation> request, final MethodOption option) {
         Invocation invocation = request.getPayLoad();
-        MethodOption option = this.option.getOption(invocation.getMethodName());
         //类名，如果不存在则从会话里面获取
         invocation.setClazz(interfaceClass);
         invocation.setMethod(option.getMethod());
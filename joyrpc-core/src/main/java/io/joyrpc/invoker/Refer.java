@@ -56,6 +56,8 @@ import io.joyrpc.protocol.message.Invocation;
 import io.joyrpc.protocol.message.MessageHeader;
 import io.joyrpc.protocol.message.RequestMessage;
 import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.stream.StreamManager;
+import io.joyrpc.stream.StreamManager.StreamCall;
 import io.joyrpc.transport.Client;
 import io.joyrpc.transport.Server;
 import io.joyrpc.transport.message.Message;
@@ -295,6 +297,8 @@ public class Refer extends AbstractService {
             if (request.getOption().getCallback() != null) {
                 container.addCallback(request, client);
             }
+            //流式调用，发送前注册流，避免对端数据先于注册到达
+            StreamCall stream = StreamManager.open(client.getChannel(), request, url.getPositiveInt(STREAM_WINDOW_OPTION));
             //异步发起调用
             CompletableFuture<Message> msgFuture = client.async(request, header.getTimeout());
 
@@ -305,7 +309,15 @@ public class Refer extends AbstractService {
                 if (err != null) {
                     result = new Result(request.getContext(), err, msg);
                 } else {
-                    result = buildResult(request, msg, client.getProtocol());
+                    try {
+                        //延迟解码的应答在这里反序列化，解码异常也要走异常处理和流清理
+                        result = buildResult(request, msg, client.getProtocol());
+                    } catch (Throwable e) {
+                        result = new Result(request.getContext(), e, msg);
+                    }
+                }
+                if (stream != null) {
+                    result = stream.complete(result);
                 }
                 if (result.isException()) {
                     //异常处理
@@ -44,6 +44,8 @@ import io.joyrpc.metric.DashboardAware;
 import io.joyrpc.metric.DashboardFactory;
 import io.joyrpc.protocol.ServerProtocol;
 import io.joyrpc.protocol.handler.DefaultProtocolAdapter;
+import io.joyrpc.stream.StreamIterator;
+import io.joyrpc.thread.Bulkhead;
 import io.joyrpc.thread.NamedThreadFactory;
 import io.joyrpc.thread.ThreadPool;
 import io.joyrpc.transport.Server;
@@ -120,6 +122,10 @@ public class ServiceManager {
      * 接口ID对照表，兼容老版本数据结构
      */
     protected Map<Long, String> interfaceIds = new ConcurrentHashMap<>();
+    /**
+     * 服务提供者接口和方法的舱壁
+     */
+    protected Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
 
     protected ServiceManager() {
         Shutdown.addHook(new Shutdown.HookAdapter((Shutdown.Hook) this::close, 0));
@@ -347,6 +353,47 @@ public class ServiceManager {
         return INSTANCE.callbackManager.getThreadPool();
     }
 
+    /**
+     * 获取舱壁
+     *
+     * @return 舱壁
+     */
+    public static List<Bulkhead> getBulkheads() {
+        return new ArrayList<>(INSTANCE.bulkheads.values());
+    }
+
+    /**
+     * 获取舱壁
+     *
+     * @param name 名称
+     * @return 舱壁
+     */
+    public static Bulkhead getBulkhead(final String name) {
+        return name == null ? null : INSTANCE.bulkheads.get(name);
+    }
+
+    /**
+     * 添加舱壁
+     *
+     * @param bulkhead 舱壁
+     */
+    public static void addBulkhead(final Bulkhead bulkhead) {
+        if (bulkhead != null) {
+            INSTANCE.bulkheads.put(bulkhead.getName(), bulkhead);
+        }
+    }
+
+    /**
+     * 删除舱壁
+     *
+     * @param bulkhead 舱壁
+     */
+    public static void removeBulkhead(final Bulkhead bulkhead) {
+        if (bulkhead != null) {
+            INSTANCE.bulkheads.remove(bulkhead.getName(), bulkhead);
+        }
+    }
+
     /**
      * 获取消费者回调容器
      *
@@ -527,7 +574,7 @@ public class ServiceManager {
         Set<Class<?>> registerClass = new LinkedHashSet<>();
         GenericChecker checker = new GenericChecker();
         checker.checkMethods(clazz, GenericChecker.NONE_STATIC_METHOD, (cls, scope) -> {
-            if (!cls.equals(void.class) && !CompletionStage.class.isAssignableFrom(cls)) {
+            if (!cls.equals(void.class) && !CompletionStage.class.isAssignableFrom(cls) && cls != StreamIterator.class) {
                 registerClass.add(cls);
             }
         });
@@ -20,6 +20,7 @@ package io.joyrpc.protocol;
  * #L%
  */
 
+import io.joyrpc.codec.checksum.Checksum;
 import io.joyrpc.codec.compression.AdaptiveCompressOutputStream;
 import io.joyrpc.codec.compression.Compression;
 import io.joyrpc.codec.serialization.Serialization;
@@ -29,10 +30,9 @@ import io.joyrpc.exception.LafException;
 import io.joyrpc.exception.ProtocolException;
 import io.joyrpc.exception.SerializerException;
 import io.joyrpc.protocol.Protocol.MessageConverter;
-import io.joyrpc.protocol.message.MessageHeader;
-import io.joyrpc.protocol.message.RequestMessage;
-import io.joyrpc.protocol.message.ResponseMessage;
+import io.joyrpc.protocol.message.*;
 import io.joyrpc.transport.buffer.ChannelBuffer;
+import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.codec.Codec;
 import io.joyrpc.transport.codec.DecodeContext;
 import io.joyrpc.transport.codec.EncodeContext;
@@ -40,6 +40,7 @@ import io.joyrpc.transport.codec.LengthFieldFrameCodec;
 import io.joyrpc.transport.message.Header;
 import io.joyrpc.transport.message.Message;
 import io.joyrpc.transport.session.Session;
+import io.joyrpc.transport.session.Session.RpcSession;
 import io.joyrpc.util.StringUtils;
 import io.joyrpc.util.SystemClock;
 
@@ -47,13 +48,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.function.Function;
 
+import static io.joyrpc.Plugin.CHECKSUM_SELECTOR;
 import static io.joyrpc.Plugin.COMPRESSION_SELECTOR;
 import static io.joyrpc.Plugin.SERIALIZATION_SELECTOR;
+import static io.joyrpc.constants.Constants.*;
 
 /**
  * 编码基类
@@ -66,6 +69,10 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
     protected Protocol protocol;
 
     protected HeaderLengthFrame headerLengthFrame;
+    /**
+     * 编码大小预估器
+     */
+    protected SizeEstimator estimator = new SizeEstimator();
 
     /**
      * 构造函数
@@ -170,9 +177,14 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
             header = convert(target.getHeader(), converter);
             target = convert(target, converter);
             byte[] magicCodes = protocol.getMagicCode();
-            buffer.ensureWritable(magicCodes == null ? 0 : magicCodes.length + 4 + estimateHeaderSize());
+            //按照历史大小预分配，减少序列化过程中的扩容复制
+            Object estimateKey = getEstimateKey(header, target);
+            boolean request = target.isRequest();
+            int predicted = estimator.estimate(estimateKey, request);
+            buffer.ensureWritable(Math.max(predicted, magicCodes == null ? 0 : magicCodes.length + 4 + estimateHeaderSize()));
             //编码魔法位
-            int start = buffer.writerIndex();
+            int begin = buffer.writerIndex();
+            int start = begin;
             if (magicCodes != null && magicCodes.length > 0) {
                 buffer.setBytes(start, magicCodes, 0, magicCodes.length);
                 start += magicCodes.length;
@@ -183,16 +195,54 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
             buffer.setInt(absoluteLengthOffset, 0);
             //定位到数据包长度后面
             buffer.writerIndex(headerLengthFrame.lengthFieldOffset == 0 ? start + 4 : start);
+            //压缩消息，例如用会话协商的方法ID替换方法名称和参数类型
+            Message compacted = compact(context, target, header);
+            boolean copied = compacted != null;
+            if (copied) {
+                target = compacted;
+                header = target.getHeader();
+            }
+            //分离大的二进制参数，不经过序列化
+            Binaries binaries = detach(context, target, header);
+            if (binaries != null) {
+                copied = true;
+                target = binaries.message;
+                header = target.getHeader();
+            }
+            //校验和，先写入占位的扩展属性
+            Checksum checksum = getChecksum(context, header);
+            if (checksum != null) {
+                MessageHeader messageHeader = copied ? (MessageHeader) header : copy((MessageHeader) header);
+                messageHeader.addAttribute(HEAD_CHECKSUM_TYPE, checksum.getTypeId());
+                messageHeader.addAttribute(HEAD_CHECKSUM, 0);
+                header = messageHeader;
+            }
             //编码数据头
             int compress = encodeHeader(buffer, header);
+            //校验和是最后一个扩展属性
+            int checksumIndex = buffer.writerIndex() - 4;
+            int payloadIndex = buffer.writerIndex();
             //编码数据包
             if (target.getPayLoad() != null) {
                 //编码消息体
                 encodePayload(context, buffer, target, compress);
             }
-            int length = buffer.writerIndex() - start;
+            int payloadEnd = buffer.writerIndex();
+            int length = payloadEnd - start;
+            if (binaries != null) {
+                //二进制数据追加到消息体后面，支持零拷贝的缓冲区不会复制数据
+                for (ByteBuffer binary : binaries.buffers) {
+                    buffer.append(binary);
+                }
+                length += binaries.length;
+            }
+            if (checksum != null) {
+                buffer.setInt(checksumIndex, (int) checksum.compute(getChecksumBuffers(buffer, payloadIndex, payloadEnd, binaries)));
+            }
             header.setLength(length);
             buffer.setInt(absoluteLengthOffset, headerLengthFrame.lengthCompute + length);
+            //追加的二进制数据不占用缓冲区
+            estimator.update(estimateKey, request, predicted, payloadEnd - begin);
         } catch (CodecException e) {
             e.setHeader(header == null ? target.getHeader() : header);
             throw e;
@@ -203,6 +253,51 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
         }
     }
 
+    @Override
+    public int estimate(final EncodeContext context, final Object message) {
+        if (!(message instanceof Message)) {
+            return 0;
+        }
+        Message target = (Message) message;
+        return estimator.estimate(getEstimateKey(target.getHeader(), target), target.isRequest());
+    }
+
+    /**
+     * 获取大小预估的键，业务请求和应答都按照方法
+     *
+     * @param header  消息头
+     * @param message 消息
+     * @return 键，不需要预估返回null
+     */
+    protected Object getEstimateKey(final Header header, final Message message) {
+        MsgType type = header == null ? null : MsgType.valueOf((byte) header.getMsgType());
+        if (type == null) {
+            return null;
+        }
+        Object payload;
+        switch (type) {
+            case BizReq:
+            case CallbackReq:
+                payload = message.getPayLoad();
+                return payload instanceof Invocation ? ((Invocation) payload).getMethod() : null;
+            case BizResp:
+            case CallbackResp:
+                payload = message.getPayLoad();
+                return payload instanceof ResponsePayload ? ((ResponsePayload) payload).getMethod() : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 获取编码大小预估器
+     *
+     * @return 编码大小预估器
+     */
+    public SizeEstimator getEstimator() {
+        return estimator;
+    }
+
     /**
      * 最小的头部大小
      *
@@ -237,7 +332,7 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
         buffer.writerIndex(start + 17);
         //编码扩展属性
         MessageHeader messageHeader = (MessageHeader) header;
-        encodeAttributes(buffer, messageHeader.getAttributes());
+        encodeAttributes(buffer, messageHeader.getHeaderAttributes());
         int headLength = buffer.writerIndex() - start;
         header.setHeaderLength((short) headLength);
         // 替换head长度的两位
@@ -251,51 +346,65 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
      * @param buffer     缓冲区
      * @param attributes 属性
      */
-    protected void encodeAttributes(final ChannelBuffer buffer, final Map<Byte, Object> attributes) {
+    protected void encodeAttributes(final ChannelBuffer buffer, final HeaderAttributes attributes) {
         int size = attributes == null ? 0 : attributes.size();
         int pos = buffer.writerIndex();
         buffer.setByte(pos++, size);
         if (size > 0) {
             byte key;
-            Object val;
-            for (Map.Entry<Byte, Object> attr : attributes.entrySet()) {
-                key = attr.getKey();
-                val = attr.getValue();
-                if (val != null) {
-                    if (val instanceof Integer) {
+            int checksum = -1;
+            for (int i = 0; i < size; i++) {
+                key = attributes.keyAt(i);
+                if (key == HEAD_CHECKSUM.getKey() && attributes.typeAt(i) == HeaderAttributes.INT) {
+                    //校验和最后写入，便于编码完消息体后回填
+                    checksum = i;
+                    continue;
+                }
+                switch (attributes.typeAt(i)) {
+                    case HeaderAttributes.INT:
                         buffer.ensureWritable(6);
                         buffer.setByte(pos++, key);
-                        buffer.setByte(pos++, (byte) 1);
-                        buffer.setInt(pos, (Integer) val);
+                        buffer.setByte(pos++, HeaderAttributes.INT);
+                        buffer.setInt(pos, attributes.intAt(i));
                         pos += 4;
-                    } else if (val instanceof String) {
-                        byte[] bytes = ((String) val).getBytes(StandardCharsets.UTF_8);
+                        break;
+                    case HeaderAttributes.STRING:
+                        byte[] bytes = attributes.bytesAt(i);
                         int length = bytes.length;
                         buffer.ensureWritable(4 + length);
                         buffer.setByte(pos++, key);
-                        buffer.setByte(pos++, (byte) 2);
+                        buffer.setByte(pos++, HeaderAttributes.STRING);
                         buffer.setShort(pos, length);
                         pos += 2;
                         if (length > 0) {
                             buffer.setBytes(pos, bytes, 0, length);
-                            pos += bytes.length;
+                            pos += length;
                         }
-                    } else if (val instanceof Byte) {
+                        break;
+                    case HeaderAttributes.BYTE:
                         buffer.ensureWritable(3);
                         buffer.setByte(pos++, key);
-                        buffer.setByte(pos++, (byte) 3);
-                        buffer.setByte(pos++, (Byte) val);
-                    } else if (val instanceof Short) {
+                        buffer.setByte(pos++, HeaderAttributes.BYTE);
+                        buffer.setByte(pos++, attributes.intAt(i));
+                        break;
+                    case HeaderAttributes.SHORT:
                         buffer.ensureWritable(4);
                         buffer.setByte(pos++, key);
-                        buffer.setByte(pos++, (byte) 4);
-                        buffer.setShort(pos, (Short) val);
+                        buffer.setByte(pos++, HeaderAttributes.SHORT);
+                        buffer.setShort(pos, attributes.intAt(i));
                         pos += 2;
-                    } else {
+                        break;
+                    default:
                         throw new CodecException("Value of attrs in message header must be byte/short/int/string", ExceptionCode.CODEC_HEADER_FORMAT_EXCEPTION);
-                    }
                 }
             }
+            if (checksum >= 0) {
+                buffer.ensureWritable(6);
+                buffer.setByte(pos++, HEAD_CHECKSUM.getKey());
+                buffer.setByte(pos++, HeaderAttributes.INT);
+                buffer.setInt(pos, attributes.intAt(checksum));
+                pos += 4;
+            }
         }
         buffer.writerIndex(pos);
     }
@@ -338,6 +447,262 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
         serialize(serialization, buffer.outputStream(), message, context);
     }
 
+    /**
+     * 获取协商的校验和，优先取消息头中的设置，否则取会话中的设置
+     *
+     * @param context 上下文
+     * @param header  消息头
+     * @return 校验和，不需要校验返回null
+     */
+    protected Checksum getChecksum(final EncodeContext context, final Header header) {
+        if (!(header instanceof MessageHeader)) {
+            return null;
+        }
+        byte type = header.getChecksum();
+        if (type == Checksum.NONE) {
+            Session session = getSession(context, header);
+            type = session == null ? Checksum.NONE : session.getChecksumType();
+        }
+        return type == Checksum.NONE ? null : CHECKSUM_SELECTOR.select(type);
+    }
+
+    /**
+     * 获取编码消息的会话
+     *
+     * @param context 上下文
+     * @param header  消息头
+     * @return 会话
+     */
+    protected Session getSession(final EncodeContext context, final Header header) {
+        Session result = header.getSession();
+        if (result == null && header.getSessionId() > 0 && context.getChannel() != null) {
+            //应答消息头没有会话
+            result = context.getChannel().getSession(header.getSessionId());
+        }
+        return result;
+    }
+
+    /**
+     * 获取参与校验和计算的缓冲区，包括消息体和追加的二进制数据
+     *
+     * @param buffer     缓冲区
+     * @param payloadIndex 消息体开始位置
+     * @param payloadEnd   消息体结束位置
+     * @param binaries     二进制数据
+     * @return 缓冲区数组
+     */
+    protected ByteBuffer[] getChecksumBuffers(final ChannelBuffer buffer, final int payloadIndex, final int payloadEnd,
+                                              final Binaries binaries) {
+        ByteBuffer[] result = new ByteBuffer[binaries == null ? 1 : binaries.buffers.size() + 1];
+        result[0] = buffer.toByteBuffer(payloadIndex, payloadEnd - payloadIndex);
+        if (binaries != null) {
+            int i = 1;
+            for (ByteBuffer binary : binaries.buffers) {
+                result[i++] = binary;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 校验消息体，包括追加的二进制数据
+     *
+     * @param buffer 缓冲区
+     * @param header 消息头
+     */
+    protected void verify(final ChannelBuffer buffer, final MessageHeader header) {
+        Object value = header.getAttribute(HEAD_CHECKSUM);
+        Object type = header.getAttribute(HEAD_CHECKSUM_TYPE);
+        if (!(value instanceof Integer) || !(type instanceof Byte)) {
+            return;
+        }
+        Checksum checksum = CHECKSUM_SELECTOR.select((Byte) type);
+        if (checksum == null) {
+            //没有该校验和插件
+            return;
+        }
+        int actual = (int) checksum.compute(buffer.toByteBuffer(buffer.readerIndex(), buffer.readableBytes()));
+        if (actual != (Integer) value) {
+            throw new CodecException(String.format("Error occurs while decoding. checksum %d is not match %d, the payload is corrupted.",
+                    actual, value), ExceptionCode.CODEC_CHECKSUM_EXCEPTION);
+        }
+    }
+
+    /**
+     * 获取二进制参数零拷贝的阈值，只对业务消息生效，由通道的配置决定，并且会话要协商了二进制参数分离
+     *
+     * @param context 上下文
+     * @param header  消息头
+     * @return 阈值，小于等于0表示不启用
+     */
+    protected int getBinaryThreshold(final EncodeContext context, final Header header) {
+        MsgType type = MsgType.valueOf((byte) header.getMsgType());
+        if (type == null || !(header instanceof MessageHeader)) {
+            return 0;
+        }
+        switch (type) {
+            case BizReq:
+            case BizResp:
+            case CallbackReq:
+            case CallbackResp:
+                Channel channel = context.getChannel();
+                Integer threshold = channel == null ? null : channel.getAttribute(Channel.BINARY_THRESHOLD);
+                if (threshold == null || threshold <= 0) {
+                    return 0;
+                }
+                //改变了消息体的格式，对端不支持则按照原有格式编码
+                Session session = getSession(context, header);
+                return session instanceof RpcSession && ((RpcSession) session).isBinary() ? threshold : 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 分离大的二进制参数或结果，返回替换后的消息，原有消息不做修改
+     *
+     * @param context 上下文
+     * @param message 消息
+     * @param header  消息头
+     * @return 分离的二进制数据，没有则返回null
+     */
+    protected Binaries detach(final EncodeContext context, final Message message, final Header header) {
+        int threshold = getBinaryThreshold(context, header);
+        if (threshold <= 0) {
+            return null;
+        }
+        Object payload = message.getPayLoad();
+        Binaries result = null;
+        if (payload instanceof Invocation) {
+            Invocation invocation = (Invocation) payload;
+            Object[] args = invocation.getArgs();
+            Object[] copies = null;
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) {
+                    if (isBinary(args[i], threshold)) {
+                        if (result == null) {
+                            result = new Binaries();
+                            copies = args.clone();
+                        }
+                        result.add(i, args[i]);
+                        copies[i] = null;
+                    }
+                }
+            }
+            if (result != null) {
+                result.message = new RequestMessage<>(result.header((MessageHeader) header), invocation.copy(copies));
+            }
+        } else if (payload instanceof ResponsePayload) {
+            ResponsePayload response = (ResponsePayload) payload;
+            if (response.getException() == null && isBinary(response.getResponse(), threshold)) {
+                result = new Binaries();
+                result.add(-1, response.getResponse());
+                result.message = new ResponseMessage<>(result.header((MessageHeader) header),
+                        new ResponsePayload(null, null, response.getType()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 编码前压缩消息，返回替换后的消息，原有消息和消息头不做修改
+     *
+     * @param context 上下文
+     * @param message 消息
+     * @param header  消息头
+     * @return 替换后的消息，不需要压缩返回null
+     */
+    protected Message compact(final EncodeContext context, final Message message, final Header header) {
+        return null;
+    }
+
+    /**
+     * 判断是否是需要零拷贝的二进制数据
+     *
+     * @param value     值
+     * @param threshold 阈值
+     * @return 二进制标识
+     */
+    protected boolean isBinary(final Object value, final int threshold) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length >= threshold;
+        } else if (value instanceof ByteBuffer) {
+            return ((ByteBuffer) value).remaining() >= threshold;
+        }
+        return false;
+    }
+
+    /**
+     * 把消息体后面的二进制数据恢复到参数或结果中，数据只从缓冲区复制一次
+     *
+     * @param buffer   缓冲区
+     * @param payload  消息体
+     * @param binaries 二进制数据描述
+     */
+    protected void restore(final ChannelBuffer buffer, final Object payload, final String binaries) {
+        Object[] args = payload instanceof Invocation ? ((Invocation) payload).getArgs() : null;
+        int index;
+        byte[] bytes;
+        for (String binary : StringUtils.split(binaries, ',')) {
+            String[] parts = StringUtils.split(binary, ':');
+            index = Integer.parseInt(parts[0]);
+            bytes = new byte[Integer.parseInt(parts[2])];
+            buffer.readBytes(bytes);
+            Object value = Binaries.BYTE_BUFFER.equals(parts[1]) ? ByteBuffer.wrap(bytes) : bytes;
+            if (index < 0) {
+                if (payload instanceof ResponsePayload) {
+                    ((ResponsePayload) payload).setResponse(value);
+                }
+            } else if (args != null && index < args.length) {
+                args[index] = value;
+            }
+        }
+    }
+
+    /**
+     * 计算二进制数据的总长度
+     *
+     * @param binaries 二进制数据描述
+     * @return 总长度
+     */
+    protected int getBinaryLength(final String binaries) {
+        int result = 0;
+        for (String binary : StringUtils.split(binaries, ',')) {
+            result += Integer.parseInt(StringUtils.split(binary, ':')[2]);
+        }
+        return result;
+    }
+
+    /**
+     * 反序列化消息体，并恢复追加在后面的二进制数据
+     *
+     * @param buffer        缓冲区
+     * @param serialization 序列化
+     * @param compression   压缩
+     * @param type          类型
+     * @param header        头
+     * @param context       上下文
+     * @return 消息体
+     */
+    protected Object deserialize(final ChannelBuffer buffer, final Serialization serialization, final Compression compression,
+                                 final Class type, final MessageHeader header, final DecodeContext context) throws IOException {
+        //校验和
+        verify(buffer, header);
+        Object binaries = header.getAttribute(HEAD_BINARY);
+        ChannelBuffer payloadBuffer = buffer;
+        if (binaries instanceof String) {
+            //消息体后面是二进制数据，限定反序列化的范围
+            payloadBuffer = buffer.readSlice(buffer.readableBytes() - getBinaryLength((String) binaries));
+        }
+        InputStream inputStream = payloadBuffer.inputStream();
+        inputStream = compression == null ? inputStream : compression.decompress(inputStream);
+        Object result = deserialize(serialization, inputStream, type, header, context);
+        if (binaries instanceof String) {
+            restore(buffer, result, (String) binaries);
+        }
+        return result;
+    }
+
     /**
      * 编码阶段根据协议和序列化对消息体进行调整
      *
@@ -438,7 +803,7 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
             if (msgType.isRequest()) {
                 return new RequestMessage<>(msgHeader);
             } else {
-                return new ResponseMessage<>(msgHeader);
+                return ResponseMessage.create(msgHeader, null);
             }
         }
 
@@ -447,25 +812,62 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
             throw new CodecException(String.format("Error occurs while decoding. unknown serialization type %d!", header.getSerialization()), ExceptionCode.CODEC_SERIALIZER_EXCEPTION);
         }
         Compression compression = COMPRESSION_SELECTOR.select(header.getCompression());
-        InputStream inputStream = buffer.inputStream();
-        inputStream = compression == null ? inputStream : compression.decompress(inputStream);
         Class payloadClass = getPayloadClass(header, msgType);
-
+        //使用字符串表的消息必须在IO线程上按照顺序解码
+        if (payloadClass != null && msgHeader.getAttribute(HEAD_STRING_TABLE) == null && isLazyDecode(context, msgType)) {
+            //延迟解码，持有消息体缓冲区，由业务线程进行反序列化
+            BaseMessage<Object> message;
+            if (msgType.isRequest()) {
+                RequestMessage<Object> request = new RequestMessage<>(msgHeader);
+                request.setReceiveTime(SystemClock.now());
+                message = request;
+            } else {
+                message = ResponseMessage.create(msgHeader, null);
+            }
+            message.setDecoder(new LazyPayloadDecoder(buffer.readRetainedSlice(buffer.readableBytes()),
+                    serialization, compression, payloadClass, msgHeader, context));
+            return message;
+        }
         //TODO 尽量拿到当前类型来进行反序列化
-        Object payload = payloadClass == null ? null : deserialize(serialization, inputStream, payloadClass, msgHeader, context);
+        Object payload = payloadClass == null ? null : deserialize(buffer, serialization, compression, payloadClass, msgHeader, context);
         if (msgType.isRequest()) {
             RequestMessage request = new RequestMessage(msgHeader, payload);
             request.setReceiveTime(SystemClock.now());
             adjustDecode(request, serialization);
             return request;
         } else {
-            ResponseMessage<Object> response = new ResponseMessage<>(msgHeader, payload);
+            ResponseMessage<Object> response = ResponseMessage.create(msgHeader, payload);
             adjustDecode(response, serialization);
             return response;
         }
 
     }
 
+    /**
+     * 是否延迟解码消息体，只对业务消息生效，由通道的配置决定
+     *
+     * @param context 上下文
+     * @param type    消息类型
+     * @return 延迟解码标识
+     */
+    protected boolean isLazyDecode(final DecodeContext context, final MsgType type) {
+        switch (type) {
+            case BizReq:
+            case BizResp:
+            case CallbackReq:
+            case CallbackResp:
+                //有消息转换器的时候需要立即解码
+                MessageConverter converter = protocol.inMessage();
+                if (converter != null && converter.message() != null) {
+                    return false;
+                }
+                Channel channel = context.getChannel();
+                return channel != null && Boolean.TRUE.equals(channel.getAttribute(Channel.LAZY_DECODE));
+            default:
+                return false;
+        }
+    }
+
     /**
      * 反序列化
      *
@@ -480,6 +882,20 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
         return serialization.getSerializer().deserialize(is, type);
     }
 
+    /**
+     * 复制消息头和扩展属性，避免修改原有消息头
+     *
+     * @param header 消息头
+     * @return 新的消息头
+     */
+    protected static MessageHeader copy(final MessageHeader header) {
+        MessageHeader result = header.clone();
+        result.setSession(header.getSession());
+        HeaderAttributes attributes = header.getHeaderAttributes();
+        result.setAttributes(attributes == null ? null : attributes.copy());
+        return result;
+    }
+
     /**
      * 解码后根据协议和序列化进行消息调整
      *
@@ -507,29 +923,29 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
      * @param buffer 缓冲区
      * @return 扩展属性
      */
-    protected Map<Byte, Object> decodeAttributes(final ChannelBuffer buffer) {
+    protected HeaderAttributes decodeAttributes(final ChannelBuffer buffer) {
         byte size = buffer.readByte();
         if (size <= 0) {
             return null;
         }
-        Map<Byte, Object> attributes = new HashMap<>(size);
+        HeaderAttributes attributes = new HeaderAttributes(size);
         byte key;
         byte type;
         for (int i = 0; i < size; i++) {
             key = buffer.readByte();
             type = buffer.readByte();
             switch (type) {
-                case 1:
-                    attributes.put(key, buffer.readInt());
+                case HeaderAttributes.INT:
+                    attributes.putInt(key, buffer.readInt());
                     break;
-                case 2:
-                    attributes.put(key, buffer.readString(null, true));
+                case HeaderAttributes.STRING:
+                    attributes.putString(key, HeaderAttributes.Strings.decode(buffer, buffer.readShort()));
                     break;
-                case 3:
-                    attributes.put(key, buffer.readByte());
+                case HeaderAttributes.BYTE:
+                    attributes.putByte(key, buffer.readByte());
                     break;
-                case 4:
-                    attributes.put(key, buffer.readShort());
+                case HeaderAttributes.SHORT:
+                    attributes.putShort(key, buffer.readShort());
                     break;
                 default:
                     throw new CodecException("Value of attrs in message header must be byte/short/int/string", ExceptionCode.CODEC_HEADER_FORMAT_EXCEPTION);
@@ -544,6 +960,148 @@ public abstract class AbstractCodec implements Codec, LengthFieldFrameCodec {
         return new LengthFieldFrame(2, 4, -4, 2);
     }
 
+    /**
+     * 延迟解码器，持有引用计数的消息体切片
+     */
+    protected class LazyPayloadDecoder implements PayloadDecoder {
+        /**
+         * 消息体缓冲区
+         */
+        protected ChannelBuffer buffer;
+        /**
+         * 序列化
+         */
+        protected Serialization serialization;
+        /**
+         * 压缩
+         */
+        protected Compression compression;
+        /**
+         * 消息体类型
+         */
+        protected Class type;
+        /**
+         * 消息头
+         */
+        protected MessageHeader header;
+        /**
+         * 上下文
+         */
+        protected DecodeContext context;
+
+        /**
+         * 构造函数
+         *
+         * @param buffer        消息体缓冲区
+         * @param serialization 序列化
+         * @param compression   压缩
+         * @param type          消息体类型
+         * @param header        消息头
+         * @param context       上下文
+         */
+        public LazyPayloadDecoder(final ChannelBuffer buffer, final Serialization serialization,
+                                  final Compression compression, final Class type,
+                                  final MessageHeader header, final DecodeContext context) {
+            this.buffer = buffer;
+            this.serialization = serialization;
+            this.compression = compression;
+            this.type = type;
+            this.header = header;
+            this.context = context;
+        }
+
+        @Override
+        public void decode(final BaseMessage<?> message) {
+            try {
+                ((Message) message).setPayLoad(deserialize(buffer, serialization, compression, type, header, context));
+                adjustDecode(message, serialization);
+            } catch (CodecException e) {
+                e.setHeader(header);
+                throw e;
+            } catch (Exception e) {
+                CodecException ce = toCodecException("Error occurs while decoding.", e);
+                ce.setHeader(header);
+                throw ce;
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public void release() {
+            if (!buffer.isReleased()) {
+                buffer.release();
+            }
+        }
+    }
+
+    /**
+     * 分离的二进制数据
+     */
+    protected static class Binaries {
+        /**
+         * byte[]类型
+         */
+        protected static final String BYTES = "b";
+        /**
+         * ByteBuffer类型
+         */
+        protected static final String BYTE_BUFFER = "n";
+        /**
+         * 替换后的消息
+         */
+        protected Message message;
+        /**
+         * 二进制数据
+         */
+        protected List<ByteBuffer> buffers = new LinkedList<>();
+        /**
+         * 描述
+         */
+        protected StringBuilder builder = new StringBuilder();
+        /**
+         * 总长度
+         */
+        protected int length;
+
+        /**
+         * 添加二进制数据
+         *
+         * @param index 参数索引，-1表示应答结果
+         * @param value 值
+         */
+        protected void add(final int index, final Object value) {
+            ByteBuffer buffer;
+            String type;
+            if (value instanceof byte[]) {
+                buffer = ByteBuffer.wrap((byte[]) value);
+                type = BYTES;
+            } else {
+                buffer = ((ByteBuffer) value).duplicate();
+                type = BYTE_BUFFER;
+            }
+            int size = buffer.remaining();
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(index).append(':').append(type).append(':').append(size);
+            buffers.add(buffer);
+            length += size;
+        }
+
+        /**
+         * 构造新的消息头，添加二进制数据描述
+         *
+         * @param header 消息头
+         * @return 新的消息头
+         */
+        protected MessageHeader header(final MessageHeader header) {
+            MessageHeader result = copy(header);
+            result.addAttribute(HEAD_BINARY, builder.toString());
+            return result;
+        }
+    }
+
     /**
      * header 长度字段信息
      */
@@ -40,6 +40,7 @@ import java.util.function.Consumer;
 
 import static io.joyrpc.Plugin.COMPRESSION;
 import static io.joyrpc.Plugin.SERIALIZATION;
+import static io.joyrpc.Plugin.SERIALIZATION_SELECTOR;
 import static io.joyrpc.util.StringUtils.SEMICOLON_COMMA_WHITESPACE;
 import static io.joyrpc.util.StringUtils.split;
 
@@ -228,6 +229,18 @@ public abstract class AbstractHttpHandler implements ChannelHandler {
         return result == null ? defSerial : result;
     }
 
+    /**
+     * 根据类型获取序列化
+     *
+     * @param type      序列化类型
+     * @param defSerial 默认序列化
+     * @return 序列化
+     */
+    protected Serialization getSerialization(final byte type, final Serialization defSerial) {
+        Serialization result = SERIALIZATION_SELECTOR.select(type);
+        return result == null ? defSerial : result;
+    }
+
     /**
      * 获取超时时间
      *
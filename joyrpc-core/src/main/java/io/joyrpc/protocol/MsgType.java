@@ -72,7 +72,11 @@ public enum MsgType {
     /**
      * 认证应答
      */
-    AuthenticationResp((byte) 18, false, AuthenticationResponse.class);
+    AuthenticationResp((byte) 18, false, AuthenticationResponse.class),
+    // 流数据消息，双向
+    StreamData((byte) 19, true, ResponsePayload.class),
+    // 流授信消息，双向
+    StreamCredit((byte) 20, true);
 
     /**
      * 类型
@@ -141,6 +145,10 @@ public enum MsgType {
                 return AuthenticationReq;
             case 18:
                 return AuthenticationResp;
+            case 19:
+                return StreamData;
+            case 20:
+                return StreamCredit;
             default:
                 return null;
         }
@@ -0,0 +1,187 @@
+package io.joyrpc.protocol;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 编码大小预估器，按照方法分别统计请求和应答编码后大小的移动平均值，用于预分配缓冲区。<br/>
+ * 统计数据通过ClassValue挂在类上，不会阻止应用的类加载器在重新部署后被回收。
+ */
+public class SizeEstimator {
+
+    /**
+     * 最大预估大小，避免个别大包导致预分配过多内存
+     */
+    protected static final int MAX_ESTIMATE = 1 << 20;
+    /**
+     * 对齐大小
+     */
+    protected static final int ALIGNMENT = 64;
+
+    /**
+     * 请求的预估大小，挂在方法的声明类上
+     */
+    protected final ClassValue<Map<Method, Estimate>> requests = new ClassValue<Map<Method, Estimate>>() {
+        @Override
+        protected Map<Method, Estimate> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    /**
+     * 应答的预估大小，挂在方法的声明类上。返回相同类型（如List、Map）的方法大小差异很大，不能按照返回类型统计
+     */
+    protected final ClassValue<Map<Method, Estimate>> responses = new ClassValue<Map<Method, Estimate>>() {
+        @Override
+        protected Map<Method, Estimate> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    /**
+     * 命中次数，实际大小没有超过预估大小
+     */
+    protected final LongAdder hits = new LongAdder();
+    /**
+     * 未命中次数
+     */
+    protected final LongAdder misses = new LongAdder();
+
+    /**
+     * 获取预估大小
+     *
+     * @param key     键，方法
+     * @param request 请求标识
+     * @return 预估大小，没有统计数据返回0
+     */
+    public int estimate(final Object key, final boolean request) {
+        Estimate estimate = get(key, request, false);
+        return estimate == null ? 0 : estimate.predict();
+    }
+
+    /**
+     * 更新实际大小
+     *
+     * @param key       键，方法
+     * @param request   请求标识
+     * @param predicted 编码前的预估大小
+     * @param actual    实际大小
+     */
+    public void update(final Object key, final boolean request, final int predicted, final int actual) {
+        Estimate estimate = get(key, request, true);
+        if (estimate == null) {
+            return;
+        }
+        if (predicted > 0) {
+            if (actual <= predicted) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        estimate.update(actual);
+    }
+
+    /**
+     * 获取预估值
+     *
+     * @param key     键
+     * @param request 请求标识
+     * @param create  不存在是否创建
+     * @return 预估值
+     */
+    protected Estimate get(final Object key, final boolean request, final boolean create) {
+        if (!(key instanceof Method)) {
+            return null;
+        }
+        Method method = (Method) key;
+        Map<Method, Estimate> estimates = (request ? requests : responses).get(method.getDeclaringClass());
+        return create ? estimates.computeIfAbsent(method, k -> new Estimate()) : estimates.get(method);
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 命中率，没有预估返回0
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 预估值，指数加权移动平均，并发更新不加锁，丢失个别样本不影响结果
+     */
+    protected static class Estimate {
+        /**
+         * 平均大小，放大8倍保存，避免整数除法丢失精度，0表示还没有样本
+         */
+        protected volatile int scaled;
+        /**
+         * 最近的最大值，逐步衰减
+         */
+        protected volatile int peak;
+
+        /**
+         * 更新
+         *
+         * @param size 大小
+         */
+        public void update(final int size) {
+            int value = Math.max(Math.min(size, MAX_ESTIMATE), 1);
+            if (peak == 0) {
+                //第一个样本
+                scaled = value << 3;
+                peak = value;
+                return;
+            }
+            //平均值权重1/8
+            int s = scaled;
+            scaled = s + value - (s >> 3);
+            //峰值每次衰减1/16，包大小稳定时收敛到平均值附近
+            int p = peak;
+            peak = value >= p ? value : p - ((p - value) >> 4);
+        }
+
+        /**
+         * 预测大小
+         *
+         * @return 预测大小
+         */
+        public int predict() {
+            int average = scaled >> 3;
+            int result = Math.max(peak, average + (average >> 3));
+            //按照对齐大小向上取整
+            return Math.min((result + ALIGNMENT - 1) & -ALIGNMENT, MAX_ESTIMATE);
+        }
+    }
+}
@@ -22,6 +22,10 @@ package io.joyrpc.protocol.handler;
 
 import io.joyrpc.Result;
 import io.joyrpc.codec.compression.Compression;
+import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.config.InterfaceOption.Inline;
+import io.joyrpc.config.InterfaceOption.MethodOption;
+import io.joyrpc.config.InterfaceOption.ProviderMethodOption;
 import io.joyrpc.constants.ExceptionCode;
 import io.joyrpc.context.RequestContext;
 import io.joyrpc.context.injection.RespInjection;
@@ -33,6 +37,11 @@ import io.joyrpc.protocol.MessageHandler;
 import io.joyrpc.protocol.MsgType;
 import io.joyrpc.protocol.ServerProtocol;
 import io.joyrpc.protocol.message.*;
+import io.joyrpc.stream.InboundStream;
+import io.joyrpc.stream.OutboundStream;
+import io.joyrpc.stream.StreamIterator;
+import io.joyrpc.stream.StreamManager;
+import io.joyrpc.thread.Bulkhead;
 import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.channel.ChannelContext;
 import io.joyrpc.transport.session.Session;
@@ -43,12 +52,17 @@ import io.joyrpc.util.network.Ipv4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static io.joyrpc.Plugin.RESPONSE_INJECTION;
+import static io.joyrpc.Plugin.SERIALIZATION_SELECTOR;
 import static io.joyrpc.Plugin.TRANSMIT;
+import static io.joyrpc.constants.Constants.*;
 import static io.joyrpc.constants.ExceptionCode.PROVIDER_TASK_SESSION_EXPIRED;
 import static io.joyrpc.util.StringUtils.isEmpty;
 
@@ -84,13 +98,19 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
             // 客户端已经超时的请求
             logger.warn(ExceptionCode.format(ExceptionCode.PROVIDER_DISCARD_TIMEOUT_MESSAGE)
                     + "Discard request cause by timeout after receive the msg: {}", request.getHeader());
+            //释放延迟解码的缓冲区
+            request.release();
             return;
-        } else if (!channel.isWritable()) {
-            //channel不可写，丢弃消息
-            logger.error(String.format("Discard request, because client is sending too fast, causing channel is not writable. at %s : %s",
+        } else if (!channel.isSendable()) {
+            //channel不可写并且发送队列已满，丢弃消息
+            logger.error(String.format("Discard request, because client is sending too fast, causing channel is not writable and send queue is full. at %s : %s",
                     Channel.toString(channel), request.getHeader()));
+            request.release();
             return;
         }
+        final long start = System.nanoTime();
+        //延迟解码的消息体在业务线程中反序列化，内联执行的则在IO线程中，异常由RequestChannelHandler统一处理
+        request.decode();
 
         //绑定上下文
         request.setContext(RequestContext.getContext());
@@ -98,10 +118,14 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
         try {
             //从会话恢复
             exporter = restore(request, channel);
-            final Exporter service = exporter;
-            //执行调用，包括过滤器链
-            exporter.invoke(request).whenComplete((r, throwable) -> onComplete(r, throwable, request, service, channel));
-
+            Bulkhead bulkhead = ((ProviderMethodOption) request.getOption()).getBulkhead();
+            if (bulkhead == null) {
+                invoke(request, exporter, channel, start);
+            } else {
+                //切换到接口或方法独占的线程池执行
+                final Exporter service = exporter;
+                bulkhead.execute(() -> request.restore(() -> invoke(request, service, channel, start)));
+            }
         } catch (ClassNotFoundException e) {
             sendException(channel, new RpcException(error(request.getPayLoad(), channel, e.getMessage())), request, null);
         } catch (LafException e) {
@@ -114,6 +138,95 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
         }
     }
 
+    @Override
+    public boolean inline(final ChannelContext context, final Message message) {
+        //只有通过会话的方法字典才能在不解码消息体的情况下确定方法
+        Session session = message.getSession();
+        if (!(message instanceof RequestMessage) || !(session instanceof ServerSession)) {
+            return false;
+        }
+        Short methodId = ((RequestMessage<?>) message).getHeader().getAttribute(HEAD_METHOD_ID.getKey(), (Short) null);
+        if (methodId == null) {
+            return false;
+        }
+        MethodDictionary dictionary = ((ServerSession) session).getMethodDictionary();
+        String methodName = dictionary == null ? null : dictionary.getMethodName(methodId);
+        Exporter exporter = methodName == null ? null : (Exporter) ((ServerSession) session).getProvider();
+        if (exporter == null) {
+            return false;
+        }
+        //字典里的方法在服务端可能不存在，交给业务线程池处理并应答异常
+        MethodOption option = getOption(exporter, dictionary, methodId);
+        Inline inline = option instanceof ProviderMethodOption ? ((ProviderMethodOption) option).getInline() : null;
+        return inline != null && inline.isEnabled();
+    }
+
+    @Override
+    public boolean sheddable(final ChannelContext context, final Message message) {
+        //只有业务请求能在排队超时或者过载的时候应答，其它消息按照到达顺序处理
+        return message instanceof RequestMessage;
+    }
+
+    @Override
+    public void discard(final ChannelContext context, final Message message, final boolean expired) {
+        if (!(message instanceof RequestMessage)) {
+            return;
+        }
+        RequestMessage<Invocation> request = (RequestMessage<Invocation>) message;
+        //释放延迟解码的缓冲区
+        request.release();
+        if (expired) {
+            //消费者已经超时，不需要应答
+            logger.warn(ExceptionCode.format(ExceptionCode.PROVIDER_DISCARD_TIMEOUT_MESSAGE)
+                    + "Discard request cause by timeout while waiting in the queue: {}", request.getHeader());
+        } else {
+            //过载丢弃，尽快应答让消费者重试其它节点
+            sendException(context.getChannel(), new OverloadException("Biz thread pool of provider is overloaded, request is shed by queue delay",
+                    ExceptionCode.PROVIDER_THREAD_EXHAUSTED, 0, true), request, null);
+        }
+    }
+
+    /**
+     * 执行调用，包括过滤器链
+     *
+     * @param request  请求
+     * @param exporter 服务
+     * @param channel  通道
+     * @param start    开始处理的时间(纳秒)
+     */
+    protected void invoke(final RequestMessage<Invocation> request, final Exporter exporter, final Channel channel,
+                          final long start) {
+        Inline inline = ((ProviderMethodOption) request.getOption()).getInline();
+        if (inline != null) {
+            inline.begin();
+        }
+        try {
+            exporter.invoke(request).whenComplete((r, throwable) -> {
+                record(inline, start);
+                onComplete(r, throwable, request, exporter, channel);
+            });
+        } catch (LafException e) {
+            record(inline, start);
+            sendException(channel, e, request, exporter);
+        } catch (Throwable e) {
+            record(inline, start);
+            sendException(channel, new RpcException(error(request.getPayLoad(), channel, e.getMessage()), e), request, exporter);
+        }
+    }
+
+    /**
+     * 记录执行时间
+     *
+     * @param inline 内联执行策略
+     * @param start  开始处理的时间(纳秒)
+     */
+    protected void record(final Inline inline, final long start) {
+        if (inline != null) {
+            //统计执行时间，用于自动切换内联
+            inline.record(System.nanoTime() - start);
+        }
+    }
+
     /**
      * 调用完成
      *
@@ -129,6 +242,8 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
                               final Exporter exporter,
                               final Channel channel) {
         Invocation invocation = request.getPayLoad();
+        //服务已经处理完客户端流，关闭未读完的流
+        closeInbound(request, channel);
         if (throwable != null) {
             if (!(throwable instanceof ShutdownExecption)) {
                 logger.error(error(invocation, channel, throwable.getMessage()));
@@ -141,23 +256,116 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
         Session session = request.getSession();
         Supplier<ResponseMessage<ResponsePayload>> supplier = request.getResponseSupplier();
         ResponseMessage<ResponsePayload> response = supplier != null ? supplier.get() :
-                new ResponseMessage<>(header.response(MsgType.BizResp.getType(),
-                        session == null ? Compression.NONE : session.getCompressionType()));
+                ResponseMessage.create(header.response(MsgType.BizResp.getType(),
+                        session == null ? Compression.NONE : session.getCompressionType()), null);
         GenericMethod genericMethod = invocation == null ? null : invocation.getGenericMethod();
         GenericType returnType = genericMethod == null ? null : genericMethod.getReturnType();
         Type type = returnType == null ? null : returnType.getGenericType();
+        Method method = invocation == null ? null : invocation.getMethod();
         if (result.getContext().isAsync() && !result.isException()) {
             //异步
             ((CompletableFuture<Object>) result.getValue()).whenComplete((obj, th) -> {
-                response.setPayLoad(new ResponsePayload(obj, th, type));
-                channel.send(response, sendFailed);
+                response.setPayLoad(ResponsePayload.create(obj, th, type, method));
+                send(channel, response);
             });
+        } else if (!result.isException() && result.getValue() instanceof StreamIterator) {
+            reply(request, response, (StreamIterator<?>) result.getValue(), type, exporter, channel);
         } else {
-            response.setPayLoad(new ResponsePayload(result.getValue(), result.getException(), type));
+            response.setPayLoad(ResponsePayload.create(result.getValue(), result.getException(), type, method));
+            send(channel, response);
+        }
+    }
+
+    /**
+     * 发送应答，开启了回收则在写出或者发送失败后回收应答
+     *
+     * @param channel  通道
+     * @param response 应答
+     */
+    protected void send(final Channel channel, final ResponseMessage<ResponsePayload> response) {
+        if (!ResponseMessage.isRecycling()) {
             channel.send(response, sendFailed);
+        } else {
+            channel.send(response, event -> {
+                sendFailed.accept(event);
+                //应答已经编码，不再被引用
+                response.recycle();
+            });
+        }
+    }
+
+    /**
+     * 应答流式结果，先发送应答，再按照消费者的授信推送数据
+     *
+     * @param request  请求
+     * @param response 应答
+     * @param iterator 流式结果
+     * @param type     返回类型
+     * @param exporter 服务
+     * @param channel  通道
+     */
+    protected void reply(final RequestMessage<Invocation> request, final ResponseMessage<ResponsePayload> response,
+                         final StreamIterator<?> iterator, final Type type, final Exporter exporter,
+                         final Channel channel) {
+        OutboundStream stream = StreamManager.reply(channel, request, iterator);
+        if (stream == null) {
+            //消费者不支持流式，整体返回，限制元素数量避免无界的流耗尽内存
+            int limit = exporter == null ? STREAM_AGGREGATE_LIMIT_OPTION.getValue() :
+                    exporter.getUrl().getPositiveInt(STREAM_AGGREGATE_LIMIT_OPTION);
+            List<Object> values = new LinkedList<>();
+            try {
+                while (iterator.hasNext()) {
+                    if (values.size() >= limit) {
+                        throw new RpcException(request.getHeader(), String.format(
+                                "Stream result exceeds the aggregate limit %d, the consumer does not support streaming.", limit));
+                    }
+                    values.add(iterator.next());
+                }
+                response.setPayLoad(new ResponsePayload(values, null, type));
+            } catch (Throwable e) {
+                response.setPayLoad(new ResponsePayload(e));
+            } finally {
+                iterator.close();
+            }
+            send(channel, response);
+        } else {
+            response.getHeader().addAttribute(HEAD_STREAM_ID, request.getHeader().getAttribute(HEAD_STREAM_ID));
+            response.setPayLoad(new ResponsePayload(null, null, type));
+            send(channel, response);
+            stream.start();
         }
     }
 
+    /**
+     * 关闭客户端流
+     *
+     * @param request 请求
+     * @param channel 通道
+     */
+    protected void closeInbound(final RequestMessage<Invocation> request, final Channel channel) {
+        Object arg = request.getHeader().getAttribute(HEAD_STREAM_ARG);
+        if (arg != null) {
+            StreamManager manager = StreamManager.peek(channel);
+            InboundStream<?> stream = manager == null ? null :
+                    manager.getInbound(request.getHeader().getAttribute(HEAD_STREAM_ID.getKey(), 0));
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * 获取方法ID对应的方法选项，缓存在会话的方法字典上
+     *
+     * @param exporter   服务
+     * @param dictionary 方法字典
+     * @param methodId   方法ID
+     * @return 方法选项，方法不存在返回null
+     */
+    protected MethodOption getOption(final Exporter exporter, final MethodDictionary dictionary, final int methodId) {
+        return dictionary.getOption(methodId, exporter.getOption()::getOption);
+    }
+
     /**
      * 补充信息
      *
@@ -168,20 +376,31 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
      */
     protected Exporter restore(final RequestMessage<Invocation> request, final Channel channel) throws ClassNotFoundException {
         Exporter exporter = null;
+        MethodOption option = null;
         ServerSession session = (ServerSession) request.getSession();
         //从会话恢复接口和别名
         Invocation invocation = request.getPayLoad();
         if (session != null) {
+            exporter = (Exporter) session.getProvider();
             if (isEmpty(invocation.getClassName())) {
                 invocation.setClassName(session.getInterfaceName());
             }
             if (isEmpty(invocation.getAlias())) {
                 invocation.setAlias(session.getAlias());
             }
+            //从会话的方法字典恢复方法名称和参数类型，并直接取得缓存的方法选项
+            Short methodId = request.getHeader().getAttribute(HEAD_METHOD_ID.getKey(), (Short) null);
+            if (methodId != null) {
+                MethodDictionary dictionary = session.getMethodDictionary();
+                if (dictionary == null || !dictionary.restore(invocation, methodId)) {
+                    throw new SessionException(error(invocation, channel, " method id " + methodId + " is not found in session",
+                            PROVIDER_TASK_SESSION_EXPIRED));
+                }
+                option = exporter == null ? null : getOption(exporter, dictionary, methodId);
+            }
             request.setLocalAddress(session.getLocalAddress());
             request.setRemoteAddress(session.getRemoteAddress());
             request.setTransport(session.getTransport());
-            exporter = (Exporter) session.getProvider();
         }
         if (request.getLocalAddress() == null) {
             request.setLocalAddress(channel.getLocalAddress());
@@ -212,7 +431,19 @@ public class BizReqHandler extends AbstractReqHandler implements MessageHandler
             }
         }
         //构建请求
-        exporter.setup(request);
+        if (option != null) {
+            exporter.setup(request, option);
+        } else {
+            exporter.setup(request);
+        }
+        //恢复省略了类型的参数，需要在设置方法之后
+        Integer elision = request.getHeader().getAttribute(HEAD_TYPE_ELISION.getKey(), (Integer) null);
+        if (elision != null) {
+            Serialization serialization = SERIALIZATION_SELECTOR.select(request.getHeader().getSerialization());
+            TypeElision.restore(invocation, elision, serialization == null ? null : serialization.getTypedSerializer());
+        }
+        //恢复客户端流参数
+        StreamManager.accept(channel, request, exporter.getUrl().getPositiveInt(STREAM_WINDOW_OPTION));
         //对应服务端协议，设置认证信息
         if (exporter.getAuthentication() != null) {
             ServerProtocol protocol = null;
@@ -38,6 +38,7 @@ import io.joyrpc.util.GenericType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -75,13 +76,14 @@ public class CallbackReqHandler implements MessageHandler {
                     GenericMethod genericMethod = request.getPayLoad().getGenericMethod();
                     GenericType returnType = genericMethod == null ? null : genericMethod.getReturnType();
                     Type type = returnType == null ? null : returnType.getGenericType();
+                    Method method = request.getPayLoad().getMethod();
                     boolean isAsync = Optional.ofNullable(result.getContext()).orElse(RequestContext.getContext()).isAsync();
                     if (isAsync) {
                         ((CompletableFuture<Object>) result.getValue()).whenComplete((obj, th) -> {
-                            sendResponse(channel, header, new ResponsePayload(obj, th, type));
+                            sendResponse(channel, header, ResponsePayload.create(obj, th, type, method));
                         });
                     } else {
-                        sendResponse(channel, header, new ResponsePayload(result.getValue(), result.getException(), type));
+                        sendResponse(channel, header, ResponsePayload.create(result.getValue(), result.getException(), type, method));
                     }
                 });
 
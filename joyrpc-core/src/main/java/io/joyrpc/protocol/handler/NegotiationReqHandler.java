@@ -30,6 +30,7 @@ import io.joyrpc.protocol.MessageHandler;
 import io.joyrpc.protocol.MsgType;
 import io.joyrpc.protocol.ServerProtocol;
 import io.joyrpc.protocol.message.Message;
+import io.joyrpc.protocol.message.MethodDictionary;
 import io.joyrpc.protocol.message.ResponseMessage;
 import io.joyrpc.protocol.message.negotiation.AbstractNegotiation;
 import io.joyrpc.protocol.message.negotiation.NegotiationResponse;
@@ -45,6 +46,7 @@ import java.util.Map;
 import static io.joyrpc.Plugin.*;
 import static io.joyrpc.constants.Constants.*;
 import static io.joyrpc.transport.session.Session.REMOTE_START_TIMESTAMP;
+import static io.joyrpc.util.ClassUtils.forNameQuiet;
 
 /**
  * @date: 2019/3/18
@@ -70,6 +72,15 @@ public class NegotiationReqHandler extends AbstractNegotiationHandler<Message> i
             response.addAttribute(KEY_APPINSID, GlobalContext.getString(KEY_APPINSID));
             response.addAttribute(KEY_APPGROUP, GlobalContext.getString(KEY_APPGROUP));
             response.addAttribute(REMOTE_START_TIMESTAMP, GlobalContext.getString(KEY_START_TIME));
+            //回传方法字典，表示服务端支持按照方法ID调用，校验不通过则不回传，按照方法名称调用
+            verifyMethodDictionary(attributes);
+            response.addAttribute(KEY_METHOD_DICTIONARY, attributes.get(KEY_METHOD_DICTIONARY));
+            //回传参数类型省略，表示服务端支持按照声明类型解码参数
+            response.addAttribute(KEY_TYPE_ELISION, attributes.get(KEY_TYPE_ELISION));
+            //回传字符串表的容量，表示服务端支持字符串表
+            response.addAttribute(KEY_STRING_TABLE, attributes.get(KEY_STRING_TABLE));
+            //回传二进制参数分离，表示服务端支持解码分离的二进制数据
+            response.addAttribute(KEY_BINARY, attributes.get(KEY_BINARY));
             //兼容
             response.addAttribute(JAVA_VERSION_KEY, GlobalContext.getString(KEY_JAVA_VERSION));
             response.addAttribute(APPLICATION_ID, GlobalContext.getString(KEY_APPID));
@@ -80,6 +91,30 @@ public class NegotiationReqHandler extends AbstractNegotiationHandler<Message> i
         return response;
     }
 
+    /**
+     * 校验消费者的方法字典，包含服务端接口没有的方法时删除方法字典，避免按照方法ID恢复出服务端不认识的方法
+     *
+     * @param attributes 协商的扩展属性
+     */
+    protected void verifyMethodDictionary(final Map<String, String> attributes) {
+        String text = attributes.get(KEY_METHOD_DICTIONARY);
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String className = attributes.get(CONFIG_KEY_INTERFACE);
+        MethodDictionary local = className == null ? null : MethodDictionary.build(forNameQuiet(className));
+        boolean valid;
+        try {
+            valid = local != null && local.containsAll(new MethodDictionary(text));
+        } catch (IllegalArgumentException e) {
+            valid = false;
+        }
+        if (!valid) {
+            attributes.remove(KEY_METHOD_DICTIONARY);
+            logger.warn(String.format("Method dictionary of %s is not match the exported interface, fall back to method name.", className));
+        }
+    }
+
     @Override
     protected void session(final ChannelContext context, final int sessionId, final AbstractNegotiation negotiation) {
         Map<String, String> attributes = negotiation.getAttributes();
@@ -107,6 +107,43 @@ public class RequestChannelHandler<T extends MessageHandler> implements ChannelH
         return message;
     }
 
+    @Override
+    public boolean inline(final ChannelContext context, final Object message) {
+        if (message instanceof Message) {
+            Message msg = (Message) message;
+            if (msg.isRequest()) {
+                T handler = selector.select(msg.getMsgType());
+                return handler != null && handler.inline(context, msg);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean sheddable(final ChannelContext context, final Object message) {
+        if (message instanceof Message) {
+            Message msg = (Message) message;
+            if (msg.isRequest()) {
+                T handler = selector.select(msg.getMsgType());
+                return handler != null && handler.sheddable(context, msg);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void discard(final ChannelContext context, final Object message, final boolean expired) {
+        if (message instanceof Message) {
+            Message msg = (Message) message;
+            if (msg.isRequest()) {
+                T handler = selector.select(msg.getMsgType());
+                if (handler != null) {
+                    handler.discard(context, msg, expired);
+                }
+            }
+        }
+    }
+
     @Override
     public void caught(final ChannelContext context, final Throwable cause) {
         if (throwableConsumer != null) {
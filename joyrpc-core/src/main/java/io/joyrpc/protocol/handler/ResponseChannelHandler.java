@@ -21,6 +21,8 @@ package io.joyrpc.protocol.handler;
  */
 
 import io.joyrpc.exception.RpcException;
+import io.joyrpc.protocol.message.BaseMessage;
+import io.joyrpc.protocol.message.ResponseMessage;
 import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.channel.ChannelContext;
 import io.joyrpc.transport.channel.ChannelHandler;
@@ -70,10 +72,18 @@ public class ResponseChannelHandler implements ChannelHandler {
         FutureManager<Long, Message> futureManager = context.getChannel().getFutureManager();
         if (futureManager != null) {
             if (!futureManager.complete(message.getMsgId(), message)) {
+                //已经超时的应答不再解码，释放缓冲区
+                if (message instanceof BaseMessage) {
+                    ((BaseMessage<?>) message).release();
+                }
                 logger.warn(String.format("request is timeout. id=%d, type=%d, remote=%s",
                         message.getMsgId(),
                         message.getMsgType(),
                         Channel.toString(context.getChannel().getRemoteAddress())));
+                //丢弃的应答可以直接回收
+                if (message instanceof ResponseMessage) {
+                    ((ResponseMessage<?>) message).recycle();
+                }
             }
         }
         context.end();
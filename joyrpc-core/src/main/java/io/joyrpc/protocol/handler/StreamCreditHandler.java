@@ -0,0 +1,61 @@
+package io.joyrpc.protocol.handler;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.exception.HandlerException;
+import io.joyrpc.protocol.MessageHandler;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.Message;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.stream.OutboundStream;
+import io.joyrpc.stream.StreamManager;
+import io.joyrpc.transport.channel.ChannelContext;
+
+import static io.joyrpc.constants.Constants.HEAD_STREAM_CREDIT;
+import static io.joyrpc.constants.Constants.HEAD_STREAM_ID;
+
+/**
+ * 流授信消息处理器
+ */
+public class StreamCreditHandler implements MessageHandler {
+
+    @Override
+    public void handle(final ChannelContext context, final Message message) throws HandlerException {
+        MessageHeader header = (MessageHeader) message.getHeader();
+        Integer id = header.getAttribute(HEAD_STREAM_ID.getKey(), (Integer) null);
+        StreamManager manager = id == null ? null : StreamManager.peek(context.getChannel());
+        OutboundStream stream = manager == null ? null : manager.getOutbound(id);
+        if (stream != null) {
+            stream.grant(header.getAttribute(HEAD_STREAM_CREDIT.getKey(), 0));
+        }
+    }
+
+    @Override
+    public boolean inline(final ChannelContext context, final Message message) {
+        //只是累加授信，发送在回调线程池中进行，直接在IO线程中处理
+        return true;
+    }
+
+    @Override
+    public Integer type() {
+        return (int) MsgType.StreamCredit.getType();
+    }
+}
@@ -0,0 +1,69 @@
+package io.joyrpc.protocol.handler;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.exception.HandlerException;
+import io.joyrpc.protocol.MessageHandler;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.Message;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.stream.InboundStream;
+import io.joyrpc.stream.StreamManager;
+import io.joyrpc.transport.channel.ChannelContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static io.joyrpc.constants.Constants.HEAD_STREAM_END;
+import static io.joyrpc.constants.Constants.HEAD_STREAM_ID;
+
+/**
+ * 流数据消息处理器
+ */
+public class StreamDataHandler implements MessageHandler {
+
+    private final static Logger logger = LoggerFactory.getLogger(StreamDataHandler.class);
+
+    @Override
+    public void handle(final ChannelContext context, final Message message) throws HandlerException {
+        MessageHeader header = (MessageHeader) message.getHeader();
+        Integer id = header.getAttribute(HEAD_STREAM_ID.getKey(), (Integer) null);
+        StreamManager manager = id == null ? null : StreamManager.peek(context.getChannel());
+        InboundStream<?> stream = manager == null ? null : manager.getInbound(id);
+        if (stream == null) {
+            //流已经关闭，丢弃数据
+            logger.debug(String.format("Discard data of stream %d, caused by it is closed.", id));
+            return;
+        }
+        stream.onData((ResponsePayload) message.getPayLoad(), header.getAttribute(HEAD_STREAM_END) != null);
+    }
+
+    @Override
+    public boolean inline(final ChannelContext context, final Message message) {
+        //在IO线程中按照到达顺序入队，业务线程池是多线程的，会打乱元素和结束标识的顺序
+        return true;
+    }
+
+    @Override
+    public Integer type() {
+        return (int) MsgType.StreamData.getType();
+    }
+}
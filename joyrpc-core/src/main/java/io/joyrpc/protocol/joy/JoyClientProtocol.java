@@ -31,6 +31,7 @@ import io.joyrpc.protocol.ClientProtocol;
 import io.joyrpc.protocol.MsgType;
 import io.joyrpc.protocol.joy.codec.JoyCodec;
 import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.MethodDictionary;
 import io.joyrpc.protocol.message.RequestMessage;
 import io.joyrpc.protocol.message.authentication.AuthenticationRequest;
 import io.joyrpc.protocol.message.negotiation.NegotiationRequest;
@@ -48,6 +49,7 @@ import static io.joyrpc.Plugin.IDENTIFICATION;
 import static io.joyrpc.Plugin.SERIALIZATION;
 import static io.joyrpc.constants.Constants.SESSION_TIMEOUT_OPTION;
 import static io.joyrpc.transport.session.Session.REMOTE_START_TIMESTAMP;
+import static io.joyrpc.util.ClassUtils.forNameQuiet;
 
 /**
  * 客户端协议
@@ -76,7 +78,8 @@ public class JoyClientProtocol extends AbstractProtocol implements ClientProtoco
         //构造协商请求
         NegotiationRequest negotiation = new NegotiationRequest(url,
                 new NegotiationOption(Constants.SERIALIZATION_OPTION, "msgpack", "json0", "json1"),
-                new NegotiationOption(Constants.COMPRESS_OPTION), null);
+                new NegotiationOption(Constants.COMPRESS_OPTION),
+                new NegotiationOption(Constants.CHECKSUM_OPTION, "none"));
         //设置client本地session属性
         negotiation.addAttribute(Constants.CONFIG_KEY_INTERFACE, clusterUrl.getPath());
         negotiation.addAttribute(Constants.ALIAS_OPTION.getName(), clusterUrl.getString(Constants.ALIAS_OPTION));
@@ -94,6 +97,26 @@ public class JoyClientProtocol extends AbstractProtocol implements ClientProtoco
         negotiation.addAttribute(Constants.APPLICATION_INSTANCE, GlobalContext.getString(Constants.KEY_APPINSID));
         negotiation.addAttribute(SESSION_TIMEOUT_OPTION.getName(), String.valueOf(clusterUrl.getPositiveLong(SESSION_TIMEOUT_OPTION)));
         negotiation.addAttribute(REMOTE_START_TIMESTAMP, GlobalContext.getString(Constants.KEY_START_TIME));
+        //方法字典
+        if (clusterUrl.getBoolean(Constants.METHOD_DICTIONARY_OPTION)) {
+            MethodDictionary dictionary = MethodDictionary.build(forNameQuiet(clusterUrl.getPath()));
+            if (dictionary != null) {
+                negotiation.addAttribute(Constants.KEY_METHOD_DICTIONARY, dictionary.toString());
+            }
+        }
+        //参数类型省略
+        if (clusterUrl.getBoolean(Constants.TYPE_ELISION_OPTION)) {
+            negotiation.addAttribute(Constants.KEY_TYPE_ELISION, Boolean.TRUE.toString());
+        }
+        //字符串表
+        if (clusterUrl.getBoolean(Constants.STRING_TABLE_OPTION)) {
+            negotiation.addAttribute(Constants.KEY_STRING_TABLE,
+                    String.valueOf(clusterUrl.getPositiveInt(Constants.STRING_TABLE_CAPACITY_OPTION)));
+        }
+        //二进制参数分离
+        if (clusterUrl.getNaturalInt(Constants.BINARY_THRESHOLD_OPTION) > 0) {
+            negotiation.addAttribute(Constants.KEY_BINARY, Boolean.TRUE.toString());
+        }
         //构造协商请求消息
         return new RequestMessage<>(new MessageHeader(MsgType.NegotiationReq.getType()), negotiation);
     }
@@ -20,15 +20,40 @@ package io.joyrpc.protocol.joy.codec;
  * #L%
  */
 
+import io.joyrpc.codec.compression.Compression;
 import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.codec.serialization.StringTable;
+import io.joyrpc.constants.ExceptionCode;
+import io.joyrpc.exception.CodecException;
 import io.joyrpc.protocol.AbstractCodec;
+import io.joyrpc.protocol.MsgType;
 import io.joyrpc.protocol.Protocol;
 import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.MethodDictionary;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.protocol.message.ResponseMessage;
+import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.protocol.message.TypeElision;
+import io.joyrpc.transport.buffer.ChannelBuffer;
+import io.joyrpc.transport.codec.DecodeContext;
+import io.joyrpc.transport.codec.EncodeContext;
+import io.joyrpc.transport.message.Header;
 import io.joyrpc.transport.message.Message;
+import io.joyrpc.transport.session.Session;
 import io.joyrpc.transport.session.Session.RpcSession;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.util.Objects;
 
+import static io.joyrpc.Plugin.SERIALIZATION_SELECTOR;
+import static io.joyrpc.constants.Constants.HEAD_METHOD_ID;
+import static io.joyrpc.constants.Constants.HEAD_STRING_TABLE;
+import static io.joyrpc.constants.Constants.HEAD_TYPE_ELISION;
+
 /**
  * joy编解码器
  *
@@ -40,6 +65,189 @@ public class JoyCodec extends AbstractCodec {
         super(protocol);
     }
 
+    @Override
+    public void encode(final EncodeContext context, final ChannelBuffer buffer, final Object message) throws CodecException {
+        try {
+            super.encode(context, buffer, message);
+        } catch (CodecException e) {
+            //消息没有发出去，对端缺少其中定义的字符串
+            StringTable table = message instanceof Message ? getStringTable(getSession(context, ((Message) message).getHeader())) : null;
+            if (table != null) {
+                table.encoded((byte) 0, false);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    protected Message compact(final EncodeContext context, final Message message, final Header header) {
+        if (!(header instanceof MessageHeader)) {
+            return null;
+        }
+        Message result = null;
+        if (header.getMsgType() == MsgType.BizReq.getType() && message.getPayLoad() instanceof Invocation) {
+            result = compact((MessageHeader) header, (Invocation) message.getPayLoad());
+        }
+        //会话协商了字符串表，业务请求和应答标识使用字符串表
+        StringTable table = getStringTable(context, message, header);
+        if (table != null) {
+            if (result == null) {
+                MessageHeader target = copy((MessageHeader) header);
+                result = message.isRequest() ? new RequestMessage<>(target, message.getPayLoad()) :
+                        new ResponseMessage<>(target, message.getPayLoad());
+            }
+            ((MessageHeader) result.getHeader()).addAttribute(HEAD_STRING_TABLE, table.getFlag());
+        }
+        return result;
+    }
+
+    /**
+     * 压缩业务请求
+     *
+     * @param header     消息头
+     * @param invocation 调用
+     * @return 替换后的消息，不需要压缩返回null
+     */
+    protected Message compact(final MessageHeader header, final Invocation invocation) {
+        //会话协商了方法字典或参数类型省略，业务请求只传输方法ID或省略参数的类型描述，BizReqHandler根据会话恢复
+        Session session = header.getSession();
+        if (!(session instanceof RpcSession)) {
+            return null;
+        }
+        RpcSession rpcSession = (RpcSession) session;
+        if (invocation.isGeneric()) {
+            return null;
+        }
+        Serialization serialization = SERIALIZATION_SELECTOR.select(header.getSerialization());
+        if (serialization == null) {
+            return null;
+        }
+        short id = getMethodId(rpcSession, invocation, serialization);
+        TypeElision elision = rpcSession.isTypeElision()
+                ? TypeElision.elide(invocation.getMethod(), invocation.getArgs(), serialization.getTypedSerializer())
+                : null;
+        if (id < 0 && elision == null) {
+            return null;
+        }
+        MessageHeader target = copy(header);
+        Invocation compacted = invocation.copy(elision == null ? invocation.getArgs() : elision.getArgs());
+        if (id >= 0) {
+            target.addAttribute(HEAD_METHOD_ID, id);
+            compacted.setMethodName(null);
+            compacted.setArgsType((String[]) null);
+        }
+        if (elision != null) {
+            target.addAttribute(HEAD_TYPE_ELISION, elision.getMask());
+        }
+        return new RequestMessage<>(target, compacted);
+    }
+
+    /**
+     * 获取业务消息可以使用的字符串表
+     *
+     * @param context 上下文
+     * @param message 消息
+     * @param header  消息头
+     * @return 字符串表，不能使用返回null
+     */
+    protected StringTable getStringTable(final EncodeContext context, final Message message, final Header header) {
+        byte type = (byte) header.getMsgType();
+        if (type == MsgType.BizReq.getType()) {
+            if (!(message.getPayLoad() instanceof Invocation)) {
+                return null;
+            }
+        } else if (type == MsgType.BizResp.getType()) {
+            if (!(message.getPayLoad() instanceof ResponsePayload)) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        StringTable result = getStringTable(getSession(context, header));
+        if (result == null) {
+            return null;
+        }
+        Serialization serialization = SERIALIZATION_SELECTOR.select(header.getSerialization());
+        return serialization != null && serialization.stringTable() ? result : null;
+    }
+
+    /**
+     * 获取会话的字符串表
+     *
+     * @param session 会话
+     * @return 字符串表
+     */
+    protected StringTable getStringTable(final Session session) {
+        return session instanceof RpcSession ? ((RpcSession) session).getStringTable() : null;
+    }
+
+    @Override
+    protected void serialize(final Serialization serialization, final OutputStream os, final Message message, final EncodeContext context) {
+        Object flag = message.getHeader() instanceof MessageHeader ? ((MessageHeader) message.getHeader()).getAttribute(HEAD_STRING_TABLE) : null;
+        if (!(flag instanceof Byte)) {
+            super.serialize(serialization, os, message, context);
+            return;
+        }
+        StringTable table = getStringTable(getSession(context, message.getHeader()));
+        if (table == null) {
+            throw new CodecException("string table is not negotiated.", ExceptionCode.CODEC_SERIALIZER_EXCEPTION);
+        }
+        serialization.getSerializer().serialize(os, message.getPayLoad(), table.getSender());
+        table.encoded((Byte) flag, true);
+    }
+
+    @Override
+    protected Object deserialize(final ChannelBuffer buffer, final Serialization serialization, final Compression compression,
+                                 final Class type, final MessageHeader header, final DecodeContext context) throws IOException {
+        Object flag = header.getAttribute(HEAD_STRING_TABLE);
+        if (!(flag instanceof Byte)) {
+            return super.deserialize(buffer, serialization, compression, type, header, context);
+        }
+        StringTable table = getStringTable(header.getSession());
+        if (table == null) {
+            throw new CodecException("string table is not negotiated.", ExceptionCode.CODEC_SERIALIZER_EXCEPTION);
+        }
+        //处理对端的重置标识，接收表失效的时候拒绝解码
+        table.decode((Byte) flag);
+        boolean success = false;
+        try {
+            Object result = super.deserialize(buffer, serialization, compression, type, header, context);
+            success = true;
+            return result;
+        } finally {
+            table.decoded(success);
+        }
+    }
+
+    @Override
+    protected Object deserialize(final Serialization serialization, final InputStream is, final Type type,
+                                 final MessageHeader header, final DecodeContext context) {
+        Object flag = header.getAttribute(HEAD_STRING_TABLE);
+        StringTable table = flag instanceof Byte ? getStringTable(header.getSession()) : null;
+        return table == null ? super.deserialize(serialization, is, type, header, context) :
+                serialization.getSerializer().deserialize(is, type, table.getReceiver());
+    }
+
+    /**
+     * 获取方法字典中的方法ID
+     *
+     * @param session       会话
+     * @param invocation    调用
+     * @param serialization 序列化
+     * @return 方法ID，不存在返回-1
+     */
+    protected short getMethodId(final RpcSession session, final Invocation invocation, final Serialization serialization) {
+        MethodDictionary dictionary = session.getMethodDictionary();
+        if (dictionary == null || !Objects.equals(invocation.getClassName(), session.getInterfaceName())) {
+            return -1;
+        }
+        //和类名一样，只有自带类型的序列化才能省略参数类型
+        if (!serialization.autoType()) {
+            return -1;
+        }
+        return dictionary.getId(invocation.getMethod());
+    }
+
     @Override
     protected void adjustEncode(final Message message, final Serialization serialization) {
         //Invocation可以不传输类名和别名，BizReqHandler已经根据会话补充了类名和别名
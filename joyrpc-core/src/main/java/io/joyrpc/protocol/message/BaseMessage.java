@@ -20,6 +20,8 @@ package io.joyrpc.protocol.message;
  * #L%
  */
 
+import io.joyrpc.exception.CodecException;
+
 import java.io.Serializable;
 
 /**
@@ -30,6 +32,18 @@ public abstract class BaseMessage<T> implements Message<T>, Serializable {
      * 消息头
      */
     protected transient MessageHeader header;
+    /**
+     * 消息体延迟解码器
+     */
+    protected transient volatile PayloadDecoder decoder;
+    /**
+     * 正在解码，只在持有锁的时候访问
+     */
+    protected transient boolean decoding;
+    /**
+     * 延迟解码的异常，后续获取消息体的时候重新抛出
+     */
+    protected transient CodecException error;
 
     /**
      * 构造函数
@@ -88,6 +102,75 @@ public abstract class BaseMessage<T> implements Message<T>, Serializable {
         header.sessionId = sessionId;
     }
 
+    public PayloadDecoder getDecoder() {
+        return decoder;
+    }
+
+    public void setDecoder(PayloadDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * 消息体是否已经解码
+     *
+     * @return 已解码标识
+     */
+    public boolean isDecoded() {
+        return decoder == null;
+    }
+
+    /**
+     * 对延迟解码的消息体进行解码，只会执行一次。<br/>
+     * 消息体设置完成后才置空解码器，其它线程看到解码器为空的时候一定能看到消息体。<br/>
+     * 解码失败后再次调用会重新抛出记录的异常，而不是返回空的消息体
+     */
+    public void decode() {
+        if (decoder != null) {
+            synchronized (this) {
+                PayloadDecoder target = decoder;
+                //解码调整消息的时候会在当前线程重复进入，消息体已经设置，直接返回
+                if (target != null && !decoding) {
+                    decoding = true;
+                    try {
+                        target.decode(this);
+                    } catch (CodecException e) {
+                        error = e;
+                        throw e;
+                    } catch (RuntimeException e) {
+                        error = new CodecException("Error occurs while decoding.", e);
+                        error.setHeader(header);
+                        throw error;
+                    } finally {
+                        decoding = false;
+                        decoder = null;
+                    }
+                    return;
+                }
+            }
+        }
+        CodecException e = error;
+        if (e != null) {
+            CodecException ce = new CodecException(e.getMessage(), e);
+            ce.setHeader(header);
+            throw ce;
+        }
+    }
+
+    /**
+     * 丢弃消息的时候释放未解码的缓冲区
+     */
+    public void release() {
+        if (decoder != null) {
+            synchronized (this) {
+                PayloadDecoder target = decoder;
+                if (target != null && !decoding) {
+                    decoder = null;
+                    target.release();
+                }
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
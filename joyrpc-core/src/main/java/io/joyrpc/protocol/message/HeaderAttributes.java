@@ -0,0 +1,537 @@
+package io.joyrpc.protocol.message;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.transport.buffer.ChannelBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 消息头扩展属性，按照字节键存储，整数类型的值不装箱，字符串缓存编码结果。<br/>
+ * 数组按需分配，只有整数类型的值时不分配对象数组。<br/>
+ * 非线程安全，消息头同一时刻只由一个线程读写，在线程之间通过线程池或通道传递，由其保证可见性。
+ */
+public class HeaderAttributes extends AbstractMap<Byte, Object> {
+
+    /**
+     * 整数
+     */
+    public static final byte INT = 1;
+    /**
+     * 字符串
+     */
+    public static final byte STRING = 2;
+    /**
+     * 字节
+     */
+    public static final byte BYTE = 3;
+    /**
+     * 短整数
+     */
+    public static final byte SHORT = 4;
+    /**
+     * 其它对象，不支持编码
+     */
+    public static final byte OBJECT = 0;
+
+    protected static final byte[] EMPTY_BYTES = new byte[0];
+    protected static final int[] EMPTY_INTS = new int[0];
+
+    /**
+     * 键
+     */
+    protected byte[] keys;
+    /**
+     * 值类型
+     */
+    protected byte[] types;
+    /**
+     * 整数类型的值
+     */
+    protected int[] values;
+    /**
+     * 对象类型的值，第一次设置对象类型的值时分配
+     */
+    protected Object[] objects;
+    /**
+     * 字符串编码后的字节数组，和对象类型的值一起分配
+     */
+    protected byte[][] encodings;
+    /**
+     * 大小
+     */
+    protected int size;
+
+    public HeaderAttributes() {
+        this(0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 初始容量，解码时为消息头中的属性数量，小于等于0则延迟到第一次设置时分配
+     */
+    public HeaderAttributes(final int capacity) {
+        if (capacity <= 0) {
+            keys = EMPTY_BYTES;
+            types = EMPTY_BYTES;
+            values = EMPTY_INTS;
+        } else {
+            keys = new byte[capacity];
+            types = new byte[capacity];
+            values = new int[capacity];
+        }
+    }
+
+    public HeaderAttributes(final Map<Byte, Object> attributes) {
+        this(attributes == null ? 0 : attributes.size());
+        if (attributes != null) {
+            putAll(attributes);
+        }
+    }
+
+    /**
+     * 复制
+     *
+     * @return 新的扩展属性
+     */
+    public HeaderAttributes copy() {
+        HeaderAttributes result = new HeaderAttributes(size);
+        System.arraycopy(keys, 0, result.keys, 0, size);
+        System.arraycopy(types, 0, result.types, 0, size);
+        System.arraycopy(values, 0, result.values, 0, size);
+        if (objects != null && size > 0) {
+            result.objects = Arrays.copyOf(objects, size);
+            result.encodings = Arrays.copyOf(encodings, size);
+        }
+        result.size = size;
+        return result;
+    }
+
+    /**
+     * 查找键的位置
+     *
+     * @param key 键
+     * @return 位置，不存在返回-1
+     */
+    protected int indexOf(final byte key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取或分配键的位置
+     *
+     * @param key 键
+     * @return 位置
+     */
+    protected int slot(final byte key) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            return index;
+        }
+        if (size == keys.length) {
+            int length = Math.max(size << 1, 4);
+            keys = Arrays.copyOf(keys, length);
+            types = Arrays.copyOf(types, length);
+            values = Arrays.copyOf(values, length);
+            if (objects != null) {
+                objects = Arrays.copyOf(objects, length);
+                encodings = Arrays.copyOf(encodings, length);
+            }
+        }
+        keys[size] = key;
+        return size++;
+    }
+
+    /**
+     * 设置整数值
+     *
+     * @param key   键
+     * @param type  类型
+     * @param value 值
+     */
+    protected void putValue(final byte key, final byte type, final int value) {
+        int index = slot(key);
+        types[index] = type;
+        values[index] = value;
+        if (objects != null) {
+            objects[index] = null;
+            encodings[index] = null;
+        }
+    }
+
+    public void putInt(final byte key, final int value) {
+        putValue(key, INT, value);
+    }
+
+    public void putShort(final byte key, final short value) {
+        putValue(key, SHORT, value);
+    }
+
+    public void putByte(final byte key, final byte value) {
+        putValue(key, BYTE, value);
+    }
+
+    /**
+     * 设置字符串
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void putString(final byte key, final String value) {
+        putObject(key, STRING, value, null);
+    }
+
+    /**
+     * 设置对象值
+     *
+     * @param key      键
+     * @param type     类型
+     * @param value    值
+     * @param encoding 字符串编码
+     */
+    protected void putObject(final byte key, final byte type, final Object value, final byte[] encoding) {
+        if (value == null) {
+            removeKey(key);
+            return;
+        }
+        int index = slot(key);
+        if (objects == null) {
+            objects = new Object[keys.length];
+            encodings = new byte[keys.length][];
+        }
+        types[index] = type;
+        values[index] = 0;
+        objects[index] = value;
+        encodings[index] = encoding;
+    }
+
+    /**
+     * 获取整数值
+     *
+     * @param key 键
+     * @param def 默认值
+     * @return 值
+     */
+    public int getInt(final byte key, final int def) {
+        int index = indexOf(key);
+        return index >= 0 && types[index] != STRING && types[index] != OBJECT ? values[index] : def;
+    }
+
+    /**
+     * 获取字符串
+     *
+     * @param key 键
+     * @return 值
+     */
+    public String getString(final byte key) {
+        int index = indexOf(key);
+        return index >= 0 && types[index] == STRING ? (String) objects[index] : null;
+    }
+
+    /**
+     * 获取值类型
+     *
+     * @param key 键
+     * @return 值类型，不存在返回-1
+     */
+    public byte getType(final byte key) {
+        int index = indexOf(key);
+        return index >= 0 ? types[index] : -1;
+    }
+
+    /**
+     * 删除
+     *
+     * @param key 键
+     * @return 原值
+     */
+    protected Object removeKey(final byte key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object result = valueAt(index);
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(types, index + 1, types, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            if (objects != null) {
+                System.arraycopy(objects, index + 1, objects, index, moved);
+                System.arraycopy(encodings, index + 1, encodings, index, moved);
+            }
+        }
+        size--;
+        if (objects != null) {
+            objects[size] = null;
+            encodings[size] = null;
+        }
+        return result;
+    }
+
+    /**
+     * 获取指定位置的键，编解码使用
+     *
+     * @param index 位置
+     * @return 键
+     */
+    public byte keyAt(final int index) {
+        return keys[index];
+    }
+
+    /**
+     * 获取指定位置的类型，编解码使用
+     *
+     * @param index 位置
+     * @return 类型
+     */
+    public byte typeAt(final int index) {
+        return types[index];
+    }
+
+    /**
+     * 获取指定位置的整数值，编解码使用
+     *
+     * @param index 位置
+     * @return 整数值
+     */
+    public int intAt(final int index) {
+        return values[index];
+    }
+
+    /**
+     * 获取指定位置字符串的UTF-8编码，编解码使用
+     *
+     * @param index 位置
+     * @return 编码
+     */
+    public byte[] bytesAt(final int index) {
+        if (types[index] != STRING) {
+            return null;
+        }
+        byte[] result = encodings[index];
+        if (result == null) {
+            result = Strings.encode((String) objects[index]);
+            encodings[index] = result;
+        }
+        return result;
+    }
+
+    /**
+     * 获取指定位置的值，会装箱
+     *
+     * @param index 位置
+     * @return 值
+     */
+    protected Object valueAt(final int index) {
+        switch (types[index]) {
+            case INT:
+                return values[index];
+            case SHORT:
+                return (short) values[index];
+            case BYTE:
+                return (byte) values[index];
+            default:
+                return objects[index];
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof Byte && get(key) != null;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        if (!(key instanceof Byte)) {
+            return null;
+        }
+        int index = indexOf((Byte) key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public Object put(final Byte key, final Object value) {
+        if (key == null) {
+            return null;
+        }
+        Object result = get(key);
+        if (value instanceof Integer) {
+            putInt(key, (Integer) value);
+        } else if (value instanceof String) {
+            putString(key, (String) value);
+        } else if (value instanceof Byte) {
+            putByte(key, (Byte) value);
+        } else if (value instanceof Short) {
+            putShort(key, (Short) value);
+        } else {
+            putObject(key, OBJECT, value, null);
+        }
+        return result;
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        return key instanceof Byte ? removeKey((Byte) key) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (objects != null) {
+            Arrays.fill(objects, 0, size, null);
+            Arrays.fill(encodings, 0, size, null);
+        }
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<Byte, Object>> entrySet() {
+        //快照，兼容以Map方式访问的代码
+        Set<Entry<Byte, Object>> result = new LinkedHashSet<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            result.add(new SimpleImmutableEntry<>(keys[i], valueAt(i)));
+        }
+        return result;
+    }
+
+    /**
+     * 字符串编解码缓存，扩展属性里面的字符串大多重复出现，例如回调实例ID和分组
+     */
+    public static class Strings {
+        /**
+         * 缓存的最大字节数
+         */
+        protected static final int MAX_LENGTH = 256;
+        /**
+         * 编码缓存，直接映射，冲突时覆盖
+         */
+        protected static final Entry[] ENCODES = new Entry[1024];
+        /**
+         * 解码缓存，直接映射，冲突时覆盖
+         */
+        protected static final Entry[] DECODES = new Entry[1024];
+        protected static final int MASK = ENCODES.length - 1;
+
+        /**
+         * 编码字符串
+         *
+         * @param value 字符串
+         * @return UTF-8编码
+         */
+        public static byte[] encode(final String value) {
+            if (value.length() > MAX_LENGTH) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+            Entry entry = ENCODES[value.hashCode() & MASK];
+            if (entry != null && value.equals(entry.value)) {
+                return entry.bytes;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length <= MAX_LENGTH) {
+                ENCODES[value.hashCode() & MASK] = new Entry(value, bytes);
+            }
+            return bytes;
+        }
+
+        /**
+         * 从缓冲区读取字符串，命中缓存不创建新的字符串
+         *
+         * @param buffer 缓冲区
+         * @param length 长度
+         * @return 字符串
+         */
+        public static String decode(final ChannelBuffer buffer, final int length) {
+            if (length < 0) {
+                return null;
+            } else if (length == 0) {
+                return "";
+            } else if (length > MAX_LENGTH) {
+                byte[] bytes = new byte[length];
+                buffer.readBytes(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            int start = buffer.readerIndex();
+            //和String.hashCode无关，只用于按照字节定位槽位
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + buffer.getByte(start + i);
+            }
+            int index = (hash ^ (hash >>> 16)) & MASK;
+            Entry entry = DECODES[index];
+            if (entry != null && entry.bytes.length == length && matches(buffer, start, entry.bytes)) {
+                buffer.skipBytes(length);
+                return entry.value;
+            }
+            byte[] bytes = new byte[length];
+            buffer.readBytes(bytes);
+            String result = new String(bytes, StandardCharsets.UTF_8);
+            DECODES[index] = new Entry(result, bytes);
+            return result;
+        }
+
+        /**
+         * 比较缓冲区内容
+         *
+         * @param buffer 缓冲区
+         * @param start  开始位置
+         * @param bytes  字节数组
+         * @return 相同标识
+         */
+        protected static boolean matches(final ChannelBuffer buffer, final int start, final byte[] bytes) {
+            for (int i = 0; i < bytes.length; i++) {
+                if (buffer.getByte(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 缓存条目，不可变，可以安全发布
+         */
+        protected static class Entry {
+            protected final String value;
+            protected final byte[] bytes;
+
+            public Entry(final String value, final byte[] bytes) {
+                this.value = value;
+                this.bytes = bytes;
+            }
+        }
+    }
+}
@@ -255,6 +255,32 @@ public class Invocation implements Call {
         return result;
     }
 
+    /**
+     * 浅复制调用对象并替换参数，用于编码时不修改原有调用对象
+     *
+     * @param args 参数
+     * @return 调用对象
+     */
+    public Invocation copy(final Object[] args) {
+        Invocation result = new Invocation();
+        result.className = className;
+        result.alias = alias;
+        result.methodName = methodName;
+        result.argsType = argsType;
+        result.argClasses = argClasses;
+        result.args = args;
+        result.attachments = attachments;
+        result.method = method;
+        result.grpcType = grpcType;
+        result.clazz = clazz;
+        result.object = object;
+        result.generic = generic;
+        result.callback = callback;
+        result.genericMethod = genericMethod;
+        result.genericTypes = genericTypes;
+        return result;
+    }
+
     @Override
     public String[] getArgsType() {
         return argsType;
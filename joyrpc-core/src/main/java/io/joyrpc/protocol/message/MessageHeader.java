@@ -66,6 +66,10 @@ public class MessageHeader implements Header {
      * 压缩类别
      */
     protected byte compression;
+    /**
+     * 校验和类别，不在协议头中传输，编码时写入扩展属性
+     */
+    protected transient byte checksum;
     /**
      * 会话ID
      */
@@ -73,7 +77,7 @@ public class MessageHeader implements Header {
     /**
      * 扩展属性
      */
-    protected Map<Byte, Object> attributes;
+    protected HeaderAttributes attributes;
 
     /**
      * session 对象
@@ -168,6 +172,16 @@ public class MessageHeader implements Header {
         this.compression = compression;
     }
 
+    @Override
+    public byte getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public void setChecksum(byte checksum) {
+        this.checksum = checksum;
+    }
+
     @Override
     public byte getSerialization() {
         return serialization;
@@ -227,13 +241,32 @@ public class MessageHeader implements Header {
         return attributes;
     }
 
+    /**
+     * 获取扩展属性，按照类型访问不装箱，编解码使用
+     *
+     * @return 扩展属性
+     */
+    public HeaderAttributes getHeaderAttributes() {
+        return attributes;
+    }
+
     /**
      * 设置扩展属性
      *
      * @param attributes 扩展属性
      */
     public void setAttributes(Map<Byte, Object> attributes) {
-        this.attributes = attributes;
+        this.attributes = toAttributes(attributes);
+    }
+
+    /**
+     * 转换成扩展属性，扩展属性对象直接共享
+     *
+     * @param attributes 属性
+     * @return 扩展属性
+     */
+    protected static HeaderAttributes toAttributes(final Map<Byte, Object> attributes) {
+        return attributes == null || attributes instanceof HeaderAttributes ? (HeaderAttributes) attributes : new HeaderAttributes(attributes);
     }
 
     /**
@@ -244,6 +277,7 @@ public class MessageHeader implements Header {
     public void copy(final Session session) {
         serialization = session.getSerializationType();
         compression = session.getCompressionType();
+        checksum = session.getChecksumType();
     }
 
     /**
@@ -251,18 +285,17 @@ public class MessageHeader implements Header {
      *
      * @return
      */
-    protected Map<Byte, Object> getOrCreateAttributes() {
+    protected HeaderAttributes getOrCreateAttributes() {
         if (attributes == null) {
             //TODO 是否是单线程操作
             synchronized (this) {
                 if (attributes == null) {
-                    attributes = new ConcurrentHashMap<>(5);
+                    attributes = new HeaderAttributes();
                 }
             }
         }
         return attributes;
     }
-
     /**
      * 添加扩展属性
      *
@@ -517,7 +550,7 @@ public class MessageHeader implements Header {
         result.protocolType = protocolType;
         result.compression = compression;
         result.sessionId = sessionId;
-        result.attributes = attributes;
+        result.attributes = toAttributes(attributes);
         return result;
     }
 
@@ -533,6 +566,7 @@ public class MessageHeader implements Header {
         protocolType = header.protocolType;
         timeout = header.timeout;
         compression = header.compression;
+        checksum = header.checksum;
         length = header.length;
         headerLength = header.headerLength;
         sessionId = header.sessionId;
@@ -0,0 +1,256 @@
+package io.joyrpc.protocol.message;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static io.joyrpc.util.ClassUtils.getCanonicalNames;
+
+/**
+ * 方法字典，协商时交换，会话内用短整数ID代替方法名称和参数类型
+ */
+public class MethodDictionary {
+
+    protected static final char METHOD_SEPARATOR = ';';
+    protected static final char TYPE_SEPARATOR = ',';
+    protected static final char ARGS_START = '(';
+    protected static final char ARGS_END = ')';
+    /**
+     * 不存在的方法
+     */
+    protected static final short NONE = -1;
+
+    /**
+     * 字典文本
+     */
+    protected final String text;
+    /**
+     * 方法名称
+     */
+    protected final String[] methodNames;
+    /**
+     * 参数类型
+     */
+    protected final String[][] argsTypes;
+    /**
+     * 方法ID绑定的选项，服务端会话内缓存解析好的方法选项，避免每次按照方法名称查找
+     */
+    protected final AtomicReferenceArray<Object> options;
+    /**
+     * 签名对应的ID
+     */
+    protected final Map<String, Short> ids;
+    /**
+     * 方法对应的ID缓存
+     */
+    protected final Map<Method, Short> methods = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param text 字典文本
+     */
+    public MethodDictionary(final String text) {
+        this.text = text;
+        List<String> signatures = split(text, METHOD_SEPARATOR);
+        int size = signatures.size();
+        this.methodNames = new String[size];
+        this.argsTypes = new String[size][];
+        this.ids = new HashMap<>(size * 4 / 3 + 1);
+        this.options = new AtomicReferenceArray<>(size);
+        String signature;
+        int pos;
+        for (int i = 0; i < size; i++) {
+            signature = signatures.get(i);
+            pos = signature.indexOf(ARGS_START);
+            if (pos <= 0 || signature.charAt(signature.length() - 1) != ARGS_END) {
+                throw new IllegalArgumentException("illegal method signature " + signature);
+            }
+            //名称常驻内存，减少重复字符串
+            methodNames[i] = signature.substring(0, pos).intern();
+            argsTypes[i] = split(signature.substring(pos + 1, signature.length() - 1), TYPE_SEPARATOR).toArray(new String[0]);
+            ids.put(signature, (short) i);
+        }
+    }
+
+    /**
+     * 根据接口构建方法字典，方法按照签名排序
+     *
+     * @param clazz 接口
+     * @return 方法字典，没有方法或者方法太多返回null
+     */
+    public static MethodDictionary build(final Class<?> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        Set<String> signatures = new TreeSet<>();
+        for (Method method : clazz.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() != Object.class) {
+                signatures.add(signature(method));
+            }
+        }
+        if (signatures.isEmpty() || signatures.size() > Short.MAX_VALUE) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(signatures.size() * 32);
+        for (String signature : signatures) {
+            if (builder.length() > 0) {
+                builder.append(METHOD_SEPARATOR);
+            }
+            builder.append(signature);
+        }
+        return new MethodDictionary(builder.toString());
+    }
+
+    /**
+     * 方法签名
+     *
+     * @param method 方法
+     * @return 签名
+     */
+    protected static String signature(final Method method) {
+        StringBuilder builder = new StringBuilder(64).append(method.getName()).append(ARGS_START);
+        String[] types = getCanonicalNames(method.getParameterTypes());
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                builder.append(TYPE_SEPARATOR);
+            }
+            builder.append(types[i]);
+        }
+        return builder.append(ARGS_END).toString();
+    }
+
+    /**
+     * 分割字符串，保留空字符串以外的内容
+     *
+     * @param text      文本
+     * @param separator 分隔符
+     * @return 分割结果
+     */
+    protected static List<String> split(final String text, final char separator) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || text.charAt(i) == separator) {
+                if (i > start) {
+                    result.add(text.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取方法ID
+     *
+     * @param method 方法
+     * @return 方法ID，不存在返回-1
+     */
+    public short getId(final Method method) {
+        if (method == null) {
+            return NONE;
+        }
+        return methods.computeIfAbsent(method, m -> {
+            Short id = ids.get(signature(m));
+            return id == null ? NONE : id;
+        });
+    }
+
+    /**
+     * 根据方法ID恢复方法名称和参数类型
+     *
+     * @param invocation 调用对象
+     * @param id         方法ID
+     * @return 成功标识
+     */
+    public boolean restore(final Invocation invocation, final int id) {
+        if (id < 0 || id >= methodNames.length) {
+            return false;
+        }
+        invocation.setMethodName(methodNames[id]);
+        invocation.setArgsType(argsTypes[id]);
+        return true;
+    }
+
+    /**
+     * 获取方法ID绑定的选项，第一次获取时按照方法名称解析并缓存。<br/>
+     * 字典属于会话，解析函数在同一个会话内要返回相同的结果
+     *
+     * @param id       方法ID
+     * @param function 按照方法名称解析选项的函数
+     * @param <T>
+     * @return 选项，方法不存在返回null
+     */
+    public <T> T getOption(final int id, final Function<String, T> function) {
+        if (id < 0 || id >= methodNames.length) {
+            return null;
+        }
+        T result = (T) options.get(id);
+        if (result == null) {
+            result = function.apply(methodNames[id]);
+            if (result != null) {
+                options.set(id, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取方法名称
+     *
+     * @param id 方法ID
+     * @return 方法名称，不存在返回null
+     */
+    public String getMethodName(final int id) {
+        return id < 0 || id >= methodNames.length ? null : methodNames[id];
+    }
+
+    /**
+     * 判断是否包含另外一个字典的所有方法签名
+     *
+     * @param dictionary 方法字典
+     * @return 包含标识
+     */
+    public boolean containsAll(final MethodDictionary dictionary) {
+        return dictionary != null && ids.keySet().containsAll(dictionary.ids.keySet());
+    }
+
+    /**
+     * 方法数量
+     *
+     * @return 方法数量
+     */
+    public int size() {
+        return methodNames.length;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
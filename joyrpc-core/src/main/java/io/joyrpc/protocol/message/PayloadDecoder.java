@@ -0,0 +1,39 @@
+package io.joyrpc.protocol.message;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * 消息体延迟解码器，持有消息体的缓冲区，在业务线程中进行反序列化
+ */
+public interface PayloadDecoder {
+
+    /**
+     * 解码消息体并设置到消息上，完成后释放缓冲区
+     *
+     * @param message 消息
+     */
+    void decode(BaseMessage<?> message);
+
+    /**
+     * 不解码，直接释放缓冲区
+     */
+    void release();
+}
@@ -230,6 +230,7 @@ public class RequestMessage<T> extends BaseMessage<T> implements Request {
 
     @Override
     public T getPayLoad() {
+        decode();
         return payload;
     }
 
@@ -409,6 +410,17 @@ public class RequestMessage<T> extends BaseMessage<T> implements Request {
         return SystemClock.now() - startTime.get() > (timeout > 0 ? timeout : header.timeout);
     }
 
+    @Override
+    public long getDeadline() {
+        int value = timeout > 0 ? timeout : (header == null ? 0 : header.timeout);
+        if (value <= 0) {
+            return 0;
+        }
+        //消费者从创建开始计算，服务端从收到开始计算
+        long start = createTime > 0 ? createTime : receiveTime;
+        return start > 0 ? start + value : 0;
+    }
+
     @Override
     public boolean isRequest() {
         return true;
@@ -22,15 +22,29 @@ package io.joyrpc.protocol.message;
 
 import io.joyrpc.protocol.MsgType;
 import io.joyrpc.transport.message.Message;
+import io.joyrpc.util.Recycler;
+
+import static io.joyrpc.constants.Constants.MESSAGE_RECYCLE_CAPACITY_OPTION;
+import static io.joyrpc.constants.Constants.MESSAGE_RECYCLE_OPTION;
+import static io.joyrpc.context.Variable.VARIABLE;
 
 /**
  * 应答消息
  */
 public class ResponseMessage<T> extends BaseMessage<T> implements Response {
+    /**
+     * 回收池，没有开启回收为null
+     */
+    protected static final Recycler<ResponseMessage<?>> RECYCLER = VARIABLE.getBoolean(MESSAGE_RECYCLE_OPTION) ?
+            new Recycler<>(ResponseMessage::new, VARIABLE.getPositiveInt(MESSAGE_RECYCLE_CAPACITY_OPTION)) : null;
     /**
      * 响应结果
      */
     protected T response;
+    /**
+     * 回收句柄
+     */
+    protected transient Recycler.Handle<ResponseMessage<?>> handle;
 
     /**
      * 构造函数
@@ -88,6 +102,34 @@ public class ResponseMessage<T> extends BaseMessage<T> implements Response {
         this.response = response;
     }
 
+    /**
+     * 回收池构造函数
+     *
+     * @param handle 回收句柄
+     */
+    protected ResponseMessage(final Recycler.Handle<ResponseMessage<?>> handle) {
+        super(null);
+        this.handle = handle;
+    }
+
+    /**
+     * 构造应答，开启了回收则从回收池获取
+     *
+     * @param header   头部
+     * @param response 响应结果
+     * @param <T>
+     * @return 应答
+     */
+    public static <T> ResponseMessage<T> create(final MessageHeader header, final T response) {
+        if (RECYCLER == null) {
+            return new ResponseMessage<>(header, response);
+        }
+        ResponseMessage<T> result = (ResponseMessage<T>) RECYCLER.get();
+        result.header = header;
+        result.response = response;
+        return result;
+    }
+
     /**
      * 构造
      *
@@ -113,8 +155,16 @@ public class ResponseMessage<T> extends BaseMessage<T> implements Response {
         return new ResponseMessage<>(request.getHeader().response(msgType), payload);
     }
 
+    @Override
+    public MessageHeader getHeader() {
+        check();
+        return header;
+    }
+
     @Override
     public T getPayLoad() {
+        check();
+        decode();
         return response;
     }
 
@@ -128,10 +178,46 @@ public class ResponseMessage<T> extends BaseMessage<T> implements Response {
         return false;
     }
 
+    /**
+     * 回收应答及回收池创建的响应结果，调用后不能再使用该应答
+     */
+    public void recycle() {
+        if (response instanceof ResponsePayload) {
+            ((ResponsePayload) response).recycle();
+            response = null;
+        }
+        Recycler.Handle<ResponseMessage<?>> h = handle;
+        if (h != null) {
+            //释放未解码的缓冲区
+            release();
+            header = null;
+            response = null;
+            h.recycle(this);
+        }
+    }
+
+    /**
+     * 检查应答是否已经回收，回收后会被其它调用复用
+     */
+    protected void check() {
+        if (handle != null && handle.isRecycled()) {
+            throw new IllegalStateException("response message has already been recycled.");
+        }
+    }
+
+    /**
+     * 是否开启了回收
+     *
+     * @return 开启回收标识
+     */
+    public static boolean isRecycling() {
+        return RECYCLER != null;
+    }
+
     @Override
     public String toString() {
         return "ResponseMessage{" +
-                "header=" + getHeader() +
+                "header=" + header +
                 "response=" + response +
                 '}';
     }
@@ -20,9 +20,16 @@ package io.joyrpc.protocol.message;
  * #L%
  */
 
+import io.joyrpc.util.Recycler;
+
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 
+import static io.joyrpc.constants.Constants.MESSAGE_RECYCLE_CAPACITY_OPTION;
+import static io.joyrpc.constants.Constants.MESSAGE_RECYCLE_OPTION;
+import static io.joyrpc.context.Variable.VARIABLE;
+
 /**
  * 应答消息
  *
@@ -38,6 +45,11 @@ public class ResponsePayload implements Serializable {
     public static final String EXCEPTION = "exception";
 
     private static final long serialVersionUID = -7478498897807443823L;
+    /**
+     * 回收池，没有开启回收为null
+     */
+    protected static final Recycler<ResponsePayload> RECYCLER = VARIABLE.getBoolean(MESSAGE_RECYCLE_OPTION) ?
+            new Recycler<>(ResponsePayload::new, VARIABLE.getPositiveInt(MESSAGE_RECYCLE_CAPACITY_OPTION)) : null;
     /**
      * 响应结果
      */
@@ -50,6 +62,14 @@ public class ResponsePayload implements Serializable {
      * 返回值泛型
      */
     protected transient Type type;
+    /**
+     * 服务端调用的方法，用于按照方法预估应答的编码大小
+     */
+    protected transient Method method;
+    /**
+     * 回收句柄
+     */
+    protected transient Recycler.Handle<ResponsePayload> handle;
 
     /**
      * 默认构造函数
@@ -100,7 +120,76 @@ public class ResponsePayload implements Serializable {
         this.type = type;
     }
 
+    /**
+     * 回收池构造函数
+     *
+     * @param handle 回收句柄
+     */
+    protected ResponsePayload(final Recycler.Handle<ResponsePayload> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 构造响应结果，开启了回收则从回收池获取
+     *
+     * @param response  响应对象
+     * @param exception 异常
+     * @param type      返回值类型
+     * @return 响应结果
+     */
+    public static ResponsePayload create(final Object response, final Throwable exception, final Type type) {
+        return create(response, exception, type, null);
+    }
+
+    /**
+     * 构造响应结果，开启了回收则从回收池获取
+     *
+     * @param response  响应对象
+     * @param exception 异常
+     * @param type      返回值类型
+     * @param method    服务端调用的方法
+     * @return 响应结果
+     */
+    public static ResponsePayload create(final Object response, final Throwable exception, final Type type,
+                                         final Method method) {
+        ResponsePayload result;
+        if (RECYCLER == null) {
+            result = new ResponsePayload(response, exception, type);
+        } else {
+            result = RECYCLER.get();
+            result.response = response;
+            result.exception = exception;
+            result.type = type;
+        }
+        result.method = method;
+        return result;
+    }
+
+    /**
+     * 回收，只回收从回收池获取的对象
+     */
+    public void recycle() {
+        Recycler.Handle<ResponsePayload> h = handle;
+        if (h != null) {
+            response = null;
+            exception = null;
+            type = null;
+            method = null;
+            h.recycle(this);
+        }
+    }
+
+    /**
+     * 检查响应结果是否已经回收，回收后会被其它调用复用
+     */
+    protected void check() {
+        if (handle != null && handle.isRecycled()) {
+            throw new IllegalStateException("response payload has already been recycled.");
+        }
+    }
+
     public Object getResponse() {
+        check();
         return response;
     }
 
@@ -109,6 +198,7 @@ public class ResponsePayload implements Serializable {
     }
 
     public Throwable getException() {
+        check();
         return exception;
     }
 
@@ -124,10 +214,19 @@ public class ResponsePayload implements Serializable {
         this.type = type;
     }
 
+    public Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Method method) {
+        this.method = method;
+    }
+
     /**
      * @return the error
      */
     public boolean isError() {
+        check();
         return exception != null;
     }
 
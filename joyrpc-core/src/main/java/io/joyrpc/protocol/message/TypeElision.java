@@ -0,0 +1,161 @@
+package io.joyrpc.protocol.message;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.Serializer;
+import io.joyrpc.codec.serialization.UnsafeByteArrayInputStream;
+import io.joyrpc.codec.serialization.UnsafeByteArrayOutputStream;
+import io.joyrpc.exception.CodecException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static io.joyrpc.util.ClassUtils.isJavaClass;
+
+/**
+ * 参数类型省略，协商时开启。<br/>
+ * 运行时类型和方法声明类型一致的参数，用按照声明类型编解码的序列化器预先编码为字节数组，不写入类型描述，
+ * 消息头用位掩码标识这些参数，服务端根据方法的参数类型解码
+ */
+public class TypeElision {
+
+    /**
+     * 位掩码最多标识的参数个数
+     */
+    protected static final int MAX_ARGS = Integer.SIZE;
+
+    /**
+     * 类型是否能省略的缓存，挂在类上，不阻止应用的类加载器被回收
+     */
+    protected static final ClassValue<Boolean> ELIDABLES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            return !isJavaClass(type)
+                    && !type.isArray()
+                    && !type.isEnum()
+                    && !type.isInterface()
+                    && !Modifier.isAbstract(type.getModifiers())
+                    && !Throwable.class.isAssignableFrom(type);
+        }
+    };
+
+    /**
+     * 省略类型的参数位置
+     */
+    protected final int mask;
+    /**
+     * 替换后的参数
+     */
+    protected final Object[] args;
+
+    /**
+     * 构造函数
+     *
+     * @param mask 省略类型的参数位置
+     * @param args 替换后的参数
+     */
+    protected TypeElision(final int mask, final Object[] args) {
+        this.mask = mask;
+        this.args = args;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    /**
+     * 编码能省略类型的参数
+     *
+     * @param method     方法
+     * @param args       参数
+     * @param serializer 按照声明类型编解码的序列化器
+     * @return 省略结果，没有能省略类型的参数返回null
+     */
+    public static TypeElision elide(final Method method, final Object[] args, final Serializer serializer) {
+        if (method == null || args == null || args.length == 0 || serializer == null) {
+            return null;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        int length = Math.min(Math.min(types.length, args.length), MAX_ARGS);
+        int mask = 0;
+        Object[] result = null;
+        Object arg;
+        UnsafeByteArrayOutputStream os = null;
+        for (int i = 0; i < length; i++) {
+            arg = args[i];
+            //只省略运行时类型和声明类型完全一致的参数，子类、接口和泛型参数依然需要类型描述
+            if (arg != null && arg.getClass() == types[i] && isElidable(types[i])) {
+                if (result == null) {
+                    result = args.clone();
+                    os = new UnsafeByteArrayOutputStream(256);
+                } else {
+                    os.reset();
+                }
+                serializer.serialize(os, arg);
+                result[i] = os.toByteArray();
+                mask |= 1 << i;
+            }
+        }
+        return mask == 0 ? null : new TypeElision(mask, result);
+    }
+
+    /**
+     * 恢复省略了类型的参数，调用前需要设置好方法
+     *
+     * @param invocation 调用
+     * @param mask       省略类型的参数位置
+     * @param serializer 按照声明类型编解码的序列化器
+     */
+    public static void restore(final Invocation invocation, final int mask, final Serializer serializer) {
+        if (mask == 0) {
+            return;
+        }
+        Method method = invocation.getMethod();
+        Object[] args = invocation.getArgs();
+        if (serializer == null || method == null || args == null) {
+            throw new CodecException("Error occurs while restoring elided arguments of " + invocation.getMethodName());
+        }
+        Class<?>[] types = method.getParameterTypes();
+        int length = Math.min(Math.min(types.length, args.length), MAX_ARGS);
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                if (!(args[i] instanceof byte[])) {
+                    throw new CodecException(String.format("Error occurs while restoring elided argument %d of %s", i, method.getName()));
+                }
+                args[i] = serializer.deserialize(new UnsafeByteArrayInputStream((byte[]) args[i]), types[i]);
+            }
+        }
+    }
+
+    /**
+     * 判断类型是否能省略，只支持业务自定义的具体类
+     *
+     * @param type 类型
+     * @return 能省略标识
+     */
+    protected static boolean isElidable(final Class<?> type) {
+        return ELIDABLES.get(type);
+    }
+}
@@ -0,0 +1,351 @@
+package io.joyrpc.proxy;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于LambdaMetafactory的方法调用，每个方法生成一个实现类，直接调用目标方法，和编译生成的调用一样可以被JIT内联。<br/>
+ * 按照参数个数预定义了函数接口，由接口的默认方法展开参数数组。参数个数超过上限，或者方法、参数类型不能从当前类加载器公开访问的，
+ * 退化成{@link MethodHandleCaller}。
+ */
+public abstract class LambdaCaller {
+
+    private static final Logger logger = LoggerFactory.getLogger(LambdaCaller.class);
+
+    /**
+     * 最大参数个数
+     */
+    public static final int MAX_ARITY = 5;
+
+    /**
+     * 有返回值的函数接口，按照参数个数索引
+     */
+    protected static final Class<?>[] CALLERS = new Class<?>[]{Caller0.class, Caller1.class, Caller2.class,
+            Caller3.class, Caller4.class, Caller5.class};
+
+    /**
+     * 没有返回值的函数接口，按照参数个数索引
+     */
+    protected static final Class<?>[] VOID_CALLERS = new Class<?>[]{VoidCaller0.class, VoidCaller1.class,
+            VoidCaller2.class, VoidCaller3.class, VoidCaller4.class, VoidCaller5.class};
+
+    /**
+     * 函数接口的方法名
+     */
+    protected static final String CALL = "call";
+
+    /**
+     * 构造方法调用，不能生成的时候退化成方法句柄调用
+     *
+     * @param method 方法
+     * @param target 目标对象，静态方法可以为空
+     * @return 方法调用
+     * @throws IllegalAccessException 没有访问权限
+     */
+    public static MethodCaller build(final Method method, final Object target) throws IllegalAccessException {
+        MethodCaller result = null;
+        if (method.getParameterCount() <= MAX_ARITY && isVisible(method)) {
+            try {
+                result = generate(method, target);
+            } catch (LambdaConversionException e) {
+                logger.warn(String.format("Failed to generate lambda caller of %s, fall back to method handle. caused by %s",
+                        method, e.getMessage()));
+            }
+        }
+        return result != null ? result : MethodHandleCaller.build(method, target);
+    }
+
+    /**
+     * 生成方法调用
+     *
+     * @param method 方法
+     * @param target 目标对象
+     * @return 方法调用
+     * @throws IllegalAccessException    没有访问权限
+     * @throws LambdaConversionException 生成失败
+     */
+    protected static MethodCaller generate(final Method method, final Object target) throws IllegalAccessException,
+            LambdaConversionException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(method);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        Class<?> returnType = method.getReturnType();
+        int arity = method.getParameterCount();
+        Class<?> face = returnType == void.class ? VOID_CALLERS[arity] : CALLERS[arity];
+        //函数接口擦除后的类型
+        MethodType erased = MethodType.genericMethodType(arity);
+        if (returnType == void.class) {
+            erased = erased.changeReturnType(void.class);
+        }
+        //实例化的类型，由生成的类负责类型转换和装箱拆箱
+        MethodType instantiated = MethodType.methodType(returnType, method.getParameterTypes()).wrap();
+        if (returnType == void.class) {
+            instantiated = instantiated.changeReturnType(void.class);
+        }
+        MethodType factoryType = isStatic ? MethodType.methodType(face) : MethodType.methodType(face, method.getDeclaringClass());
+        CallSite site = LambdaMetafactory.metafactory(lookup, CALL, factoryType, erased, handle, instantiated);
+        try {
+            return isStatic ? (MethodCaller) site.getTarget().invoke() : (MethodCaller) site.getTarget().invoke(target);
+        } catch (Throwable e) {
+            throw new LambdaConversionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 生成的类定义在当前类的类加载器中，方法和涉及的类型都要能公开访问
+     *
+     * @param method 方法
+     * @return 可见标识
+     */
+    protected static boolean isVisible(final Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || !isVisible(method.getDeclaringClass())
+                || !isVisible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!isVisible(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断类型是否可以从当前类加载器公开访问
+     *
+     * @param type 类型
+     * @return 可见标识
+     */
+    protected static boolean isVisible(final Class<?> type) {
+        Class<?> clazz = type;
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        if (clazz.isPrimitive()) {
+            return true;
+        } else if (!Modifier.isPublic(clazz.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(clazz.getName(), false, LambdaCaller.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caller0 extends MethodCaller {
+
+        Object call() throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                return call();
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caller1 extends MethodCaller {
+
+        Object call(Object a0) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                return call(args[0]);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caller2 extends MethodCaller {
+
+        Object call(Object a0, Object a1) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                return call(args[0], args[1]);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caller3 extends MethodCaller {
+
+        Object call(Object a0, Object a1, Object a2) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                return call(args[0], args[1], args[2]);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caller4 extends MethodCaller {
+
+        Object call(Object a0, Object a1, Object a2, Object a3) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                return call(args[0], args[1], args[2], args[3]);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caller5 extends MethodCaller {
+
+        Object call(Object a0, Object a1, Object a2, Object a3, Object a4) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                return call(args[0], args[1], args[2], args[3], args[4]);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface VoidCaller0 extends MethodCaller {
+
+        void call() throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                call();
+                return null;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface VoidCaller1 extends MethodCaller {
+
+        void call(Object a0) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                call(args[0]);
+                return null;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface VoidCaller2 extends MethodCaller {
+
+        void call(Object a0, Object a1) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                call(args[0], args[1]);
+                return null;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface VoidCaller3 extends MethodCaller {
+
+        void call(Object a0, Object a1, Object a2) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                call(args[0], args[1], args[2]);
+                return null;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface VoidCaller4 extends MethodCaller {
+
+        void call(Object a0, Object a1, Object a2, Object a3) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                call(args[0], args[1], args[2], args[3]);
+                return null;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface VoidCaller5 extends MethodCaller {
+
+        void call(Object a0, Object a1, Object a2, Object a3, Object a4) throws Throwable;
+
+        @Override
+        default Object invoke(final Object[] args) throws InvocationTargetException {
+            try {
+                call(args[0], args[1], args[2], args[3], args[4]);
+                return null;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+}
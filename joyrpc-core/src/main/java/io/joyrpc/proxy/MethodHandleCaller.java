@@ -0,0 +1,90 @@
+package io.joyrpc.proxy;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于方法句柄的方法调用，不需要编译器。<br/>
+ * 句柄绑定了目标对象，展开了参数数组并适配成(Object[])Object。句柄保存在实例字段中，JIT不会当作常量内联，
+ * 只作为{@link LambdaCaller}不能生成时的退化实现。
+ */
+public class MethodHandleCaller implements MethodCaller {
+
+    /**
+     * 调用的类型
+     */
+    protected static final MethodType CALLER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    /**
+     * 方法句柄
+     */
+    protected final MethodHandle handle;
+
+    /**
+     * 构造函数
+     *
+     * @param handle 方法句柄，类型为(Object[])Object
+     */
+    public MethodHandleCaller(final MethodHandle handle) {
+        this.handle = handle.asType(CALLER_TYPE);
+    }
+
+    @Override
+    public Object invoke(final Object[] args) throws InvocationTargetException {
+        try {
+            return (Object) handle.invokeExact(args);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * 构造方法调用
+     *
+     * @param method 方法
+     * @param target 目标对象，静态方法可以为空
+     * @return 方法调用
+     * @throws IllegalAccessException 没有访问权限
+     */
+    public static MethodCaller build(final Method method, final Object target) throws IllegalAccessException {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            //非公共的接口
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        }
+        //可变参数按照数组传递
+        handle = handle.asFixedArity();
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(target);
+        }
+        //基本类型的参数按照包装类型拆箱，void返回null
+        return new MethodHandleCaller(handle.asSpreader(Object[].class, method.getParameterCount()));
+    }
+}
@@ -0,0 +1,220 @@
+package io.joyrpc.stream;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.exception.RpcException;
+import io.joyrpc.invoker.ServiceManager;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.protocol.message.ResponsePayload;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static io.joyrpc.constants.Constants.HEAD_STREAM_CREDIT;
+
+/**
+ * 接收的流，消费一半窗口后向发送方补充授信
+ *
+ * @param <T>
+ */
+public class InboundStream<T> implements StreamIterator<T> {
+
+    /**
+     * 结束标识
+     */
+    protected static final Object END = new Object();
+    /**
+     * 空元素
+     */
+    protected static final Object NULL = new Object();
+
+    /**
+     * 流管理器
+     */
+    protected final StreamManager manager;
+    /**
+     * 流ID
+     */
+    protected final int id;
+    /**
+     * 请求头，用于构造授信消息
+     */
+    protected final MessageHeader header;
+    /**
+     * 接收窗口
+     */
+    protected final int window;
+    /**
+     * 等待元素的超时时间，小于等于0表示不超时
+     */
+    protected final long timeout;
+    /**
+     * 收到的元素，发送方受授信限制，队列大小不会超过窗口
+     */
+    protected final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    /**
+     * 预取的元素
+     */
+    protected Object next;
+    /**
+     * 已消费还未授信的数量
+     */
+    protected int consumed;
+    /**
+     * 结束标识
+     */
+    protected volatile boolean finished;
+
+    public InboundStream(final StreamManager manager, final int id, final MessageHeader header,
+                         final int window, final long timeout) {
+        this.manager = manager;
+        this.id = id;
+        this.header = header;
+        this.window = Math.max(window, 1);
+        this.timeout = timeout;
+    }
+
+    /**
+     * 收到数据
+     *
+     * @param payload 数据
+     * @param end     结束标识
+     */
+    public void onData(final ResponsePayload payload, final boolean end) {
+        if (payload != null) {
+            if (payload.isError()) {
+                queue.offer(payload.getException());
+                return;
+            }
+            Object value = payload.getResponse();
+            if (!end || value != null) {
+                queue.offer(value == null ? NULL : value);
+            }
+        }
+        if (end) {
+            queue.offer(END);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        } else if (finished) {
+            return false;
+        }
+        Object value;
+        try {
+            value = timeout > 0 ? queue.poll(timeout, TimeUnit.MILLISECONDS) : queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new RpcException("stream is interrupted.", e);
+        }
+        if (value == null) {
+            close();
+            throw new RpcException(String.format("stream %d is timeout after waiting %d(ms).", id, timeout));
+        } else if (value == END) {
+            finish();
+            return false;
+        } else if (value instanceof Throwable) {
+            finish();
+            Throwable throwable = (Throwable) value;
+            throw throwable instanceof RpcException ? (RpcException) throwable : new RpcException(throwable.getMessage(), throwable);
+        }
+        next = value;
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object value = next;
+        next = null;
+        if (++consumed >= (window + 1) / 2) {
+            grant(consumed);
+            consumed = 0;
+        }
+        return value == NULL ? null : (T) value;
+    }
+
+    @Override
+    public void close() {
+        if (!finished) {
+            finish();
+            //通知发送方取消
+            grant(0);
+        }
+    }
+
+    @Override
+    public void subscribe(final StreamObserver<? super T> observer) {
+        //在回调线程池中推送，不阻塞调用方
+        ServiceManager.getCallbackThreadPool().execute(() -> drain(observer));
+    }
+
+    /**
+     * 推送所有元素
+     *
+     * @param observer 观察者
+     */
+    protected void drain(final StreamObserver<? super T> observer) {
+        try {
+            while (hasNext()) {
+                observer.onNext(next());
+            }
+            observer.onCompleted();
+        } catch (Throwable e) {
+            close();
+            observer.onError(e);
+        }
+    }
+
+    /**
+     * 结束
+     */
+    protected void finish() {
+        finished = true;
+        next = null;
+        manager.remove(this);
+    }
+
+    /**
+     * 向发送方授信
+     *
+     * @param credit 授信数量，小于等于0表示取消
+     */
+    protected void grant(final int credit) {
+        MessageHeader message = StreamManager.header(header, MsgType.StreamCredit, id);
+        message.addAttribute(HEAD_STREAM_CREDIT, credit);
+        manager.send(new RequestMessage<>(message), null);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
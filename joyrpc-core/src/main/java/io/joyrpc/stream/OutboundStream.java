@@ -0,0 +1,163 @@
+package io.joyrpc.stream;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.invoker.ServiceManager;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.protocol.message.ResponsePayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.joyrpc.constants.Constants.HEAD_STREAM_END;
+
+/**
+ * 发送的流，只在有授信的时候从迭代器拉取数据，迭代器可以按需读取数据库游标等资源
+ */
+public class OutboundStream implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundStream.class);
+
+    /**
+     * 流管理器
+     */
+    protected final StreamManager manager;
+    /**
+     * 流ID
+     */
+    protected final int id;
+    /**
+     * 请求头，用于构造数据消息
+     */
+    protected final MessageHeader header;
+    /**
+     * 数据
+     */
+    protected final Iterator<?> iterator;
+    /**
+     * 剩余授信
+     */
+    protected final AtomicLong credit = new AtomicLong();
+    /**
+     * 是否在发送
+     */
+    protected final AtomicBoolean running = new AtomicBoolean();
+    /**
+     * 关闭标识
+     */
+    protected volatile boolean closed;
+
+    public OutboundStream(final StreamManager manager, final int id, final MessageHeader header, final Iterator<?> iterator) {
+        this.manager = manager;
+        this.id = id;
+        this.header = header;
+        this.iterator = iterator;
+    }
+
+    /**
+     * 收到授信
+     *
+     * @param count 数量，小于等于0表示接收方取消
+     */
+    public void grant(final int count) {
+        if (count <= 0) {
+            close();
+        } else {
+            credit.addAndGet(count);
+            start();
+        }
+    }
+
+    /**
+     * 开始发送，同一时刻只有一个线程在发送
+     */
+    public void start() {
+        if (!closed && credit.get() > 0 && running.compareAndSet(false, true)) {
+            ServiceManager.getCallbackThreadPool().execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed && credit.get() > 0) {
+                if (!manager.channel.isActive()) {
+                    close();
+                } else if (!iterator.hasNext()) {
+                    send(null, true);
+                    close();
+                } else {
+                    Object value = iterator.next();
+                    credit.decrementAndGet();
+                    send(new ResponsePayload(value), false);
+                }
+            }
+        } catch (Throwable e) {
+            logger.error(String.format("Error occurs while sending stream %d, caused by %s", id, e.getMessage()), e);
+            send(new ResponsePayload(e), true);
+            close();
+        } finally {
+            running.set(false);
+        }
+        //释放标识期间可能收到了新的授信
+        start();
+    }
+
+    /**
+     * 发送数据
+     *
+     * @param payload 数据
+     * @param end     结束标识
+     */
+    protected void send(final ResponsePayload payload, final boolean end) {
+        MessageHeader message = StreamManager.header(header, MsgType.StreamData, id);
+        if (end) {
+            message.addAttribute(HEAD_STREAM_END, (byte) 1);
+        }
+        manager.send(new RequestMessage<>(message, payload), end ? null : this::close);
+    }
+
+    /**
+     * 关闭
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            manager.remove(this);
+            if (iterator instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) iterator).close();
+                } catch (Exception e) {
+                    logger.error(String.format("Error occurs while closing stream %d, caused by %s", id, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
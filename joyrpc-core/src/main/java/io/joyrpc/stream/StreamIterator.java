@@ -0,0 +1,101 @@
+package io.joyrpc.stream;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 流式迭代器。<br/>
+ * 服务方法返回该类型，服务端按照消费者的授信逐个发送元素；方法参数是该类型，消费者按照服务端的授信逐个发送元素。
+ * 迭代器按需拉取数据，两端内存占用受接收窗口限制。
+ *
+ * @param <T>
+ */
+public interface StreamIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * 关闭，接收方提前关闭会通知对端停止发送
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * 订阅，逐个推送元素给观察者
+     *
+     * @param observer 观察者
+     */
+    default void subscribe(final StreamObserver<? super T> observer) {
+        try {
+            while (hasNext()) {
+                observer.onNext(next());
+            }
+            observer.onCompleted();
+        } catch (Throwable e) {
+            close();
+            observer.onError(e);
+        }
+    }
+
+    /**
+     * 包装迭代器
+     *
+     * @param iterator 迭代器
+     * @param <T>
+     * @return 流式迭代器
+     */
+    static <T> StreamIterator<T> of(final Iterator<T> iterator) {
+        return of(iterator, null);
+    }
+
+    /**
+     * 包装迭代器
+     *
+     * @param iterator 迭代器
+     * @param closing  关闭时执行，例如关闭数据库游标
+     * @param <T>
+     * @return 流式迭代器
+     */
+    static <T> StreamIterator<T> of(final Iterator<T> iterator, final Runnable closing) {
+        return new StreamIterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator != null && iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (iterator == null) {
+                    throw new NoSuchElementException();
+                }
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                if (closing != null) {
+                    closing.run();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,302 @@
+package io.joyrpc.stream;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.Result;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.message.Message;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.joyrpc.constants.Constants.*;
+
+/**
+ * 通道上的流管理器，流ID由消费者生成，在通道内唯一
+ */
+public class StreamManager {
+
+    /**
+     * 通道
+     */
+    protected final Channel channel;
+    /**
+     * 流ID生成器，流ID只需要在通道内唯一
+     */
+    protected final AtomicInteger ids = new AtomicInteger();
+    /**
+     * 接收的流
+     */
+    protected final Map<Integer, InboundStream<?>> inbounds = new ConcurrentHashMap<>();
+    /**
+     * 发送的流
+     */
+    protected final Map<Integer, OutboundStream> outbounds = new ConcurrentHashMap<>();
+
+    public StreamManager(final Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 获取通道上的流管理器
+     *
+     * @param channel 通道
+     * @return 流管理器
+     */
+    public static StreamManager get(final Channel channel) {
+        StreamManager result = channel.getAttribute(Channel.STREAM_MANAGER);
+        if (result == null) {
+            synchronized (channel) {
+                result = channel.getAttribute(Channel.STREAM_MANAGER);
+                if (result == null) {
+                    result = new StreamManager(channel);
+                    channel.setAttribute(Channel.STREAM_MANAGER, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取通道上已经存在的流管理器
+     *
+     * @param channel 通道
+     * @return 流管理器
+     */
+    public static StreamManager peek(final Channel channel) {
+        return channel.getAttribute(Channel.STREAM_MANAGER);
+    }
+
+    /**
+     * 消费者发送请求前注册流，避免对端的数据先于注册到达
+     *
+     * @param channel 通道
+     * @param request 请求
+     * @param window  接收窗口
+     * @return 流式调用，不是流式方法返回null
+     */
+    public static StreamCall open(final Channel channel, final RequestMessage<Invocation> request, final int window) {
+        Invocation invocation = request.getPayLoad();
+        Method method = invocation.getMethod();
+        if (method == null || channel == null) {
+            return null;
+        }
+        MessageHeader header = request.getHeader();
+        if (method.getReturnType() == StreamIterator.class) {
+            //服务端流，初始授信随请求发送
+            StreamManager manager = get(channel);
+            int id = manager.ids.incrementAndGet();
+            InboundStream<?> inbound = new InboundStream<>(manager, id, header, window, header.getTimeout());
+            manager.inbounds.put(id, inbound);
+            header.addAttribute(HEAD_STREAM_ID, id);
+            header.addAttribute(HEAD_STREAM_CREDIT, window);
+            return new StreamCall(inbound, null);
+        }
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = invocation.getArgs();
+        for (int i = 0; i < types.length && args != null && i <= Byte.MAX_VALUE; i++) {
+            if (types[i] == StreamIterator.class && args[i] != null) {
+                //客户端流，等待服务端授信
+                StreamManager manager = get(channel);
+                int id = manager.ids.incrementAndGet();
+                OutboundStream outbound = new OutboundStream(manager, id, header, (Iterator<?>) args[i]);
+                manager.outbounds.put(id, outbound);
+                header.addAttribute(HEAD_STREAM_ID, id);
+                header.addAttribute(HEAD_STREAM_ARG, (byte) i);
+                //复制参数，不修改调用方的参数数组
+                Object[] copy = args.clone();
+                copy[i] = null;
+                invocation.setArgs(copy);
+                return new StreamCall(null, outbound);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 服务端收到请求后恢复客户端流参数
+     *
+     * @param channel 通道
+     * @param request 请求
+     * @param window  接收窗口
+     * @return 接收的流，不是客户端流返回null
+     */
+    public static InboundStream<?> accept(final Channel channel, final RequestMessage<Invocation> request, final int window) {
+        MessageHeader header = request.getHeader();
+        Integer id = header.getAttribute(HEAD_STREAM_ID.getKey(), (Integer) null);
+        Byte index = header.getAttribute(HEAD_STREAM_ARG.getKey(), (Byte) null);
+        Object[] args = request.getPayLoad().getArgs();
+        if (id == null || index == null || args == null || index < 0 || index >= args.length) {
+            return null;
+        }
+        StreamManager manager = get(channel);
+        InboundStream<?> inbound = new InboundStream<>(manager, id, header, window, header.getTimeout());
+        manager.inbounds.put(id, inbound);
+        args[index] = inbound;
+        //授予初始窗口
+        inbound.grant(window);
+        return inbound;
+    }
+
+    /**
+     * 服务端返回流式结果，发送应答后开始推送
+     *
+     * @param channel  通道
+     * @param request  请求
+     * @param iterator 结果
+     * @return 发送的流，消费者不支持流式返回null
+     */
+    public static OutboundStream reply(final Channel channel, final RequestMessage<Invocation> request, final Iterator<?> iterator) {
+        MessageHeader header = request.getHeader();
+        Integer id = header.getAttribute(HEAD_STREAM_ID.getKey(), (Integer) null);
+        Integer credit = header.getAttribute(HEAD_STREAM_CREDIT.getKey(), (Integer) null);
+        if (id == null || credit == null) {
+            return null;
+        }
+        StreamManager manager = get(channel);
+        OutboundStream outbound = new OutboundStream(manager, id, header, iterator);
+        manager.outbounds.put(id, outbound);
+        outbound.credit.addAndGet(credit);
+        return outbound;
+    }
+
+    /**
+     * 构造流消息头，复制请求的序列化、压缩和会话
+     *
+     * @param source 请求头
+     * @param type   消息类型
+     * @param id     流ID
+     * @return 消息头
+     */
+    protected static MessageHeader header(final MessageHeader source, final MsgType type, final int id) {
+        MessageHeader result = new MessageHeader(type.getType());
+        result.setSerialization(source.getSerialization());
+        result.setCompression(source.getCompression());
+        result.setChecksum(source.getChecksum());
+        result.setSessionId(source.getSessionId());
+        result.setSession(source.getSession());
+        result.setTimeout(source.getTimeout());
+        result.addAttribute(HEAD_STREAM_ID, id);
+        return result;
+    }
+
+    /**
+     * 获取接收的流
+     *
+     * @param id 流ID
+     * @return 接收的流
+     */
+    public InboundStream<?> getInbound(final int id) {
+        return inbounds.get(id);
+    }
+
+    /**
+     * 获取发送的流
+     *
+     * @param id 流ID
+     * @return 发送的流
+     */
+    public OutboundStream getOutbound(final int id) {
+        return outbounds.get(id);
+    }
+
+    protected void remove(final InboundStream<?> stream) {
+        inbounds.remove(stream.id, stream);
+    }
+
+    protected void remove(final OutboundStream stream) {
+        outbounds.remove(stream.id, stream);
+    }
+
+    /**
+     * 发送消息，失败的时候执行回调
+     *
+     * @param message  消息
+     * @param failure  失败回调
+     */
+    protected void send(final Message message, final Runnable failure) {
+        try {
+            channel.send(message, r -> {
+                if (!r.isSuccess() && failure != null) {
+                    failure.run();
+                }
+            });
+        } catch (Throwable e) {
+            if (failure != null) {
+                failure.run();
+            }
+        }
+    }
+
+    /**
+     * 消费者的流式调用
+     */
+    public static class StreamCall {
+        /**
+         * 服务端流
+         */
+        protected final InboundStream<?> inbound;
+        /**
+         * 客户端流
+         */
+        protected final OutboundStream outbound;
+
+        public StreamCall(final InboundStream<?> inbound, final OutboundStream outbound) {
+            this.inbound = inbound;
+            this.outbound = outbound;
+        }
+
+        /**
+         * 收到应答
+         *
+         * @param result 结果
+         * @return 新的结果
+         */
+        public Result complete(final Result result) {
+            if (outbound != null) {
+                //服务端已经处理完成，停止发送
+                outbound.close();
+                return result;
+            }
+            Message response = result.getMessage();
+            MessageHeader header = response == null ? null : (MessageHeader) response.getHeader();
+            if (!result.isException() && header != null && header.getAttribute(HEAD_STREAM_ID) != null) {
+                return new Result(result.getContext(), inbound, response);
+            }
+            //异常或者服务端不支持流式，把结果转换成迭代器
+            inbound.close();
+            if (result.isException()) {
+                return result;
+            }
+            Object value = result.getValue();
+            Iterator<?> iterator = value instanceof Iterable ? ((Iterable<?>) value).iterator()
+                    : (value instanceof Iterator ? (Iterator<?>) value : null);
+            return new Result(result.getContext(), StreamIterator.of(iterator), response);
+        }
+    }
+}
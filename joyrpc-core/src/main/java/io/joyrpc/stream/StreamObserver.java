@@ -0,0 +1,48 @@
+package io.joyrpc.stream;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * 流观察者
+ *
+ * @param <T>
+ */
+public interface StreamObserver<T> {
+
+    /**
+     * 收到元素
+     *
+     * @param value 元素
+     */
+    void onNext(T value);
+
+    /**
+     * 出现异常，流结束
+     *
+     * @param throwable 异常
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * 流正常结束
+     */
+    void onCompleted();
+}
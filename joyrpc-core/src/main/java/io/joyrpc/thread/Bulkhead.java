@@ -0,0 +1,106 @@
+package io.joyrpc.thread;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import io.joyrpc.constants.ExceptionCode;
+import io.joyrpc.exception.OverloadException;
+import io.joyrpc.util.Close;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 舱壁，接口或方法独占的业务线程池，避免慢方法耗尽服务的公共业务线程池
+ */
+public class Bulkhead implements AutoCloseable {
+
+    /**
+     * 名称
+     */
+    protected final String name;
+    /**
+     * 线程池
+     */
+    protected final ThreadPoolExecutor executor;
+    /**
+     * 拒绝次数
+     */
+    protected final LongAdder rejected = new LongAdder();
+
+    /**
+     * 构造函数
+     *
+     * @param name     名称
+     * @param executor 线程池
+     */
+    public Bulkhead(final String name, final ThreadPoolExecutor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * 执行任务
+     *
+     * @param command 任务
+     * @throws OverloadException 线程池耗尽
+     */
+    public void execute(final Runnable command) throws OverloadException {
+        try {
+            executor.execute(command);
+        } catch (OverloadException e) {
+            rejected.increment();
+            throw e;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new OverloadException(String.format("Bulkhead %s of provider has bean exhausted", name),
+                    ExceptionCode.PROVIDER_THREAD_EXHAUSTED, 0, true);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 获取拒绝次数
+     *
+     * @return 拒绝次数
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void close() {
+        Close.close(executor, 0);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
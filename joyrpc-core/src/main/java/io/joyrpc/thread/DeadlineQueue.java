@@ -0,0 +1,617 @@
+package io.joyrpc.thread;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import io.joyrpc.util.SystemClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按照截止时间排序的业务线程池队列，截止时间早的任务先执行。<br/>
+ * 出队时丢弃剩余时间不够执行的任务，排队时间持续超过目标值时按照CoDel(Controlled Delay)算法逐渐加快丢弃，
+ * 让过载的服务尽快拒绝一部分请求，保证其余请求能在超时前完成，而不是所有请求都排队超时。<br/>
+ * 只有实现了{@link Deadline}的任务才会被丢弃，丢弃的任务在出队的线程中通知。<br/>
+ * 没有实现{@link Deadline}或者没有截止时间的任务把入队时间当作排序的截止时间，按照到达顺序执行，不会排在有截止时间的任务后面饿死。
+ */
+public class DeadlineQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineQueue.class);
+
+    /**
+     * 容量，小于等于0表示无界
+     */
+    protected final int capacity;
+    /**
+     * 排队时间的目标值(纳秒)
+     */
+    protected final long target;
+    /**
+     * 观察窗口(纳秒)，排队时间在窗口内一直超过目标值才开始丢弃
+     */
+    protected final long interval;
+    /**
+     * 任务
+     */
+    protected final PriorityQueue<Node> queue;
+    /**
+     * 锁
+     */
+    protected final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 非空条件
+     */
+    protected final Condition notEmpty = lock.newCondition();
+    /**
+     * 非满条件
+     */
+    protected final Condition notFull = lock.newCondition();
+    /**
+     * 入队序号，截止时间相同的任务先进先出
+     */
+    protected long sequence;
+    /**
+     * 排队时间超过目标值的观察截止时间，0表示没有超过目标值
+     */
+    protected long firstAboveTime;
+    /**
+     * 下次丢弃的时间
+     */
+    protected long dropNext;
+    /**
+     * 本轮丢弃次数
+     */
+    protected int count;
+    /**
+     * 上一轮丢弃次数
+     */
+    protected int lastCount;
+    /**
+     * 是否处于丢弃状态
+     */
+    protected boolean dropping;
+    /**
+     * 任务的平均执行时间(纳秒)，指数加权移动平均，用于判断剩余时间是否够执行
+     */
+    protected volatile long elapsed;
+    /**
+     * 超时丢弃数
+     */
+    protected final LongAdder expired = new LongAdder();
+    /**
+     * 过载丢弃数
+     */
+    protected final LongAdder shed = new LongAdder();
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 容量，小于等于0表示无界
+     * @param target   排队时间的目标值(毫秒)
+     * @param interval 观察窗口(毫秒)
+     */
+    public DeadlineQueue(final int capacity, final long target, final long interval) {
+        this.capacity = capacity;
+        this.target = TimeUnit.MILLISECONDS.toNanos(target);
+        this.interval = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.queue = new PriorityQueue<>(capacity > 0 ? Math.min(capacity, 1024) : 64);
+    }
+
+    @Override
+    public boolean offer(final Runnable runnable) {
+        Objects.requireNonNull(runnable);
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            if (capacity > 0 && queue.size() >= capacity) {
+                return false;
+            }
+            enqueue(runnable);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(final Runnable runnable) throws InterruptedException {
+        Objects.requireNonNull(runnable);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (capacity > 0 && queue.size() >= capacity) {
+                notFull.await();
+            }
+            enqueue(runnable);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(final Runnable runnable, final long timeout, final TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(runnable);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            while (capacity > 0 && queue.size() >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(runnable);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        List<Node> drops = new ArrayList<>(0);
+        Runnable result;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            result = dequeue(drops);
+        } finally {
+            lock.unlock();
+        }
+        discard(drops);
+        return result;
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        List<Node> drops = new ArrayList<>(0);
+        Runnable result;
+        final ReentrantLock lock = this.lock;
+        while (true) {
+            lock.lockInterruptibly();
+            try {
+                while (queue.isEmpty()) {
+                    notEmpty.await();
+                }
+                result = dequeue(drops);
+            } finally {
+                lock.unlock();
+            }
+            discard(drops);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public Runnable poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        List<Node> drops = new ArrayList<>(0);
+        Runnable result;
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        while (true) {
+            lock.lockInterruptibly();
+            try {
+                while (queue.isEmpty()) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                result = dequeue(drops);
+            } finally {
+                lock.unlock();
+            }
+            discard(drops);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            Node node = queue.peek();
+            return node == null ? null : node.runnable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity > 0 ? capacity - size() : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (o == null) {
+            return false;
+        }
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            Iterator<Node> it = queue.iterator();
+            while (it.hasNext()) {
+                if (o.equals(it.next().runnable)) {
+                    it.remove();
+                    notFull.signal();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            queue.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(final Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(final Collection<? super Runnable> c, final int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int result = 0;
+            Node node;
+            while (result < maxElements && (node = queue.poll()) != null) {
+                c.add(node.runnable);
+                result++;
+            }
+            if (result > 0) {
+                notFull.signalAll();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Runnable> iterator() {
+        Runnable[] snapshot;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            snapshot = new Runnable[queue.size()];
+            int i = 0;
+            for (Node node : queue) {
+                snapshot[i++] = node.runnable;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new Itr(snapshot);
+    }
+
+    /**
+     * 记录任务的执行时间，允许并发更新丢失
+     *
+     * @param nanos 执行时间(纳秒)
+     */
+    public void record(final long nanos) {
+        long value = elapsed;
+        elapsed = value == 0 ? nanos : value + (nanos - value) / 16;
+    }
+
+    /**
+     * 任务的平均执行时间
+     *
+     * @return 平均执行时间(纳秒)
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * 超时丢弃数
+     *
+     * @return 超时丢弃数
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * 过载丢弃数
+     *
+     * @return 过载丢弃数
+     */
+    public long getShed() {
+        return shed.sum();
+    }
+
+    /**
+     * 入队，调用方持有锁
+     *
+     * @param runnable 任务
+     */
+    protected void enqueue(final Runnable runnable) {
+        long deadline = runnable instanceof Deadline ? ((Deadline) runnable).getDeadline() : 0;
+        //没有截止时间的任务按照入队时间排序，和其它任务公平竞争
+        boolean timed = deadline > 0;
+        queue.offer(new Node(runnable, timed ? deadline : SystemClock.now(), timed, sequence++, System.nanoTime()));
+        notEmpty.signal();
+    }
+
+    /**
+     * 出队，调用方持有锁，丢弃的任务放在列表中，由调用方在释放锁之后通知
+     *
+     * @param drops 丢弃的任务
+     * @return 任务，全部丢弃返回null
+     */
+    protected Runnable dequeue(final List<Node> drops) {
+        long now = System.nanoTime();
+        //剩余时间不够平均执行时间的任务大概率会在消费者超时以后才完成
+        long time = SystemClock.now() + TimeUnit.NANOSECONDS.toMillis(elapsed);
+        Node node;
+        while ((node = queue.poll()) != null) {
+            notFull.signal();
+            if (!(node.runnable instanceof Deadline)) {
+                return node.runnable;
+            } else if (node.timed && node.deadline < time) {
+                node.expired = true;
+                drops.add(node);
+            } else if (shed(now - node.enqueueTime, now)) {
+                drops.add(node);
+            } else {
+                return node.runnable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按照CoDel算法判断是否丢弃出队的任务
+     *
+     * @param sojourn 排队时间(纳秒)
+     * @param now     当前时间(纳秒)
+     * @return 丢弃标识
+     */
+    protected boolean shed(final long sojourn, final long now) {
+        boolean above = isAbove(sojourn, now);
+        if (dropping) {
+            if (!above) {
+                //排队时间降下来了，退出丢弃状态
+                dropping = false;
+            } else if (now - dropNext >= 0) {
+                //丢弃的间隔按照次数的平方根逐渐缩短
+                count++;
+                dropNext = next(dropNext);
+                return true;
+            }
+        } else if (above) {
+            dropping = true;
+            //刚退出丢弃状态又进入，延续上一轮的丢弃频率
+            int delta = count - lastCount;
+            count = delta > 1 && now - dropNext < interval * 16 ? delta : 1;
+            lastCount = count;
+            dropNext = next(now);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 判断排队时间是否在整个观察窗口内都超过了目标值
+     *
+     * @param sojourn 排队时间(纳秒)
+     * @param now     当前时间(纳秒)
+     * @return 超过标识
+     */
+    protected boolean isAbove(final long sojourn, final long now) {
+        if (sojourn < target || queue.isEmpty()) {
+            //队列已经排空，不需要丢弃
+            firstAboveTime = 0;
+            return false;
+        } else if (firstAboveTime == 0) {
+            firstAboveTime = now + interval;
+            return false;
+        }
+        return now - firstAboveTime >= 0;
+    }
+
+    /**
+     * 计算下次丢弃的时间
+     *
+     * @param time 时间
+     * @return 下次丢弃的时间
+     */
+    protected long next(final long time) {
+        return time + (long) (interval / Math.sqrt(count));
+    }
+
+    /**
+     * 通知丢弃的任务
+     *
+     * @param drops 丢弃的任务
+     */
+    protected void discard(final List<Node> drops) {
+        if (drops.isEmpty()) {
+            return;
+        }
+        for (Node node : drops) {
+            if (node.expired) {
+                expired.increment();
+            } else {
+                shed.increment();
+            }
+            try {
+                ((Deadline) node.runnable).discard(node.expired);
+            } catch (Throwable e) {
+                logger.error("Error occurs while discarding task, caused by " + e.getMessage(), e);
+            }
+        }
+        drops.clear();
+    }
+
+    /**
+     * 有截止时间的任务
+     */
+    public interface Deadline extends Runnable {
+
+        /**
+         * 截止时间
+         *
+         * @return 截止时间(毫秒)，小于等于0表示没有截止时间
+         */
+        long getDeadline();
+
+        /**
+         * 任务被丢弃
+         *
+         * @param expired 超过截止时间或者剩余时间不够执行，否则是过载丢弃
+         */
+        void discard(boolean expired);
+    }
+
+    /**
+     * 节点
+     */
+    protected static class Node implements Comparable<Node> {
+        /**
+         * 任务
+         */
+        protected final Runnable runnable;
+        /**
+         * 截止时间(毫秒)，没有截止时间的任务为入队时间
+         */
+        protected final long deadline;
+        /**
+         * 是否有截止时间，没有截止时间的任务不会超时丢弃
+         */
+        protected final boolean timed;
+        /**
+         * 入队序号
+         */
+        protected final long sequence;
+        /**
+         * 入队时间(纳秒)
+         */
+        protected final long enqueueTime;
+        /**
+         * 超时丢弃
+         */
+        protected boolean expired;
+
+        public Node(final Runnable runnable, final long deadline, final boolean timed, final long sequence,
+                    final long enqueueTime) {
+            this.runnable = runnable;
+            this.deadline = deadline;
+            this.timed = timed;
+            this.sequence = sequence;
+            this.enqueueTime = enqueueTime;
+        }
+
+        @Override
+        public int compareTo(final Node o) {
+            int result = Long.compare(deadline, o.deadline);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * 快照迭代器
+     */
+    protected class Itr implements Iterator<Runnable> {
+        /**
+         * 快照
+         */
+        protected final Runnable[] snapshot;
+        /**
+         * 下一个位置
+         */
+        protected int cursor;
+        /**
+         * 上一个位置
+         */
+        protected int last = -1;
+
+        public Itr(final Runnable[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < snapshot.length;
+        }
+
+        @Override
+        public Runnable next() {
+            if (cursor >= snapshot.length) {
+                throw new NoSuchElementException();
+            }
+            last = cursor;
+            return snapshot[cursor++];
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            DeadlineQueue.this.remove(snapshot[last]);
+            last = -1;
+        }
+    }
+}
@@ -82,4 +82,8 @@ public class NamedThreadFactory implements ThreadFactory {
         return t;
     }
 
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
 }
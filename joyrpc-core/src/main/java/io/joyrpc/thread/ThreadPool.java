@@ -27,8 +27,7 @@ import java.util.concurrent.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import static io.joyrpc.constants.Constants.QUEUES_OPTION;
-import static io.joyrpc.constants.Constants.QUEUE_TYPE_OPTION;
+import static io.joyrpc.constants.Constants.*;
 
 /**
  * 线程池
@@ -56,7 +55,22 @@ public interface ThreadPool {
      * @return
      */
     default ThreadPoolExecutor get(final URL url, final ThreadFactory threadFactory) {
-        return get(url, threadFactory, o -> QUEUE_FUNCTION.apply(url.getInteger(QUEUES_OPTION), !url.getString(QUEUE_TYPE_OPTION).equals(QUEUE_TYPE_OPTION.getValue())));
+        return get(url, threadFactory, ThreadPool::createQueue);
+    }
+
+    /**
+     * 根据队列类型和大小构建队列
+     *
+     * @param url URL
+     * @return 队列
+     */
+    static BlockingQueue createQueue(final URL url) {
+        int size = url.getInteger(QUEUES_OPTION);
+        String type = url.getString(QUEUE_TYPE_OPTION);
+        if (size != 0 && QUEUE_TYPE_DEADLINE.equals(type)) {
+            return new DeadlineQueue(size, url.getPositiveLong(QUEUE_TARGET_OPTION), url.getPositiveLong(QUEUE_INTERVAL_OPTION));
+        }
+        return QUEUE_FUNCTION.apply(size, !type.equals(QUEUE_TYPE_OPTION.getValue()));
     }
 
     /**
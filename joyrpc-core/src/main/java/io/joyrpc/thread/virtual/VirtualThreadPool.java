@@ -0,0 +1,76 @@
+package io.joyrpc.thread.virtual;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.constants.ExceptionCode;
+import io.joyrpc.exception.OverloadException;
+import io.joyrpc.extension.Extension;
+import io.joyrpc.extension.URL;
+import io.joyrpc.extension.condition.ConditionalOnJava;
+import io.joyrpc.thread.NamedThreadFactory;
+import io.joyrpc.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+
+import static io.joyrpc.constants.Constants.MAX_SIZE_OPTION;
+import static io.joyrpc.constants.Constants.QUEUES_OPTION;
+
+/**
+ * 虚拟线程池，每个任务在一个新的虚拟线程上执行，适合阻塞的业务代码，需要JDK21及以上版本。<br/>
+ * 最大线程数加上队列大小作为并发数，超过并发数的任务直接拒绝。
+ */
+@Extension(value = "virtual")
+@ConditionalOnJava("21")
+public class VirtualThreadPool implements ThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    @Override
+    public ThreadPoolExecutor get(final URL url, final ThreadFactory threadFactory, final Function<URL, BlockingQueue> function) {
+        int concurrency = url.getPositiveInt(MAX_SIZE_OPTION);
+        int queues = url.getInteger(QUEUES_OPTION);
+        if (queues > 0) {
+            concurrency += queues;
+        }
+        String prefix = threadFactory instanceof NamedThreadFactory ? ((NamedThreadFactory) threadFactory).getNamePrefix() : "virtual-";
+        return new VirtualThreadPoolExecutor(prefix, concurrency, threadFactory,
+                new RejectedExecutionHandler() {
+                    protected int i = 1;
+
+                    @Override
+                    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                        if (i++ % 7 == 0) {
+                            i = 1;
+                            logger.warn(String.format("Task:%s has been reject for ThreadPool exhausted! concurrency:%d, active:%d, tasks: %d",
+                                    r, executor.getMaximumPoolSize(), executor.getActiveCount(), executor.getTaskCount()
+                            ));
+                        }
+                        throw new OverloadException("Biz thread pool of provider has bean exhausted", ExceptionCode.PROVIDER_THREAD_EXHAUSTED, 0, true);
+                    }
+                });
+    }
+}
@@ -0,0 +1,282 @@
+package io.joyrpc.thread.virtual;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程执行器，继承ThreadPoolExecutor以兼容业务线程池的接口，不使用父类的工作线程和队列。<br/>
+ * 通过信号量限制并发数，最大线程数即为并发数，动态修改最大线程数会调整信号量。
+ */
+public class VirtualThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /**
+     * 虚拟线程工厂
+     */
+    protected final ThreadFactory factory;
+    /**
+     * 并发许可
+     */
+    protected final Permits permits;
+    /**
+     * 并发数
+     */
+    protected volatile int concurrency;
+    /**
+     * 核心线程数，只用于展示
+     */
+    protected volatile int coreSize;
+    /**
+     * 正在执行的任务数
+     */
+    protected final AtomicInteger active = new AtomicInteger();
+    /**
+     * 最大的同时执行任务数
+     */
+    protected volatile int largest;
+    /**
+     * 提交的任务数
+     */
+    protected final LongAdder tasks = new LongAdder();
+    /**
+     * 完成的任务数
+     */
+    protected final LongAdder completed = new LongAdder();
+    /**
+     * 正在执行任务的线程，用于立即关闭时中断
+     */
+    protected final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 构造函数
+     *
+     * @param prefix        线程名称前缀
+     * @param concurrency   并发数
+     * @param threadFactory 父类的线程工厂
+     * @param handler       拒绝策略
+     */
+    public VirtualThreadPoolExecutor(final String prefix, final int concurrency, final ThreadFactory threadFactory,
+                                     final RejectedExecutionHandler handler) {
+        super(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory, handler);
+        this.factory = virtualFactory(prefix);
+        this.concurrency = Math.max(1, concurrency);
+        this.coreSize = this.concurrency;
+        this.permits = new Permits(this.concurrency);
+    }
+
+    /**
+     * 构造虚拟线程工厂，通过反射调用以兼容低版本JDK的编译
+     *
+     * @param prefix 线程名称前缀
+     * @return 线程工厂
+     */
+    protected static ThreadFactory virtualFactory(final String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> type = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            Method name = type.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 1L);
+            return (ThreadFactory) type.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            throw new UnsupportedOperationException("virtual thread is not supported.", e);
+        }
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (isShutdown() || !permits.tryAcquire()) {
+            getRejectedExecutionHandler().rejectedExecution(command, this);
+            return;
+        }
+        tasks.increment();
+        int count = active.incrementAndGet();
+        if (count > largest) {
+            largest = count;
+        }
+        try {
+            factory.newThread(() -> run(command)).start();
+        } catch (Throwable e) {
+            done();
+            throw e;
+        }
+    }
+
+    /**
+     * 执行任务
+     *
+     * @param command 任务
+     */
+    protected void run(final Runnable command) {
+        Thread thread = Thread.currentThread();
+        threads.add(thread);
+        try {
+            command.run();
+        } finally {
+            threads.remove(thread);
+            completed.increment();
+            done();
+        }
+    }
+
+    /**
+     * 任务结束，释放许可并唤醒等待关闭的线程
+     */
+    protected void done() {
+        permits.release();
+        if (active.decrementAndGet() == 0 && isShutdown()) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        threads.forEach(Thread::interrupt);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isTerminating() {
+        return isShutdown() && active.get() > 0;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return isShutdown() && active.get() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long remain;
+        synchronized (this) {
+            while (!isTerminated()) {
+                remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remain);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void setCorePoolSize(final int corePoolSize) {
+        if (corePoolSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.coreSize = corePoolSize;
+    }
+
+    @Override
+    public int getCorePoolSize() {
+        return coreSize;
+    }
+
+    @Override
+    public synchronized void setMaximumPoolSize(final int maximumPoolSize) {
+        if (maximumPoolSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        int delta = maximumPoolSize - concurrency;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reducePermits(-delta);
+        }
+        concurrency = maximumPoolSize;
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return concurrency;
+    }
+
+    @Override
+    public boolean prestartCoreThread() {
+        return false;
+    }
+
+    @Override
+    public int prestartAllCoreThreads() {
+        return 0;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return active.get();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public int getLargestPoolSize() {
+        return largest;
+    }
+
+    @Override
+    public long getTaskCount() {
+        return tasks.sum();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public String toString() {
+        String state = !isShutdown() ? "Running" : (isTerminated() ? "Terminated" : "Shutting down");
+        return getClass().getName() + '@' + Integer.toHexString(hashCode()) + '[' + state +
+                ", concurrency = " + concurrency + ", active threads = " + active.get() +
+                ", completed tasks = " + completed.sum() + ']';
+    }
+
+    /**
+     * 可以调整大小的许可
+     */
+    protected static class Permits extends Semaphore {
+
+        public Permits(final int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(final int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
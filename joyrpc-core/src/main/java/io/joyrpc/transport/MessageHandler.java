@@ -40,4 +40,36 @@ public interface MessageHandler<T extends Message> extends Type<Integer> {
      * @throws HandlerException
      */
     void handle(ChannelContext context, T message) throws HandlerException;
+
+    /**
+     * 判断消息是否可以直接在IO线程中处理
+     *
+     * @param context
+     * @param message
+     * @return
+     */
+    default boolean inline(ChannelContext context, T message) {
+        return false;
+    }
+
+    /**
+     * 判断消息在业务线程池中是否按照截止时间排队，可以丢弃的消息需要实现{@link #discard(ChannelContext, Message, boolean)}
+     *
+     * @param context
+     * @param message
+     * @return
+     */
+    default boolean sheddable(ChannelContext context, T message) {
+        return false;
+    }
+
+    /**
+     * 在业务线程池中排队的消息被丢弃
+     *
+     * @param context
+     * @param message
+     * @param expired 超过截止时间，否则是过载丢弃
+     */
+    default void discard(ChannelContext context, T message, boolean expired) {
+    }
 }
@@ -97,6 +97,14 @@ public interface ChannelBuffer {
 
     ChannelBuffer readSlice(int length);
 
+    /**
+     * 读取切片并增加引用计数，切片需要单独释放
+     *
+     * @param length 长度
+     * @return 切片
+     */
+    ChannelBuffer readRetainedSlice(int length);
+
     void setByte(int index, int value);
 
     void setBytes(int index, byte[] src);
@@ -127,6 +135,19 @@ public interface ChannelBuffer {
 
     void writeBytes(ChannelBuffer src);
 
+    /**
+     * 在末尾追加数据，支持零拷贝的实现只持有数据的引用，追加之后不能再写入
+     *
+     * @param src 数据
+     */
+    default void append(final ByteBuffer src) {
+        int length = src.remaining();
+        ensureWritable(length);
+        int pos = writerIndex();
+        setBytes(pos, src.duplicate());
+        writerIndex(pos + length);
+    }
+
     int writeBytes(InputStream in, int length) throws IOException;
 
     default int writeString(final String value) {
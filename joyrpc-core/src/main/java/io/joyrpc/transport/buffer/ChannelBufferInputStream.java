@@ -64,6 +64,16 @@ public class ChannelBufferInputStream extends InputStream implements ArrayInputS
         return length;
     }
 
+    @Override
+    public long skip(final long n) {
+        int length = (int) Math.min(n, available());
+        if (length <= 0) {
+            return 0;
+        }
+        buffer.skipBytes(length);
+        return length;
+    }
+
     @Override
     public int available() {
         return endIndex - buffer.readerIndex();
@@ -261,6 +261,37 @@ public abstract class AbstractChannelManager implements ChannelManager {
             return counter.incrementAndGet();
         }
 
+        /**
+         * 获取待应答的请求数
+         *
+         * @return 待应答的请求数
+         */
+        protected int getRequests() {
+            Channel ch = channel;
+            return status != OPENED || ch == null ? 0 : ch.getFutureManager().size();
+        }
+
+        /**
+         * 获取引用计数
+         *
+         * @return 引用计数
+         */
+        protected long getRefs() {
+            return counter.get();
+        }
+
+        @Override
+        public int getQueueSize() {
+            Channel ch = channel;
+            return status != OPENED || ch == null ? 0 : ch.getQueueSize();
+        }
+
+        @Override
+        public double getMessagesPerFlush() {
+            Channel ch = channel;
+            return status != OPENED || ch == null ? -1 : ch.getMessagesPerFlush();
+        }
+
         @Override
         public void send(final Object object, final Consumer<SendResult> consumer) {
             switch (status) {
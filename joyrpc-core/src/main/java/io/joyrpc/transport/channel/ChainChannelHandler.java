@@ -20,6 +20,9 @@ package io.joyrpc.transport.channel;
  * #L%
  */
 
+import io.joyrpc.thread.DeadlineQueue;
+import io.joyrpc.transport.message.Message;
+
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -34,6 +37,10 @@ public class ChainChannelHandler implements ChannelHandler {
     protected ThreadPoolExecutor executor;
 
     protected Function<Runnable, Runnable> runFunc;
+    /**
+     * 按照截止时间排队的业务线程池队列
+     */
+    protected DeadlineQueue deadlineQueue;
 
     public ChainChannelHandler(ChannelHandlerChain chain) {
         this(chain, null);
@@ -44,6 +51,7 @@ public class ChainChannelHandler implements ChannelHandler {
         this.executor = executor;
         if (executor != null) {
             BlockingQueue queue = executor.getQueue();
+            deadlineQueue = queue instanceof DeadlineQueue ? (DeadlineQueue) queue : null;
             if (queue instanceof PriorityBlockingQueue && ((PriorityBlockingQueue) queue).comparator() == null) {
                 runFunc = ComparableRunnable::new;
             } else {
@@ -75,15 +83,15 @@ public class ChainChannelHandler implements ChannelHandler {
     @Override
     public Object received(final ChannelContext context, final Object message) {
         if (executor != null) {
-            executor.execute(
-                    runFunc.apply(() -> {
-                        try {
-                            doReceived(context, message);
-                        } catch (Exception e) {
-                            //发生异常，触发异常事件
-                            context.getChannel().fireCaught(e);
-                        }
-                    }));
+            if (inline(context, message)) {
+                //执行很快的消息直接在IO线程中处理，节省线程切换的开销
+                execute(context, message);
+            } else if (deadlineQueue != null && sheddable(context, message)) {
+                //按照截止时间排队，超时或者过载的时候丢弃
+                executor.execute(new DeadlineTask(context, message));
+            } else {
+                executor.execute(runFunc.apply(() -> execute(context, message)));
+            }
             return null;
         } else {
             //在IO线程中，发生异常，有底层插件捕获
@@ -91,6 +99,48 @@ public class ChainChannelHandler implements ChannelHandler {
         }
     }
 
+    @Override
+    public boolean inline(final ChannelContext context, final Object message) {
+        for (ChannelHandler handler : chain.handlers) {
+            if (handler.inline(context, message)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean sheddable(final ChannelContext context, final Object message) {
+        for (ChannelHandler handler : chain.handlers) {
+            if (handler.sheddable(context, message)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void discard(final ChannelContext context, final Object message, final boolean expired) {
+        for (ChannelHandler handler : chain.handlers) {
+            handler.discard(context, message, expired);
+        }
+    }
+
+    /**
+     * 处理消息，发生异常触发异常事件
+     *
+     * @param context
+     * @param message
+     */
+    protected void execute(final ChannelContext context, final Object message) {
+        try {
+            doReceived(context, message);
+        } catch (Exception e) {
+            //发生异常，触发异常事件
+            context.getChannel().fireCaught(e);
+        }
+    }
+
     /**
      * 接收消息处理
      *
@@ -133,6 +183,41 @@ public class ChainChannelHandler implements ChannelHandler {
         }
     }
 
+    /**
+     * 有截止时间的任务，截止时间按照请求的接收时间和超时时间计算
+     */
+    protected class DeadlineTask implements DeadlineQueue.Deadline {
+
+        protected ChannelContext context;
+        protected Object message;
+        protected long deadline;
+
+        public DeadlineTask(ChannelContext context, Object message) {
+            this.context = context;
+            this.message = message;
+            //从收到请求开始计算，扣除在IO线程中解码和排队前已经消耗的时间
+            this.deadline = message instanceof Message ? ((Message) message).getDeadline() : 0;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public void discard(final boolean expired) {
+            ChainChannelHandler.this.discard(context, message, expired);
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            execute(context, message);
+            //统计执行时间，异步执行的方法只统计同步部分
+            deadlineQueue.record(System.nanoTime() - start);
+        }
+    }
+
     protected class ComparableRunnable implements Runnable, Comparable {
 
         protected Runnable runnable;
@@ -52,6 +52,12 @@ public interface Channel {
 
     String PAYLOAD = "PAYLOAD";
 
+    String LAZY_DECODE = "LAZY_DECODE";
+
+    String BINARY_THRESHOLD = "BINARY_THRESHOLD";
+
+    String STREAM_MANAGER = "STREAM_MANAGER";
+
     String EVENT_PUBLISHER = "EVENT_PUBLISHER";
 
     /**
@@ -132,6 +138,33 @@ public interface Channel {
      */
     boolean isWritable();
 
+    /**
+     * 是否可以发送，通道可写或者发送队列未满
+     *
+     * @return 可以发送标识
+     */
+    default boolean isSendable() {
+        return isWritable();
+    }
+
+    /**
+     * 发送队列中等待的消息数
+     *
+     * @return 等待的消息数
+     */
+    default int getQueueSize() {
+        return 0;
+    }
+
+    /**
+     * 平均每次刷新的消息数
+     *
+     * @return 平均每次刷新的消息数，没有开启刷新合并返回-1
+     */
+    default double getMessagesPerFlush() {
+        return -1;
+    }
+
     /**
      * 是否存活
      *
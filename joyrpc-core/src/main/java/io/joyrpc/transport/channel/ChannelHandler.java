@@ -52,6 +52,38 @@ public interface ChannelHandler {
         return message;
     }
 
+    /**
+     * 判断消息是否可以直接在IO线程中处理，不用切换到业务线程池
+     *
+     * @param context
+     * @param message
+     * @return
+     */
+    default boolean inline(final ChannelContext context, final Object message) {
+        return false;
+    }
+
+    /**
+     * 判断消息在业务线程池中是否按照截止时间排队，排队超时或者过载的时候可以丢弃
+     *
+     * @param context
+     * @param message
+     * @return
+     */
+    default boolean sheddable(final ChannelContext context, final Object message) {
+        return false;
+    }
+
+    /**
+     * 在业务线程池中排队的消息被丢弃
+     *
+     * @param context
+     * @param message
+     * @param expired 超过截止时间，否则是过载丢弃
+     */
+    default void discard(final ChannelContext context, final Object message, final boolean expired) {
+    }
+
     /**
      * 写消息
      *
@@ -69,6 +69,21 @@ public class DecoratorChannel implements Channel {
         return channel.isWritable();
     }
 
+    @Override
+    public boolean isSendable() {
+        return channel.isSendable();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return channel.getQueueSize();
+    }
+
+    @Override
+    public double getMessagesPerFlush() {
+        return channel.getMessagesPerFlush();
+    }
+
     @Override
     public boolean isActive() {
         return channel.isActive();
@@ -0,0 +1,138 @@
+package io.joyrpc.transport.channel;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.extension.URL;
+import io.joyrpc.transport.transport.ClientTransport;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.joyrpc.constants.Constants.*;
+
+/**
+ * 连接池通道管理器，每个节点保持多个物理连接，客户端通道绑定到负载最小的连接上。<br/>
+ * 服务端按照物理连接保存会话，请求必须从协商会话的连接上发出，所以在客户端通道绑定的时候选择连接，而不是每次发送的时候选择。<br/>
+ * 按需模式下优先复用已有连接，已有连接的待应答请求数都达到阈值才创建新的连接，直到最大连接数。
+ */
+public class PooledChannelManager extends AbstractChannelManager implements ChannelManager {
+
+    /**
+     * 每个节点的轮询序号，负载相同的时候依次分配
+     */
+    protected Map<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+    public PooledChannelManager(URL url) {
+        super(url);
+    }
+
+    @Override
+    public String getChannelKey(final ClientTransport transport) {
+        if (transport == null) {
+            return null;
+        }
+        URL url = transport.getUrl();
+        String prefix = "ch-pooled-" + url.getProtocol() + "-" + url.getHost() + "-" + url.getPort() + "-";
+        int connections = url.getPositiveInt(CHANNEL_CONNECTIONS_OPTION);
+        if (connections == 1) {
+            return prefix + 0;
+        }
+        boolean adaptive = url.getBoolean(CHANNEL_ADAPTIVE_OPTION);
+        int start = sequences.computeIfAbsent(prefix, o -> new AtomicInteger()).getAndIncrement() & Integer.MAX_VALUE;
+        //选择待应答请求最少的连接，未创建的连接负载为0
+        String result = null;
+        String idle = null;
+        long min = Long.MAX_VALUE;
+        String key;
+        PoolChannel channel;
+        long load;
+        for (int i = 0; i < connections; i++) {
+            key = prefix + ((start + i) % connections);
+            channel = channels.get(key);
+            if (channel == null && adaptive) {
+                //按需模式下未创建的连接只作为备选
+                if (idle == null) {
+                    idle = key;
+                }
+                continue;
+            }
+            load = channel == null ? 0 : channel.getRequests();
+            if (load < min) {
+                min = load;
+                result = key;
+                if (load == 0) {
+                    break;
+                }
+            }
+        }
+        if (idle != null && (result == null || min >= url.getPositiveInt(CHANNEL_ADAPTIVE_REQUESTS_OPTION))) {
+            result = idle;
+        }
+        return result;
+    }
+
+    /**
+     * 获取每个连接的待应答请求数
+     *
+     * @return 连接名称和待应答请求数
+     */
+    public Map<String, Integer> getRequests() {
+        Map<String, Integer> result = new HashMap<>(channels.size());
+        channels.forEach((k, v) -> result.put(k, v.getRequests()));
+        return result;
+    }
+
+    /**
+     * 获取每个连接上绑定的客户端通道数
+     *
+     * @return 连接名称和客户端通道数
+     */
+    public Map<String, Long> getRefs() {
+        Map<String, Long> result = new HashMap<>(channels.size());
+        channels.forEach((k, v) -> result.put(k, v.getRefs()));
+        return result;
+    }
+
+    /**
+     * 获取每个连接的发送队列中等待的消息数
+     *
+     * @return 连接名称和等待的消息数
+     */
+    public Map<String, Integer> getQueueSizes() {
+        Map<String, Integer> result = new HashMap<>(channels.size());
+        channels.forEach((k, v) -> result.put(k, v.getQueueSize()));
+        return result;
+    }
+
+    /**
+     * 获取每个连接平均每次刷新的消息数
+     *
+     * @return 连接名称和平均每次刷新的消息数，没有开启刷新合并为-1
+     */
+    public Map<String, Double> getMessagesPerFlush() {
+        Map<String, Double> result = new HashMap<>(channels.size());
+        channels.forEach((k, v) -> result.put(k, v.getMessagesPerFlush()));
+        return result;
+    }
+
+}
@@ -38,4 +38,15 @@ public interface Encoder {
      * @throws CodecException
      */
     void encode(EncodeContext context, ChannelBuffer buffer, Object message) throws CodecException;
+
+    /**
+     * 预估编码后的大小，用于预分配缓冲区
+     *
+     * @param context 上下文
+     * @param message 消息
+     * @return 预估大小，0表示未知
+     */
+    default int estimate(EncodeContext context, Object message) {
+        return 0;
+    }
 }
@@ -84,6 +84,15 @@ public interface Message<H extends Header, T> {
         return header == null ? -1 : header.getMsgType();
     }
 
+    /**
+     * 获取截止时间，超过该时间对端已经不再等待
+     *
+     * @return 截止时间，0表示未知
+     */
+    default long getDeadline() {
+        return 0;
+    }
+
     /**
      * 判断是否是请求消息
      *
@@ -23,6 +23,9 @@ package io.joyrpc.transport.session;
 import io.joyrpc.codec.checksum.Checksum;
 import io.joyrpc.codec.compression.Compression;
 import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.codec.serialization.StringTable;
+import io.joyrpc.extension.Converts;
+import io.joyrpc.protocol.message.MethodDictionary;
 import io.joyrpc.transport.session.Session.RpcSession;
 import io.joyrpc.util.Maps;
 
@@ -126,6 +129,22 @@ public class DefaultSession implements RpcSession {
      * 远端应用分组
      */
     protected volatile Optional<String> remoteAppGroup;
+    /**
+     * 方法字典
+     */
+    protected volatile Optional<MethodDictionary> methodDictionary;
+    /**
+     * 参数类型省略
+     */
+    protected volatile Boolean typeElision;
+    /**
+     * 二进制参数分离
+     */
+    protected volatile Boolean binary;
+    /**
+     * 字符串表
+     */
+    protected volatile Optional<StringTable> stringTable;
 
     /**
      * 会话属性集
@@ -330,6 +349,44 @@ public class DefaultSession implements RpcSession {
         return remoteAppGroup.orElse(null);
     }
 
+    @Override
+    public MethodDictionary getMethodDictionary() {
+        if (methodDictionary == null) {
+            String text = attrs.get(KEY_METHOD_DICTIONARY);
+            methodDictionary = Optional.ofNullable(text == null || text.isEmpty() ? null : new MethodDictionary(text));
+        }
+        return methodDictionary.orElse(null);
+    }
+
+    @Override
+    public boolean isTypeElision() {
+        if (typeElision == null) {
+            typeElision = Boolean.parseBoolean(attrs.get(KEY_TYPE_ELISION));
+        }
+        return typeElision;
+    }
+
+    @Override
+    public boolean isBinary() {
+        if (binary == null) {
+            binary = Boolean.parseBoolean(attrs.get(KEY_BINARY));
+        }
+        return binary;
+    }
+
+    @Override
+    public StringTable getStringTable() {
+        if (stringTable == null) {
+            synchronized (this) {
+                if (stringTable == null) {
+                    int capacity = Converts.getPositive(attrs.get(KEY_STRING_TABLE), 0);
+                    stringTable = Optional.ofNullable(capacity <= 0 ? null : new StringTable(capacity));
+                }
+            }
+        }
+        return stringTable.orElse(null);
+    }
+
     @Override
     public long getLastTime() {
         return lastTime;
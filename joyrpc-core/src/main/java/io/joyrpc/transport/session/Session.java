@@ -24,7 +24,9 @@ import io.joyrpc.Invoker;
 import io.joyrpc.codec.checksum.Checksum;
 import io.joyrpc.codec.compression.Compression;
 import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.codec.serialization.StringTable;
 import io.joyrpc.protocol.ServerProtocol;
+import io.joyrpc.protocol.message.MethodDictionary;
 import io.joyrpc.transport.transport.ChannelTransport;
 import io.joyrpc.util.SystemClock;
 
@@ -379,6 +381,42 @@ public interface Session {
          * @return 远端应用分组
          */
         String getRemoteAppGroup();
+
+        /**
+         * 获取协商的方法字典
+         *
+         * @return 方法字典
+         */
+        default MethodDictionary getMethodDictionary() {
+            return null;
+        }
+
+        /**
+         * 是否协商了参数类型省略
+         *
+         * @return 参数类型省略标识
+         */
+        default boolean isTypeElision() {
+            return false;
+        }
+
+        /**
+         * 是否协商了二进制参数分离
+         *
+         * @return 二进制参数分离标识
+         */
+        default boolean isBinary() {
+            return false;
+        }
+
+        /**
+         * 获取协商的字符串表
+         *
+         * @return 字符串表，没有协商返回null
+         */
+        default StringTable getStringTable() {
+            return null;
+        }
     }
 
     /**
@@ -0,0 +1,302 @@
+package io.joyrpc.util;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 轻量级的对象回收池，每个线程持有有界的空闲栈。<br/>
+ * 对象归属创建它的线程，在其它线程回收的对象放入归属线程的无锁链表，由归属线程在空闲栈为空的时候取回；
+ * 虚拟线程数量多且生命周期短，不缓存对象。栈满后丢弃，交给GC处理；对象没有回收也只是退化为普通的分配。<br/>
+ * 统计了借出和回收的数量，便于测试检查泄漏；重复回收会抛出异常。
+ *
+ * @param <T>
+ */
+public class Recycler<T> {
+
+    /**
+     * 判断虚拟线程的方法，JDK21以下为null
+     */
+    protected static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    /**
+     * 对象构造器，参数为回收句柄
+     */
+    protected final Function<Handle<T>, T> factory;
+    /**
+     * 每个线程的最大空闲数
+     */
+    protected final int capacity;
+    /**
+     * 线程空闲栈
+     */
+    protected final ThreadLocal<Stack<T>> stacks;
+    /**
+     * 借出数量
+     */
+    protected final LongAdder borrows = new LongAdder();
+    /**
+     * 回收数量
+     */
+    protected final LongAdder recycles = new LongAdder();
+
+    /**
+     * 构造函数
+     *
+     * @param factory  对象构造器
+     * @param capacity 每个线程的最大空闲数，小于等于0则不缓存
+     */
+    public Recycler(final Function<Handle<T>, T> factory, final int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+        this.stacks = ThreadLocal.withInitial(() -> new Stack<>(Thread.currentThread(), capacity));
+    }
+
+    /**
+     * 借出对象
+     *
+     * @return 对象
+     */
+    public T get() {
+        borrows.increment();
+        Stack<T> stack = capacity <= 0 || isVirtual(Thread.currentThread()) ? null : stacks.get();
+        Handle<T> handle = stack == null ? null : stack.pop();
+        if (handle == null) {
+            handle = new Handle<>(this, stack);
+            handle.value = factory.apply(handle);
+        } else {
+            handle.state = Handle.BORROWED;
+        }
+        return handle.value;
+    }
+
+    /**
+     * 回收
+     *
+     * @param handle 句柄
+     */
+    protected void recycle(final Handle<T> handle) {
+        recycles.increment();
+        if (handle.stack != null) {
+            handle.stack.push(handle);
+        }
+    }
+
+    /**
+     * 借出还没有回收的数量
+     *
+     * @return 数量
+     */
+    public long getOutstanding() {
+        return borrows.sum() - recycles.sum();
+    }
+
+    /**
+     * 当前线程的空闲数量，不包括其它线程回收还没有取回的对象
+     *
+     * @return 空闲数量
+     */
+    public int getIdles() {
+        return stacks.get().locals.size();
+    }
+
+    /**
+     * 是否是虚拟线程
+     *
+     * @param thread 线程
+     * @return 虚拟线程标识
+     */
+    protected static boolean isVirtual(final Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取判断虚拟线程的方法
+     *
+     * @return 方法句柄
+     */
+    protected static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 线程的空闲栈
+     *
+     * @param <T>
+     */
+    protected static final class Stack<T> {
+        /**
+         * 归属线程，弱引用避免句柄持有已经结束的线程
+         */
+        protected final WeakReference<Thread> owner;
+        /**
+         * 最大空闲数
+         */
+        protected final int capacity;
+        /**
+         * 归属线程回收的对象
+         */
+        protected final ArrayDeque<Handle<T>> locals;
+        /**
+         * 其它线程回收的对象，通过句柄串成链表，避免分配节点
+         */
+        protected final AtomicReference<Handle<T>> foreigns = new AtomicReference<>();
+        /**
+         * 其它线程回收的数量
+         */
+        protected final AtomicInteger foreignSize = new AtomicInteger();
+
+        protected Stack(final Thread owner, final int capacity) {
+            this.owner = new WeakReference<>(owner);
+            this.capacity = capacity;
+            this.locals = new ArrayDeque<>(Math.min(capacity, 64));
+        }
+
+        /**
+         * 放入回收的对象
+         *
+         * @param handle 句柄
+         */
+        protected void push(final Handle<T> handle) {
+            if (owner.get() == Thread.currentThread()) {
+                if (locals.size() < capacity) {
+                    locals.offerLast(handle);
+                }
+            } else if (foreignSize.incrementAndGet() > capacity) {
+                foreignSize.decrementAndGet();
+            } else {
+                Handle<T> head;
+                do {
+                    head = foreigns.get();
+                    handle.next = head;
+                } while (!foreigns.compareAndSet(head, handle));
+            }
+        }
+
+        /**
+         * 取出空闲对象，只在归属线程调用
+         *
+         * @return 句柄
+         */
+        protected Handle<T> pop() {
+            Handle<T> result = locals.pollLast();
+            if (result == null && foreignSize.get() > 0) {
+                //取回其它线程回收的对象
+                Handle<T> handle = foreigns.getAndSet(null);
+                Handle<T> next;
+                int count = 0;
+                while (handle != null) {
+                    next = handle.next;
+                    handle.next = null;
+                    if (locals.size() < capacity) {
+                        locals.offerLast(handle);
+                    }
+                    handle = next;
+                    count++;
+                }
+                foreignSize.addAndGet(-count);
+                result = locals.pollLast();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 回收句柄，和对象一一绑定
+     *
+     * @param <T>
+     */
+    public static final class Handle<T> {
+
+        protected static final int BORROWED = 0;
+        protected static final int RECYCLED = 1;
+        protected static final AtomicIntegerFieldUpdater<Handle> STATE = AtomicIntegerFieldUpdater.newUpdater(Handle.class, "state");
+
+        /**
+         * 回收池
+         */
+        protected final Recycler<T> recycler;
+        /**
+         * 归属的空闲栈，不缓存则为null
+         */
+        protected final Stack<T> stack;
+        /**
+         * 对象
+         */
+        protected T value;
+        /**
+         * 其它线程回收时的链表指针
+         */
+        protected Handle<T> next;
+        /**
+         * 状态
+         */
+        protected volatile int state = BORROWED;
+
+        protected Handle(final Recycler<T> recycler, final Stack<T> stack) {
+            this.recycler = recycler;
+            this.stack = stack;
+        }
+
+        /**
+         * 回收对象，调用方需要先清理对象的状态
+         *
+         * @param value 对象
+         */
+        public void recycle(final T value) {
+            if (value != this.value) {
+                throw new IllegalArgumentException("object does not belong to this handle.");
+            } else if (!STATE.compareAndSet(this, BORROWED, RECYCLED)) {
+                throw new IllegalStateException("object has already been recycled.");
+            }
+            recycler.recycle(this);
+        }
+
+        /**
+         * 是否已经回收，用于检查回收后继续使用
+         *
+         * @return 回收标识
+         */
+        public boolean isRecycled() {
+            return state == RECYCLED;
+        }
+    }
+}
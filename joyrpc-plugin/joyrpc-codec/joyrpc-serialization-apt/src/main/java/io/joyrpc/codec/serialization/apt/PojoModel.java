@@ -0,0 +1,224 @@
+package io.joyrpc.codec.serialization.apt;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 需要生成序列化代码的数据对象描述
+ */
+public class PojoModel {
+
+    /**
+     * 生成类的后缀
+     */
+    public static final String SCHEMA_SUFFIX = "_ProtostuffSchema";
+
+    /**
+     * 类型
+     */
+    protected final TypeElement element;
+    /**
+     * 包名
+     */
+    protected final String packageName;
+    /**
+     * 类型的全名，内部类用"."分隔
+     */
+    protected final String typeName;
+    /**
+     * 生成的类名
+     */
+    protected final String schemaName;
+    /**
+     * 属性，按照字段编号排列
+     */
+    protected final List<Property> properties = new ArrayList<>();
+
+    public PojoModel(final TypeElement element, final String packageName) {
+        this.element = element;
+        this.packageName = packageName;
+        this.typeName = element.getQualifiedName().toString();
+        String binaryName = packageName.isEmpty() ? typeName : typeName.substring(packageName.length() + 1);
+        this.schemaName = binaryName.replace('.', '_') + SCHEMA_SUFFIX;
+    }
+
+    public TypeElement getElement() {
+        return element;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    /**
+     * 生成类的全名
+     *
+     * @return 全名
+     */
+    public String getQualifiedSchemaName() {
+        return packageName.isEmpty() ? schemaName : packageName + "." + schemaName;
+    }
+
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * 属性类型
+     */
+    public enum Kind {
+        BOOLEAN("Bool", "input.readBool()"),
+        BYTE("UInt32", "(byte) input.readUInt32()"),
+        SHORT("UInt32", "(short) input.readUInt32()"),
+        CHAR("UInt32", "(char) input.readUInt32()"),
+        INT("Int32", "input.readInt32()"),
+        LONG("Int64", "input.readInt64()"),
+        FLOAT("Float", "input.readFloat()"),
+        DOUBLE("Double", "input.readDouble()"),
+        STRING("String", "input.readString()"),
+        BYTES("ByteArray", "input.readByteArray()"),
+        POJO("Object", null);
+
+        /**
+         * 写方法后缀，和protostuff运行时字段的编码保持一致
+         */
+        private final String writer;
+        /**
+         * 读取表达式
+         */
+        private final String reader;
+
+        Kind(final String writer, final String reader) {
+            this.writer = writer;
+            this.reader = reader;
+        }
+
+        public String getWriter() {
+            return writer;
+        }
+
+        public String getReader() {
+            return reader;
+        }
+    }
+
+    /**
+     * 属性
+     */
+    public static class Property {
+        /**
+         * 字段名称
+         */
+        protected final String name;
+        /**
+         * 字段编号
+         */
+        protected final int number;
+        /**
+         * 类型
+         */
+        protected final Kind kind;
+        /**
+         * 是否是基本类型
+         */
+        protected final boolean primitive;
+        /**
+         * 声明的类型
+         */
+        protected final String type;
+        /**
+         * 获取值的表达式
+         */
+        protected final String getter;
+        /**
+         * 设置值的表达式模板
+         */
+        protected final String setter;
+        /**
+         * 嵌套对象的类型全名
+         */
+        protected String pojo;
+
+        public Property(final String name, final int number, final Kind kind, final boolean primitive,
+                        final String type, final String getter, final String setter) {
+            this.name = name;
+            this.number = number;
+            this.kind = kind;
+            this.primitive = primitive;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public boolean isPrimitive() {
+            return primitive;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getGetter() {
+            return getter;
+        }
+
+        /**
+         * 设置值的语句
+         *
+         * @param value 值表达式
+         * @return 语句
+         */
+        public String setter(final String value) {
+            return String.format(setter, value);
+        }
+
+        public String getPojo() {
+            return pojo;
+        }
+
+        public void setPojo(final String pojo) {
+            this.pojo = pojo;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.joyrpc.codec.serialization.apt;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.apt.PojoModel.Kind;
+import io.joyrpc.codec.serialization.apt.PojoModel.Property;
+
+import java.util.Map;
+
+/**
+ * 生成protostuff的Schema源代码，字段编号和编码方式与RuntimeSchema保持一致，两端可以混用
+ */
+public class ProtostuffSchemaGenerator {
+
+    /**
+     * 生成源代码
+     *
+     * @param model  数据对象
+     * @param models 所有生成的数据对象，用于引用嵌套对象的Schema
+     * @return 源代码
+     */
+    public String generate(final PojoModel model, final Map<String, PojoModel> models) {
+        StringBuilder sb = new StringBuilder(4096);
+        String type = model.getTypeName();
+        String name = model.getSchemaName();
+        if (!model.getPackageName().isEmpty()) {
+            sb.append("package ").append(model.getPackageName()).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by ").append(SchemaProcessor.class.getName()).append(", do not edit.\n */\n");
+        sb.append("public class ").append(name).append(" implements io.protostuff.AutowiredObjectSerializer<")
+                .append(type).append("> {\n\n");
+        sb.append("    public static final ").append(name).append(" INSTANCE = new ").append(name).append("();\n\n");
+
+        //typeClass
+        sb.append("    @Override\n    public Class<? super ").append(type).append("> typeClass() {\n");
+        sb.append("        return ").append(type).append(".class;\n    }\n\n");
+        //messageName
+        sb.append("    @Override\n    public String messageName() {\n");
+        sb.append("        return \"").append(model.getElement().getSimpleName()).append("\";\n    }\n\n");
+        //messageFullName
+        sb.append("    @Override\n    public String messageFullName() {\n");
+        sb.append("        return ").append(type).append(".class.getName();\n    }\n\n");
+        //isInitialized
+        sb.append("    @Override\n    public boolean isInitialized(final ").append(type).append(" message) {\n");
+        sb.append("        return true;\n    }\n\n");
+        //newMessage
+        sb.append("    @Override\n    public ").append(type).append(" newMessage() {\n");
+        sb.append("        return new ").append(type).append("();\n    }\n\n");
+        //getFieldName
+        sb.append("    @Override\n    public String getFieldName(final int number) {\n");
+        sb.append("        switch (number) {\n");
+        for (Property property : model.getProperties()) {
+            sb.append("            case ").append(property.getNumber()).append(":\n");
+            sb.append("                return \"").append(property.getName()).append("\";\n");
+        }
+        sb.append("            default:\n                return null;\n        }\n    }\n\n");
+        //getFieldNumber
+        sb.append("    @Override\n    public int getFieldNumber(final String name) {\n");
+        sb.append("        switch (name) {\n");
+        for (Property property : model.getProperties()) {
+            sb.append("            case \"").append(property.getName()).append("\":\n");
+            sb.append("                return ").append(property.getNumber()).append(";\n");
+        }
+        sb.append("            default:\n                return 0;\n        }\n    }\n\n");
+        //mergeFrom
+        sb.append("    @Override\n    public void mergeFrom(final io.protostuff.Input input, final ").append(type)
+                .append(" message) throws java.io.IOException {\n");
+        sb.append("        while (true) {\n");
+        sb.append("            int number = input.readFieldNumber(this);\n");
+        sb.append("            switch (number) {\n");
+        sb.append("                case 0:\n                    return;\n");
+        for (Property property : model.getProperties()) {
+            sb.append("                case ").append(property.getNumber()).append(":\n");
+            sb.append("                    ").append(property.setter(reader(property, models))).append(";\n");
+            sb.append("                    break;\n");
+        }
+        sb.append("                default:\n                    input.handleUnknownField(number, this);\n");
+        sb.append("            }\n        }\n    }\n\n");
+        //writeTo
+        sb.append("    @Override\n    public void writeTo(final io.protostuff.Output output, final ").append(type)
+                .append(" message) throws java.io.IOException {\n");
+        for (Property property : model.getProperties()) {
+            writer(sb, property, models);
+        }
+        sb.append("    }\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * 读取表达式
+     *
+     * @param property 属性
+     * @param models   数据对象
+     * @return 表达式
+     */
+    protected String reader(final Property property, final Map<String, PojoModel> models) {
+        if (property.getKind() == Kind.POJO) {
+            return "input.mergeObject(" + property.getGetter() + ", " + schema(property, models) + ")";
+        }
+        return property.getKind().getReader();
+    }
+
+    /**
+     * 写入语句
+     *
+     * @param sb       缓冲区
+     * @param property 属性
+     * @param models   数据对象
+     */
+    protected void writer(final StringBuilder sb, final Property property, final Map<String, PojoModel> models) {
+        Kind kind = property.getKind();
+        String method = "output.write" + kind.getWriter() + "(" + property.getNumber() + ", ";
+        String tail = kind == Kind.POJO ? ", " + schema(property, models) + ", false);\n" : ", false);\n";
+        if (property.isPrimitive()) {
+            sb.append("        ").append(method).append(property.getGetter()).append(tail);
+        } else {
+            String var = "v" + property.getNumber();
+            sb.append("        final ").append(property.getType()).append(' ').append(var).append(" = ")
+                    .append(property.getGetter()).append(";\n");
+            sb.append("        if (").append(var).append(" != null) {\n");
+            sb.append("            ").append(method).append(var).append(tail);
+            sb.append("        }\n");
+        }
+    }
+
+    /**
+     * 嵌套对象的Schema
+     *
+     * @param property 属性
+     * @param models   数据对象
+     * @return Schema表达式
+     */
+    protected String schema(final Property property, final Map<String, PojoModel> models) {
+        return models.get(property.getPojo()).getQualifiedSchemaName() + ".INSTANCE";
+    }
+}
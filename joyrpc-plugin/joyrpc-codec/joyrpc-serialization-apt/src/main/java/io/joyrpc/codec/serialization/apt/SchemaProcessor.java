@@ -0,0 +1,635 @@
+package io.joyrpc.codec.serialization.apt;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.apt.PojoModel.Kind;
+import io.joyrpc.codec.serialization.apt.PojoModel.Property;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 注解处理器，在编译期为@Provider和@Consumer接口的参数和返回值类型生成protostuff的Schema。<br/>
+ * 生成的类通过AutowiredObjectSerializer插件注册到序列化中，不满足条件的类型继续使用运行时的RuntimeSchema。
+ */
+@SupportedAnnotationTypes({SchemaProcessor.PROVIDER, SchemaProcessor.CONSUMER})
+public class SchemaProcessor extends AbstractProcessor {
+
+    public static final String PROVIDER = "io.joyrpc.annotation.Provider";
+    public static final String CONSUMER = "io.joyrpc.annotation.Consumer";
+    public static final String SERVICE_FILE = "META-INF/services/io.protostuff.AutowiredObjectSerializer";
+
+    protected static final String PROTOSTUFF_TAG = "io.protostuff.Tag";
+    protected static final String PROTOSTUFF_EXCLUDE = "io.protostuff.Exclude";
+
+    /**
+     * 已经处理的接口
+     */
+    protected Set<String> interfaces = new HashSet<>();
+    /**
+     * 待分析的数据对象
+     */
+    protected Map<String, TypeElement> candidates = new LinkedHashMap<>();
+    /**
+     * 已经分析过的数据对象，值为空表示不支持
+     */
+    protected Map<String, PojoModel> analyzed = new HashMap<>();
+    /**
+     * 已经生成的Schema
+     */
+    protected Set<String> generated = new TreeSet<>();
+
+    protected ProtostuffSchemaGenerator generator = new ProtostuffSchemaGenerator();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServices();
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (PROVIDER.equals(annotation.getQualifiedName().toString())) {
+                    onProvider(element, annotation);
+                } else {
+                    onConsumer(element);
+                }
+            }
+        }
+        generate();
+        return false;
+    }
+
+    /**
+     * 处理服务提供者
+     *
+     * @param element    元素
+     * @param annotation 注解
+     */
+    protected void onProvider(final Element element, final TypeElement annotation) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeMirror interfaceClass = getInterfaceClass(element, annotation);
+        if (interfaceClass != null) {
+            onInterface(interfaceClass);
+        } else {
+            ((TypeElement) element).getInterfaces().forEach(this::onInterface);
+        }
+    }
+
+    /**
+     * 处理服务消费者，注解在字段或Setter方法上
+     *
+     * @param element 元素
+     */
+    protected void onConsumer(final Element element) {
+        if (element.getKind() == ElementKind.FIELD) {
+            onInterface(element.asType());
+        } else if (element.getKind() == ElementKind.METHOD) {
+            List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+            if (parameters.size() == 1) {
+                onInterface(parameters.get(0).asType());
+            }
+        }
+    }
+
+    /**
+     * 获取注解上配置的接口
+     *
+     * @param element    元素
+     * @param annotation 注解
+     * @return 接口
+     */
+    protected TypeMirror getInterfaceClass(final Element element, final TypeElement annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("interfaceClass")) {
+                        Object value = entry.getValue().getValue();
+                        if (value instanceof TypeMirror && ((TypeMirror) value).getKind() == TypeKind.DECLARED) {
+                            return (TypeMirror) value;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 收集接口方法的参数和返回值类型
+     *
+     * @param type 接口类型
+     */
+    protected void onInterface(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if (element.getKind() != ElementKind.INTERFACE || !interfaces.add(element.getQualifiedName().toString())) {
+            return;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(element))) {
+            if (method.getModifiers().contains(Modifier.STATIC)
+                    || method.getEnclosingElement().getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            collect(method.getReturnType());
+            method.getParameters().forEach(p -> collect(p.asType()));
+        }
+    }
+
+    /**
+     * 收集候选的数据对象，包括泛型参数和数组元素
+     *
+     * @param type 类型
+     */
+    protected void collect(final TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                collect(((ArrayType) type).getComponentType());
+                break;
+            case DECLARED:
+                DeclaredType declaredType = (DeclaredType) type;
+                declaredType.getTypeArguments().forEach(this::collect);
+                TypeElement element = (TypeElement) declaredType.asElement();
+                String name = element.getQualifiedName().toString();
+                if (element.getKind() == ElementKind.CLASS && !isSystem(element)
+                        && !analyzed.containsKey(name) && !candidates.containsKey(name)) {
+                    candidates.put(name, element);
+                    //递归收集字段类型
+                    for (VariableElement field : getFields(element)) {
+                        collect(field.asType());
+                    }
+                }
+                break;
+            default:
+        }
+    }
+
+    /**
+     * 分析候选对象并生成源代码
+     */
+    protected void generate() {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Map<String, PojoModel> models = new LinkedHashMap<>();
+        for (Map.Entry<String, TypeElement> entry : candidates.entrySet()) {
+            PojoModel model = analyze(entry.getValue());
+            analyzed.put(entry.getKey(), model);
+            if (model != null) {
+                models.put(entry.getKey(), model);
+            }
+        }
+        candidates.clear();
+        //嵌套对象不支持，则外层对象也不支持，迭代到稳定
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Iterator<Map.Entry<String, PojoModel>> it = models.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, PojoModel> entry = it.next();
+                for (Property property : entry.getValue().getProperties()) {
+                    if (property.getKind() == Kind.POJO && !models.containsKey(property.getPojo())
+                            && analyzed.get(property.getPojo()) == null) {
+                        analyzed.put(entry.getKey(), null);
+                        it.remove();
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        Map<String, PojoModel> all = new HashMap<>();
+        analyzed.forEach((k, v) -> {
+            if (v != null) {
+                all.put(k, v);
+            }
+        });
+        for (PojoModel model : models.values()) {
+            write(model, all);
+        }
+    }
+
+    /**
+     * 写源代码
+     *
+     * @param model  数据对象
+     * @param models 所有数据对象
+     */
+    protected void write(final PojoModel model, final Map<String, PojoModel> models) {
+        String name = model.getQualifiedSchemaName();
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, model.getElement());
+            try (Writer writer = file.openWriter()) {
+                writer.write(generator.generate(model, models));
+            }
+            generated.add(name);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Error occurs while generating " + name + ", caused by " + e.getMessage(), model.getElement());
+        }
+    }
+
+    /**
+     * 写插件配置文件，合并增量编译时已经存在的内容
+     */
+    protected void writeServices() {
+        if (generated.isEmpty()) {
+            return;
+        }
+        Set<String> names = new TreeSet<>(generated);
+        try {
+            FileObject exists = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(exists.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        names.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            //文件不存在
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String name : names) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Error occurs while writing " + SERVICE_FILE + ", caused by " + e.getMessage());
+        }
+    }
+
+    /**
+     * 分析数据对象，不支持的返回空
+     *
+     * @param element 类型
+     * @return 数据对象描述
+     */
+    protected PojoModel analyze(final TypeElement element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.ABSTRACT) || !element.getTypeParameters().isEmpty() || !isVisible(element)
+                || !hasConstructor(element)) {
+            return null;
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        PojoModel model = new PojoModel(element, packageName);
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(element));
+        Set<String> names = new HashSet<>();
+        int number = 0;
+        //和RuntimeSchema保持一致，父类字段在前，按照声明顺序编号
+        for (TypeElement type : getHierarchy(element)) {
+            if (type == null) {
+                return null;
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> fieldModifiers = field.getModifiers();
+                if (fieldModifiers.contains(Modifier.STATIC) || fieldModifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                } else if (hasAnnotation(field, PROTOSTUFF_TAG) || hasAnnotation(field, PROTOSTUFF_EXCLUDE)
+                        || !names.add(field.getSimpleName().toString())) {
+                    //自定义编号、排除字段或者同名字段，交给运行时处理
+                    return null;
+                } else if (hasAnnotation(field, Deprecated.class.getName())) {
+                    //RuntimeSchema保留废弃字段的编号
+                    number++;
+                    continue;
+                }
+                Property property = analyze(field, ++number, packageName, methods);
+                if (property == null) {
+                    return null;
+                }
+                model.getProperties().add(property);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * 分析字段
+     *
+     * @param field       字段
+     * @param number      编号
+     * @param packageName 生成类的包名
+     * @param methods     方法
+     * @return 属性
+     */
+    protected Property analyze(final VariableElement field, final int number, final String packageName,
+                               final List<ExecutableElement> methods) {
+        TypeMirror type = field.asType();
+        Kind kind;
+        boolean primitive = type.getKind().isPrimitive();
+        String pojo = null;
+        switch (type.getKind()) {
+            case BOOLEAN:
+                kind = Kind.BOOLEAN;
+                break;
+            case BYTE:
+                kind = Kind.BYTE;
+                break;
+            case SHORT:
+                kind = Kind.SHORT;
+                break;
+            case CHAR:
+                kind = Kind.CHAR;
+                break;
+            case INT:
+                kind = Kind.INT;
+                break;
+            case LONG:
+                kind = Kind.LONG;
+                break;
+            case FLOAT:
+                kind = Kind.FLOAT;
+                break;
+            case DOUBLE:
+                kind = Kind.DOUBLE;
+                break;
+            case ARRAY:
+                kind = ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE ? Kind.BYTES : null;
+                break;
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                String name = element.getQualifiedName().toString();
+                kind = getBoxedKind(name);
+                if (kind == null && element.getKind() == ElementKind.CLASS && !isSystem(element)
+                        && ((DeclaredType) type).getTypeArguments().isEmpty()) {
+                    kind = Kind.POJO;
+                    pojo = name;
+                }
+                break;
+            default:
+                kind = null;
+        }
+        if (kind == null) {
+            return null;
+        }
+        String fieldName = field.getSimpleName().toString();
+        String typeName = type.toString();
+        String getter;
+        String setter;
+        Set<Modifier> modifiers = field.getModifiers();
+        if (!modifiers.contains(Modifier.FINAL) && isAccessible(field, packageName)) {
+            getter = "message." + fieldName;
+            setter = "message." + fieldName + " = %s";
+        } else {
+            String suffix = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            ExecutableElement get = findMethod(methods, "get" + suffix, 0, packageName);
+            if (get == null && type.getKind() == TypeKind.BOOLEAN) {
+                get = findMethod(methods, "is" + suffix, 0, packageName);
+            }
+            ExecutableElement set = findMethod(methods, "set" + suffix, 1, packageName);
+            if (get == null || set == null
+                    || !processingEnv.getTypeUtils().isSameType(get.getReturnType(), type)
+                    || !processingEnv.getTypeUtils().isSameType(set.getParameters().get(0).asType(), type)) {
+                return null;
+            }
+            getter = "message." + get.getSimpleName() + "()";
+            setter = "message." + set.getSimpleName() + "(%s)";
+        }
+        Property property = new Property(fieldName, number, kind, primitive, typeName, getter, setter);
+        property.setPojo(pojo);
+        return property;
+    }
+
+    /**
+     * 包装类型
+     *
+     * @param name 类名
+     * @return 类型
+     */
+    protected Kind getBoxedKind(final String name) {
+        switch (name) {
+            case "java.lang.Boolean":
+                return Kind.BOOLEAN;
+            case "java.lang.Byte":
+                return Kind.BYTE;
+            case "java.lang.Short":
+                return Kind.SHORT;
+            case "java.lang.Character":
+                return Kind.CHAR;
+            case "java.lang.Integer":
+                return Kind.INT;
+            case "java.lang.Long":
+                return Kind.LONG;
+            case "java.lang.Float":
+                return Kind.FLOAT;
+            case "java.lang.Double":
+                return Kind.DOUBLE;
+            case "java.lang.String":
+                return Kind.STRING;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 查找方法
+     *
+     * @param methods     方法
+     * @param name        名称
+     * @param parameters  参数个数
+     * @param packageName 生成类的包名
+     * @return 方法
+     */
+    protected ExecutableElement findMethod(final List<ExecutableElement> methods, final String name,
+                                           final int parameters, final String packageName) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+                    && !method.getModifiers().contains(Modifier.STATIC) && isAccessible(method, packageName)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取字段，父类在前
+     *
+     * @param element 类型
+     * @return 字段
+     */
+    protected List<VariableElement> getFields(final TypeElement element) {
+        List<VariableElement> result = new ArrayList<>();
+        for (TypeElement type : getHierarchy(element)) {
+            if (type != null) {
+                result.addAll(ElementFilter.fieldsIn(type.getEnclosedElements()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取类的继承层次，父类在前，到Object为止。不支持的父类用空表示
+     *
+     * @param element 类型
+     * @return 继承层次
+     */
+    protected List<TypeElement> getHierarchy(final TypeElement element) {
+        LinkedList<TypeElement> result = new LinkedList<>();
+        TypeElement type = element;
+        while (type != null) {
+            result.addFirst(type);
+            TypeMirror parent = type.getSuperclass();
+            if (parent.getKind() != TypeKind.DECLARED) {
+                break;
+            }
+            type = (TypeElement) ((DeclaredType) parent).asElement();
+            if (type.getQualifiedName().contentEquals(Object.class.getName())) {
+                break;
+            } else if (isSystem(type) || !((DeclaredType) parent).getTypeArguments().isEmpty()) {
+                result.addFirst(null);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否有默认构造函数
+     *
+     * @param element 类型
+     * @return 有默认构造函数标识
+     */
+    protected boolean hasConstructor(final TypeElement element) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor, packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类型在包内是否可见，内部类需要是静态的
+     *
+     * @param element 类型
+     * @return 可见标识
+     */
+    protected boolean isVisible(final TypeElement element) {
+        Element current = element;
+        while (current instanceof TypeElement) {
+            Set<Modifier> modifiers = current.getModifiers();
+            Element enclosing = current.getEnclosingElement();
+            NestingKind nesting = ((TypeElement) current).getNestingKind();
+            if (modifiers.contains(Modifier.PRIVATE) || nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+                return false;
+            } else if (nesting == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)
+                    && !enclosing.getKind().isInterface()) {
+                return false;
+            }
+            current = enclosing;
+        }
+        return true;
+    }
+
+    /**
+     * 成员在生成类中是否可以直接访问
+     *
+     * @param member      成员
+     * @param packageName 生成类的包名
+     * @return 可以访问标识
+     */
+    protected boolean isAccessible(final Element member, final String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        } else if (modifiers.contains(Modifier.PUBLIC) && isPublic((TypeElement) member.getEnclosingElement())) {
+            return true;
+        }
+        return processingEnv.getElementUtils().getPackageOf(member).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * 类型及其外部类是否都是公开的
+     *
+     * @param element 类型
+     * @return 公开标识
+     */
+    protected boolean isPublic(final TypeElement element) {
+        Element current = element;
+        while (current instanceof TypeElement) {
+            if (!current.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * 是否是JDK的类型
+     *
+     * @param element 类型
+     * @return JDK类型标识
+     */
+    protected boolean isSystem(final TypeElement element) {
+        String name = element.getQualifiedName().toString();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.")
+                || name.startsWith("com.sun.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * 是否有注解
+     *
+     * @param element 元素
+     * @param name    注解名称
+     * @return 注解标识
+     */
+    protected boolean hasAnnotation(final Element element, final String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -25,6 +25,7 @@ import com.alibaba.fastjson.parser.ParserConfig;
 import com.alibaba.fastjson.parser.deserializer.ASMDeserializerFactory;
 import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
 import com.alibaba.fastjson.parser.deserializer.ThrowableDeserializer;
+import io.joyrpc.codec.serialization.SerializerBlackList;
 import io.joyrpc.permission.BlackList;
 
 import java.lang.reflect.Type;
@@ -54,7 +55,7 @@ public class JsonConfig extends ParserConfig {
 
     public ObjectDeserializer getDeserializer(final Class<?> clazz, final Type type) {
 
-        if (blackList != null && blackList.isBlack(clazz.getName())) {
+        if (isBlack(clazz)) {
             throw new JSONException("Failed to decode class " + type + " by json serialization, it is in blacklist");
         }
         ObjectDeserializer deserializer = super.getDeserializer(clazz, type);
@@ -66,4 +67,19 @@ public class JsonConfig extends ParserConfig {
         }
         return deserializer;
     }
+
+    /**
+     * 判断类型是否在黑名单中，序列化黑名单按类缓存了判断结果
+     *
+     * @param clazz 类型
+     * @return 黑名单标识
+     */
+    protected boolean isBlack(final Class<?> clazz) {
+        if (blackList == null) {
+            return false;
+        } else if (blackList instanceof SerializerBlackList) {
+            return ((SerializerBlackList) blackList).isBlack(clazz);
+        }
+        return blackList.isBlack(clazz.getName());
+    }
 }
@@ -24,6 +24,7 @@ import io.joyrpc.codec.serialization.*;
 import io.joyrpc.com.caucho.hessian.io.AutowiredObjectDeserializer;
 import io.joyrpc.com.caucho.hessian.io.AutowiredObjectSerializer;
 import io.joyrpc.com.caucho.hessian.io.Hessian2Output;
+import io.joyrpc.com.caucho.hessian.io.ObjectDefinitionCache;
 import io.joyrpc.com.caucho.hessian.io.SerializerFactory;
 import io.joyrpc.extension.Extension;
 import io.joyrpc.permission.BlackList;
@@ -32,6 +33,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collection;
 
+import static io.joyrpc.context.Variable.VARIABLE;
+
 /**
  * hessian2序列化协议
  */
@@ -53,6 +56,11 @@ public class Hessian2Serialization implements Serialization, BlackList.BlackList
         return Hessian2Serializer.INSTANCE;
     }
 
+    @Override
+    public boolean stringTable() {
+        return true;
+    }
+
     @Override
     public void updateBlack(final Collection<String> blackList) {
         Hessian2Serializer.BLACK_LIST.updateBlack(blackList);
@@ -68,6 +76,12 @@ public class Hessian2Serialization implements Serialization, BlackList.BlackList
 
         protected static final SerializerFactory SERIALIZER_FACTORY = new SerializerFactory(Thread.currentThread().getContextClassLoader());
 
+        /**
+         * 类定义缓存，所有线程的输入共享
+         */
+        protected static final ObjectDefinitionCache DEFINITION_CACHE = new ObjectDefinitionCache(
+                VARIABLE.getPositive("hessian.definition.capacity", 4096));
+
         protected static final Hessian2Serializer INSTANCE = new Hessian2Serializer();
         /**
          * 线程缓存，优化性能
@@ -85,6 +99,7 @@ public class Hessian2Serialization implements Serialization, BlackList.BlackList
         protected static final ThreadLocal<Hessian2BWLInput> HESSIAN_INPUT = ThreadLocal.withInitial(() -> {
             Hessian2BWLInput result = new Hessian2BWLInput(BLACK_LIST);
             result.setSerializerFactory(SERIALIZER_FACTORY);
+            result.setDefinitionCache(DEFINITION_CACHE);
             result.setCloseStreamOnClose(true);
             return result;
         });
@@ -113,5 +128,21 @@ public class Hessian2Serialization implements Serialization, BlackList.BlackList
             input.init(is);
             return new Hessian2Reader(input);
         }
+
+        @Override
+        protected ObjectWriter createWriter(final OutputStream os, final Object object, final StringTable.Sender table) {
+            Hessian2Output output = HESSIAN_OUTPUT.get();
+            output.init(os);
+            output.setStringTable(table);
+            return new Hessian2Writer(output);
+        }
+
+        @Override
+        protected ObjectReader createReader(final InputStream is, final Class clazz, final StringTable.Receiver table) {
+            Hessian2BWLInput input = HESSIAN_INPUT.get();
+            input.init(is);
+            input.setStringTable(table);
+            return new Hessian2Reader(input);
+        }
     }
 }
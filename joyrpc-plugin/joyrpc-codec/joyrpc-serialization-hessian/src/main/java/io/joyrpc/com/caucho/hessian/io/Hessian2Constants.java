@@ -132,6 +132,10 @@ public interface Hessian2Constants {
     public static final int BC_STRING_SHORT = 0x30;
     public static final int STRING_SHORT_MAX = 0x3ff;
 
+    // session string table, reserved codes of hessian 2.0
+    public static final int BC_STRING_REF = 0x40;
+    public static final int BC_STRING_DEF = 0x47;
+
     public static final int BC_TRUE = 'T';
 
     public static final int P_PACKET_CHUNK = 0x4f;
@@ -48,6 +48,8 @@
 
 package io.joyrpc.com.caucho.hessian.io;
 
+import io.joyrpc.codec.serialization.StringTable;
+
 import java.io.*;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -98,6 +100,11 @@ public class Hessian2Input
             = new ArrayList<ObjectDefinition>();
     protected ArrayList<String> _types
             = new ArrayList<String>();
+    // class definitions shared across messages
+    protected ObjectDefinitionCache _definitionCache;
+
+    // session string table
+    private StringTable.Receiver _stringTable;
 
     // the underlying input stream
     private InputStream _is;
@@ -145,6 +152,13 @@ public class Hessian2Input
         _serializerFactory = factory;
     }
 
+    /**
+     * Sets the class definition cache, which must belong to the serializer factory.
+     */
+    public void setDefinitionCache(ObjectDefinitionCache cache) {
+        _definitionCache = cache;
+    }
+
     /**
      * Gets the serializer factory.
      */
@@ -1657,6 +1671,10 @@ public class Hessian2Input
         switch (tag) {
             case 'N':
                 return null;
+
+            case BC_STRING_REF:
+            case BC_STRING_DEF:
+                return readTableString(tag);
             case 'T':
                 return "true";
             case 'F':
@@ -2427,6 +2445,10 @@ public class Hessian2Input
             case 'N':
                 return null;
 
+            case BC_STRING_REF:
+            case BC_STRING_DEF:
+                return readTableString(tag);
+
             case 'T':
                 return Boolean.valueOf(true);
 
@@ -2912,23 +2934,29 @@ public class Hessian2Input
         validateType(type);
         int len = readInt();
 
-        SerializerFactory factory = findSerializerFactory();
+        String[] fieldNames = new String[len];
+        for (int i = 0; i < len; i++) {
+            fieldNames[i] = readString();
+        }
 
-        Deserializer reader = factory.getObjectDeserializer(type, null);
+        //命中缓存则跳过反序列化器和字段的查找
+        ObjectDefinition def = _definitionCache == null ? null : _definitionCache.get(type, fieldNames);
+        if (def == null) {
+            SerializerFactory factory = findSerializerFactory();
 
-        Object[] fields = reader.createFields(len);
-        String[] fieldNames = new String[len];
+            Deserializer reader = factory.getObjectDeserializer(type, null);
 
-        for (int i = 0; i < len; i++) {
-            String name = readString();
+            Object[] fields = reader.createFields(len);
+            for (int i = 0; i < len; i++) {
+                fields[i] = reader.createField(fieldNames[i]);
+            }
 
-            fields[i] = reader.createField(name);
-            fieldNames[i] = name;
+            def = new ObjectDefinition(type, reader, fields, fieldNames);
+            if (_definitionCache != null) {
+                _definitionCache.put(def);
+            }
         }
 
-        ObjectDefinition def
-                = new ObjectDefinition(type, reader, fields, fieldNames);
-
         _classDefs.add(def);
     }
 
@@ -2952,6 +2980,27 @@ public class Hessian2Input
         }
     }
 
+    /**
+     * 读取字符串表中的字符串
+     *
+     * <pre>
+     * &#64; int
+     * G int string
+     * </pre>
+     */
+    private String readTableString(int tag) throws IOException {
+        if (_stringTable == null) {
+            throw error("string table is not enabled, unknown code " + codeName(tag));
+        }
+        int index = readInt();
+        if (tag == BC_STRING_REF) {
+            return _stringTable.get(index);
+        }
+        String value = readString();
+        _stringTable.put(index, value);
+        return value;
+    }
+
     /**
      * Reads a remote object.
      */
@@ -3075,6 +3124,16 @@ public class Hessian2Input
 
         _classDefs.clear();
         _types.clear();
+        _stringTable = null;
+    }
+
+    /**
+     * 设置会话的字符串表，每次初始化后清空
+     *
+     * @param stringTable 接收表
+     */
+    public void setStringTable(StringTable.Receiver stringTable) {
+        _stringTable = stringTable;
     }
 
     public void resetBuffer() {
@@ -48,6 +48,7 @@
 
 package io.joyrpc.com.caucho.hessian.io;
 
+import io.joyrpc.codec.serialization.StringTable;
 import io.joyrpc.com.caucho.hessian.util.IdentityIntMap;
 
 import java.io.IOException;
@@ -105,6 +106,9 @@ public class Hessian2Output
 
     private boolean _isUnshared;
 
+    // session string table
+    private StringTable.Sender _stringTable;
+
     /**
      * Creates a new Hessian output stream, initialized with an
      * underlying output stream.
@@ -600,7 +604,8 @@ public class Hessian2Output
         } else {
             _typeRefs.put(type, Integer.valueOf(_typeRefs.size()));
 
-            writeString(type);
+            //类型引用按照字符串的编码识别，不能使用字符串表
+            writeStringValue(type);
         }
     }
 
@@ -891,6 +896,31 @@ public class Hessian2Output
      * @param value the string value to write.
      */
     public void writeString(String value) throws IOException {
+        if (_stringTable != null && value != null) {
+            //字符串表中已经存在则只写序号，否则写入新分配的序号和字符串
+            int index = _stringTable.indexOf(value);
+            if (index >= 0) {
+                flushIfFull();
+                _buffer[_offset++] = (byte) BC_STRING_REF;
+                writeInt(index);
+                return;
+            }
+            index = _stringTable.add(value);
+            if (index >= 0) {
+                flushIfFull();
+                _buffer[_offset++] = (byte) BC_STRING_DEF;
+                writeInt(index);
+            }
+        }
+        writeStringValue(value);
+    }
+
+    /**
+     * 写入字符串内容，不经过字符串表
+     *
+     * @param value the string value to write.
+     */
+    private void writeStringValue(String value) throws IOException {
         int offset = _offset;
         byte[] buffer = _buffer;
 
@@ -1572,6 +1602,16 @@ public class Hessian2Output
         _offset = 0;
         _isPacket = false;
         _isUnshared = false;
+        _stringTable = null;
+    }
+
+    /**
+     * 设置会话的字符串表，每次初始化后清空
+     *
+     * @param stringTable 发送表
+     */
+    public void setStringTable(StringTable.Sender stringTable) {
+        _stringTable = stringTable;
     }
 
     class BytesOutputStream extends OutputStream {
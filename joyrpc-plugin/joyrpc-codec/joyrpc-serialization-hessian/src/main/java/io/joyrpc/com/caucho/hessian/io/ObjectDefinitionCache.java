@@ -0,0 +1,80 @@
+package io.joyrpc.com.caucho.hessian.io;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.com.caucho.hessian.io.Hessian2Input.ObjectDefinition;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类定义缓存，跨消息复用解析好的类定义，避免每条消息重复查找反序列化器和字段。<br/>
+ * 类定义只和本地类相关，可以在同一个序列化工厂的所有输入之间共享。
+ */
+public class ObjectDefinitionCache {
+
+    /**
+     * 最大缓存数量，防止对端构造大量不同的类定义
+     */
+    protected final int capacity;
+    /**
+     * 类型名称对应的类定义
+     */
+    protected final ConcurrentHashMap<String, ObjectDefinition> definitions = new ConcurrentHashMap<>(64);
+
+    public ObjectDefinitionCache(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * 获取类定义，字段需要完全一致
+     *
+     * @param type       类型名称
+     * @param fieldNames 字段名称
+     * @return 类定义
+     */
+    ObjectDefinition get(final String type, final String[] fieldNames) {
+        ObjectDefinition definition = definitions.get(type);
+        return definition != null && Arrays.equals(definition.getFieldNames(), fieldNames) ? definition : null;
+    }
+
+    /**
+     * 缓存类定义，同一类型在不同版本的对端字段不同，以最新的为准
+     *
+     * @param definition 类定义
+     */
+    void put(final ObjectDefinition definition) {
+        if (definitions.size() < capacity || definitions.containsKey(definition.getType())) {
+            definitions.put(definition.getType(), definition);
+        }
+    }
+
+    /**
+     * 清理缓存，在序列化工厂变更后调用
+     */
+    public void clear() {
+        definitions.clear();
+    }
+
+    public int size() {
+        return definitions.size();
+    }
+}
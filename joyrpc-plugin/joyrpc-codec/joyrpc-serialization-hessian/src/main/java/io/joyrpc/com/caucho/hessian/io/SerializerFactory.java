@@ -87,9 +87,28 @@ public class SerializerFactory extends AbstractSerializerFactory {
 
     private Deserializer _hashMapDeserializer;
     private Deserializer _arrayListDeserializer;
-    private ConcurrentHashMap _cachedSerializerMap;
-    private ConcurrentHashMap _cachedDeserializerMap;
-    private HashMap _cachedTypeDeserializerMap;
+    //按类型缓存，避免每个对象都查询哈希表
+    private final ClassValue<Object> _cachedSerializers = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(final Class<?> type) {
+            try {
+                return loadSerializer(type);
+            } catch (HessianProtocolException e) {
+                throw new LoadException(e);
+            }
+        }
+    };
+    private final ClassValue<Object> _cachedDeserializers = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(final Class<?> type) {
+            try {
+                return loadDeserializer(type);
+            } catch (HessianProtocolException e) {
+                throw new LoadException(e);
+            }
+        }
+    };
+    private final ConcurrentHashMap<String, Deserializer> _cachedTypeDeserializerMap = new ConcurrentHashMap<>(64);
 
     private boolean _isAllowNonSerializable;
     private boolean _isEnableUnsafeSerializer = (UnsafeSerializer.isEnabled() && UnsafeDeserializer.isEnabled());
@@ -222,25 +241,11 @@ public class SerializerFactory extends AbstractSerializerFactory {
      * @return a serializer object for the serialization.
      */
     public Serializer getSerializer(Class cl) throws HessianProtocolException {
-        Serializer serializer;
-
-        if (_cachedSerializerMap != null) {
-            serializer = (Serializer) _cachedSerializerMap.get(cl);
-
-            if (serializer != null) {
-                return serializer;
-            }
-        }
-
-        serializer = loadSerializer(cl);
-
-        if (_cachedSerializerMap == null) {
-            _cachedSerializerMap = new ConcurrentHashMap(8);
+        try {
+            return (Serializer) _cachedSerializers.get(cl);
+        } catch (LoadException e) {
+            throw e.getCause();
         }
-
-        _cachedSerializerMap.put(cl, serializer);
-
-        return serializer;
     }
 
     protected Serializer loadSerializer(Class<?> cl) throws HessianProtocolException {
@@ -356,25 +361,11 @@ public class SerializerFactory extends AbstractSerializerFactory {
      * @return a deserializer object for the serialization.
      */
     public Deserializer getDeserializer(Class cl) throws HessianProtocolException {
-        Deserializer deserializer;
-
-        if (_cachedDeserializerMap != null) {
-            deserializer = (Deserializer) _cachedDeserializerMap.get(cl);
-
-            if (deserializer != null) {
-                return deserializer;
-            }
-        }
-
-        deserializer = loadDeserializer(cl);
-
-        if (_cachedDeserializerMap == null) {
-            _cachedDeserializerMap = new ConcurrentHashMap(8);
+        try {
+            return (Deserializer) _cachedDeserializers.get(cl);
+        } catch (LoadException e) {
+            throw e.getCause();
         }
-
-        _cachedDeserializerMap.put(cl, deserializer);
-
-        return deserializer;
     }
 
     protected Deserializer loadDeserializer(Class cl) throws HessianProtocolException {
@@ -625,14 +616,9 @@ public class SerializerFactory extends AbstractSerializerFactory {
 
         Deserializer deserializer;
 
-        if (_cachedTypeDeserializerMap != null) {
-            synchronized (_cachedTypeDeserializerMap) {
-                deserializer = (Deserializer) _cachedTypeDeserializerMap.get(type);
-            }
-
-            if (deserializer != null) {
-                return deserializer;
-            }
+        deserializer = _cachedTypeDeserializerMap.get(type);
+        if (deserializer != null) {
+            return deserializer;
         }
 
 
@@ -664,13 +650,7 @@ public class SerializerFactory extends AbstractSerializerFactory {
         }
 
         if (deserializer != null) {
-            if (_cachedTypeDeserializerMap == null) {
-                _cachedTypeDeserializerMap = new HashMap(8);
-            }
-
-            synchronized (_cachedTypeDeserializerMap) {
-                _cachedTypeDeserializerMap.put(type, deserializer);
-            }
+            _cachedTypeDeserializerMap.put(type, deserializer);
         }
 
         return deserializer;
@@ -734,4 +714,19 @@ public class SerializerFactory extends AbstractSerializerFactory {
 
         _systemClassLoader = systemClassLoader;
     }
+
+    /**
+     * 在ClassValue中传递加载异常，异常不会被缓存
+     */
+    private static class LoadException extends RuntimeException {
+
+        LoadException(final HessianProtocolException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized HessianProtocolException getCause() {
+            return (HessianProtocolException) super.getCause();
+        }
+    }
 }
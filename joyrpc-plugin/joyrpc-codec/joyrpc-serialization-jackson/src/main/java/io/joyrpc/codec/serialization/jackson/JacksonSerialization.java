@@ -23,10 +23,13 @@ package io.joyrpc.codec.serialization.jackson;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleDeserializers;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.module.SimpleSerializers;
 import io.joyrpc.cluster.discovery.backup.BackupShard;
+import io.joyrpc.codec.ArrayInputStream;
 import io.joyrpc.codec.serialization.*;
 import io.joyrpc.codec.serialization.jackson.java8.*;
 import io.joyrpc.exception.SerializerException;
@@ -36,17 +39,22 @@ import io.joyrpc.extension.condition.ConditionalOnClass;
 import io.joyrpc.permission.BlackList;
 import io.joyrpc.protocol.message.Invocation;
 import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.util.ClassUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import static io.joyrpc.context.Variable.VARIABLE;
+
 @Extension(value = "json", provider = "jackson", order = Serialization.ORDER_JACKSON)
 @ConditionalOnClass("com.fasterxml.jackson.core.JsonFactory")
 public class JacksonSerialization implements Serialization, Json, BlackList.BlackListAware {
@@ -127,11 +135,44 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
      */
     protected static class JacksonSerializer implements Serializer, Json {
 
+        /**
+         * 是否启用字节码生成的属性访问器，需要在类路径中引入Blackbird或Afterburner模块
+         */
+        protected static final String JACKSON_ACCESSOR_OPTION = "jackson.accessor";
+        /**
+         * 字节码属性访问器模块，优先使用Blackbird
+         */
+        protected static final String[] ACCESSOR_MODULES = new String[]{
+                "com.fasterxml.jackson.module.blackbird.BlackbirdModule",
+                "com.fasterxml.jackson.module.afterburner.AfterburnerModule"};
+
         protected static final BlackList<String> BLACK_LIST = new SerializerBlackList("permission/jackson.blacklist",
                 "META-INF/permission/jackson.blacklist").load();
         protected static final JacksonSerializer INSTANCE = new JacksonSerializer();
 
         protected ObjectMapper mapper = new ObjectMapper();
+        /**
+         * 写入器，配置完成后创建
+         */
+        protected ObjectWriter writer;
+        /**
+         * 按类缓存的读取器，避免每次调用都构造类型和查找根反序列化器，挂在类上不会阻止类加载器卸载
+         */
+        protected ClassValue<ObjectReader> readers = new ClassValue<ObjectReader>() {
+            @Override
+            protected ObjectReader computeValue(final Class<?> type) {
+                return mapper.readerFor(type);
+            }
+        };
+        /**
+         * 泛型类型的读取器，按照原始类型挂在类上
+         */
+        protected ClassValue<Map<Type, ObjectReader>> genericReaders = new ClassValue<Map<Type, ObjectReader>>() {
+            @Override
+            protected Map<Type, ObjectReader> computeValue(final Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
 
         public JacksonSerializer() {
             ZoneId zoneId = null;
@@ -193,12 +234,57 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
             module.addDeserializer(GregorianCalendar.class, (JsonDeserializer<GregorianCalendar>) deserializer);
             mapper.setTimeZone(TimeZone.getDefault());
             mapper.registerModule(module);
+            if (VARIABLE.getBoolean(JACKSON_ACCESSOR_OPTION, Boolean.TRUE)) {
+                registerAccessor();
+            }
+            writer = mapper.writer();
+        }
+
+        /**
+         * 注册字节码生成的属性访问器模块，替换反射调用
+         */
+        protected void registerAccessor() {
+            Class<?> clazz;
+            for (String name : ACCESSOR_MODULES) {
+                try {
+                    clazz = ClassUtils.forNameQuiet(name);
+                    if (clazz != null && com.fasterxml.jackson.databind.Module.class.isAssignableFrom(clazz)) {
+                        mapper.registerModule((com.fasterxml.jackson.databind.Module) ClassUtils.newInstance(clazz));
+                        return;
+                    }
+                } catch (Throwable ignored) {
+                    //低版本JDK不支持Blackbird
+                }
+            }
+        }
+
+        /**
+         * 获取读取器
+         *
+         * @param type 类型
+         * @return 读取器
+         */
+        protected ObjectReader getReader(final Type type) {
+            if (type instanceof Class) {
+                return readers.get((Class<?>) type);
+            } else if (type instanceof ParameterizedType) {
+                Type raw = ((ParameterizedType) type).getRawType();
+                if (raw instanceof Class) {
+                    Map<Type, ObjectReader> map = genericReaders.get((Class<?>) raw);
+                    ObjectReader result = map.get(type);
+                    if (result == null) {
+                        result = map.computeIfAbsent(type, t -> mapper.readerFor(mapper.constructType(t)));
+                    }
+                    return result;
+                }
+            }
+            return mapper.readerFor(mapper.constructType(type));
         }
 
         @Override
         public void writeJSONString(final OutputStream os, final Object object) throws SerializerException {
             try {
-                mapper.writeValue(os, object);
+                writer.writeValue(os, object);
             } catch (IOException e) {
                 throw new SerializerException("Error occurred while serializing object", e);
             }
@@ -207,7 +293,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
         @Override
         public String toJSONString(final Object object) throws SerializerException {
             try {
-                return mapper.writeValueAsString(object);
+                return writer.writeValueAsString(object);
             } catch (IOException e) {
                 throw new SerializerException("Error occurred while serializing object", e);
             }
@@ -217,7 +303,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
         public byte[] toJSONBytes(final Object object) throws SerializerException {
             try {
                 UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream();
-                mapper.writeValue(baos, object);
+                writer.writeValue(baos, object);
                 return baos.toByteArray();
             } catch (IOException e) {
                 throw new SerializerException("Error occurred while serializing object", e);
@@ -230,7 +316,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
                 return null;
             }
             try {
-                return (T) mapper.readValue(text, new SimpleTypeReference(type));
+                return getReader(type).readValue(text);
             } catch (IOException e) {
                 throw new SerializerException("Error occurs while parsing object", e);
             }
@@ -242,7 +328,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
                 return null;
             }
             try {
-                return (T) mapper.readValue(text, new SimpleTypeReference(reference.getType()));
+                return getReader(reference.getType()).readValue(text);
             } catch (IOException e) {
                 throw new SerializerException("Error occurs while parsing object", e);
             }
@@ -254,7 +340,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
                 return null;
             }
             try {
-                return (T) mapper.readValue(is, new SimpleTypeReference(type));
+                return getReader(type).readValue(is);
             } catch (IOException e) {
                 throw new SerializerException("Error occurs while parsing object", e);
             }
@@ -266,7 +352,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
                 return null;
             }
             try {
-                return (T) mapper.readValue(is, new SimpleTypeReference(reference.getType()));
+                return getReader(reference.getType()).readValue(is);
             } catch (IOException e) {
                 throw new SerializerException("Error occurs while parsing object", e);
             }
@@ -313,7 +399,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
          */
         protected Object parseObject(final JsonParser parser, final Type type) {
             try {
-                return parser.readValueAs(new SimpleTypeReference(type));
+                return getReader(type).readValue(parser);
             } catch (IOException e) {
                 throw new SerializerException("Error occurs while parsing object", e);
             }
@@ -322,7 +408,7 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
         @Override
         public <T> void serialize(final OutputStream os, final T object) throws SerializerException {
             try {
-                mapper.writeValue(os, object);
+                writer.writeValue(os, object);
             } catch (IOException e) {
                 throw new SerializerException("Error occurred serializing object", e);
             }
@@ -334,7 +420,16 @@ public class JacksonSerialization implements Serialization, Json, BlackList.Blac
                 return null;
             }
             try {
-                return (T) mapper.readValue(is, new SimpleTypeReference(type));
+                ObjectReader reader = getReader(type);
+                if (is instanceof ArrayInputStream && ((ArrayInputStream) is).hasArray()) {
+                    //堆内缓冲区直接解析底层数组，省去流的拷贝
+                    ArrayInputStream ais = (ArrayInputStream) is;
+                    int length = is.available();
+                    T result = reader.readValue(ais.array(), ais.arrayOffset() + ais.readerIndex(), length);
+                    is.skip(length);
+                    return result;
+                }
+                return reader.readValue(is);
             } catch (IOException e) {
                 throw new SerializerException("Error occurs while parsing object", e);
             }
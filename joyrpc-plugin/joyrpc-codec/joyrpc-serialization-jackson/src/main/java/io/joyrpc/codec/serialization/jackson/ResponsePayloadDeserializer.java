@@ -95,12 +95,14 @@ public class ResponsePayloadDeserializer extends AbstractDeserializer<ResponsePa
             return null;
         }
         switch (parser.nextToken()) {
-            case START_OBJECT:
-                return parser.readValueAs(new SimpleTypeReference(getType(typeName)));
             case VALUE_NULL:
                 return null;
-            default:
+            case END_OBJECT:
+            case FIELD_NAME:
                 throw new SerializerException("Error occurs while parsing responsePayload");
+            default:
+                //对象、数组、字符串和数字等
+                return parser.readValueAs(new SimpleTypeReference(getType(typeName)));
         }
     }
 
@@ -0,0 +1,177 @@
+package io.joyrpc.codec.serialization.kryo;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * 有界的Kryo对象池，每个Kryo绑定可复用的输入输出缓冲区。<br/>
+ * 池为空时直接创建，池满时丢弃归还的对象，借出操作不会阻塞。
+ */
+public class KryoPool {
+
+    /**
+     * 空闲对象
+     */
+    protected final ArrayBlockingQueue<KryoHolder> idles;
+    /**
+     * Kryo构造器
+     */
+    protected final Supplier<Kryo> factory;
+    /**
+     * 缓冲区大小，超过该大小的缓冲区归还时会被重置
+     */
+    protected final int bufferSize;
+
+    /**
+     * 构造函数
+     *
+     * @param factory    Kryo构造器
+     * @param capacity   最大空闲数
+     * @param bufferSize 缓冲区大小
+     */
+    public KryoPool(final Supplier<Kryo> factory, final int capacity, final int bufferSize) {
+        this.factory = factory;
+        this.idles = new ArrayBlockingQueue<>(capacity);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 借出写入器
+     *
+     * @param os 输出流
+     * @return 写入器
+     */
+    public KryoWriter writer(final OutputStream os) {
+        return writer(os, false);
+    }
+
+    /**
+     * 借出写入器
+     *
+     * @param os       输出流
+     * @param declared 按照声明类型写入根对象
+     * @return 写入器
+     */
+    public KryoWriter writer(final OutputStream os, final boolean declared) {
+        KryoHolder holder = borrow();
+        holder.output.setOutputStream(os);
+        return new KryoWriter(holder.kryo, holder.output, declared, () -> release(holder));
+    }
+
+    /**
+     * 借出读取器
+     *
+     * @param is 输入流
+     * @return 读取器
+     */
+    public KryoReader reader(final InputStream is) {
+        return reader(is, false);
+    }
+
+    /**
+     * 借出读取器
+     *
+     * @param is       输入流
+     * @param declared 按照声明类型读取根对象
+     * @return 读取器
+     */
+    public KryoReader reader(final InputStream is, final boolean declared) {
+        KryoHolder holder = borrow();
+        holder.input.setInputStream(is);
+        return new KryoReader(holder.kryo, holder.input, declared, () -> release(holder));
+    }
+
+    /**
+     * 借出对象
+     *
+     * @return 对象
+     */
+    protected KryoHolder borrow() {
+        KryoHolder holder = idles.poll();
+        return holder != null ? holder : new KryoHolder(factory.get(), bufferSize);
+    }
+
+    /**
+     * 归还对象
+     *
+     * @param holder 对象
+     */
+    protected void release(final KryoHolder holder) {
+        holder.clear(bufferSize);
+        idles.offer(holder);
+    }
+
+    /**
+     * 空闲数量
+     *
+     * @return 空闲数量
+     */
+    public int size() {
+        return idles.size();
+    }
+
+    /**
+     * Kryo及其缓冲区
+     */
+    protected static class KryoHolder {
+        /**
+         * Kryo
+         */
+        protected final Kryo kryo;
+        /**
+         * 输出
+         */
+        protected final Output output;
+        /**
+         * 输入
+         */
+        protected final Input input;
+
+        public KryoHolder(final Kryo kryo, final int bufferSize) {
+            this.kryo = kryo;
+            this.output = new Output(bufferSize, -1);
+            this.input = new Input(bufferSize);
+        }
+
+        /**
+         * 清理状态，释放流的引用
+         *
+         * @param bufferSize 缓冲区大小
+         */
+        protected void clear(final int bufferSize) {
+            //异常中断的时候可能残留引用状态
+            kryo.reset();
+            output.setOutputStream(null);
+            input.setInputStream(null);
+            if (output.getBuffer().length > bufferSize) {
+                output.setBuffer(new byte[bufferSize], -1);
+            }
+        }
+    }
+}
@@ -36,14 +36,36 @@ public class KryoReader implements ObjectReader {
 
     protected Input input;
 
+    /**
+     * 释放回调，用于归还对象池
+     */
+    protected Runnable recycler;
+    /**
+     * 按照声明类型读取根对象
+     */
+    protected boolean declared;
+
     public KryoReader(Kryo kryo, Input input) {
         this.kryo = kryo;
         this.input = input;
     }
 
+    public KryoReader(Kryo kryo, Input input, Runnable recycler) {
+        this.kryo = kryo;
+        this.input = input;
+        this.recycler = recycler;
+    }
+
+    public KryoReader(Kryo kryo, Input input, boolean declared, Runnable recycler) {
+        this.kryo = kryo;
+        this.input = input;
+        this.declared = declared;
+        this.recycler = recycler;
+    }
+
     @Override
     public <T> T readObject(final Class<T> clazz) throws IOException {
-        return (T) kryo.readClassAndObject(input);
+        return declared && clazz != null && clazz != Object.class ? kryo.readObject(input, clazz) : (T) kryo.readClassAndObject(input);
     }
 
     @Override
@@ -81,6 +103,16 @@ public class KryoReader implements ObjectReader {
         input.close();
     }
 
+    @Override
+    public void release() {
+        Runnable runnable = recycler;
+        if (runnable != null) {
+            //只归还一次
+            recycler = null;
+            runnable.run();
+        }
+    }
+
     @Override
     public boolean readBoolean() throws IOException {
         return input.readBoolean();
@@ -22,8 +22,6 @@ package io.joyrpc.codec.serialization.kryo;
 
 import com.esotericsoftware.kryo.AutowiredObjectSerializer;
 import com.esotericsoftware.kryo.Kryo;
-import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers;
 import com.esotericsoftware.kryo.serializers.JavaSerializer;
 import de.javakaffee.kryoserializers.*;
@@ -44,6 +42,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
+import static io.joyrpc.context.Variable.VARIABLE;
 import static io.joyrpc.util.ClassUtils.getDefaultConstructor;
 import static io.joyrpc.util.ClassUtils.isJavaClass;
 
@@ -54,6 +53,26 @@ import static io.joyrpc.util.ClassUtils.isJavaClass;
 @ConditionalOnClass({"com.esotericsoftware.kryo.Kryo", "de.javakaffee.kryoserializers.JdkProxySerializer"})
 public class KryoSerialization implements Serialization {
 
+    /**
+     * 对象池最大空闲数量
+     */
+    public static final String POOL_SIZE = "kryo.pool.size";
+    /**
+     * 缓冲区大小
+     */
+    public static final String BUFFER_SIZE = "kryo.buffer.size";
+
+    /**
+     * 对象池，两个序列化器共享
+     */
+    protected final KryoPool pool = new KryoPool(KryoSerializer::createKryo,
+            VARIABLE.getPositive(POOL_SIZE, Runtime.getRuntime().availableProcessors() * 2),
+            VARIABLE.getPositive(BUFFER_SIZE, 4096));
+
+    protected final KryoSerializer serializer = new KryoSerializer(pool, false);
+
+    protected final KryoSerializer typedSerializer = new KryoSerializer(pool, true);
+
     @Override
     public byte getTypeId() {
         return KRYO_ID;
@@ -66,7 +85,12 @@ public class KryoSerialization implements Serialization {
 
     @Override
     public Serializer getSerializer() {
-        return KryoSerializer.INSTANCE;
+        return serializer;
+    }
+
+    @Override
+    public Serializer getTypedSerializer() {
+        return typedSerializer;
     }
 
     /**
@@ -74,9 +98,25 @@ public class KryoSerialization implements Serialization {
      */
     protected static final class KryoSerializer extends AbstractSerializer {
         /**
-         * 绑定在线程变量里面
+         * 对象池，替换线程变量，避免在大量业务线程下每个线程都持有Kryo和缓冲区
+         */
+        protected final KryoPool pool;
+        /**
+         * 按照声明类型编解码根对象
          */
-        protected static final ThreadLocal<Kryo> local = ThreadLocal.withInitial(() -> {
+        protected final boolean declared;
+
+        protected KryoSerializer(final KryoPool pool, final boolean declared) {
+            this.pool = pool;
+            this.declared = declared;
+        }
+
+        /**
+         * 创建Kryo
+         *
+         * @return Kryo
+         */
+        protected static Kryo createKryo() {
             final Kryo kryo = new CompatibleKryo();
             kryo.addDefaultSerializer(Throwable.class, new JavaSerializer());
             kryo.register(Arrays.asList("").getClass(), new ArraysAsListSerializer());
@@ -119,21 +159,16 @@ public class KryoSerialization implements Serialization {
             register(AutowiredObjectSerializer.class, o -> kryo.addDefaultSerializer(o.getType(), o));
             kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
             return kryo;
-        });
-
-        protected static final KryoSerializer INSTANCE = new KryoSerializer();
-
-        protected KryoSerializer() {
         }
 
         @Override
         protected ObjectWriter createWriter(final OutputStream os, final Object object) throws IOException {
-            return new KryoWriter(local.get(), new Output(os));
+            return pool.writer(os, declared);
         }
 
         @Override
         protected ObjectReader createReader(final InputStream is, final Class clazz) throws IOException {
-            return new KryoReader(local.get(), new Input(is));
+            return pool.reader(is, declared);
         }
 
     }
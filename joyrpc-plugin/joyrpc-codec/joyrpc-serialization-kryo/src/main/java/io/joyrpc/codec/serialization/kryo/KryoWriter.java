@@ -35,14 +35,40 @@ public class KryoWriter implements ObjectWriter {
     protected Kryo kryo;
     protected Output output;
 
+    /**
+     * 释放回调，用于归还对象池
+     */
+    protected Runnable recycler;
+    /**
+     * 按照声明类型写入根对象，不写入类型描述
+     */
+    protected boolean declared;
+
     public KryoWriter(Kryo kryo, Output output) {
         this.kryo = kryo;
         this.output = output;
     }
 
+    public KryoWriter(Kryo kryo, Output output, Runnable recycler) {
+        this.kryo = kryo;
+        this.output = output;
+        this.recycler = recycler;
+    }
+
+    public KryoWriter(Kryo kryo, Output output, boolean declared, Runnable recycler) {
+        this.kryo = kryo;
+        this.output = output;
+        this.declared = declared;
+        this.recycler = recycler;
+    }
+
     @Override
     public void writeObject(final Object obj) throws IOException {
-        kryo.writeClassAndObject(output, obj);
+        if (declared && obj != null) {
+            kryo.writeObject(output, obj);
+        } else {
+            kryo.writeClassAndObject(output, obj);
+        }
     }
 
     @Override
@@ -65,6 +91,16 @@ public class KryoWriter implements ObjectWriter {
         output.close();
     }
 
+    @Override
+    public void release() {
+        Runnable runnable = recycler;
+        if (runnable != null) {
+            //只归还一次
+            recycler = null;
+            runnable.run();
+        }
+    }
+
     @Override
     public void writeBoolean(final boolean v) throws IOException {
         output.writeBoolean(v);
@@ -24,6 +24,7 @@ import io.joyrpc.codec.serialization.ObjectReader;
 import io.joyrpc.codec.serialization.ObjectWriter;
 import io.joyrpc.codec.serialization.Serialization;
 import io.joyrpc.codec.serialization.Serializer;
+import io.joyrpc.codec.serialization.StringTable;
 import io.joyrpc.extension.Extension;
 import io.joyrpc.extension.condition.ConditionalOnClass;
 import io.protostuff.ProtobufOutput;
@@ -57,6 +58,12 @@ public class ProtobufSerialization implements Serialization {
         return ProtobufSerializer.INSTANCE;
     }
 
+    @Override
+    public Serializer getTypedSerializer() {
+        //根对象按照运行时类型的Schema编码，不包含类型描述
+        return ProtobufSerializer.INSTANCE;
+    }
+
     /**
      * Protostuff序列化和反序列化实现
      */
@@ -73,6 +80,19 @@ public class ProtobufSerialization implements Serialization {
         protected ObjectReader createReader(final InputStream is, final Class clazz) throws IOException {
             return new ProtobufReader(RuntimeSchema.getSchema(clazz, STRATEGY), is, local.get());
         }
+
+        @Override
+        protected ObjectWriter createWriter(final OutputStream os, final Object object,
+                                            final StringTable.Sender table) throws IOException {
+            //嵌套对象按照长度前缀编码，不支持字符串表
+            return createWriter(os, object);
+        }
+
+        @Override
+        protected ObjectReader createReader(final InputStream is, final Class clazz,
+                                            final StringTable.Receiver table) throws IOException {
+            return createReader(is, clazz);
+        }
     }
 
 }
@@ -60,6 +60,17 @@ public class ProtostuffSerialization implements Serialization {
         return ProtostuffSerializer.INSTANCE;
     }
 
+    @Override
+    public Serializer getTypedSerializer() {
+        //根对象按照运行时类型的Schema编码，不包含类型描述
+        return ProtostuffSerializer.INSTANCE;
+    }
+
+    @Override
+    public boolean stringTable() {
+        return true;
+    }
+
     /**
      * Protostuff序列化和反序列化实现
      */
@@ -108,6 +119,19 @@ public class ProtostuffSerialization implements Serialization {
         protected ObjectReader createReader(final InputStream is, final Class clazz) throws IOException {
             return new ProtostuffReader(RuntimeSchema.getSchema(clazz, STRATEGY), is, local.get());
         }
+
+        @Override
+        protected ObjectWriter createWriter(final OutputStream os, final Object object,
+                                            final StringTable.Sender table) throws IOException {
+            return new ProtostuffWriter(RuntimeSchema.getSchema(object.getClass(), STRATEGY),
+                    new ProtostuffOutput(local.get(), os), os, table);
+        }
+
+        @Override
+        protected ObjectReader createReader(final InputStream is, final Class clazz,
+                                            final StringTable.Receiver table) throws IOException {
+            return new ProtostuffReader(RuntimeSchema.getSchema(clazz, STRATEGY), is, local.get(), table);
+        }
     }
 
 }
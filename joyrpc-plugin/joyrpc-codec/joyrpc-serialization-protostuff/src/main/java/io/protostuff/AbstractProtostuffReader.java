@@ -42,6 +42,10 @@ public class AbstractProtostuffReader implements ObjectReader {
      * 输入
      */
     protected CodedInput input;
+    /**
+     * 读取对象的输入
+     */
+    protected Input source;
 
     /**
      * 构造函数
@@ -51,15 +55,28 @@ public class AbstractProtostuffReader implements ObjectReader {
      * @param input
      */
     public AbstractProtostuffReader(Schema schema, InputStream inputStream, CodedInput input) {
+        this(schema, inputStream, input, input);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param schema
+     * @param inputStream
+     * @param input
+     * @param source
+     */
+    public AbstractProtostuffReader(Schema schema, InputStream inputStream, CodedInput input, Input source) {
         this.schema = schema;
         this.inputStream = inputStream;
         this.input = input;
+        this.source = source;
     }
 
     @Override
     public Object readObject() throws IOException {
         Object message = schema.newMessage();
-        schema.mergeFrom(input, message);
+        schema.mergeFrom(source, message);
         input.checkLastTagWas(0);
         return message;
     }
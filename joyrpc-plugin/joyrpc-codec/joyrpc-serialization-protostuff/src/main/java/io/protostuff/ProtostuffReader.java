@@ -20,6 +20,8 @@ package io.protostuff;
  * #L%
  */
 
+import io.joyrpc.codec.serialization.StringTable;
+
 import java.io.InputStream;
 
 /**
@@ -37,4 +39,12 @@ public class ProtostuffReader extends AbstractProtostuffReader {
     public ProtostuffReader(Schema schema, InputStream inputStream, LinkedBuffer buffer) {
         super(schema, inputStream, new CodedInput(inputStream, buffer.buffer, true));
     }
+
+    public ProtostuffReader(Schema schema, InputStream inputStream, LinkedBuffer buffer, StringTable.Receiver table) {
+        this(schema, inputStream, new CodedInput(inputStream, buffer.buffer, true), table);
+    }
+
+    protected ProtostuffReader(Schema schema, InputStream inputStream, CodedInput input, StringTable.Receiver table) {
+        super(schema, inputStream, input, new StringTableInput(input, table));
+    }
 }
@@ -20,6 +20,8 @@ package io.protostuff;
  * #L%
  */
 
+import io.joyrpc.codec.serialization.StringTable;
+
 import java.io.OutputStream;
 
 /**
@@ -38,4 +40,8 @@ public class ProtostuffWriter extends AbstractProtostuffWriter {
         super(schema, output, output, outputStream);
     }
 
+    public ProtostuffWriter(Schema schema, ProtostuffOutput output, OutputStream outputStream, StringTable.Sender table) {
+        super(schema, new StringTableOutput(output, table), output, outputStream);
+    }
+
 }
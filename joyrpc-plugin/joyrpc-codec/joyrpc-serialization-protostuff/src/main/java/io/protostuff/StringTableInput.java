@@ -0,0 +1,191 @@
+package io.protostuff;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.StringTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static io.protostuff.StringTableOutput.WIRETYPE_STRING_DEF;
+import static io.protostuff.StringTableOutput.WIRETYPE_STRING_REF;
+import static io.protostuff.WireFormat.getTagWireType;
+
+/**
+ * 使用会话字符串表的Protostuff输入，和StringTableOutput对应，嵌套对象也通过该输入读取。<br/>
+ * 跳过未知字段的时候也要读取其中的字符串定义，保持和发送方一致。
+ */
+public class StringTableInput implements Input {
+
+    /**
+     * 原始输入
+     */
+    protected final CodedInput input;
+    /**
+     * 接收表
+     */
+    protected final StringTable.Receiver table;
+
+    public StringTableInput(final CodedInput input, final StringTable.Receiver table) {
+        this.input = input;
+        this.table = table;
+    }
+
+    @Override
+    public String readString() throws IOException {
+        switch (getTagWireType(input.getLastTag())) {
+            case WIRETYPE_STRING_REF:
+                return table.get(input.readRawVarint32());
+            case WIRETYPE_STRING_DEF:
+                int index = input.readRawVarint32();
+                String result = input.readString();
+                table.put(index, result);
+                return result;
+            default:
+                return input.readString();
+        }
+    }
+
+    @Override
+    public <T> void handleUnknownField(final int fieldNumber, final Schema<T> schema) throws IOException {
+        switch (getTagWireType(input.getLastTag())) {
+            case WIRETYPE_STRING_REF:
+            case WIRETYPE_STRING_DEF:
+                readString();
+                break;
+            default:
+                input.handleUnknownField(fieldNumber, schema);
+        }
+    }
+
+    @Override
+    public <T> T mergeObject(final T value, final Schema<T> schema) throws IOException {
+        //和CodedInput一样按照分组读取，嵌套对象使用当前输入
+        T result = value == null ? schema.newMessage() : value;
+        schema.mergeFrom(this, result);
+        if (!schema.isInitialized(result)) {
+            throw new UninitializedMessageException(result, schema);
+        }
+        input.checkLastTagWas(0);
+        return result;
+    }
+
+    @Override
+    public <T> int readFieldNumber(final Schema<T> schema) throws IOException {
+        return input.readFieldNumber(schema);
+    }
+
+    @Override
+    public int readInt32() throws IOException {
+        return input.readInt32();
+    }
+
+    @Override
+    public int readUInt32() throws IOException {
+        return input.readUInt32();
+    }
+
+    @Override
+    public int readSInt32() throws IOException {
+        return input.readSInt32();
+    }
+
+    @Override
+    public int readFixed32() throws IOException {
+        return input.readFixed32();
+    }
+
+    @Override
+    public int readSFixed32() throws IOException {
+        return input.readSFixed32();
+    }
+
+    @Override
+    public long readInt64() throws IOException {
+        return input.readInt64();
+    }
+
+    @Override
+    public long readUInt64() throws IOException {
+        return input.readUInt64();
+    }
+
+    @Override
+    public long readSInt64() throws IOException {
+        return input.readSInt64();
+    }
+
+    @Override
+    public long readFixed64() throws IOException {
+        return input.readFixed64();
+    }
+
+    @Override
+    public long readSFixed64() throws IOException {
+        return input.readSFixed64();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return input.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return input.readDouble();
+    }
+
+    @Override
+    public boolean readBool() throws IOException {
+        return input.readBool();
+    }
+
+    @Override
+    public int readEnum() throws IOException {
+        return input.readEnum();
+    }
+
+    @Override
+    public ByteString readBytes() throws IOException {
+        return input.readBytes();
+    }
+
+    @Override
+    public void readBytes(final ByteBuffer bb) throws IOException {
+        input.readBytes(bb);
+    }
+
+    @Override
+    public byte[] readByteArray() throws IOException {
+        return input.readByteArray();
+    }
+
+    @Override
+    public ByteBuffer readByteBuffer() throws IOException {
+        return input.readByteBuffer();
+    }
+
+    @Override
+    public void transferByteRangeTo(final Output output, final boolean utf8String, final int fieldNumber,
+                                    final boolean repeated) throws IOException {
+        input.transferByteRangeTo(output, utf8String, fieldNumber, repeated);
+    }
+}
@@ -0,0 +1,178 @@
+package io.protostuff;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.StringTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static io.protostuff.WireFormat.*;
+
+/**
+ * 使用会话字符串表的Protostuff输出，嵌套对象也通过该输出写入。<br/>
+ * 表中已有的字符串按照引用的类型写入序号，新进入表的字符串按照定义的类型写入序号和内容，这两个类型在protobuf中没有使用。
+ */
+public class StringTableOutput implements Output {
+
+    /**
+     * 字符串定义
+     */
+    public static final int WIRETYPE_STRING_DEF = 6;
+    /**
+     * 字符串引用
+     */
+    public static final int WIRETYPE_STRING_REF = 7;
+
+    /**
+     * 原始输出
+     */
+    protected final ProtostuffOutput output;
+    /**
+     * 发送表
+     */
+    protected final StringTable.Sender table;
+
+    public StringTableOutput(final ProtostuffOutput output, final StringTable.Sender table) {
+        this.output = output;
+        this.table = table;
+    }
+
+    @Override
+    public void writeString(final int fieldNumber, final CharSequence value, final boolean repeated) throws IOException {
+        if (value instanceof String) {
+            String text = (String) value;
+            int index = table.indexOf(text);
+            if (index >= 0) {
+                output.tail = output.sink.writeVarInt32(index, output,
+                        output.sink.writeVarInt32(makeTag(fieldNumber, WIRETYPE_STRING_REF), output, output.tail));
+                return;
+            }
+            index = table.add(text);
+            if (index >= 0) {
+                output.tail = output.sink.writeStrUTF8VarDelimited(text, output,
+                        output.sink.writeVarInt32(index, output,
+                                output.sink.writeVarInt32(makeTag(fieldNumber, WIRETYPE_STRING_DEF), output, output.tail)));
+                return;
+            }
+        }
+        output.writeString(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public <T> void writeObject(final int fieldNumber, final T value, final Schema<T> schema, final boolean repeated) throws IOException {
+        //和ProtostuffOutput一样按照分组写入，嵌套对象使用当前输出
+        output.tail = output.sink.writeVarInt32(makeTag(fieldNumber, WIRETYPE_START_GROUP), output, output.tail);
+        schema.writeTo(this, value);
+        output.tail = output.sink.writeVarInt32(makeTag(fieldNumber, WIRETYPE_END_GROUP), output, output.tail);
+    }
+
+    @Override
+    public void writeInt32(final int fieldNumber, final int value, final boolean repeated) throws IOException {
+        output.writeInt32(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeUInt32(final int fieldNumber, final int value, final boolean repeated) throws IOException {
+        output.writeUInt32(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeSInt32(final int fieldNumber, final int value, final boolean repeated) throws IOException {
+        output.writeSInt32(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeFixed32(final int fieldNumber, final int value, final boolean repeated) throws IOException {
+        output.writeFixed32(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeSFixed32(final int fieldNumber, final int value, final boolean repeated) throws IOException {
+        output.writeSFixed32(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeInt64(final int fieldNumber, final long value, final boolean repeated) throws IOException {
+        output.writeInt64(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeUInt64(final int fieldNumber, final long value, final boolean repeated) throws IOException {
+        output.writeUInt64(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeSInt64(final int fieldNumber, final long value, final boolean repeated) throws IOException {
+        output.writeSInt64(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeFixed64(final int fieldNumber, final long value, final boolean repeated) throws IOException {
+        output.writeFixed64(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeSFixed64(final int fieldNumber, final long value, final boolean repeated) throws IOException {
+        output.writeSFixed64(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeFloat(final int fieldNumber, final float value, final boolean repeated) throws IOException {
+        output.writeFloat(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeDouble(final int fieldNumber, final double value, final boolean repeated) throws IOException {
+        output.writeDouble(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeBool(final int fieldNumber, final boolean value, final boolean repeated) throws IOException {
+        output.writeBool(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeEnum(final int fieldNumber, final int value, final boolean repeated) throws IOException {
+        output.writeEnum(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeBytes(final int fieldNumber, final ByteString value, final boolean repeated) throws IOException {
+        output.writeBytes(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeByteArray(final int fieldNumber, final byte[] value, final boolean repeated) throws IOException {
+        output.writeByteArray(fieldNumber, value, repeated);
+    }
+
+    @Override
+    public void writeByteRange(final boolean utf8String, final int fieldNumber, final byte[] value,
+                               final int offset, final int length, final boolean repeated) throws IOException {
+        output.writeByteRange(utf8String, fieldNumber, value, offset, length, repeated);
+    }
+
+    @Override
+    public void writeBytes(final int fieldNumber, final ByteBuffer value, final boolean repeated) throws IOException {
+        output.writeBytes(fieldNumber, value, repeated);
+    }
+}
@@ -20,6 +20,7 @@ package io.joyrpc.protocol.dubbo.codec;
  * #L%
  */
 
+import io.joyrpc.codec.checksum.Checksum;
 import io.joyrpc.codec.serialization.Serialization;
 import io.joyrpc.constants.ExceptionCode;
 import io.joyrpc.exception.CodecException;
@@ -33,6 +34,7 @@ import io.joyrpc.protocol.dubbo.message.DubboResponseErrorPayload;
 import io.joyrpc.protocol.dubbo.message.DubboResponsePayload;
 import io.joyrpc.protocol.message.RequestMessage;
 import io.joyrpc.transport.buffer.ChannelBuffer;
+import io.joyrpc.transport.codec.DecodeContext;
 import io.joyrpc.transport.codec.EncodeContext;
 import io.joyrpc.transport.message.Header;
 import io.joyrpc.transport.message.Message;
@@ -162,6 +164,24 @@ public class DubboCodec extends AbstractCodec {
         }
     }
 
+    @Override
+    protected boolean isLazyDecode(final DecodeContext context, final MsgType type) {
+        //解码调整会修改消息类型，必须立即解码
+        return false;
+    }
+
+    @Override
+    protected int getBinaryThreshold(final EncodeContext context, final Header header) {
+        //dubbo协议不支持二进制数据追加
+        return 0;
+    }
+
+    @Override
+    protected Checksum getChecksum(final EncodeContext context, final Header header) {
+        //dubbo协议头不支持扩展属性
+        return null;
+    }
+
     @Override
     protected void adjustDecode(final Message message, final Serialization serialization) {
         //请求消息，将dubboVersion设置到header中，序列化response时需要
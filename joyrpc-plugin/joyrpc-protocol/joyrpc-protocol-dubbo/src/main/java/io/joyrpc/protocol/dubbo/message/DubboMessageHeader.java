@@ -75,7 +75,7 @@ public class DubboMessageHeader extends MessageHeader {
         DubboMessageHeader result = clone();
         result.msgType = msgType;
         result.compression = compression;
-        result.attributes = attributes;
+        result.attributes = toAttributes(attributes);
         return result;
     }
 
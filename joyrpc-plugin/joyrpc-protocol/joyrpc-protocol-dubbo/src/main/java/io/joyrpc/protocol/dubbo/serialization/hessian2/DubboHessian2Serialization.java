@@ -28,6 +28,7 @@ import io.joyrpc.codec.serialization.hessian2.Hessian2Writer;
 import io.joyrpc.com.caucho.hessian.io.AutowiredObjectDeserializer;
 import io.joyrpc.com.caucho.hessian.io.AutowiredObjectSerializer;
 import io.joyrpc.com.caucho.hessian.io.Hessian2Output;
+import io.joyrpc.com.caucho.hessian.io.ObjectDefinitionCache;
 import io.joyrpc.com.caucho.hessian.io.SerializerFactory;
 import io.joyrpc.extension.Extension;
 import io.joyrpc.permission.BlackList;
@@ -35,6 +36,8 @@ import io.joyrpc.permission.BlackList;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import static io.joyrpc.context.Variable.VARIABLE;
+
 @Extension(value = "hessian", provider = "dubbo", order = Serialization.ORDER_DUBBO_HESSIAN)
 public class DubboHessian2Serialization extends Hessian2Serialization {
 
@@ -58,6 +61,12 @@ public class DubboHessian2Serialization extends Hessian2Serialization {
 
         protected static final SerializerFactory SERIALIZER_FACTORY = new SerializerFactory(Thread.currentThread().getContextClassLoader());
 
+        /**
+         * 类定义缓存，所有线程的输入共享
+         */
+        protected static final ObjectDefinitionCache DEFINITION_CACHE = new ObjectDefinitionCache(
+                VARIABLE.getPositive("hessian.definition.capacity", 4096));
+
         protected static final DubboHessian2Serializer INSTANCE = new DubboHessian2Serializer();
 
         /**
@@ -76,6 +85,7 @@ public class DubboHessian2Serialization extends Hessian2Serialization {
         protected static final ThreadLocal<Hessian2BWLInput> HESSIAN_INPUT = ThreadLocal.withInitial(() -> {
             Hessian2BWLInput result = new Hessian2BWLInput(BLACK_LIST);
             result.setSerializerFactory(SERIALIZER_FACTORY);
+            result.setDefinitionCache(DEFINITION_CACHE);
             result.setCloseStreamOnClose(true);
             return result;
         });
@@ -28,7 +28,15 @@ public enum HeaderMapping {
     /**
      * Accept-Encoding
      */
-    ACCEPT_ENCODING(GrpcUtil.MESSAGE_ACCEPT_ENCODING, (byte) 3);
+    ACCEPT_ENCODING(GrpcUtil.MESSAGE_ACCEPT_ENCODING, (byte) 3),
+    /**
+     * 非protobuf序列化的Content-Encoding，应答原样返回
+     */
+    CONTENT_ENCODING(GrpcUtil.CONTENT_ENCODING, (byte) 4),
+    /**
+     * 生成的protobuf消息按照原生protobuf格式编码，应答原样返回
+     */
+    PROTOBUF_CODEC("x-protobuf-codec", (byte) 5);
 
     private String key;
     private byte num;
@@ -52,6 +60,10 @@ public enum HeaderMapping {
                 return STREAM_ID;
             case 2:
                 return ACCEPT_ENCODING;
+            case 4:
+                return CONTENT_ENCODING;
+            case 5:
+                return PROTOBUF_CODEC;
             default:
                 throw new IllegalArgumentException("no matched header mapping, num:" + num);
         }
@@ -0,0 +1,189 @@
+package io.joyrpc.protocol.grpc;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成的protobuf消息的直接编解码，跳过通用的序列化插件和反射。<br/>
+ * protobuf-java是可选依赖，不存在的时候support始终返回false，其它方法不会被调用。
+ */
+public abstract class ProtobufCodec {
+
+    /**
+     * 是否存在protobuf-java
+     */
+    protected static final boolean PROTOBUF = isPresent();
+
+    /**
+     * 判断protobuf-java是否存在
+     *
+     * @return 存在标识
+     */
+    protected static boolean isPresent() {
+        try {
+            Class.forName("com.google.protobuf.MessageLite", false, ProtobufCodec.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 判断类型是否是生成的protobuf消息
+     *
+     * @param clazz 类型
+     * @return 支持标识
+     */
+    public static boolean support(final Class<?> clazz) {
+        return PROTOBUF && clazz != null && Lite.isMessage(clazz);
+    }
+
+    /**
+     * 编码，数组前面预留指定的字节数，剩余部分正好容纳消息
+     *
+     * @param message 消息
+     * @param offset  预留的字节数
+     * @return 字节数组
+     * @throws IOException
+     */
+    public static byte[] encode(final Object message, final int offset) throws IOException {
+        return Lite.encode((MessageLite) message, offset);
+    }
+
+    /**
+     * 从字节数组解码
+     *
+     * @param clazz  类型
+     * @param data   数据
+     * @param offset 偏移量
+     * @param length 长度
+     * @return 消息
+     * @throws IOException
+     */
+    public static Object decode(final Class<?> clazz, final byte[] data, final int offset, final int length) throws IOException {
+        return Lite.decode(clazz, data, offset, length);
+    }
+
+    /**
+     * 从输入流解码
+     *
+     * @param clazz 类型
+     * @param is    输入流
+     * @return 消息
+     * @throws IOException
+     */
+    public static Object decode(final Class<?> clazz, final InputStream is) throws IOException {
+        return Lite.decode(clazz, is);
+    }
+
+    /**
+     * 引用protobuf类型的实现，只有protobuf-java存在的时候才会加载
+     */
+    protected static class Lite {
+        /**
+         * 解析器缓存
+         */
+        protected static final Map<Class<?>, Parser<?>> PARSERS = new ConcurrentHashMap<>();
+
+        /**
+         * 判断是否是消息
+         *
+         * @param clazz 类型
+         * @return 消息标识
+         */
+        protected static boolean isMessage(final Class<?> clazz) {
+            return MessageLite.class.isAssignableFrom(clazz);
+        }
+
+        /**
+         * 编码
+         *
+         * @param message 消息
+         * @param offset  预留的字节数
+         * @return 字节数组
+         * @throws IOException
+         */
+        protected static byte[] encode(final MessageLite message, final int offset) throws IOException {
+            int size = message.getSerializedSize();
+            byte[] result = new byte[offset + size];
+            CodedOutputStream output = CodedOutputStream.newInstance(result, offset, size);
+            message.writeTo(output);
+            output.checkNoSpaceLeft();
+            return result;
+        }
+
+        /**
+         * 从字节数组解码
+         *
+         * @param clazz  类型
+         * @param data   数据
+         * @param offset 偏移量
+         * @param length 长度
+         * @return 消息
+         * @throws IOException
+         */
+        protected static Object decode(final Class<?> clazz, final byte[] data, final int offset, final int length) throws IOException {
+            return getParser(clazz).parseFrom(CodedInputStream.newInstance(data, offset, length));
+        }
+
+        /**
+         * 从输入流解码
+         *
+         * @param clazz 类型
+         * @param is    输入流
+         * @return 消息
+         * @throws IOException
+         */
+        protected static Object decode(final Class<?> clazz, final InputStream is) throws IOException {
+            return getParser(clazz).parseFrom(is);
+        }
+
+        /**
+         * 获取解析器，通过生成类的默认实例获取
+         *
+         * @param clazz 类型
+         * @return 解析器
+         * @throws IOException
+         */
+        protected static Parser<?> getParser(final Class<?> clazz) throws IOException {
+            Parser<?> result = PARSERS.get(clazz);
+            if (result == null) {
+                try {
+                    MessageLite instance = (MessageLite) clazz.getMethod("getDefaultInstance").invoke(null);
+                    result = instance.getParserForType();
+                } catch (Exception e) {
+                    throw new IOException("Error occurs while getting protobuf parser of " + clazz.getName(), e);
+                }
+                PARSERS.putIfAbsent(clazz, result);
+            }
+            return result;
+        }
+    }
+}
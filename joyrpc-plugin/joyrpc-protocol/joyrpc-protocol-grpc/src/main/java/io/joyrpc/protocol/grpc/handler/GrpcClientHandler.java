@@ -30,9 +30,12 @@ import io.joyrpc.codec.serialization.UnsafeByteArrayOutputStream;
 import io.joyrpc.config.InterfaceOption;
 import io.joyrpc.context.GlobalContext;
 import io.joyrpc.exception.RpcException;
+import io.joyrpc.extension.ExtensionMeta;
+import io.joyrpc.extension.MapParametric;
 import io.joyrpc.protocol.AbstractHttpHandler;
 import io.joyrpc.protocol.MsgType;
 import io.joyrpc.protocol.grpc.HeaderMapping;
+import io.joyrpc.protocol.grpc.ProtobufCodec;
 import io.joyrpc.protocol.grpc.exception.GrpcBizException;
 import io.joyrpc.protocol.message.*;
 import io.joyrpc.transport.channel.Channel;
@@ -59,6 +62,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import static io.joyrpc.Plugin.*;
 import static io.joyrpc.constants.Constants.*;
+import static io.joyrpc.context.Variable.VARIABLE;
 import static io.joyrpc.protocol.grpc.GrpcServerProtocol.GRPC_NUMBER;
 import static io.joyrpc.transport.http.HttpHeaders.Values.GZIP;
 
@@ -70,6 +74,10 @@ public class GrpcClientHandler extends AbstractHttpHandler {
     private final static Logger logger = LoggerFactory.getLogger(GrpcClientHandler.class);
 
     protected Serialization serialization = SERIALIZATION_SELECTOR.select((byte) Serialization.PROTOBUF_ID);
+    /**
+     * 生成的protobuf消息按照原生protobuf格式编码，默认兼容老版本服务端，按照protostuff编码
+     */
+    protected boolean protobufCodec = VARIABLE.getBoolean(GRPC_PROTOBUF_CODEC_OPTION);
 
     protected Map<Integer, Http2ResponseMessage> http2ResponseNoEnds = new ConcurrentHashMap<>();
 
@@ -126,6 +134,10 @@ public class GrpcClientHandler extends AbstractHttpHandler {
         if (http2Msg == null) {
             return null;
         }
+        //服务端采用非protobuf序列化会在Content-Encoding中标识
+        Http2Headers headers = http2Msg.headers();
+        Serialization serialization = headers == null ? this.serialization :
+                getSerialization(new MapParametric(headers.getAll()), GrpcUtil.CONTENT_ENCODING, this.serialization);
         MessageHeader header = new MessageHeader(serialization.getTypeId(), MsgType.BizResp.getType(), GRPC_NUMBER);
         header.setMsgId(http2Msg.getMsgId());
         header.addAttribute(HeaderMapping.STREAM_ID.getNum(), http2Msg.getStreamId());
@@ -135,7 +147,7 @@ public class GrpcClientHandler extends AbstractHttpHandler {
         if (grpcStatus == Code.OK.value()) {
             EnhanceCompletableFuture<Long, Message> future = channel.getFutureManager().get(http2Msg.getMsgId());
             if (future != null) {
-                payload = decodePayload(http2Msg, (ClassWrapper) future.getAttr());
+                payload = decodePayload(http2Msg, (ClassWrapper) future.getAttr(), serialization);
             } else {
                 payload = new ResponsePayload(new GrpcBizException(String.format("request is timeout. id=%d", http2Msg.getMsgId())));
             }
@@ -150,14 +162,17 @@ public class GrpcClientHandler extends AbstractHttpHandler {
     /**
      * 解析应答
      *
-     * @param message 消息
-     * @param wrapper 返回类型
+     * @param message       消息
+     * @param wrapper       返回类型
+     * @param serialization 序列化
      * @return 应答
      * @throws IOException
      */
-    protected ResponsePayload decodePayload(final Http2ResponseMessage message, final ClassWrapper wrapper) throws IOException {
+    protected ResponsePayload decodePayload(final Http2ResponseMessage message, final ClassWrapper wrapper,
+                                            final Serialization serialization) throws IOException {
         Http2Headers headers = message.headers();
-        InputStream in = new UnsafeByteArrayInputStream(message.content());
+        byte[] content = message.content();
+        InputStream in = new UnsafeByteArrayInputStream(content);
         //读压缩位标识
         int isCompression = in.read();
         //读长度共4位
@@ -165,14 +180,25 @@ public class GrpcClientHandler extends AbstractHttpHandler {
             throw new IOException(String.format("request data is not full. id=%d", message.getMsgId()));
         }
         //解压处理
+        boolean decompressed = false;
         if (isCompression > 0) {
             Pair<String, Compression> pair = getEncoding((String) headers.get(GrpcUtil.MESSAGE_ACCEPT_ENCODING));
             if (pair != null) {
                 in = pair.getValue().decompress(in);
+                decompressed = true;
             }
         }
-        //反序列化
-        Object response = serialization.getSerializer().deserialize(in, wrapper.getClazz());
+        //反序列化，新版本服务端在应答头中标识原生格式，原生grpc服务端和请求的格式一致
+        boolean codec = protobufCodec || headers != null && headers.get(HeaderMapping.PROTOBUF_CODEC.getKey()) != null;
+        Object response;
+        if (codec && serialization.getTypeId() == Serialization.PROTOBUF_ID && !wrapper.isWrapper()
+                && ProtobufCodec.support(wrapper.getClazz())) {
+            //生成的protobuf消息直接解码
+            response = decompressed ? ProtobufCodec.decode(wrapper.getClazz(), in) :
+                    ProtobufCodec.decode(wrapper.getClazz(), content, 5, content.length - 5);
+        } else {
+            response = serialization.getSerializer().deserialize(in, wrapper.getClazz());
+        }
         if (wrapper.isWrapper()) {
             //性能优化
             Object[] parameters = wrapper.getConversion().getToParameter().apply(response);
@@ -227,24 +253,23 @@ public class GrpcClientHandler extends AbstractHttpHandler {
         storeReturnType(invocation, grpcType, future);
 
         byte compressType = message.getHeader().getCompression();
-        //设置content
-        UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream();
-        //是否压缩
-        baos.write(0);
-        //长度(占位)
-        baos.write(new byte[]{0, 0, 0, 0}, 0, 4);
-        //序列化
-        if (payLoad != null) {
-            serialization.getSerializer().serialize(baos, payLoad);
+        //按照协商的序列化编码，非protobuf序列化在Content-Encoding中标识，服务端据此反序列化
+        Serialization serialization = getSerialization(message.getHeader().getSerialization(), this.serialization);
+        if (serialization.getTypeId() != Serialization.PROTOBUF_ID) {
+            String name = getName(serialization);
+            if (name != null) {
+                headers.set(GrpcUtil.CONTENT_ENCODING, GrpcUtil.CONTENT_TYPE_GRPC + "+" + name);
+            }
+        } else if (protobufCodec) {
+            //告知新版本服务端按照原生格式解码
+            headers.set(HeaderMapping.PROTOBUF_CODEC.getKey(), "1");
         }
-        //获取 content 字节数组
-        byte[] content = baos.toByteArray();
+        byte[] content = encode(serialization, protobufCodec, payLoad);
         //压缩处理
         if (content.length > 1024 && compressType > 0) {
             Compression compression = COMPRESSION_SELECTOR.select(compressType);
             if (compression != null) {
-                //复用内存缓冲区
-                baos.reset();
+                UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream(content.length);
                 baos.write(new byte[]{1, 0, 0, 0, 0});
                 content = compress(compression, baos, content, 5, content.length - 5);
                 headers.set(GrpcUtil.MESSAGE_ENCODING, compression.getTypeName());
@@ -259,6 +284,48 @@ public class GrpcClientHandler extends AbstractHttpHandler {
         return new DefaultHttp2RequestMessage(0, message.getMsgId(), headers, content);
     }
 
+    /**
+     * 序列化请求，前面预留压缩标识和长度，只有协商的是protobuf序列化并且开启了原生格式才直接编码生成的protobuf消息
+     *
+     * @param serialization 序列化
+     * @param protobufCodec 生成的protobuf消息按照原生protobuf格式编码
+     * @param payLoad       请求对象
+     * @return 字节数组
+     * @throws IOException
+     */
+    protected byte[] encode(final Serialization serialization, final boolean protobufCodec, final Object payLoad) throws IOException {
+        if (protobufCodec && serialization.getTypeId() == Serialization.PROTOBUF_ID && payLoad != null
+                && ProtobufCodec.support(payLoad.getClass())) {
+            //生成的protobuf消息直接编码，前面预留压缩标识和长度
+            return ProtobufCodec.encode(payLoad, 5);
+        }
+        UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream();
+        //是否压缩
+        baos.write(0);
+        //长度(占位)
+        baos.write(new byte[]{0, 0, 0, 0}, 0, 4);
+        //序列化
+        if (payLoad != null) {
+            serialization.getSerializer().serialize(baos, payLoad);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * 获取序列化插件的名称
+     *
+     * @param serialization 序列化
+     * @return 名称
+     */
+    protected String getName(final Serialization serialization) {
+        for (ExtensionMeta<Serialization, String> meta : SERIALIZATION.metas()) {
+            if (meta.getTarget() == serialization) {
+                return meta.getExtension().getName();
+            }
+        }
+        return null;
+    }
+
     /**
      * 构建头部
      *
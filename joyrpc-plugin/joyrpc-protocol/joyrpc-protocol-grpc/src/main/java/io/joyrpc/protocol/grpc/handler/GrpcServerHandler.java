@@ -23,9 +23,9 @@ package io.joyrpc.protocol.grpc.handler;
 import io.grpc.internal.GrpcUtil;
 import io.joyrpc.codec.compression.Compression;
 import io.joyrpc.codec.serialization.Serialization;
-import io.joyrpc.codec.serialization.Serializer;
 import io.joyrpc.codec.serialization.UnsafeByteArrayInputStream;
 import io.joyrpc.codec.serialization.UnsafeByteArrayOutputStream;
+import io.joyrpc.context.GlobalContext;
 import io.joyrpc.exception.CodecException;
 import io.joyrpc.exception.LafException;
 import io.joyrpc.exception.RpcException;
@@ -36,6 +36,7 @@ import io.joyrpc.protocol.AbstractHttpHandler;
 import io.joyrpc.protocol.MsgType;
 import io.joyrpc.protocol.grpc.HeaderMapping;
 import io.joyrpc.protocol.grpc.Headers;
+import io.joyrpc.protocol.grpc.ProtobufCodec;
 import io.joyrpc.protocol.grpc.message.GrpcResponseMessage;
 import io.joyrpc.protocol.message.Invocation;
 import io.joyrpc.protocol.message.MessageHeader;
@@ -55,13 +56,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.function.Supplier;
 
 import static io.joyrpc.Plugin.SERIALIZATION_SELECTOR;
 import static io.joyrpc.constants.Constants.GRPC_TYPE_FUNCTION;
+import static io.joyrpc.constants.Constants.PROTOCOL_VERSION_KEY;
 import static io.joyrpc.protocol.grpc.GrpcServerProtocol.GRPC_NUMBER;
 import static io.joyrpc.protocol.grpc.HeaderMapping.ACCEPT_ENCODING;
+import static io.joyrpc.protocol.grpc.HeaderMapping.CONTENT_ENCODING;
+import static io.joyrpc.protocol.grpc.HeaderMapping.PROTOBUF_CODEC;
 
 /**
  * @date: 2019/5/6
@@ -136,19 +141,30 @@ public class GrpcServerHandler extends AbstractHttpHandler {
             path = "/" + path;
         }
         URL url = URL.valueOf(path, "http");
+        //获取反序列化插件，应答也采用该序列化
+        Serialization contentSerialization = getSerialization(parametric, GrpcUtil.CONTENT_ENCODING, serialization);
         //消息头
-        MessageHeader header = new MessageHeader(serialization.getTypeId(), MsgType.BizReq.getType(), GRPC_NUMBER);
+        MessageHeader header = new MessageHeader(contentSerialization.getTypeId(), MsgType.BizReq.getType(), GRPC_NUMBER);
         header.setMsgId(message.getMsgId());
         header.setMsgType(MsgType.BizReq.getType());
         header.setTimeout(getTimeout(parametric, GrpcUtil.TIMEOUT));
         header.addAttribute(HeaderMapping.STREAM_ID.getNum(), message.getStreamId());
         header.addAttribute(ACCEPT_ENCODING.getNum(), parametric.getString(GrpcUtil.MESSAGE_ACCEPT_ENCODING));
+        if (contentSerialization.getTypeId() != Serialization.PROTOBUF_ID) {
+            header.addAttribute(CONTENT_ENCODING.getNum(), parametric.getString(GrpcUtil.CONTENT_ENCODING));
+        }
+        //应答按照请求的格式编码
+        boolean protobufCodec = isProtobufCodec(parametric);
+        if (protobufCodec) {
+            header.addAttribute(PROTOBUF_CODEC.getNum(), (byte) 1);
+        }
         //构造invocation
         Invocation invocation = Invocation.build(url, parametric, GRPC_TYPE_FUNCTION, EXCEPTION_SUPPLIER);
         //获取 grpcType
         GrpcType grpcType = invocation.getGrpcType();
         //构造消息输入流
-        UnsafeByteArrayInputStream in = new UnsafeByteArrayInputStream(message.content());
+        byte[] content = message.content();
+        UnsafeByteArrayInputStream in = new UnsafeByteArrayInputStream(content);
         int compressed = in.read();
         if (in.skip(4) < 4) {
             throw new IOException(String.format("request data is not full. id=%d", message.getMsgId()));
@@ -157,12 +173,10 @@ public class GrpcServerHandler extends AbstractHttpHandler {
         ClassWrapper wrapper = grpcType.getRequest();
         //如果方法没有参数，则返回null
         if (wrapper != null) {
-            //获取反序列化插件
-            Serializer serializer = getSerialization(parametric, GrpcUtil.CONTENT_ENCODING, serialization).getSerializer();
             //获取压缩类型
             Compression compression = compressed == 0 ? null : getCompression(parametric, GrpcUtil.MESSAGE_ENCODING);
             //反序列化
-            Object target = serializer.deserialize(compression == null ? in : compression.decompress(in), wrapper.getClazz());
+            Object target = decode(contentSerialization, protobufCodec, compression, wrapper.getClazz(), content, in);
             //isWrapper为true，为包装对象，遍历每个field，逐个取值赋值给args数组，否则，直接赋值args[0]
             if (wrapper.isWrapper()) {
                 args = wrapper.getConversion().getToParameter().apply(target);
@@ -181,6 +195,42 @@ public class GrpcServerHandler extends AbstractHttpHandler {
         return reqMessage;
     }
 
+    /**
+     * 判断请求中生成的protobuf消息是否是原生protobuf格式。<br/>
+     * 老版本的joyrpc消费者按照protostuff编码，新版本开启后在请求头中标识，原生grpc消费者都是原生格式
+     *
+     * @param parametric 请求头
+     * @return 原生protobuf格式标识
+     */
+    protected boolean isProtobufCodec(final Parametric parametric) {
+        if (parametric.getString(PROTOBUF_CODEC.getKey()) != null) {
+            return true;
+        }
+        String agent = parametric.getString(GrpcUtil.USER_AGENT_KEY.name());
+        return agent == null || !agent.equals(GlobalContext.getString(PROTOCOL_VERSION_KEY));
+    }
+
+    /**
+     * 反序列化请求，生成的protobuf消息直接解码
+     *
+     * @param serialization 序列化
+     * @param protobufCodec 生成的protobuf消息是原生protobuf格式
+     * @param compression   压缩
+     * @param clazz         类型
+     * @param content       消息内容
+     * @param in            跳过了消息头的输入流
+     * @return 请求对象
+     * @throws IOException
+     */
+    protected Object decode(final Serialization serialization, final boolean protobufCodec, final Compression compression,
+                            final Class<?> clazz, final byte[] content, final InputStream in) throws IOException {
+        if (protobufCodec && serialization.getTypeId() == Serialization.PROTOBUF_ID && ProtobufCodec.support(clazz)) {
+            return compression == null ? ProtobufCodec.decode(clazz, content, 5, content.length - 5) :
+                    ProtobufCodec.decode(clazz, compression.decompress(in));
+        }
+        return serialization.getSerializer().deserialize(compression == null ? in : compression.decompress(in), clazz);
+    }
+
     /**
      * 构建应答消息
      *
@@ -199,24 +249,24 @@ public class GrpcServerHandler extends AbstractHttpHandler {
         Http2Headers headers = Headers.build(false);
         GrpcType grpcType = message.getGrpcType();
         Object respObj = wrapPayload(responsePayload, grpcType);
-        //设置content
-        UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream();
-        //是否压缩
-        baos.write(0);
-        //长度(占位)
-        baos.write(new byte[]{0, 0, 0, 0}, 0, 4);
-        //序列化
-        serialization.getSerializer().serialize(baos, respObj);
-        //获取 content 字节数组
-        byte[] content = baos.toByteArray();
+        //按照请求协商的序列化编码
+        Serialization serialization = getSerialization(header.getSerialization(), this.serialization);
+        Object contentEncoding = header.getAttribute(CONTENT_ENCODING.getNum());
+        if (contentEncoding != null) {
+            headers.set(GrpcUtil.CONTENT_ENCODING, contentEncoding.toString());
+        }
+        boolean protobufCodec = header.getAttribute(PROTOBUF_CODEC.getNum()) != null;
+        if (protobufCodec) {
+            headers.set(PROTOBUF_CODEC.getKey(), "1");
+        }
+        byte[] content = encode(serialization, protobufCodec, respObj);
         //压缩处理
         Pair<String, Compression> pair = null;
         if (content.length > 1024) {
             pair = getEncoding((String) header.getAttribute(ACCEPT_ENCODING.getNum()));
         }
         if (pair != null) {
-            //复用缓冲区
-            baos.reset();
+            UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream(content.length);
             baos.write(new byte[]{1, 0, 0, 0, 0});
             content = compress(pair.getValue(), baos, content, 5, content.length - 5);
             headers.set(GrpcUtil.MESSAGE_ENCODING, pair.getKey());
@@ -231,6 +281,31 @@ public class GrpcServerHandler extends AbstractHttpHandler {
                 headers, content, Headers.build(true));
     }
 
+    /**
+     * 序列化应答，前面预留压缩标识和长度，只有协商的是protobuf序列化并且请求是原生格式才直接编码生成的protobuf消息
+     *
+     * @param serialization 序列化
+     * @param protobufCodec 生成的protobuf消息按照原生protobuf格式编码
+     * @param respObj       应答对象
+     * @return 字节数组
+     * @throws IOException
+     */
+    protected byte[] encode(final Serialization serialization, final boolean protobufCodec, final Object respObj) throws IOException {
+        if (protobufCodec && serialization.getTypeId() == Serialization.PROTOBUF_ID && respObj != null
+                && ProtobufCodec.support(respObj.getClass())) {
+            //生成的protobuf消息直接编码，前面预留压缩标识和长度
+            return ProtobufCodec.encode(respObj, 5);
+        }
+        UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream();
+        //是否压缩
+        baos.write(0);
+        //长度(占位)
+        baos.write(new byte[]{0, 0, 0, 0}, 0, 4);
+        //序列化
+        serialization.getSerializer().serialize(baos, respObj);
+        return baos.toByteArray();
+    }
+
     /**
      * 包装载体，进行类型转换
      *
@@ -24,6 +24,8 @@ package io.joyrpc.protocol.telnet.handler;
  */
 
 import io.joyrpc.invoker.ServiceManager;
+import io.joyrpc.thread.Bulkhead;
+import io.joyrpc.thread.DeadlineQueue;
 import io.joyrpc.transport.Server;
 import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.telnet.TelnetResponse;
@@ -47,7 +49,7 @@ public class BizThreadTelnetHandler extends AbstractTelnetHandler {
     public BizThreadTelnetHandler() {
         options = new Options()
                 .addOption(HELP_SHORT, HELP_LONG, false, "show help message for command config")
-                .addOption("p", "port", true, "the threads of server port")
+                .addOption("p", "port", true, "the threads of server port, callback or bulkhead name")
                 .addOption("i", "interval", true, "the interval of output")
                 .addOption("c", "count", true, "number of outputs");
     }
@@ -76,6 +78,7 @@ public class BizThreadTelnetHandler extends AbstractTelnetHandler {
             Map<String, Object> result = new HashMap<>(100);
             export(CALLBACK, ServiceManager.getCallbackThreadPool(), result);
             export(ServiceManager.getServers(), result);
+            ServiceManager.getBulkheads().forEach(o -> result.put(o.getName(), export(o)));
             return new TelnetResponse(JSON.get().toJSONString(result));
         } else {
             String port = cmd.getOptionValue("p", String.valueOf(channel.getLocalAddress().getPort()));
@@ -87,7 +90,8 @@ public class BizThreadTelnetHandler extends AbstractTelnetHandler {
                 return new TelnetResponse("ERROR:count must between 1 and 60");
             }
 
-            ThreadPoolExecutor pool = getThreadPool(port);
+            Bulkhead bulkhead = ServiceManager.getBulkhead(port);
+            ThreadPoolExecutor pool = bulkhead != null ? bulkhead.getExecutor() : getThreadPool(port);
             if (pool != null) {
                 HashMap<String, Map<String, Object>> map = new HashMap<>(1);
                 StringBuilder builder = new StringBuilder(100);
@@ -105,7 +109,7 @@ public class BizThreadTelnetHandler extends AbstractTelnetHandler {
                         //通道被关闭了
                         return new TelnetResponse(LINE);
                     } else {
-                        map.put(port, export(pool));
+                        map.put(port, bulkhead != null ? export(bulkhead) : export(pool));
                         if (i != count - 1) {
                             //最后一个由循环外输出
                             builder.setLength(0);
@@ -167,6 +171,17 @@ public class BizThreadTelnetHandler extends AbstractTelnetHandler {
         result.put(name, export(executor));
     }
 
+    /**
+     * 舱壁信息，包括拒绝次数
+     * @param bulkhead
+     * @return
+     */
+    protected Map<String, Object> export(final Bulkhead bulkhead) {
+        Map<String, Object> result = export(bulkhead.getExecutor());
+        result.put("rejected", bulkhead.getRejected());
+        return result;
+    }
+
     /**
      * 线程池信息
      * @param executor
@@ -179,6 +194,11 @@ public class BizThreadTelnetHandler extends AbstractTelnetHandler {
         result.put("current", executor.getPoolSize());
         result.put("active", executor.getActiveCount());
         result.put("queue", executor.getQueue().size());
+        if (executor.getQueue() instanceof DeadlineQueue) {
+            DeadlineQueue queue = (DeadlineQueue) executor.getQueue();
+            result.put("expired", queue.getExpired());
+            result.put("shed", queue.getShed());
+        }
         return result;
     }
 }
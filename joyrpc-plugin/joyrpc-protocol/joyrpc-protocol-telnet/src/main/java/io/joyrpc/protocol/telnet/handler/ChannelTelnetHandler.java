@@ -0,0 +1,143 @@
+/**
+ *
+ */
+package io.joyrpc.protocol.telnet.handler;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.invoker.ServiceManager;
+import io.joyrpc.transport.Server;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.channel.ChannelManagerFactory;
+import io.joyrpc.transport.channel.PooledChannelManagerFactory;
+import io.joyrpc.transport.channel.ServerChannel;
+import io.joyrpc.transport.telnet.TelnetResponse;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.joyrpc.Plugin.CHANNEL_MANAGER_FACTORY;
+import static io.joyrpc.Plugin.JSON;
+
+/**
+ * 输出连接的发送队列和刷新合并信息，连接池模式下还输出每个连接的待应答请求数和绑定的客户端通道数
+ */
+public class ChannelTelnetHandler extends AbstractTelnetHandler {
+
+    public static final String CLIENT = "client";
+
+    public ChannelTelnetHandler() {
+        options = new Options()
+                .addOption(HELP_SHORT, HELP_LONG, false, "show help message for command channel");
+    }
+
+    @Override
+    public String type() {
+        return "channel";
+    }
+
+    @Override
+    public String description() {
+        return "Display the send queue and flush information of connections.";
+    }
+
+    @Override
+    public String shortDescription() {
+        return "Display the connection information.";
+    }
+
+    @Override
+    public TelnetResponse telnet(final Channel channel, final String[] args) {
+        CommandLine cmd = getCommand(options, args);
+        if (cmd.hasOption(HELP_SHORT)) {
+            return new TelnetResponse(help());
+        }
+        Map<String, Object> result = new HashMap<>(10);
+        for (Server server : ServiceManager.getServers()) {
+            export(server, result);
+        }
+        Map<String, Object> clients = export();
+        if (!clients.isEmpty()) {
+            result.put(CLIENT, clients);
+        }
+        return new TelnetResponse(JSON.get().toJSONString(result));
+    }
+
+    /**
+     * 输出服务端连接信息
+     *
+     * @param server 服务
+     * @param result 结果
+     */
+    protected void export(final Server server, final Map<String, Object> result) {
+        ServerChannel serverChannel = server.getServerChannel();
+        if (serverChannel == null) {
+            return;
+        }
+        Map<String, Object> connections = new HashMap<>();
+        for (Channel ch : serverChannel.getChannels()) {
+            connections.put(Channel.toString(ch.getRemoteAddress()), export(ch));
+        }
+        result.put(String.valueOf(server.getLocalAddress().getPort()), connections);
+    }
+
+    /**
+     * 输出连接池模式下客户端连接信息
+     *
+     * @return 连接名称和连接信息
+     */
+    protected Map<String, Object> export() {
+        Map<String, Object> result = new HashMap<>();
+        ChannelManagerFactory factory = CHANNEL_MANAGER_FACTORY.get("pooled");
+        if (factory instanceof PooledChannelManagerFactory) {
+            ((PooledChannelManagerFactory) factory).getManagers().values().forEach(manager -> {
+                Map<String, Integer> requests = manager.getRequests();
+                Map<String, Long> refs = manager.getRefs();
+                Map<String, Integer> queues = manager.getQueueSizes();
+                Map<String, Double> flushes = manager.getMessagesPerFlush();
+                requests.forEach((name, value) -> {
+                    Map<String, Object> connection = new HashMap<>(4);
+                    connection.put("requests", value);
+                    connection.put("refs", refs.get(name));
+                    connection.put("queue", queues.get(name));
+                    connection.put("messagesPerFlush", flushes.get(name));
+                    result.put(name, connection);
+                });
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 连接信息
+     *
+     * @param channel 连接
+     * @return 连接信息
+     */
+    protected Map<String, Object> export(final Channel channel) {
+        Map<String, Object> result = new HashMap<>(2);
+        result.put("queue", channel.getQueueSize());
+        result.put("messagesPerFlush", channel.getMessagesPerFlush());
+        return result;
+    }
+}
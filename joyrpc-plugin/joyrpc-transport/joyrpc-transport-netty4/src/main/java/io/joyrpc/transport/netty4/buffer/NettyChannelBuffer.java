@@ -24,11 +24,14 @@ import io.joyrpc.transport.buffer.ChannelBuffer;
 import io.joyrpc.transport.buffer.ChannelBufferInputStream;
 import io.joyrpc.transport.buffer.ChannelBufferOutputStream;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * @date: 2019/1/15
@@ -38,11 +41,24 @@ public class NettyChannelBuffer implements ChannelBuffer {
     protected final ByteBuf byteBuf;
 
     protected boolean released = false;
+    /**
+     * 是否支持零拷贝追加
+     */
+    protected boolean appendable;
+    /**
+     * 零拷贝追加的数据
+     */
+    protected List<ByteBuf> appends;
 
     public NettyChannelBuffer(ByteBuf byteBuf) {
         this.byteBuf = byteBuf;
     }
 
+    public NettyChannelBuffer(ByteBuf byteBuf, boolean appendable) {
+        this.byteBuf = byteBuf;
+        this.appendable = appendable;
+    }
+
     public ByteBuf getByteBuf() {
         return byteBuf;
     }
@@ -192,6 +208,11 @@ public class NettyChannelBuffer implements ChannelBuffer {
         return new NettyChannelBuffer(byteBuf.readSlice(length));
     }
 
+    @Override
+    public ChannelBuffer readRetainedSlice(final int length) {
+        return new NettyChannelBuffer(byteBuf.readRetainedSlice(length));
+    }
+
     @Override
     public void setInt(final int index, final int value) {
         byteBuf.setInt(index, value);
@@ -212,6 +233,27 @@ public class NettyChannelBuffer implements ChannelBuffer {
         byteBuf.setBytes(index, src, srcIndex, length);
     }
 
+    @Override
+    public void append(final ByteBuffer src) {
+        if (!appendable) {
+            ChannelBuffer.super.append(src);
+        } else {
+            if (appends == null) {
+                appends = new LinkedList<>();
+            }
+            appends.add(Unpooled.wrappedBuffer(src.duplicate()));
+        }
+    }
+
+    /**
+     * 获取零拷贝追加的数据
+     *
+     * @return 追加的数据
+     */
+    public List<ByteBuf> getAppends() {
+        return appends;
+    }
+
     @Override
     public void setBytes(final int index, final ByteBuffer src) {
         byteBuf.setBytes(index, src);
@@ -28,14 +28,26 @@ import io.joyrpc.transport.buffer.ChannelBuffer;
 import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.channel.FutureManager;
 import io.joyrpc.transport.channel.SendResult;
+import io.joyrpc.transport.message.Header;
 import io.joyrpc.transport.message.Message;
 import io.joyrpc.transport.netty4.buffer.NettyChannelBuffer;
+import io.joyrpc.transport.netty4.handler.FlushCounterHandler;
 import io.joyrpc.transport.session.SessionManager;
+import io.joyrpc.util.SystemClock;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoop;
 import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -45,8 +57,14 @@ import java.util.function.Supplier;
  * @date: 2019/1/15
  */
 public class NettyChannel implements Channel {
+    private static final Logger logger = LoggerFactory.getLogger(NettyChannel.class);
     protected static final String SEND_REQUEST_TOO_FAST = "Send request exception, because sending request is too fast, causing channel is not writable. at %s : %s";
     protected static final String SEND_REQUEST_NOT_ACTIVE = "Send request exception, causing channel is not active. at  %s : %s";
+    protected static final String SEND_REQUEST_QUEUE_TIMEOUT = "Send request exception, because request is timeout in send queue. at %s : %s";
+    /**
+     * 通道不可写期间清理发送队列中超时消息的间隔(毫秒)
+     */
+    protected static final long SWEEP_INTERVAL = 100;
     /**
      * 通道接口
      */
@@ -67,6 +85,22 @@ public class NettyChannel implements Channel {
      * 是否是服务端
      */
     protected boolean server;
+    /**
+     * 发送队列大小，0表示不启用
+     */
+    protected int queueSize;
+    /**
+     * 通道不可写时等待发送的消息
+     */
+    protected Queue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * 队列中的消息数
+     */
+    protected AtomicInteger queues = new AtomicInteger(0);
+    /**
+     * 是否已经调度了超时清理任务
+     */
+    protected AtomicBoolean sweeping = new AtomicBoolean(false);
 
     /**
      * 构造函数
@@ -75,33 +109,172 @@ public class NettyChannel implements Channel {
      * @param server  服务端标识
      */
     public NettyChannel(io.netty.channel.Channel channel, boolean server) {
+        this(channel, server, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param channel   通道
+     * @param server    服务端标识
+     * @param queueSize 发送队列大小
+     */
+    public NettyChannel(io.netty.channel.Channel channel, boolean server, int queueSize) {
         this.channel = channel;
         this.server = server;
+        this.queueSize = Math.max(queueSize, 0);
         this.futureManager = new FutureManager<>(this, () -> (long) idGenerator.incrementAndGet());
         this.sessionManager = new SessionManager(server);
     }
 
     @Override
     public void send(final Object object, final Consumer<SendResult> consumer) {
-        if (!isWritable()) {
-            LafException throwable = isActive() ?
-                    new OverloadException(String.format(SEND_REQUEST_TOO_FAST, Channel.toString(this), object.toString()), 0, isServer()) :
-                    new ChannelClosedException(String.format(SEND_REQUEST_NOT_ACTIVE, Channel.toString(this), object.toString()));
-            if (consumer != null) {
-                consumer.accept(new SendResult(throwable, this));
+        if (isWritable() && queues.get() == 0) {
+            write(object, consumer, true);
+        } else if (!isActive()) {
+            fail(new ChannelClosedException(String.format(SEND_REQUEST_NOT_ACTIVE, Channel.toString(this), object.toString())), consumer);
+        } else if (queues.incrementAndGet() <= queueSize) {
+            //超过高水位线，先放入队列，等待可写后再发送
+            queue.offer(new PendingWrite(object, consumer, getDeadline(object)));
+            if (isWritable() || !isActive()) {
+                //入队期间可能已经变成可写，或者通道已经关闭并且清空过队列
+                flushQueue();
             } else {
-                throw throwable;
+                sweep(false);
             }
-        } else if (consumer != null) {
-            channel.writeAndFlush(object).addListener((future) -> {
-                if (future.isSuccess()) {
+        } else {
+            queues.decrementAndGet();
+            fail(new OverloadException(String.format(SEND_REQUEST_TOO_FAST, Channel.toString(this), object.toString()), 0, isServer()), consumer);
+        }
+    }
+
+    /**
+     * 写消息
+     *
+     * @param object   消息
+     * @param consumer 消费者
+     * @param flush    是否刷新
+     */
+    protected void write(final Object object, final Consumer<SendResult> consumer, final boolean flush) {
+        if (consumer != null) {
+            ChannelFuture future = flush ? channel.writeAndFlush(object) : channel.write(object);
+            future.addListener(f -> {
+                if (f.isSuccess()) {
                     consumer.accept(new SendResult(true, this, object));
                 } else {
-                    consumer.accept(new SendResult(future.cause(), this, object));
+                    consumer.accept(new SendResult(f.cause(), this, object));
                 }
             });
-        } else {
+        } else if (flush) {
             channel.writeAndFlush(object, channel.voidPromise());
+        } else {
+            channel.write(object, channel.voidPromise());
+        }
+    }
+
+    /**
+     * 发送失败
+     *
+     * @param throwable 异常
+     * @param consumer  消费者
+     */
+    protected void fail(final LafException throwable, final Consumer<SendResult> consumer) {
+        if (consumer != null) {
+            consumer.accept(new SendResult(throwable, this));
+        } else {
+            throw throwable;
+        }
+    }
+
+    /**
+     * 计算消息的截止时间
+     *
+     * @param object 消息
+     * @return 截止时间，0表示没有截止时间
+     */
+    protected long getDeadline(final Object object) {
+        if (object instanceof Message) {
+            //优先使用请求的截止时间，包括发送前已经消耗的时间
+            long deadline = ((Message) object).getDeadline();
+            if (deadline > 0) {
+                return deadline;
+            }
+            Header header = ((Message) object).getHeader();
+            int timeout = header == null ? 0 : header.getTimeout();
+            return timeout > 0 ? SystemClock.now() + timeout : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * 发送队列中的消息，在IO线程中执行，保证顺序
+     */
+    public void flushQueue() {
+        if (queues.get() == 0) {
+            return;
+        }
+        EventLoop eventLoop = channel.eventLoop();
+        if (!eventLoop.inEventLoop()) {
+            try {
+                eventLoop.execute(this::flushQueue);
+                return;
+            } catch (RejectedExecutionException e) {
+                //IO线程已经关闭，通道不可能再写入，在当前线程让队列中的消息失败
+                if (channel.isActive()) {
+                    return;
+                }
+            }
+        }
+        PendingWrite pending;
+        int count = 0;
+        long now = SystemClock.now();
+        while ((!channel.isActive() || channel.isWritable()) && (pending = queue.poll()) != null) {
+            queues.decrementAndGet();
+            if (!channel.isActive()) {
+                pending.fail(new ChannelClosedException(String.format(SEND_REQUEST_NOT_ACTIVE, Channel.toString(this), pending.object.toString())));
+            } else if (pending.deadline > 0 && pending.deadline <= now) {
+                //已经超时，快速失败
+                pending.fail(new OverloadException(String.format(SEND_REQUEST_QUEUE_TIMEOUT, Channel.toString(this), pending.object.toString()), 0, isServer()));
+            } else {
+                write(pending.object, pending.consumer, false);
+                count++;
+            }
+        }
+        if (count > 0) {
+            channel.flush();
+        }
+    }
+
+    /**
+     * 通道不可写期间定时清理发送队列中已经超时的消息，队列为空时停止
+     *
+     * @param scheduled 是否是调度执行
+     */
+    protected void sweep(final boolean scheduled) {
+        if (!scheduled && !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        if (scheduled) {
+            long now = SystemClock.now();
+            PendingWrite pending;
+            Iterator<PendingWrite> it = queue.iterator();
+            while (it.hasNext()) {
+                pending = it.next();
+                if (pending.deadline > 0 && pending.deadline <= now) {
+                    it.remove();
+                    queues.decrementAndGet();
+                    pending.fail(new OverloadException(String.format(SEND_REQUEST_QUEUE_TIMEOUT, Channel.toString(this), pending.object.toString()), 0, isServer()));
+                }
+            }
+            sweeping.set(false);
+            if (queues.get() == 0 || !sweeping.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        try {
+            channel.eventLoop().schedule(() -> sweep(true), SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            sweeping.set(false);
         }
     }
 
@@ -164,6 +337,16 @@ public class NettyChannel implements Channel {
         return channel.isWritable();
     }
 
+    @Override
+    public boolean isSendable() {
+        return isWritable() || isActive() && queues.get() < queueSize;
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queues.get();
+    }
+
     @Override
     public boolean isActive() {
         return channel.isActive();
@@ -244,8 +427,51 @@ public class NettyChannel implements Channel {
         return server;
     }
 
+    @Override
+    public double getMessagesPerFlush() {
+        FlushCounterHandler counter = (FlushCounterHandler) channel.pipeline().get(FlushCounterHandler.FLUSH_COUNTER);
+        return counter == null ? -1 : counter.getMessagesPerFlush();
+    }
+
     @Override
     public void fireCaught(Throwable cause) {
         channel.pipeline().fireExceptionCaught(cause);
     }
+
+    /**
+     * 等待发送的消息
+     */
+    protected class PendingWrite {
+        /**
+         * 消息
+         */
+        protected final Object object;
+        /**
+         * 消费者
+         */
+        protected final Consumer<SendResult> consumer;
+        /**
+         * 截止时间
+         */
+        protected final long deadline;
+
+        public PendingWrite(Object object, Consumer<SendResult> consumer, long deadline) {
+            this.object = object;
+            this.consumer = consumer;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 失败
+         *
+         * @param throwable 异常
+         */
+        protected void fail(final LafException throwable) {
+            if (consumer != null) {
+                consumer.accept(new SendResult(throwable, NettyChannel.this));
+            } else {
+                logger.warn(throwable.getMessage());
+            }
+        }
+    }
 }
@@ -47,6 +47,11 @@ public class NettyClientChannel extends NettyChannel {
         this.ioGroup = ioGroup;
     }
 
+    public NettyClientChannel(final io.netty.channel.Channel channel, final EventLoopGroup ioGroup, final int queueSize) {
+        super(channel, false, queueSize);
+        this.ioGroup = ioGroup;
+    }
+
     @Override
     public void close(final Consumer<AsyncResult<Channel>> consumer) {
         super.close(o -> {
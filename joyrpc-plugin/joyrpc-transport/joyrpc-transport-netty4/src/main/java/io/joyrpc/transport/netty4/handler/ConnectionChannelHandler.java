@@ -25,6 +25,7 @@ import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.event.ActiveEvent;
 import io.joyrpc.transport.event.InactiveEvent;
 import io.joyrpc.transport.event.TransportEvent;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import org.slf4j.Logger;
@@ -61,11 +62,24 @@ public class ConnectionChannelHandler extends ChannelInboundHandlerAdapter {
         try {
             channel.getFutureManager().close();
         } finally {
+            if (channel instanceof NettyChannel) {
+                //发送队列中的消息快速失败
+                ((NettyChannel) channel).flushQueue();
+            }
             eventPublisher.offer(new InactiveEvent(channel));
             ctx.fireChannelInactive();
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (channel instanceof NettyChannel && ctx.channel().isWritable()) {
+            //恢复可写，发送队列中的消息
+            ((NettyChannel) channel).flushQueue();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         eventPublisher.offer(new ActiveEvent(channel));
@@ -0,0 +1,87 @@
+package io.joyrpc.transport.netty4.handler;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * 刷新计数器，统计合并刷新后实际的写消息数和刷新次数，只在IO线程中调用
+ */
+public class FlushCounterHandler extends ChannelOutboundHandlerAdapter {
+
+    public static final String FLUSH_COUNTER = "flushCounter";
+
+    public static final String FLUSH_CONSOLIDATION = "flushConsolidation";
+    /**
+     * 写消息数
+     */
+    protected volatile long messages;
+    /**
+     * 刷新次数
+     */
+    protected volatile long flushes;
+
+    /**
+     * 在管道头部添加刷新合并处理器和计数器，需要在SSL处理器之前调用
+     *
+     * @param pipeline    管道
+     * @param maxMessages 最多合并的刷新次数
+     */
+    public static void bind(final ChannelPipeline pipeline, final int maxMessages) {
+        //消息出站顺序是从尾部到头部，计数器在合并处理器的头部方向，统计的是实际刷新次数
+        pipeline.addFirst(FLUSH_CONSOLIDATION, new FlushConsolidationHandler(maxMessages, true));
+        pipeline.addFirst(FLUSH_COUNTER, new FlushCounterHandler());
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
+        messages++;
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(final ChannelHandlerContext ctx) throws Exception {
+        flushes++;
+        ctx.flush();
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * 平均每次刷新的消息数
+     *
+     * @return 平均每次刷新的消息数
+     */
+    public double getMessagesPerFlush() {
+        long f = flushes;
+        return f == 0 ? 0 : (double) messages / f;
+    }
+}
@@ -22,18 +22,23 @@ package io.joyrpc.transport.netty4.handler;
 
 import io.joyrpc.transport.channel.Channel;
 import io.joyrpc.transport.codec.Codec;
+import io.joyrpc.transport.codec.EncodeContext;
 import io.joyrpc.transport.netty4.buffer.NettyChannelBuffer;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
 
+import java.util.List;
 import java.util.function.BiFunction;
 
 /**
  * @date: 2019/1/15
  */
-public class SimpleEncodeHandler extends MessageToByteEncoder {
+public class SimpleEncodeHandler extends ChannelOutboundHandlerAdapter {
 
     /**
      * 函数
@@ -47,6 +52,10 @@ public class SimpleEncodeHandler extends MessageToByteEncoder {
      * 同道
      */
     protected Channel channel;
+    /**
+     * 编码上下文
+     */
+    protected EncodeContext context;
 
     /**
      * 构造函数
@@ -57,14 +66,49 @@ public class SimpleEncodeHandler extends MessageToByteEncoder {
     public SimpleEncodeHandler(Codec codec, Channel channel) {
         this.codec = codec;
         this.channel = channel;
+        this.context = () -> channel;
+    }
+
+    /**
+     * 按照编解码器预估的大小分配，避免编码过程中扩容
+     *
+     * @param ctx 上下文
+     * @param msg 消息
+     * @return 缓冲区
+     */
+    protected ByteBuf allocateBuffer(final ChannelHandlerContext ctx, final Object msg) {
+        int size = codec.estimate(context, msg);
+        return size <= 0 ? ctx.alloc().ioBuffer() : ctx.alloc().ioBuffer(size);
     }
 
     @Override
-    protected void encode(final ChannelHandlerContext ctx, final Object msg, final ByteBuf out) throws Exception {
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
+        ByteBuf out = allocateBuffer(ctx, msg);
         try {
-            codec.encode(() -> channel, new NettyChannelBuffer(out), msg);
+            NettyChannelBuffer buffer = new NettyChannelBuffer(out, true);
+            codec.encode(context, buffer, msg);
+            List<ByteBuf> appends = buffer.getAppends();
+            if (appends != null) {
+                //有零拷贝追加的数据，组合成CompositeByteBuf输出，调用方的promise跟随组合缓冲区，写失败能通知到调用方
+                CompositeByteBuf composite = ctx.alloc().compositeBuffer(appends.size() + 1);
+                composite.addComponent(true, out);
+                out = null;
+                for (ByteBuf append : appends) {
+                    composite.addComponent(true, append);
+                }
+                ctx.write(composite, promise);
+            } else {
+                ctx.write(out, promise);
+                out = null;
+            }
         } catch (Throwable throwable) {
+            //和原有处理保持一致，由异常处理器应答编码异常
             ctx.fireExceptionCaught(throwable);
+            ctx.write(Unpooled.EMPTY_BUFFER, promise);
+        } finally {
+            if (out != null) {
+                out.release();
+            }
         }
     }
 
@@ -32,6 +32,7 @@ import io.joyrpc.transport.netty4.Plugin;
 import io.joyrpc.transport.netty4.binder.HandlerBinder;
 import io.joyrpc.transport.netty4.channel.NettyClientChannel;
 import io.joyrpc.transport.netty4.handler.ConnectionChannelHandler;
+import io.joyrpc.transport.netty4.handler.FlushCounterHandler;
 import io.joyrpc.transport.netty4.handler.IdleHeartbeatHandler;
 import io.joyrpc.transport.netty4.ssl.SslContextManager;
 import io.joyrpc.transport.transport.AbstractClientTransport;
@@ -143,10 +144,12 @@ public class NettyClientTransport extends AbstractClientTransport {
                     @Override
                     protected void initChannel(final SocketChannel ch) {
                         //及时发送 与 缓存发送
-                        channels[0] = new NettyClientChannel(ch, ioGroup);
+                        channels[0] = new NettyClientChannel(ch, ioGroup, url.getNaturalInt(Constants.SEND_QUEUE_SIZE_OPTION));
                         //设置
                         channels[0].
                                 setAttribute(Channel.PAYLOAD, url.getPositiveInt(Constants.PAYLOAD)).
+                                setAttribute(Channel.LAZY_DECODE, url.getBoolean(Constants.LAZY_DECODE_OPTION)).
+                                setAttribute(Channel.BINARY_THRESHOLD, url.getNaturalInt(Constants.BINARY_THRESHOLD_OPTION)).
                                 setAttribute(Channel.BIZ_THREAD_POOL, bizThreadPool, (k, v) -> v != null);
                         //添加连接事件监听
                         ch.pipeline().addLast("connection", new ConnectionChannelHandler(channels[0], publisher));
@@ -159,6 +162,10 @@ public class NettyClientTransport extends AbstractClientTransport {
                                     addLast("idleState", new IdleStateHandler(0, heartbeatStrategy.getInterval(), 0, TimeUnit.MILLISECONDS)).
                                     addLast("idleHeartbeat", new IdleHeartbeatHandler());
                         }
+                        //刷新合并，要在SSL之后添加
+                        if (url.getBoolean(FLUSH_CONSOLIDATION_OPTION)) {
+                            FlushCounterHandler.bind(ch.pipeline(), url.getPositiveInt(FLUSH_MAX_MESSAGES_OPTION));
+                        }
                         if (sslContext != null) {
                             ch.pipeline().addFirst("ssl", sslContext.newHandler(ch.alloc()));
                         }
@@ -30,6 +30,7 @@ import io.joyrpc.transport.netty4.channel.NettyChannel;
 import io.joyrpc.transport.netty4.channel.NettyServerChannel;
 import io.joyrpc.transport.netty4.codec.ProtocolAdapterContext;
 import io.joyrpc.transport.netty4.handler.ConnectionChannelHandler;
+import io.joyrpc.transport.netty4.handler.FlushCounterHandler;
 import io.joyrpc.transport.netty4.handler.ProtocolAdapterDecoder;
 import io.joyrpc.transport.netty4.ssl.SslContextManager;
 import io.joyrpc.transport.transport.AbstractServerTransport;
@@ -173,10 +174,16 @@ public class NettyServerTransport extends AbstractServerTransport {
         @Override
         protected void initChannel(final SocketChannel ch) {
             //及时发送 与 缓存发送
-            Channel channel = new NettyChannel(ch, true);
+            Channel channel = new NettyChannel(ch, true, url.getNaturalInt(Constants.SEND_QUEUE_SIZE_OPTION));
             //设置payload,添加业务线程池到channel
             channel.setAttribute(Channel.PAYLOAD, url.getPositiveInt(Constants.PAYLOAD))
+                    .setAttribute(Channel.LAZY_DECODE, url.getBoolean(Constants.LAZY_DECODE_OPTION))
+                    .setAttribute(Channel.BINARY_THRESHOLD, url.getNaturalInt(Constants.BINARY_THRESHOLD_OPTION))
                     .setAttribute(Channel.BIZ_THREAD_POOL, bizThreadPool, (k, v) -> v != null);
+            //刷新合并，要在SSL之后添加
+            if (url.getBoolean(Constants.FLUSH_CONSOLIDATION_OPTION)) {
+                FlushCounterHandler.bind(ch.pipeline(), url.getPositiveInt(Constants.FLUSH_MAX_MESSAGES_OPTION));
+            }
             if (sslContext != null) {
                 ch.pipeline().addFirst("ssl", sslContext.newHandler(ch.alloc()));
             }
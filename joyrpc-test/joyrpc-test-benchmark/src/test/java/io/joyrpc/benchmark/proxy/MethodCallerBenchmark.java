@@ -0,0 +1,127 @@
+package io.joyrpc.benchmark.proxy;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.proxy.LambdaCaller;
+import io.joyrpc.proxy.MethodCaller;
+import io.joyrpc.proxy.MethodHandleCaller;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端方法调用的基准测试，对比原来javac编译生成的调用、LambdaMetafactory生成的调用、方法句柄和反射。<br/>
+ * javac调用按照原来生成的源代码手工编写，运行main方法输出每次调用的平均耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodCallerBenchmark {
+
+    @Param({"javac", "lambda", "handle", "reflect"})
+    public String caller;
+
+    protected MethodCaller target;
+
+    protected Object[] args;
+
+    protected int count;
+
+    @Setup
+    public void setup() throws Exception {
+        Method method = Calculator.class.getMethod("add", int.class, Integer.class);
+        Calculator ref = new CalculatorImpl();
+        switch (caller) {
+            case "javac":
+                target = new CalculatorAddCaller(ref);
+                break;
+            case "lambda":
+                target = LambdaCaller.build(method, ref);
+                if (!(target instanceof LambdaCaller.Caller2)) {
+                    //退化成方法句柄的结果没有意义
+                    throw new IllegalStateException("lambda caller is not generated for " + method);
+                }
+                break;
+            case "handle":
+                target = MethodHandleCaller.build(method, ref);
+                break;
+            default:
+                target = args -> {
+                    try {
+                        return method.invoke(ref, args);
+                    } catch (IllegalAccessException e) {
+                        throw new InvocationTargetException(e);
+                    }
+                };
+        }
+        args = new Object[]{1, 2};
+    }
+
+    @Benchmark
+    public Object invoke() throws InvocationTargetException {
+        args[0] = count++ & 0xFF;
+        return target.invoke(args);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MethodCallerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    public interface Calculator {
+
+        int add(int a, Integer b);
+    }
+
+    public static class CalculatorImpl implements Calculator {
+        @Override
+        public int add(final int a, final Integer b) {
+            return a + b;
+        }
+    }
+
+    /**
+     * 原来编译生成的调用
+     */
+    public static class CalculatorAddCaller implements MethodCaller {
+        protected Calculator ref;
+
+        public CalculatorAddCaller(Calculator ref) {
+            this.ref = ref;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object[] args) throws InvocationTargetException {
+            try {
+                return ref.add((java.lang.Integer) args[0], (java.lang.Integer) args[1]);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.joyrpc.benchmark.serialization;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.benchmark.serialization.model.Customer;
+import io.joyrpc.benchmark.serialization.model.Customer_ProtostuffSchema;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编译期生成的Protostuff Schema和运行时反射Schema的编解码基准测试。<br/>
+ * 两者的编码结果相同，只比较访问字段的开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SchemaBenchmark {
+
+    @Param({"generated", "runtime"})
+    public String schema;
+
+    protected Schema<Customer> target;
+    protected Customer customer;
+    protected LinkedBuffer buffer;
+    protected byte[] bytes;
+
+    @Setup
+    public void setup() {
+        target = "generated".equals(schema) ? Customer_ProtostuffSchema.INSTANCE : RuntimeSchema.createFrom(Customer.class);
+        customer = new Customer();
+        customer.setId(10000L);
+        customer.setName("joyrpc");
+        customer.setEmail("joyrpc@joyrpc.io");
+        customer.setAge(30);
+        customer.setVip(true);
+        customer.setBalance(1024.5D);
+        customer.setLevel(3);
+        customer.setAddress("beijing");
+        buffer = LinkedBuffer.allocate(1024);
+        bytes = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        try {
+            return ProtostuffIOUtil.toByteArray(customer, target, buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Benchmark
+    public Customer decode() {
+        Customer result = target.newMessage();
+        ProtostuffIOUtil.mergeFrom(bytes, result, target);
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SchemaBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,157 @@
+package io.joyrpc.benchmark.serialization;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.codec.serialization.Serializer;
+import io.joyrpc.codec.serialization.UnsafeByteArrayInputStream;
+import io.joyrpc.codec.serialization.UnsafeByteArrayOutputStream;
+import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.ResponsePayload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.joyrpc.Plugin.SERIALIZATION;
+
+/**
+ * 序列化插件的编解码基准测试，覆盖不同形态的调用和应答。<br/>
+ * 运行main方法，先打印各序列化的编码字节数，再输出吞吐量和GC分析器统计的内存分配速率。<br/>
+ * 可以通过系统参数过滤，例如：-Dbenchmark.serialization=kryo,hessian@caucho -Dbenchmark.shape=LARGE
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    /**
+     * 参与测试的序列化插件，jaxb只支持注解了XmlRootElement的类，不能编码调用和应答
+     */
+    public static final String[] SERIALIZATIONS = new String[]{"hessian@caucho", "protostuff@protostuff",
+            "protobuf@protostuff", "kryo", "fst", "json@jackson", "json@fastjson", "java@java", "java@advance"};
+
+    @Param({"hessian@caucho", "protostuff@protostuff", "protobuf@protostuff", "kryo", "fst", "json@jackson",
+            "json@fastjson", "java@java", "java@advance"})
+    public String serialization;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public Shape shape;
+
+    protected Serializer serializer;
+    protected Invocation invocation;
+    protected ResponsePayload response;
+    protected UnsafeByteArrayOutputStream output;
+    protected byte[] invocationBytes;
+    protected byte[] responseBytes;
+
+    @Setup
+    public void setup() {
+        Serialization plugin = SERIALIZATION.get(serialization);
+        if (plugin == null) {
+            throw new IllegalStateException("serialization is not found. " + serialization);
+        }
+        serializer = plugin.getSerializer();
+        invocation = shape.invocation();
+        response = shape.response();
+        output = new UnsafeByteArrayOutputStream(64 * 1024);
+        invocationBytes = encode(serializer, invocation, output);
+        responseBytes = encode(serializer, response, output);
+    }
+
+    @Benchmark
+    public int encodeInvocation() {
+        output.reset();
+        serializer.serialize(output, invocation);
+        return output.size();
+    }
+
+    @Benchmark
+    public Object decodeInvocation() {
+        return serializer.deserialize(new UnsafeByteArrayInputStream(invocationBytes), Invocation.class);
+    }
+
+    @Benchmark
+    public int encodeResponse() {
+        output.reset();
+        serializer.serialize(output, response);
+        return output.size();
+    }
+
+    @Benchmark
+    public Object decodeResponse() {
+        return serializer.deserialize(new UnsafeByteArrayInputStream(responseBytes), ResponsePayload.class);
+    }
+
+    /**
+     * 编码
+     *
+     * @param serializer 序列化
+     * @param target     对象
+     * @param output     输出流
+     * @return 字节数组
+     */
+    protected static byte[] encode(final Serializer serializer, final Object target, final UnsafeByteArrayOutputStream output) {
+        output.reset();
+        serializer.serialize(output, target);
+        return output.toByteArray();
+    }
+
+    /**
+     * 打印编码后的字节数
+     *
+     * @param serializations 序列化
+     */
+    protected static void printSize(final String[] serializations) {
+        UnsafeByteArrayOutputStream output = new UnsafeByteArrayOutputStream(64 * 1024);
+        System.out.println(String.format("%-24s %-8s %12s %12s", "serialization", "shape", "invocation", "response"));
+        Serializer serializer;
+        for (String name : serializations) {
+            serializer = SERIALIZATION.get(name).getSerializer();
+            for (Shape shape : Shape.values()) {
+                System.out.println(String.format("%-24s %-8s %12d %12d", name, shape,
+                        encode(serializer, shape.invocation(), output).length,
+                        encode(serializer, shape.response(), output).length));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String value = System.getProperty("benchmark.serialization");
+        String[] serializations = value == null || value.isEmpty() ? SERIALIZATIONS : value.split(",");
+        printSize(serializations);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(SerializationBenchmark.class.getSimpleName())
+                .param("serialization", serializations)
+                .addProfiler(GCProfiler.class);
+        value = System.getProperty("benchmark.shape");
+        if (value != null && !value.isEmpty()) {
+            builder.param("shape", value.split(","));
+        }
+        new Runner(builder.build()).run();
+    }
+}
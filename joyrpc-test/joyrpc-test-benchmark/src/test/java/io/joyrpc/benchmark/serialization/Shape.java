@@ -0,0 +1,159 @@
+package io.joyrpc.benchmark.serialization;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.benchmark.serialization.model.Order;
+import io.joyrpc.benchmark.serialization.model.OrderItem;
+import io.joyrpc.benchmark.serialization.model.OrderService;
+import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.ResponsePayload;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 压测消息的形态
+ */
+public enum Shape {
+
+    /**
+     * 小消息，回显字符串
+     */
+    SMALL {
+        @Override
+        public Invocation invocation() {
+            return invocation("echo", new Class[]{String.class}, new Object[]{"hello joyrpc"});
+        }
+
+        @Override
+        public ResponsePayload response() {
+            return new ResponsePayload("hello joyrpc");
+        }
+    },
+    /**
+     * 中等消息，单个订单
+     */
+    MEDIUM {
+        @Override
+        public Invocation invocation() {
+            return invocation("save", new Class[]{Order.class}, new Object[]{order(1, 5)});
+        }
+
+        @Override
+        public ResponsePayload response() {
+            return new ResponsePayload(order(1, 5));
+        }
+    },
+    /**
+     * 大消息，批量订单
+     */
+    LARGE {
+        @Override
+        public Invocation invocation() {
+            return invocation("saveAll", new Class[]{List.class}, new Object[]{orders(50, 10)});
+        }
+
+        @Override
+        public ResponsePayload response() {
+            return new ResponsePayload(orders(50, 10));
+        }
+    };
+
+    /**
+     * 构造调用
+     *
+     * @return 调用
+     */
+    public abstract Invocation invocation();
+
+    /**
+     * 构造应答
+     *
+     * @return 应答
+     */
+    public abstract ResponsePayload response();
+
+    /**
+     * 构造调用
+     *
+     * @param name  方法名
+     * @param types 参数类型
+     * @param args  参数
+     * @return 调用
+     */
+    protected static Invocation invocation(final String name, final Class[] types, final Object[] args) {
+        try {
+            Method method = OrderService.class.getMethod(name, types);
+            Invocation result = new Invocation(OrderService.class, "benchmark", method, args);
+            result.addAttachment("traceId", "7f2a9c3e51d04b8e");
+            result.addAttachment("timeout", 3000);
+            return result;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 构造订单列表
+     *
+     * @param count 订单数量
+     * @param items 每个订单的明细数量
+     * @return 订单列表
+     */
+    protected static List<Order> orders(final int count, final int items) {
+        List<Order> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(order(i, items));
+        }
+        return result;
+    }
+
+    /**
+     * 构造订单
+     *
+     * @param id    订单ID
+     * @param items 明细数量
+     * @return 订单
+     */
+    protected static Order order(final long id, final int items) {
+        Order result = new Order();
+        result.setId(100000L + id);
+        result.setCode("SO20191024" + id);
+        result.setCustomer("customer-" + id % 17);
+        result.setStatus((int) (id % 4));
+        result.setPaid(id % 2 == 0);
+        result.setCreateTime(new Date(1571900000000L + id * 1000));
+        List<OrderItem> list = new ArrayList<>(items);
+        double amount = 0;
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem("SKU-" + (1000 + i), "商品" + i, i + 1, 9.9 * (i + 1));
+            amount += item.getPrice() * item.getQuantity();
+            list.add(item);
+        }
+        result.setAmount(amount);
+        result.setItems(list);
+        Map<String, String> tags = new HashMap<>(4);
+        tags.put("channel", "app");
+        tags.put("region", "north");
+        result.setTags(tags);
+        return result;
+    }
+}
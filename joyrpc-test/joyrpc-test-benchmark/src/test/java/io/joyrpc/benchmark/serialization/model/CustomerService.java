@@ -0,0 +1,35 @@
+package io.joyrpc.benchmark.serialization.model;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * 客户服务，服务实现注解了Provider，编译期为参数和返回值生成Schema
+ */
+public interface CustomerService {
+
+    /**
+     * 查询客户
+     *
+     * @param id 客户ID
+     * @return 客户
+     */
+    Customer get(long id);
+}
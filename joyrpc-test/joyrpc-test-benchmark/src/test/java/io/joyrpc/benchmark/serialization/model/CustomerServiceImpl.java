@@ -0,0 +1,37 @@
+package io.joyrpc.benchmark.serialization.model;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.annotation.Provider;
+
+/**
+ * 客户服务实现
+ */
+@Provider(alias = "benchmark")
+public class CustomerServiceImpl implements CustomerService {
+
+    @Override
+    public Customer get(final long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,53 @@
+package io.joyrpc.benchmark.serialization.model;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+/**
+ * 订单服务，用于构造不同形态的调用和应答
+ */
+public interface OrderService {
+
+    /**
+     * 回显，小消息
+     *
+     * @param message 消息
+     * @return 消息
+     */
+    String echo(String message);
+
+    /**
+     * 保存订单，中等消息
+     *
+     * @param order 订单
+     * @return 订单
+     */
+    Order save(Order order);
+
+    /**
+     * 批量保存订单，大消息
+     *
+     * @param orders 订单
+     * @return 订单
+     */
+    List<Order> saveAll(List<Order> orders);
+}
@@ -0,0 +1,108 @@
+package io.joyrpc.codec.checksum;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static io.joyrpc.Plugin.CHECKSUM;
+
+public class ChecksumTest {
+
+    @Test
+    public void testCrc32C() {
+        Checksum checksum = CHECKSUM.get("crc32-c");
+        byte[] source = "123456789".getBytes(StandardCharsets.UTF_8);
+        //标准测试向量
+        Assert.assertEquals(0xE3069283L, checksum.compute(source));
+        Assert.assertEquals(0xE3069283L, checksum.compute(source, 0, source.length));
+        byte[] padding = new byte[source.length + 2];
+        System.arraycopy(source, 0, padding, 1, source.length);
+        Assert.assertEquals(0xE3069283L, checksum.compute(padding, 1, source.length));
+        ByteBuffer direct = ByteBuffer.allocateDirect(source.length);
+        direct.put(source).flip();
+        Assert.assertEquals(0xE3069283L, checksum.compute(direct));
+        Assert.assertEquals(0xE3069283L, checksum.compute(new ByteBuffer[]{
+                ByteBuffer.wrap(source, 0, 4), ByteBuffer.wrap(source, 4, source.length - 4)}));
+    }
+
+    @Test
+    public void testStreaming() {
+        byte[] source = new byte[10000];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = (byte) (i % 128);
+        }
+        List<String> types = CHECKSUM.names();
+        for (String type : types) {
+            Checksum checksum = CHECKSUM.get(type);
+            ByteBuffer direct = ByteBuffer.allocateDirect(6000);
+            direct.put(source, 4000, 6000).flip();
+            long expect = checksum.compute(ByteBuffer.wrap(source));
+            long actual = checksum.compute(new ByteBuffer[]{ByteBuffer.wrap(source, 0, 4000), direct});
+            Assert.assertEquals(type, (int) expect, (int) actual);
+            //不修改缓冲区的位置
+            Assert.assertEquals(6000, direct.remaining());
+        }
+    }
+
+    @Test
+    public void testTps() {
+        List<String> types = CHECKSUM.names();
+        types.remove("none");
+        //1M数据
+        byte[] source = new byte[1024 * 1024];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = (byte) (i % 128);
+        }
+        ByteBuffer heap = ByteBuffer.wrap(source);
+        ByteBuffer direct = ByteBuffer.allocateDirect(source.length);
+        direct.put(source).flip();
+        long count = 200;
+        long startTime;
+        long heapTime;
+        long directTime;
+        Checksum checksum;
+        for (String type : types) {
+            checksum = CHECKSUM.get(type);
+            //预热
+            for (int i = 0; i < 20; i++) {
+                checksum.compute(new ByteBuffer[]{heap});
+                checksum.compute(new ByteBuffer[]{direct});
+            }
+            startTime = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                checksum.compute(new ByteBuffer[]{heap});
+            }
+            heapTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                checksum.compute(new ByteBuffer[]{direct});
+            }
+            directTime = System.nanoTime() - startTime;
+            System.out.println(String.format("%s heap %d us/MB direct %d us/MB", type, heapTime / count / 1000, directTime / count / 1000));
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import org.junit.Test;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -94,6 +95,110 @@ public class ProxyFactoryTest {
         }
     }
 
+    @Test
+    public void testMethodHandleCaller() throws Exception {
+        Calculator calculator = new Calculator() {
+            @Override
+            public int add(final int a, final Integer b) {
+                return a + b;
+            }
+
+            @Override
+            public void check(final String... values) {
+                if (values.length == 0) {
+                    throw new IllegalStateException("empty");
+                }
+            }
+        };
+        MethodCaller caller = MethodHandleCaller.build(Calculator.class.getMethod("add", int.class, Integer.class), calculator);
+        Assert.assertEquals(3, caller.invoke(new Object[]{1, 2}));
+        caller = MethodHandleCaller.build(Calculator.class.getMethod("check", String[].class), calculator);
+        Assert.assertNull(caller.invoke(new Object[]{new String[]{"a"}}));
+        try {
+            caller.invoke(new Object[]{new String[0]});
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        caller = MethodHandleCaller.build(Calculator.class.getMethod("zero"), null);
+        Assert.assertEquals(0, caller.invoke(null));
+    }
+
+    @Test
+    public void testLambdaCaller() throws Exception {
+        Adder adder = new Adder() {
+            @Override
+            public int add(final int a, final Integer b) {
+                return a + b;
+            }
+
+            @Override
+            public long sum(final int a, final int b, final int c, final int d, final int e, final int f) {
+                return a + b + c + d + e + f;
+            }
+
+            @Override
+            public void check(final String... values) {
+                if (values.length == 0) {
+                    throw new IllegalStateException("empty");
+                }
+            }
+        };
+        MethodCaller caller = LambdaCaller.build(Adder.class.getMethod("add", int.class, Integer.class), adder);
+        Assert.assertTrue(caller instanceof LambdaCaller.Caller2);
+        Assert.assertEquals(3, caller.invoke(new Object[]{1, 2}));
+        caller = LambdaCaller.build(Adder.class.getMethod("check", String[].class), adder);
+        Assert.assertTrue(caller instanceof LambdaCaller.VoidCaller1);
+        Assert.assertNull(caller.invoke(new Object[]{new String[]{"a"}}));
+        try {
+            caller.invoke(new Object[]{new String[0]});
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        caller = LambdaCaller.build(Adder.class.getMethod("zero"), null);
+        Assert.assertTrue(caller instanceof LambdaCaller.Caller0);
+        Assert.assertEquals(0, caller.invoke(null));
+        //参数超过上限，退化成方法句柄
+        caller = LambdaCaller.build(Adder.class.getMethod("sum", int.class, int.class, int.class, int.class, int.class, int.class), adder);
+        Assert.assertTrue(caller instanceof MethodHandleCaller);
+        Assert.assertEquals(21L, caller.invoke(new Object[]{1, 2, 3, 4, 5, 6}));
+        //非公共接口，退化成方法句柄
+        caller = LambdaCaller.build(Calculator.class.getMethod("zero"), null);
+        Assert.assertTrue(caller instanceof MethodHandleCaller);
+        Assert.assertEquals(0, caller.invoke(null));
+    }
+
+    /**
+     * 公共接口
+     */
+    public interface Adder {
+
+        int add(int a, Integer b);
+
+        long sum(int a, int b, int c, int d, int e, int f);
+
+        void check(String... values);
+
+        static int zero() {
+            return 0;
+        }
+    }
+
+    /**
+     * 非公共接口
+     */
+    interface Calculator {
+
+        int add(int a, Integer b);
+
+        void check(String... values);
+
+        static int zero() {
+            return 0;
+        }
+    }
+
     /**
      * The type Mock proxy invoker.
      */
@@ -0,0 +1,131 @@
+package io.joyrpc.example;
+
+import io.joyrpc.config.*;
+import io.joyrpc.invoker.ServiceManager;
+import io.joyrpc.thread.Bulkhead;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadTest {
+
+    protected static final int PORT = 22178;
+    protected static final String ALIAS = "bulkhead";
+    protected static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    protected ProviderConfig<BulkheadService> providerConfig;
+    protected ConsumerConfig<BulkheadService> consumerConfig;
+    protected BulkheadService service;
+
+    @Before
+    public void setUp() throws Exception {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setPort(PORT);
+        RegistryConfig registryConfig = new RegistryConfig();
+        registryConfig.setRegistry("memory");
+        providerConfig = new ProviderConfig<>();
+        providerConfig.setServerConfig(serverConfig);
+        providerConfig.setRegistry(registryConfig);
+        providerConfig.setInterfaceClazz(BulkheadService.class.getName());
+        providerConfig.setRef(new BulkheadServiceImpl());
+        providerConfig.setAlias(ALIAS);
+        //接口舱壁
+        providerConfig.setBulkhead(2);
+        //慢方法独占一个线程，没有队列
+        MethodConfig methodConfig = new MethodConfig();
+        methodConfig.setName("slow");
+        methodConfig.setBulkhead(1);
+        providerConfig.setMethods(Collections.singletonList(methodConfig));
+        providerConfig.exportAndOpen().get();
+
+        consumerConfig = new ConsumerConfig<>();
+        consumerConfig.setUrl("joy://127.0.0.1:" + PORT);
+        consumerConfig.setInjvm(false);
+        consumerConfig.setInterfaceClazz(BulkheadService.class.getName());
+        consumerConfig.setAlias(ALIAS);
+        consumerConfig.setTimeout(5000);
+        consumerConfig.setRetries(0);
+        service = consumerConfig.refer().get();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        RELEASE.countDown();
+        if (consumerConfig != null) {
+            consumerConfig.unrefer().get();
+        }
+        if (providerConfig != null) {
+            providerConfig.unexport().get();
+        }
+    }
+
+    @Test
+    public void testBulkhead() throws Exception {
+        String prefix = "RPC-BH-" + BulkheadService.class.getName() + "/" + ALIAS;
+        //线程名称包含接口和方法
+        String thread = service.fast();
+        Assert.assertTrue(thread, thread.startsWith(prefix + ":" + PORT));
+        List<Bulkhead> bulkheads = ServiceManager.getBulkheads();
+        Assert.assertEquals(2, bulkheads.size());
+        Bulkhead slow = ServiceManager.getBulkhead(BulkheadService.class.getName() + "/" + ALIAS + "#slow:" + PORT);
+        Assert.assertNotNull(slow);
+
+        //慢方法占满舱壁
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> service.slow());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (slow.getExecutor().getActiveCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, slow.getExecutor().getActiveCount());
+        //其它方法不受影响
+        Assert.assertTrue(service.fast().startsWith(prefix + ":" + PORT));
+        //慢方法的舱壁拒绝
+        try {
+            service.slow();
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertEquals(1, slow.getRejected());
+        }
+        RELEASE.countDown();
+        Assert.assertTrue(future.get(5, TimeUnit.SECONDS).startsWith(prefix + "#slow:" + PORT));
+
+        //注销后清理舱壁
+        consumerConfig.unrefer().get();
+        consumerConfig = null;
+        providerConfig.unexport().get();
+        providerConfig = null;
+        Assert.assertTrue(ServiceManager.getBulkheads().isEmpty());
+        Assert.assertTrue(slow.getExecutor().isShutdown());
+    }
+
+    public interface BulkheadService {
+
+        String fast();
+
+        String slow();
+    }
+
+    public static class BulkheadServiceImpl implements BulkheadService {
+
+        @Override
+        public String fast() {
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public String slow() {
+            try {
+                RELEASE.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            return Thread.currentThread().getName();
+        }
+    }
+}
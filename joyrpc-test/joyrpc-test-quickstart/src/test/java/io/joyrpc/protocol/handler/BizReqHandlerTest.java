@@ -0,0 +1,172 @@
+package io.joyrpc.protocol.handler;
+
+import io.joyrpc.config.ProviderConfig;
+import io.joyrpc.config.RegistryConfig;
+import io.joyrpc.config.ServerConfig;
+import io.joyrpc.context.RequestContext;
+import io.joyrpc.example.service.DemoService;
+import io.joyrpc.exception.RpcException;
+import io.joyrpc.exception.SessionException;
+import io.joyrpc.invoker.ServiceManager;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.handler.NegotiationReqHandler.ProviderSession;
+import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.protocol.message.ResponseMessage;
+import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.stream.StreamIterator;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static io.joyrpc.constants.Constants.*;
+
+public class BizReqHandlerTest {
+
+    protected static final int PORT = 22179;
+    protected static final String ALIAS = "inline";
+
+    protected ProviderConfig<DemoService> providerConfig;
+    protected ProviderSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setPort(PORT);
+        RegistryConfig registryConfig = new RegistryConfig();
+        registryConfig.setRegistry("memory");
+        providerConfig = new ProviderConfig<>();
+        providerConfig.setServerConfig(serverConfig);
+        providerConfig.setRegistry(registryConfig);
+        providerConfig.setInterfaceClazz(DemoService.class.getName());
+        providerConfig.setRef(name -> name);
+        providerConfig.setAlias(ALIAS);
+        providerConfig.setDispatch(DISPATCH_INLINE);
+        providerConfig.exportAndOpen().get();
+
+        session = new ProviderSession(1, 60000);
+        session.setExporter(ServiceManager.getFirstExporter(DemoService.class.getName(), ALIAS));
+        session.setLocalAddress(new InetSocketAddress("127.0.0.1", PORT));
+        session.setRemoteAddress(new InetSocketAddress("127.0.0.1", 50000));
+        //字典按照签名排序，第二个方法服务端不存在
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(KEY_METHOD_DICTIONARY, "sayHello(java.lang.String);unknown(java.lang.String)");
+        session.putAll(attributes);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        providerConfig.unexport().get();
+    }
+
+    @Test
+    public void testInline() {
+        BizReqHandler handler = new BizReqHandler();
+        Assert.assertTrue(handler.inline(null, request((short) 0)));
+        //服务端不认识的方法交给业务线程池应答异常
+        Assert.assertFalse(handler.inline(null, request((short) 1)));
+        //没有方法ID
+        Assert.assertFalse(handler.inline(null, request(null)));
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        BizReqHandler handler = new BizReqHandler();
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", PORT);
+        Channel channel = new NettyChannel(new EmbeddedChannel() {
+            @Override
+            public SocketAddress localAddress() {
+                return address;
+            }
+
+            @Override
+            public SocketAddress remoteAddress() {
+                return address;
+            }
+        }, true);
+        for (int i = 0; i < 2; i++) {
+            RequestMessage<Invocation> request = (RequestMessage<Invocation>) request((short) 0);
+            Invocation invocation = new Invocation(DemoService.class.getName(), ALIAS, null);
+            invocation.setArgs(new Object[]{"joy"});
+            request.setPayLoad(invocation);
+            request.setContext(new RequestContext());
+            //按照方法ID直接取得方法选项
+            Assert.assertSame(session.getExporter(), handler.restore(request, channel));
+            Assert.assertEquals("sayHello", invocation.getMethodName());
+            Assert.assertArrayEquals(new String[]{String.class.getName()}, invocation.getArgsType());
+            Assert.assertEquals(DemoService.class.getMethod("sayHello", String.class), invocation.getMethod());
+            Assert.assertSame(session.getExporter().getOption().getOption("sayHello"), request.getOption());
+        }
+        //会话中不存在的方法ID
+        RequestMessage<Invocation> request = (RequestMessage<Invocation>) request((short) 5);
+        request.setPayLoad(new Invocation(DemoService.class.getName(), ALIAS, null));
+        request.setContext(new RequestContext());
+        try {
+            handler.restore(request, channel);
+            Assert.fail();
+        } catch (SessionException ignored) {
+        }
+    }
+
+    @Test
+    public void testAggregate() {
+        BizReqHandler handler = new BizReqHandler();
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = new NettyChannel(embedded, true);
+        int limit = STREAM_AGGREGATE_LIMIT_OPTION.getValue();
+        //消费者不支持流式，整体返回
+        ResponsePayload payload = aggregate(handler, channel, embedded, limit);
+        Assert.assertNull(payload.getException());
+        Assert.assertEquals(limit, ((List<?>) payload.getResponse()).size());
+        //超过限制返回异常，不再继续读取
+        payload = aggregate(handler, channel, embedded, limit + 1);
+        Assert.assertTrue(payload.getException() instanceof RpcException);
+    }
+
+    /**
+     * 整体返回流式结果
+     *
+     * @param handler  处理器
+     * @param channel  通道
+     * @param embedded 测试通道
+     * @param count    元素数量
+     * @return 应答
+     */
+    protected ResponsePayload aggregate(final BizReqHandler handler, final Channel channel,
+                                        final EmbeddedChannel embedded, final int count) {
+        RequestMessage<Invocation> request = (RequestMessage<Invocation>) request(null);
+        ResponseMessage<ResponsePayload> response = ResponseMessage.create(
+                request.getHeader().response(MsgType.BizResp.getType(), (byte) 0), null);
+        AtomicBoolean closed = new AtomicBoolean();
+        Iterator<Integer> iterator = IntStream.range(0, count).iterator();
+        handler.reply(request, response, StreamIterator.of(iterator, () -> closed.set(true)), List.class,
+                session.getExporter(), channel);
+        Assert.assertTrue(closed.get());
+        Object message = embedded.readOutbound();
+        Assert.assertTrue(message instanceof ResponseMessage);
+        return ((ResponseMessage<ResponsePayload>) message).getPayLoad();
+    }
+
+    protected RequestMessage<?> request(final Short methodId) {
+        MessageHeader header = new MessageHeader(MsgType.BizReq.getType(), (byte) 3);
+        header.setSession(session);
+        if (methodId != null) {
+            header.addAttribute(HEAD_METHOD_ID, methodId);
+        }
+        return new RequestMessage<>(header);
+    }
+}
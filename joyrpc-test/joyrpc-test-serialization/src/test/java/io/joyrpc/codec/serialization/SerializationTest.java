@@ -23,13 +23,20 @@ package io.joyrpc.codec.serialization;
 
 import io.joyrpc.cluster.discovery.backup.BackupDatum;
 import io.joyrpc.cluster.discovery.backup.BackupShard;
+import io.joyrpc.codec.ArrayInputStream;
 import io.joyrpc.codec.serialization.model.*;
 import io.joyrpc.codec.serialization.model.ArrayObject.Foo;
+import io.joyrpc.com.caucho.hessian.io.Hessian2Input;
+import io.joyrpc.com.caucho.hessian.io.Hessian2Output;
+import io.joyrpc.com.caucho.hessian.io.ObjectDefinitionCache;
+import io.joyrpc.com.caucho.hessian.io.SerializerFactory;
 import io.joyrpc.exception.MethodOverloadException;
+import io.joyrpc.exception.SerializerException;
 import io.joyrpc.extension.ExtensionMeta;
 import io.joyrpc.extension.Name;
 import io.joyrpc.protocol.message.Invocation;
 import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.protocol.message.TypeElision;
 import io.joyrpc.util.ClassUtils;
 import io.joyrpc.util.GrpcMethod;
 import io.joyrpc.util.GrpcType;
@@ -39,6 +46,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -199,6 +207,34 @@ public class SerializationTest {
         Assert.assertEquals(target.getResponse().getClass(), Apple.class);
     }
 
+    @Test
+    public void testJacksonResponseToken() {
+        Serializer serializer = SERIALIZATION.get("json@jackson").getSerializer();
+        //应答不是JSON对象的情况，例如字符串、数字、布尔和数组
+        Object[] responses = new Object[]{"hello", 100, 100L, 1.5D, true, Arrays.asList("a", "b"),
+                new int[]{1, 2}, new String[]{"a", null}, new Apple()};
+        for (Object response : responses) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            serializer.serialize(baos, new ResponsePayload(response, null, response.getClass()));
+            ResponsePayload target = serializer.deserialize(new ByteArrayInputStream(baos.toByteArray()), ResponsePayload.class);
+            Assert.assertNull(target.getException());
+            if (response.getClass().isArray()) {
+                Assert.assertEquals(response.getClass(), target.getResponse().getClass());
+                Assert.assertTrue(Objects.deepEquals(response, target.getResponse()));
+            } else if (response instanceof Apple) {
+                Assert.assertEquals(Apple.class, target.getResponse().getClass());
+            } else {
+                Assert.assertEquals(response, target.getResponse());
+            }
+        }
+        //空应答
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serialize(baos, new ResponsePayload(null, null, String.class));
+        ResponsePayload target = serializer.deserialize(new ByteArrayInputStream(baos.toByteArray()), ResponsePayload.class);
+        Assert.assertNull(target.getResponse());
+        Assert.assertNull(target.getException());
+    }
+
     @Test
     public void testInvocation() {
         Json fastJson = JSON.get("json@fastjson");
@@ -288,6 +324,166 @@ public class SerializationTest {
         serializeAndDeserialize("hessian", person);
     }
 
+    @Test
+    public void testHessianDefinitionCache() throws IOException {
+        SerializerFactory factory = new SerializerFactory();
+        factory.setAllowNonSerializable(true);
+        ObjectDefinitionCache cache = new ObjectDefinitionCache(16);
+        for (int i = 0; i < 3; i++) {
+            Employee person = new Employee(i, "china" + i, 20, 161, 65);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Hessian2Output output = new Hessian2Output(baos);
+            output.setSerializerFactory(factory);
+            output.writeObject(person);
+            output.flush();
+            Hessian2Input input = new Hessian2Input(new ByteArrayInputStream(baos.toByteArray()));
+            input.setSerializerFactory(factory);
+            input.setDefinitionCache(cache);
+            Employee target = (Employee) input.readObject();
+            Assert.assertEquals(person.getName(), target.getName());
+            Assert.assertEquals(person.getId(), target.getId());
+        }
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testKryoPool() throws ExecutionException, InterruptedException {
+        //超过缓冲区大小，并发复用池化的Kryo
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'a');
+        Employee person = new Employee(0, new String(chars), 20, 161, 65);
+        Serialization serialization = SERIALIZATION.get("kryo");
+        ExecutorService service = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new LinkedList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(service.submit(() -> {
+                    UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream(1024);
+                    for (int j = 0; j < 100; j++) {
+                        baos.reset();
+                        serializeAndDeserialize(serialization, person, baos,
+                                (o, t) -> Assert.assertEquals(((Employee) t).getName(), ((Employee) o).getName()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testJacksonArrayInput() {
+        Employee person = new Employee(0, "china", 20, 161, 65);
+        Serializer serializer = SERIALIZATION.get("json@jackson").getSerializer();
+        UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream(1024);
+        baos.write(new byte[]{1, 2, 3}, 0, 3);
+        serializer.serialize(baos, person);
+        //从数组偏移位置直接解析
+        ArrayStream is = new ArrayStream(baos.toByteArray(), 3);
+        Employee target = serializer.deserialize(is, Employee.class);
+        Assert.assertEquals(person.getName(), target.getName());
+        Assert.assertEquals(0, is.available());
+    }
+
+    @Test
+    public void testTypeElision() throws NoSuchMethodException {
+        Employee person = new Employee(0, "china", 20, 161, 65);
+        Method method = EmployeeService.class.getMethod("save", Employee.class, String.class);
+        Invocation invocation = new Invocation(EmployeeService.class, null, method, new Object[]{person, "test"});
+        Assert.assertNull(SERIALIZATION.get("hessian").getTypedSerializer());
+        for (String name : new String[]{"kryo", "protostuff", "protobuf"}) {
+            Serialization serialization = SERIALIZATION.get(name);
+            Serializer serializer = serialization.getTypedSerializer();
+            TypeElision elision = TypeElision.elide(method, invocation.getArgs(), serializer);
+            //字符串是java类型，不省略
+            Assert.assertNotNull(elision);
+            Assert.assertEquals(1, elision.getMask());
+            Assert.assertTrue(elision.getArgs()[0] instanceof byte[]);
+            Assert.assertEquals("test", elision.getArgs()[1]);
+            Invocation target = invocation.copy(elision.getArgs());
+            //省略类型后编码的调用更小
+            UnsafeByteArrayOutputStream os = new UnsafeByteArrayOutputStream(1024);
+            serialization.getSerializer().serialize(os, invocation);
+            int size = os.size();
+            os.reset();
+            serialization.getSerializer().serialize(os, target);
+            Assert.assertTrue(name + " " + os.size() + " >= " + size, os.size() < size);
+            TypeElision.restore(target, elision.getMask(), serializer);
+            Assert.assertEquals(person.getName(), ((Employee) target.getArgs()[0]).getName());
+        }
+    }
+
+    @Test
+    public void testStringTable() throws NoSuchMethodException {
+        Method method = EmployeeService.class.getMethod("save", Employee.class, String.class);
+        for (String name : new String[]{"hessian", "protostuff"}) {
+            Serialization serialization = SERIALIZATION.get(name);
+            Assert.assertTrue(serialization.stringTable());
+            Serializer serializer = serialization.getSerializer();
+            StringTable sender = new StringTable(16);
+            StringTable receiver = new StringTable(16);
+            int[] sizes = new int[3];
+            for (int i = 0; i < sizes.length; i++) {
+                Employee person = new Employee(i, "china", 20, 161, 65);
+                Invocation invocation = new Invocation(EmployeeService.class, "employee", method, new Object[]{person, "test-" + i});
+                invocation.addAttachment("traceId", "7f2a9c3e51d04b8e");
+                if (i == 2) {
+                    //模拟编码失败，下一个消息通知接收方重置
+                    sender.encoded(StringTable.USE, false);
+                }
+                byte flag = sender.getFlag();
+                UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream(1024);
+                serializer.serialize(baos, invocation, sender.getSender());
+                sender.encoded(flag, true);
+                sizes[i] = baos.size();
+                Invocation target = serializer.deserialize(new UnsafeByteArrayInputStream(baos.toByteArray()),
+                        Invocation.class, receiver.decode(flag));
+                receiver.decoded(true);
+                Assert.assertEquals(invocation.getClassName(), target.getClassName());
+                Assert.assertEquals(invocation.getMethodName(), target.getMethodName());
+                Assert.assertEquals("7f2a9c3e51d04b8e", target.<String>getAttachment("traceId"));
+                Assert.assertEquals("test-" + i, target.getArgs()[1]);
+                Assert.assertEquals(person.getName(), ((Employee) target.getArgs()[0]).getName());
+            }
+            //重复的字符串替换为序号
+            Assert.assertTrue(name, sizes[1] < sizes[0]);
+            //重置后重新传输字符串
+            Assert.assertEquals(name, sizes[0], sizes[2]);
+        }
+        //接收表失效后拒绝解码，直到发送方重置
+        StringTable table = new StringTable(16);
+        table.decoded(false);
+        Assert.assertEquals(StringTable.USE | StringTable.SYNC, table.getFlag());
+        try {
+            table.decode(StringTable.USE);
+            Assert.fail();
+        } catch (SerializerException ignored) {
+        }
+        Assert.assertNotNull(table.decode((byte) (StringTable.USE | StringTable.RESET)));
+    }
+
+    @Test
+    public void testBlackList() {
+        SerializerBlackList blackList = new SerializerBlackList("permission/java.blacklist",
+                "META-INF/permission/java.blacklist");
+        blackList.load();
+        Assert.assertTrue(blackList.isBlack("org.apache.xalan.xsltc.trax.TemplatesImpl"));
+        Assert.assertFalse(blackList.isBlack(Employee.class));
+        //包前缀
+        blackList.updateBlack(Arrays.asList("io.joyrpc.codec.serialization.model.*", "com.example."));
+        Assert.assertTrue(blackList.isBlack(Employee.class));
+        Assert.assertTrue(blackList.isBlack("com.example.demo.Foo"));
+        Assert.assertFalse(blackList.isBlack("com.examples.Foo"));
+        Assert.assertTrue(blackList.isBlack("org.apache.xalan.xsltc.trax.TemplatesImpl"));
+        //更新后缓存失效
+        blackList.updateBlack(Collections.emptyList());
+        Assert.assertFalse(blackList.isBlack(Employee.class));
+        Assert.assertFalse(blackList.isBlack("com.example.demo.Foo"));
+    }
+
     @Test
     public void testTps() throws ExecutionException, InterruptedException {
 
@@ -460,4 +656,34 @@ public class SerializationTest {
         }
     }
 
+    /**
+     * 能直接读取数组的流
+     */
+    public static class ArrayStream extends UnsafeByteArrayInputStream implements ArrayInputStream {
+
+        public ArrayStream(final byte[] buf, final int offset) {
+            super(buf, offset);
+        }
+
+        @Override
+        public boolean hasArray() {
+            return true;
+        }
+
+        @Override
+        public byte[] array() {
+            return buf;
+        }
+
+        @Override
+        public int arrayOffset() {
+            return 0;
+        }
+
+        @Override
+        public int readerIndex() {
+            return pos;
+        }
+    }
+
 }
@@ -0,0 +1,43 @@
+package io.joyrpc.codec.serialization.apt;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.annotation.Provider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Provider(alias = "test")
+public class AccountServiceImpl implements AccountService {
+
+    @Override
+    public Account get(final long id) {
+        Account account = new Account();
+        account.setId(id);
+        return account;
+    }
+
+    @Override
+    public CompletableFuture<List<Address>> addresses(final Ledger ledger) {
+        return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+}
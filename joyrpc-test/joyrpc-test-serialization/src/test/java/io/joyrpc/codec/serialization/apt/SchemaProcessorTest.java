@@ -0,0 +1,122 @@
+package io.joyrpc.codec.serialization.apt;
+
+/*-
+ * #%L
+ * joyrpc
+ * %%
+ * Copyright (C) 2019 joyrpc.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.codec.serialization.Serializer;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.IdStrategy;
+import io.protostuff.runtime.RuntimeSchema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+
+import static io.joyrpc.Plugin.SERIALIZATION;
+
+public class SchemaProcessorTest {
+
+    protected Account create() {
+        Account account = new Account();
+        account.setId(100L);
+        account.setName("joyrpc");
+        account.setEnabled(true);
+        account.balance = -5L;
+        account.cached = 9;
+        account.legacy = "legacy";
+        account.level = -3;
+        account.grade = 'A';
+        account.avatar = new byte[]{1, 2, 3};
+        account.rate = 0.5D;
+        account.address = new Address("beijing", 100000, null);
+        return account;
+    }
+
+    protected void check(final Account target) {
+        Assert.assertEquals(Long.valueOf(100L), target.getId());
+        Assert.assertEquals("joyrpc", target.getName());
+        Assert.assertTrue(target.isEnabled());
+        Assert.assertEquals(-5L, target.balance);
+        Assert.assertEquals(0, target.cached);
+        Assert.assertNull(target.legacy);
+        Assert.assertEquals(Short.valueOf((short) -3), target.level);
+        Assert.assertEquals('A', target.grade);
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, target.avatar);
+        Assert.assertEquals(0.5D, target.rate, 0);
+        Assert.assertNull(target.ratio);
+        Assert.assertEquals("beijing", target.address.city);
+        Assert.assertEquals(100000, target.address.zip);
+        Assert.assertNull(target.address.verified);
+    }
+
+    @Test
+    public void testGenerated() {
+        Assert.assertEquals(Account.class, Account_ProtostuffSchema.INSTANCE.typeClass());
+        Assert.assertEquals(Address.class, Address_ProtostuffSchema.INSTANCE.typeClass());
+        try {
+            Class.forName(Ledger.class.getName() + PojoModel.SCHEMA_SUFFIX);
+            Assert.fail("Ledger has collection field.");
+        } catch (ClassNotFoundException ignored) {
+        }
+    }
+
+    @Test
+    public void testCompatible() {
+        Account account = create();
+        Schema<Account> generated = Account_ProtostuffSchema.INSTANCE;
+        Schema<Account> runtime = RuntimeSchema.createFrom(Account.class);
+        byte[] data = ProtostuffIOUtil.toByteArray(account, generated, LinkedBuffer.allocate());
+        Assert.assertArrayEquals(ProtostuffIOUtil.toByteArray(account, runtime, LinkedBuffer.allocate()), data);
+        Account target = generated.newMessage();
+        ProtostuffIOUtil.mergeFrom(data, target, generated);
+        check(target);
+    }
+
+    @Test
+    public void testRegistered() throws Exception {
+        //触发序列化插件加载，注册生成的Schema
+        SERIALIZATION.get("protostuff").getSerializer();
+        //protostuff和protobuf共用该策略查找Schema
+        Field field = Class.forName("io.joyrpc.codec.serialization.protostuff.ProtostuffSerialization$ProtostuffSerializer")
+                .getDeclaredField("STRATEGY");
+        field.setAccessible(true);
+        IdStrategy strategy = (IdStrategy) field.get(null);
+        //插件按照服务文件实例化生成的Schema
+        Assert.assertEquals(Account_ProtostuffSchema.class, RuntimeSchema.getSchema(Account.class, strategy).getClass());
+        Assert.assertEquals(Address_ProtostuffSchema.class, RuntimeSchema.getSchema(Address.class, strategy).getClass());
+        //没有生成的类型使用运行时Schema
+        Assert.assertTrue(RuntimeSchema.getSchema(Ledger.class, strategy) instanceof RuntimeSchema);
+    }
+
+    @Test
+    public void testSerialization() {
+        for (String type : new String[]{"protostuff", "protobuf"}) {
+            Serializer serializer = SERIALIZATION.get(type).getSerializer();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            serializer.serialize(baos, create());
+            check(serializer.deserialize(new ByteArrayInputStream(baos.toByteArray()), Account.class));
+        }
+    }
+}
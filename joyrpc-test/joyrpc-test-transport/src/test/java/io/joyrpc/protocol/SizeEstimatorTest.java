@@ -0,0 +1,87 @@
+package io.joyrpc.protocol;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+public class SizeEstimatorTest {
+
+    @Test
+    public void testConverge() throws NoSuchMethodException {
+        SizeEstimator estimator = new SizeEstimator();
+        Method method = EstimateService.class.getMethod("small");
+        Assert.assertEquals(0, estimator.estimate(method, true));
+        for (int i = 0; i < 100; i++) {
+            estimator.update(method, true, estimator.estimate(method, true), 1000);
+        }
+        int estimate = estimator.estimate(method, true);
+        //稳定后不小于平均值，按照64字节对齐，余量不超过1/8
+        Assert.assertTrue(estimate >= 1000);
+        Assert.assertTrue(estimate <= 1000 + 1000 / 8 + 64);
+        Assert.assertEquals(0, estimate % 64);
+        //第一次没有预估不计入命中率
+        Assert.assertEquals(99, estimator.getHits());
+        Assert.assertEquals(0, estimator.getMisses());
+        Assert.assertEquals(1.0, estimator.getHitRate(), 0);
+    }
+
+    @Test
+    public void testBound() throws NoSuchMethodException {
+        SizeEstimator estimator = new SizeEstimator();
+        Method method = EstimateService.class.getMethod("small");
+        estimator.update(method, false, 0, Integer.MAX_VALUE);
+        Assert.assertEquals(SizeEstimator.MAX_ESTIMATE, estimator.estimate(method, false));
+        estimator.update(method, false, estimator.estimate(method, false), Integer.MAX_VALUE);
+        Assert.assertEquals(1, estimator.getMisses());
+        Assert.assertEquals(SizeEstimator.MAX_ESTIMATE, estimator.estimate(method, false));
+    }
+
+    @Test
+    public void testDecay() throws NoSuchMethodException {
+        SizeEstimator estimator = new SizeEstimator();
+        Method method = EstimateService.class.getMethod("small");
+        for (int i = 0; i < 20; i++) {
+            estimator.update(method, true, 0, 100);
+        }
+        //偶发的大包抬高预估
+        estimator.update(method, true, 0, 100000);
+        int peak = estimator.estimate(method, true);
+        Assert.assertTrue(peak >= 100000);
+        //峰值逐步衰减回到常态大小附近
+        for (int i = 0; i < 300; i++) {
+            estimator.update(method, true, 0, 100);
+        }
+        int estimate = estimator.estimate(method, true);
+        Assert.assertTrue(estimate < peak);
+        Assert.assertTrue(estimate <= 256);
+    }
+
+    @Test
+    public void testKey() throws NoSuchMethodException {
+        SizeEstimator estimator = new SizeEstimator();
+        Method small = EstimateService.class.getMethod("small");
+        Method large = EstimateService.class.getMethod("large");
+        //返回类型相同的方法分别统计
+        for (int i = 0; i < 10; i++) {
+            estimator.update(small, false, 0, 100);
+            estimator.update(large, false, 0, 100000);
+        }
+        Assert.assertTrue(estimator.estimate(small, false) < 1024);
+        Assert.assertTrue(estimator.estimate(large, false) >= 100000);
+        //请求和应答分别统计
+        Assert.assertEquals(0, estimator.estimate(small, true));
+        //不是方法不预估
+        estimator.update(List.class, false, 0, 100);
+        Assert.assertEquals(0, estimator.estimate(List.class, false));
+        Assert.assertEquals(0, estimator.estimate(null, true));
+    }
+
+    public interface EstimateService {
+
+        List<String> small();
+
+        List<String> large();
+    }
+}
@@ -0,0 +1,134 @@
+package io.joyrpc.protocol.grpc.handler;
+
+import com.google.protobuf.StringValue;
+import io.joyrpc.codec.serialization.Serialization;
+import io.joyrpc.codec.serialization.UnsafeByteArrayInputStream;
+import io.joyrpc.codec.serialization.UnsafeByteArrayOutputStream;
+import io.joyrpc.context.GlobalContext;
+import io.joyrpc.extension.MapParametric;
+import io.joyrpc.protocol.grpc.HeaderMapping;
+import io.joyrpc.protocol.grpc.ProtobufCodec;
+import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.transport.http2.DefaultHttp2Headers;
+import io.joyrpc.transport.http2.DefaultHttp2ResponseMessage;
+import io.joyrpc.util.GrpcType.ClassWrapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.joyrpc.Plugin.SERIALIZATION;
+import static io.joyrpc.Plugin.SERIALIZATION_SELECTOR;
+import static io.joyrpc.constants.Constants.PROTOCOL_VERSION_KEY;
+
+public class GrpcHandlerTest {
+
+    protected static final StringValue VALUE = StringValue.newBuilder().setValue("hello").build();
+
+    protected GrpcServerHandler server = new GrpcServerHandler();
+
+    protected GrpcClientHandler client = new GrpcClientHandler();
+
+    protected Serialization protobuf = SERIALIZATION_SELECTOR.select((byte) Serialization.PROTOBUF_ID);
+
+    protected Serialization java = SERIALIZATION_SELECTOR.select((byte) Serialization.JAVA_ID);
+
+    @Test
+    public void testRequestProtobuf() throws IOException {
+        byte[] content = client.encode(protobuf, true, VALUE);
+        //生成的protobuf消息直接编码
+        Assert.assertArrayEquals(ProtobufCodec.encode(VALUE, 5), content);
+        Assert.assertEquals(VALUE, decodeRequest(protobuf, true, content));
+    }
+
+    @Test
+    public void testRequestOther() throws IOException {
+        //协商的不是protobuf，即使是生成的protobuf消息也要走序列化插件
+        byte[] content = client.encode(java, true, VALUE);
+        Assert.assertEquals(VALUE, java.getSerializer().deserialize(input(content), StringValue.class));
+        Assert.assertEquals(VALUE, decodeRequest(java, true, content));
+    }
+
+    @Test
+    public void testResponseProtobuf() throws IOException {
+        byte[] content = server.encode(protobuf, true, VALUE);
+        Assert.assertArrayEquals(ProtobufCodec.encode(VALUE, 5), content);
+        Assert.assertEquals(VALUE, decodeResponse(protobuf, content, true));
+    }
+
+    @Test
+    public void testResponseOther() throws IOException {
+        byte[] content = server.encode(java, true, VALUE);
+        Assert.assertEquals(VALUE, java.getSerializer().deserialize(input(content), StringValue.class));
+        Assert.assertEquals(VALUE, decodeResponse(java, content, true));
+    }
+
+    @Test
+    public void testCompatible() throws IOException {
+        //默认按照protostuff编码，兼容老版本服务端
+        Assert.assertFalse(client.protobufCodec);
+        byte[] content = client.encode(protobuf, client.protobufCodec, VALUE);
+        Assert.assertArrayEquals(legacy(VALUE), content);
+        //老版本的joyrpc消费者没有标识，按照protostuff解码
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("user-agent", GlobalContext.getString(PROTOCOL_VERSION_KEY));
+        boolean codec = server.isProtobufCodec(new MapParametric(headers));
+        Assert.assertFalse(codec);
+        Assert.assertEquals(VALUE, decodeRequest(protobuf, codec, content));
+        //应答也按照protostuff编码，老版本消费者能够解码
+        content = server.encode(protobuf, codec, VALUE);
+        Assert.assertArrayEquals(legacy(VALUE), content);
+        Assert.assertEquals(VALUE, decodeResponse(protobuf, content, false));
+        //开启后的joyrpc消费者
+        headers.put(HeaderMapping.PROTOBUF_CODEC.getKey(), "1");
+        Assert.assertTrue(server.isProtobufCodec(new MapParametric(headers)));
+        //原生grpc消费者
+        headers.clear();
+        headers.put("user-agent", "grpc-java-netty/1.26.0");
+        Assert.assertTrue(server.isProtobufCodec(new MapParametric(headers)));
+    }
+
+    @Test
+    public void testSerializationName() {
+        //服务端按照Content-Encoding中'+'后面的名称选择反序列化插件
+        Assert.assertEquals("java", client.getName(java));
+        Assert.assertSame(java, SERIALIZATION.get(client.getName(java)));
+    }
+
+    protected byte[] legacy(final Object value) {
+        UnsafeByteArrayOutputStream baos = new UnsafeByteArrayOutputStream();
+        baos.write(new byte[]{0, 0, 0, 0, 0}, 0, 5);
+        protobuf.getSerializer().serialize(baos, value);
+        return baos.toByteArray();
+    }
+
+    protected Object decodeRequest(final Serialization serialization, final boolean codec, final byte[] content) throws IOException {
+        return server.decode(serialization, codec, null, StringValue.class, content, input(content));
+    }
+
+    protected Object decodeResponse(final Serialization serialization, final byte[] content, final boolean codec) throws IOException {
+        //设置长度
+        int length = content.length - 5;
+        content[1] = (byte) (length >>> 24);
+        content[2] = (byte) (length >>> 16);
+        content[3] = (byte) (length >>> 8);
+        content[4] = (byte) length;
+        DefaultHttp2Headers headers = new DefaultHttp2Headers();
+        if (codec) {
+            //新版本服务端在应答头中标识原生格式
+            headers.set(HeaderMapping.PROTOBUF_CODEC.getKey(), "1");
+        }
+        DefaultHttp2ResponseMessage message = new DefaultHttp2ResponseMessage(1, 1, headers, content);
+        ResponsePayload payload = client.decodePayload(message, new ClassWrapper(StringValue.class, false), serialization);
+        return payload.getResponse();
+    }
+
+    protected InputStream input(final byte[] content) throws IOException {
+        InputStream in = new UnsafeByteArrayInputStream(content);
+        in.skip(5);
+        return in;
+    }
+}
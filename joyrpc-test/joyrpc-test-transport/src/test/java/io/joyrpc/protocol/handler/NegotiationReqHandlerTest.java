@@ -0,0 +1,66 @@
+package io.joyrpc.protocol.handler;
+
+import io.joyrpc.protocol.message.MethodDictionary;
+import io.joyrpc.protocol.message.negotiation.NegotiationRequest;
+import io.joyrpc.protocol.message.negotiation.NegotiationResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+import static io.joyrpc.Plugin.*;
+import static io.joyrpc.constants.Constants.CONFIG_KEY_INTERFACE;
+import static io.joyrpc.constants.Constants.KEY_METHOD_DICTIONARY;
+
+public class NegotiationReqHandlerTest {
+
+    @Test
+    public void testMethodDictionary() {
+        String text = MethodDictionary.build(NegotiationService.class).toString();
+        NegotiationResponse response = negotiate(NegotiationService.class.getName(), text);
+        Assert.assertTrue(response.isSuccess());
+        //校验通过，回传方法字典
+        Assert.assertEquals(text, response.getAttributes().get(KEY_METHOD_DICTIONARY));
+        //消费者的接口是服务端接口的子集
+        text = MethodDictionary.build(PartialService.class).toString();
+        Assert.assertEquals(text, negotiate(NegotiationService.class.getName(), text).getAttributes().get(KEY_METHOD_DICTIONARY));
+    }
+
+    @Test
+    public void testMismatch() {
+        //消费者有服务端不存在的方法
+        String text = MethodDictionary.build(ExtendedService.class).toString();
+        Assert.assertNull(negotiate(NegotiationService.class.getName(), text).getAttributes().get(KEY_METHOD_DICTIONARY));
+        //字典格式错误
+        Assert.assertNull(negotiate(NegotiationService.class.getName(), "hello").getAttributes().get(KEY_METHOD_DICTIONARY));
+        //服务端没有该接口
+        text = MethodDictionary.build(NegotiationService.class).toString();
+        Assert.assertNull(negotiate("io.joyrpc.NotExists", text).getAttributes().get(KEY_METHOD_DICTIONARY));
+    }
+
+    protected NegotiationResponse negotiate(final String className, final String dictionary) {
+        List<String> serializations = SERIALIZATION.names();
+        NegotiationRequest request = new NegotiationRequest(serializations.get(0), null, null,
+                serializations, COMPRESSION.names(), CHECKSUM.names());
+        request.addAttribute(CONFIG_KEY_INTERFACE, className);
+        request.addAttribute(KEY_METHOD_DICTIONARY, dictionary);
+        return new NegotiationReqHandler().negotiate(request);
+    }
+
+    public interface NegotiationService {
+
+        String hello(String name);
+
+        int count(String name, int times);
+    }
+
+    public interface PartialService {
+
+        String hello(String name);
+    }
+
+    public interface ExtendedService extends NegotiationService {
+
+        void goodbye(String name);
+    }
+}
@@ -0,0 +1,143 @@
+package io.joyrpc.protocol.message;
+
+import io.joyrpc.exception.CodecException;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.joy.JoyServerProtocol;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.codec.Codec;
+import io.joyrpc.transport.netty4.buffer.NettyChannelBuffer;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeaderAttributesTest {
+
+    @Test
+    public void testAccess() {
+        HeaderAttributes attributes = new HeaderAttributes();
+        Assert.assertTrue(attributes.isEmpty());
+        attributes.putInt((byte) 1, 7);
+        attributes.putShort((byte) 2, (short) 300);
+        attributes.putByte((byte) 3, (byte) 2);
+        attributes.putString((byte) 4, "hello");
+        attributes.put((byte) 5, 1L);
+        Assert.assertEquals(5, attributes.size());
+        Assert.assertEquals(7, attributes.getInt((byte) 1, -1));
+        Assert.assertEquals(300, attributes.getInt((byte) 2, -1));
+        Assert.assertEquals(-1, attributes.getInt((byte) 4, -1));
+        Assert.assertEquals("hello", attributes.getString((byte) 4));
+        Assert.assertNull(attributes.getString((byte) 1));
+        Assert.assertEquals(HeaderAttributes.SHORT, attributes.getType((byte) 2));
+        Assert.assertEquals(HeaderAttributes.OBJECT, attributes.getType((byte) 5));
+        Assert.assertEquals(-1, attributes.getType((byte) 6));
+        //Map方式访问保持装箱类型
+        Assert.assertEquals((short) 300, attributes.get((byte) 2));
+        Assert.assertEquals((byte) 2, attributes.get((byte) 3));
+        Assert.assertEquals(1L, attributes.get((byte) 5));
+        Assert.assertNull(attributes.get(1));
+        //覆盖改变类型
+        Assert.assertEquals(7, attributes.put((byte) 1, "world"));
+        Assert.assertEquals("world", attributes.getString((byte) 1));
+        //删除后后面的元素前移
+        Assert.assertEquals((byte) 2, attributes.remove((byte) 3));
+        Assert.assertEquals(4, attributes.size());
+        Assert.assertEquals("hello", attributes.getString((byte) 4));
+        //设置空字符串等同删除
+        attributes.putString((byte) 4, null);
+        Assert.assertFalse(attributes.containsKey((byte) 4));
+        attributes.clear();
+        Assert.assertEquals(0, attributes.size());
+        Assert.assertNull(attributes.get((byte) 1));
+    }
+
+    @Test
+    public void testCopy() {
+        Map<Byte, Object> map = new HashMap<>();
+        map.put((byte) 1, 7);
+        map.put((byte) 2, "hello");
+        HeaderAttributes attributes = new HeaderAttributes(map);
+        Assert.assertEquals(map, attributes);
+        HeaderAttributes copy = attributes.copy();
+        Assert.assertEquals(attributes, copy);
+        //复制后互不影响
+        copy.putInt((byte) 1, 8);
+        copy.putString((byte) 3, "world");
+        Assert.assertEquals(7, attributes.getInt((byte) 1, -1));
+        Assert.assertFalse(attributes.containsKey((byte) 3));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        char[] chars = new char[300];
+        Arrays.fill(chars, 'a');
+        MessageHeader header = new MessageHeader(MsgType.HbReq.getType(), (byte) 3);
+        header.addAttribute((byte) 50, 7);
+        header.addAttribute((byte) 51, "hello");
+        header.addAttribute((byte) 52, (byte) -2);
+        header.addAttribute((byte) 53, (short) 300);
+        header.addAttribute((byte) 54, "");
+        header.addAttribute((byte) 55, new String(chars));
+        header.addAttribute((byte) 56, "中文");
+        Map<Byte, Object> expected = new HashMap<>(header.getAttributes());
+        String first = null;
+        for (int i = 0; i < 2; i++) {
+            MessageHeader decoded = roundTrip(header);
+            Assert.assertEquals(expected, new HashMap<>(decoded.getAttributes()));
+            String value = (String) decoded.getAttribute((byte) 51);
+            //重复的字符串命中解码缓存
+            if (first == null) {
+                first = value;
+            } else {
+                Assert.assertSame(first, value);
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        MessageHeader header = new MessageHeader(MsgType.HbReq.getType(), (byte) 3);
+        MessageHeader decoded = roundTrip(header);
+        Assert.assertTrue(decoded.getAttributes() == null || decoded.getAttributes().isEmpty());
+    }
+
+    @Test(expected = CodecException.class)
+    public void testUnsupported() {
+        MessageHeader header = new MessageHeader(MsgType.HbReq.getType(), (byte) 3);
+        header.addAttribute((byte) 50, 1L);
+        roundTrip(header);
+    }
+
+    /**
+     * 编码再解码
+     *
+     * @param header 消息头
+     * @return 解码后的消息头
+     */
+    protected MessageHeader roundTrip(final MessageHeader header) {
+        Codec codec = new JoyServerProtocol().getCodec();
+        Channel channel = new NettyChannel(new EmbeddedChannel(), true);
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            codec.encode(() -> channel, new NettyChannelBuffer(buf), new RequestMessage<>(header));
+            //跳过魔术位
+            buf.skipBytes(2);
+            RequestMessage<?> message = (RequestMessage<?>) codec.decode(() -> channel, new NettyChannelBuffer(buf));
+            return message.getHeader();
+        } catch (CodecException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (buf.refCnt() > 0) {
+                buf.release(buf.refCnt());
+            }
+        }
+    }
+}
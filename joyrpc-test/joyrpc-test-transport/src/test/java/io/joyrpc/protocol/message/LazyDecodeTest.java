@@ -0,0 +1,131 @@
+package io.joyrpc.protocol.message;
+
+import io.joyrpc.exception.CodecException;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.joy.JoyServerProtocol;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.codec.Codec;
+import io.joyrpc.transport.netty4.buffer.NettyChannelBuffer;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+public class LazyDecodeTest {
+
+    @Test
+    public void testDecode() throws Exception {
+        ByteBuf buf = encode(false);
+        RequestMessage<Invocation> message = decode(buf);
+        Assert.assertFalse(message.isDecoded());
+        Assert.assertEquals(1, buf.refCnt());
+        Invocation invocation = message.getPayLoad();
+        Assert.assertTrue(message.isDecoded());
+        Assert.assertEquals("hello", invocation.getMethodName());
+        Assert.assertArrayEquals(new Object[]{"x", 1}, invocation.getArgs());
+        Assert.assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testConcurrentDecode() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 200; round++) {
+                RequestMessage<Invocation> message = decode(encode(false));
+                CyclicBarrier barrier = new CyclicBarrier(8);
+                Future<?>[] futures = new Future[8];
+                for (int i = 0; i < futures.length; i++) {
+                    futures[i] = executor.submit(() -> {
+                        barrier.await();
+                        return message.getPayLoad();
+                    });
+                }
+                Object first = futures[0].get();
+                Assert.assertNotNull(first);
+                for (Future<?> future : futures) {
+                    Assert.assertSame(first, future.get());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        ByteBuf buf = encode(false);
+        RequestMessage<Invocation> message = decode(buf);
+        message.release();
+        Assert.assertEquals(0, buf.refCnt());
+        Assert.assertTrue(message.isDecoded());
+        Assert.assertNull(message.getPayLoad());
+    }
+
+    @Test
+    public void testError() throws Exception {
+        ByteBuf buf = encode(true);
+        RequestMessage<Invocation> message = decode(buf);
+        try {
+            message.getPayLoad();
+            Assert.fail();
+        } catch (CodecException e) {
+            Assert.assertNotNull(e.getHeader());
+        }
+        Assert.assertEquals(0, buf.refCnt());
+        Assert.assertTrue(message.isDecoded());
+        //再次获取消息体重新抛出解码异常，而不是返回空
+        try {
+            message.getPayLoad();
+            Assert.fail();
+        } catch (CodecException e) {
+            Assert.assertNotNull(e.getHeader());
+            Assert.assertNotNull(e.getCause());
+        }
+    }
+
+    /**
+     * 编码请求，去掉魔术位
+     *
+     * @param corrupt 破坏消息体
+     * @return 缓冲区
+     */
+    protected ByteBuf encode(final boolean corrupt) throws Exception {
+        Codec codec = new JoyServerProtocol().getCodec();
+        Channel channel = new NettyChannel(new EmbeddedChannel(), true);
+        Invocation invocation = new Invocation("io.joyrpc.HelloService", "1.0", "hello", new Class[]{String.class, int.class});
+        invocation.setArgs(new Object[]{"x", 1});
+        MessageHeader header = new MessageHeader(MsgType.BizReq.getType(), (byte) 3);
+        header.setSerialization((byte) 3);
+        ByteBuf buf = Unpooled.buffer();
+        codec.encode(() -> channel, new NettyChannelBuffer(buf), new RequestMessage<>(header, invocation));
+        buf.skipBytes(2);
+        if (corrupt) {
+            //覆盖消息体的后半部分
+            for (int i = buf.writerIndex() / 2; i < buf.writerIndex(); i++) {
+                buf.setByte(i, 0xFF);
+            }
+        }
+        return buf;
+    }
+
+    /**
+     * 延迟解码
+     *
+     * @param buf 缓冲区
+     * @return 请求
+     */
+    protected RequestMessage<Invocation> decode(final ByteBuf buf) throws Exception {
+        Codec codec = new JoyServerProtocol().getCodec();
+        Channel channel = new NettyChannel(new EmbeddedChannel(), true);
+        channel.setAttribute(Channel.LAZY_DECODE, true);
+        NettyChannelBuffer buffer = new NettyChannelBuffer(buf);
+        RequestMessage<Invocation> result = (RequestMessage<Invocation>) codec.decode(() -> channel, buffer);
+        //解码器持有的分片单独计数
+        buffer.release();
+        return result;
+    }
+}
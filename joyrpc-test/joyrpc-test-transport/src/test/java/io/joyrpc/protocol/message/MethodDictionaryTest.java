@@ -0,0 +1,92 @@
+package io.joyrpc.protocol.message;
+
+import io.joyrpc.util.ClassUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MethodDictionaryTest {
+
+    @Test
+    public void testRoundTrip() {
+        MethodDictionary client = MethodDictionary.build(DictionaryService.class);
+        Assert.assertNotNull(client);
+        Assert.assertEquals(4, client.size());
+        //服务端按照协商的文本重建字典
+        MethodDictionary server = new MethodDictionary(client.toString());
+        Assert.assertTrue(server.containsAll(client));
+        for (Method method : DictionaryService.class.getMethods()) {
+            short id = client.getId(method);
+            Assert.assertTrue(id >= 0);
+            Invocation invocation = new Invocation();
+            Assert.assertTrue(server.restore(invocation, id));
+            Assert.assertEquals(method.getName(), invocation.getMethodName());
+            Assert.assertArrayEquals(ClassUtils.getCanonicalNames(method.getParameterTypes()), invocation.getArgsType());
+        }
+        //重载方法的ID不同
+        Assert.assertNotEquals(client.getId(method("echo", String.class)), client.getId(method("echo", String.class, int.class)));
+    }
+
+    @Test
+    public void testUnknown() throws NoSuchMethodException {
+        MethodDictionary dictionary = MethodDictionary.build(DictionaryService.class);
+        Assert.assertEquals(-1, dictionary.getId(Object.class.getMethod("hashCode")));
+        Assert.assertEquals(-1, dictionary.getId(null));
+        Assert.assertFalse(dictionary.restore(new Invocation(), dictionary.size()));
+        Assert.assertFalse(dictionary.restore(new Invocation(), -1));
+        Assert.assertNull(dictionary.getMethodName(dictionary.size()));
+        Assert.assertNull(dictionary.getOption(-1, name -> name));
+        try {
+            new MethodDictionary("echo");
+            Assert.fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void testOption() {
+        MethodDictionary dictionary = new MethodDictionary(MethodDictionary.build(DictionaryService.class).toString());
+        short id = dictionary.getId(method("list", List.class));
+        AtomicInteger counter = new AtomicInteger();
+        //方法选项只解析一次
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("list", dictionary.getOption(id, name -> {
+                counter.incrementAndGet();
+                return name;
+            }));
+        }
+        Assert.assertEquals(1, counter.get());
+        //不存在的方法不缓存
+        Assert.assertNull(dictionary.getOption(dictionary.getId(method("size")), name -> {
+            counter.incrementAndGet();
+            return null;
+        }));
+        Assert.assertNull(dictionary.getOption(dictionary.getId(method("size")), name -> {
+            counter.incrementAndGet();
+            return null;
+        }));
+        Assert.assertEquals(3, counter.get());
+    }
+
+    protected Method method(final String name, final Class<?>... types) {
+        try {
+            return DictionaryService.class.getMethod(name, types);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public interface DictionaryService {
+
+        String echo(String value);
+
+        String echo(String value, int times);
+
+        int list(List<String> values);
+
+        int size();
+    }
+}
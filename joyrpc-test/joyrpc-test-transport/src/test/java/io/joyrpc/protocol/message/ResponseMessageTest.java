@@ -0,0 +1,43 @@
+package io.joyrpc.protocol.message;
+
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.util.Recycler;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResponseMessageTest {
+
+    @Test
+    public void testUseAfterRecycle() {
+        Recycler<ResponseMessage<?>> messages = new Recycler<>(ResponseMessage::new, 2);
+        Recycler<ResponsePayload> payloads = new Recycler<>(ResponsePayload::new, 2);
+        ResponseMessage<ResponsePayload> message = (ResponseMessage<ResponsePayload>) messages.get();
+        message.setHeader(new MessageHeader(MsgType.BizResp.getType()));
+        ResponsePayload payload = payloads.get();
+        payload.setResponse("hello");
+        message.setPayLoad(payload);
+        Assert.assertEquals("hello", message.getPayLoad().getResponse());
+        message.recycle();
+        Assert.assertEquals(0, messages.getOutstanding());
+        Assert.assertEquals(0, payloads.getOutstanding());
+        try {
+            message.getPayLoad();
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        try {
+            message.getHeader();
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        try {
+            payload.getResponse();
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        //复用后可以正常访问
+        Assert.assertSame(message, messages.get());
+        message.setHeader(new MessageHeader(MsgType.BizResp.getType()));
+        Assert.assertNotNull(message.getHeader());
+    }
+}
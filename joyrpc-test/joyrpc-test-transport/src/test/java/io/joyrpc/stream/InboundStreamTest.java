@@ -0,0 +1,138 @@
+package io.joyrpc.stream;
+
+import io.joyrpc.Plugin;
+import io.joyrpc.exception.RpcException;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.handler.RequestChannelHandler;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.protocol.message.ResponsePayload;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.channel.ChainChannelHandler;
+import io.joyrpc.transport.channel.ChannelHandlerChain;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.joyrpc.transport.netty4.handler.NettyChannelContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static io.joyrpc.constants.Constants.*;
+
+public class InboundStreamTest {
+
+    @Test
+    public void testOrder() {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = new NettyChannel(embedded, true);
+        StreamManager manager = StreamManager.get(channel);
+        InboundStream<Integer> stream = new InboundStream<>(manager, 1, header(MsgType.BizReq, 1), 10000, 5000);
+        manager.inbounds.put(1, stream);
+        //服务端的业务线程池是多线程的，流数据不能经过线程池
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(8, 8, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        try {
+            ChainChannelHandler handler = new ChainChannelHandler(new ChannelHandlerChain(
+                    new RequestChannelHandler<>(Plugin.MESSAGE_HANDLER_SELECTOR, null)), executor);
+            NettyChannelContext context = new NettyChannelContext(channel);
+            int count = 2000;
+            for (int i = 0; i < count; i++) {
+                handler.received(context, data(i, false));
+            }
+            handler.received(context, data(null, true));
+            for (int i = 0; i < count; i++) {
+                Assert.assertTrue(stream.hasNext());
+                Assert.assertEquals(i, (int) stream.next());
+            }
+            Assert.assertFalse(stream.hasNext());
+            Assert.assertTrue(stream.isFinished());
+            Assert.assertNull(manager.getInbound(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCredit() {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = new NettyChannel(embedded, true);
+        StreamManager manager = StreamManager.get(channel);
+        InboundStream<Integer> stream = new InboundStream<>(manager, 2, header(MsgType.BizReq, 1), 4, 5000);
+        for (int i = 0; i < 4; i++) {
+            stream.onData(new ResponsePayload(i), false);
+        }
+        stream.next();
+        Assert.assertNull(embedded.readOutbound());
+        //消费一半窗口后授信
+        stream.next();
+        Assert.assertEquals(2, credit(embedded.readOutbound()));
+        stream.next();
+        stream.next();
+        Assert.assertEquals(2, credit(embedded.readOutbound()));
+        //提前关闭通知发送方取消
+        stream.close();
+        Assert.assertEquals(0, credit(embedded.readOutbound()));
+        Assert.assertFalse(stream.hasNext());
+    }
+
+    @Test
+    public void testTimeout() {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = new NettyChannel(embedded, true);
+        StreamManager manager = StreamManager.get(channel);
+        InboundStream<Integer> stream = new InboundStream<>(manager, 3, header(MsgType.BizReq, 1), 4, 50);
+        manager.inbounds.put(3, stream);
+        try {
+            stream.hasNext();
+            Assert.fail();
+        } catch (RpcException e) {
+            Assert.assertTrue(stream.isFinished());
+            Assert.assertNull(manager.getInbound(3));
+            Assert.assertEquals(0, credit(embedded.readOutbound()));
+        }
+    }
+
+    @Test
+    public void testNoTimeout() {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = new NettyChannel(embedded, true);
+        StreamManager manager = StreamManager.get(channel);
+        //超时时间为0表示不超时
+        InboundStream<Integer> stream = new InboundStream<>(manager, 4, header(MsgType.BizReq, 0), 4, 0);
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            stream.onData(new ResponsePayload(1), true);
+        });
+        thread.start();
+        Assert.assertTrue(stream.hasNext());
+        Assert.assertEquals(1, (int) stream.next());
+        Assert.assertFalse(stream.hasNext());
+    }
+
+    protected MessageHeader header(final MsgType type, final int timeout) {
+        MessageHeader header = new MessageHeader(type.getType(), (byte) 3);
+        header.setSerialization((byte) 3);
+        header.setTimeout(timeout);
+        return header;
+    }
+
+    protected RequestMessage<ResponsePayload> data(final Integer value, final boolean end) {
+        MessageHeader header = StreamManager.header(header(MsgType.BizReq, 5000), MsgType.StreamData, 1);
+        if (end) {
+            header.addAttribute(HEAD_STREAM_END, (byte) 1);
+        }
+        return new RequestMessage<>(header, end ? null : new ResponsePayload(value));
+    }
+
+    protected int credit(final Object message) {
+        Assert.assertTrue(message instanceof RequestMessage);
+        MessageHeader header = ((RequestMessage<?>) message).getHeader();
+        Assert.assertEquals(MsgType.StreamCredit.getType(), header.getMsgType());
+        return header.getAttribute(HEAD_STREAM_CREDIT.getKey(), -1);
+    }
+}
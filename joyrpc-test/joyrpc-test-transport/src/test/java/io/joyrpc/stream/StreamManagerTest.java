@@ -0,0 +1,78 @@
+package io.joyrpc.stream;
+
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static io.joyrpc.constants.Constants.HEAD_STREAM_ARG;
+import static io.joyrpc.constants.Constants.HEAD_STREAM_ID;
+
+public class StreamManagerTest {
+
+    @Test
+    public void testOpenArgs() throws NoSuchMethodException {
+        Channel channel = new NettyChannel(new EmbeddedChannel(), true);
+        StreamIterator<String> iterator = StreamIterator.of(Arrays.asList("a", "b").iterator());
+        Object[] args = new Object[]{"joy", iterator};
+        RequestMessage<Invocation> request = request(StreamService.class.getMethod("upload", String.class, StreamIterator.class), args);
+        StreamManager.StreamCall call = StreamManager.open(channel, request, 4);
+        Assert.assertNotNull(call);
+        Assert.assertNotNull(call.outbound);
+        //调用方的参数数组保持不变，编码的参数中去掉流
+        Assert.assertSame(iterator, args[1]);
+        Assert.assertNotSame(args, request.getPayLoad().getArgs());
+        Assert.assertArrayEquals(new Object[]{"joy", null}, request.getPayLoad().getArgs());
+        Assert.assertEquals((byte) 1, request.getHeader().getAttribute(HEAD_STREAM_ARG.getKey()));
+        Assert.assertSame(call.outbound, StreamManager.peek(channel).getOutbound(call.outbound.id));
+    }
+
+    @Test
+    public void testId() throws NoSuchMethodException {
+        //流ID按照通道分配
+        Channel channel1 = new NettyChannel(new EmbeddedChannel(), true);
+        Channel channel2 = new NettyChannel(new EmbeddedChannel(), true);
+        RequestMessage<Invocation> request = request(StreamService.class.getMethod("download", String.class), new Object[]{"joy"});
+        Assert.assertEquals(1, id(StreamManager.open(channel1, request, 4), request));
+        Assert.assertEquals(2, id(StreamManager.open(channel1, request, 4), request));
+        Assert.assertEquals(1, id(StreamManager.open(channel2, request, 4), request));
+        //不是流式方法
+        request = request(StreamService.class.getMethod("echo", String.class), new Object[]{"joy"});
+        Assert.assertNull(StreamManager.open(channel1, request, 4));
+    }
+
+    protected int id(final StreamManager.StreamCall call, final RequestMessage<Invocation> request) {
+        Assert.assertNotNull(call);
+        Assert.assertNotNull(call.inbound);
+        Assert.assertEquals(call.inbound.id, (int) request.getHeader().getAttribute(HEAD_STREAM_ID.getKey(), -1));
+        return call.inbound.id;
+    }
+
+    protected RequestMessage<Invocation> request(final Method method, final Object[] args) {
+        MessageHeader header = new MessageHeader(MsgType.BizReq.getType(), (byte) 3);
+        header.setSerialization((byte) 3);
+        header.setTimeout(5000);
+        Invocation invocation = new Invocation(StreamService.class.getName(), "stream", method.getName(),
+                method.getParameterTypes());
+        invocation.setMethod(method);
+        invocation.setArgs(args);
+        return new RequestMessage<>(header, invocation);
+    }
+
+    public interface StreamService {
+
+        String upload(String name, StreamIterator<String> lines);
+
+        StreamIterator<String> download(String name);
+
+        String echo(String message);
+    }
+}
@@ -0,0 +1,107 @@
+package io.joyrpc.transport.channel;
+
+import io.joyrpc.Plugin;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.handler.RequestChannelHandler;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.thread.DeadlineQueue;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.joyrpc.transport.netty4.handler.NettyChannelContext;
+import io.joyrpc.util.SystemClock;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ChainChannelHandlerTest {
+
+    @Test
+    public void testSheddable() {
+        ChannelHandler handler = new RequestChannelHandler<>(Plugin.MESSAGE_HANDLER_SELECTOR, null);
+        ChannelContext context = new NettyChannelContext(new NettyChannel(new EmbeddedChannel(), true));
+        //只有业务请求可以丢弃
+        Assert.assertTrue(handler.sheddable(context, request(MsgType.BizReq, 0, 0)));
+        Assert.assertFalse(handler.sheddable(context, request(MsgType.NegotiationReq, 0, 0)));
+        Assert.assertFalse(handler.sheddable(context, request(MsgType.HbReq, 0, 0)));
+        Assert.assertFalse(handler.sheddable(context, request(MsgType.StreamData, 0, 0)));
+        Assert.assertFalse(handler.sheddable(context, request(MsgType.StreamCredit, 0, 0)));
+    }
+
+    @Test
+    public void testDeadline() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new DeadlineQueue(-1, 5, 100));
+        try {
+            ChainChannelHandler handler = new ChainChannelHandler(new ChannelHandlerChain(recorder), executor);
+            ChannelContext context = new NettyChannelContext(new NettyChannel(new EmbeddedChannel(), true));
+            //占住业务线程
+            CountDownLatch latch = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            long now = SystemClock.now();
+            //截止时间按照接收时间计算，已经超时
+            RequestMessage<?> expired = request(MsgType.BizReq, 1000, now - 2000);
+            RequestMessage<?> valid = request(MsgType.BizReq, 1000, now);
+            //非业务请求不计算截止时间，不会被丢弃
+            RequestMessage<?> heartbeat = request(MsgType.HbReq, 1000, now - 2000);
+            handler.received(context, expired);
+            handler.received(context, valid);
+            handler.received(context, heartbeat);
+            latch.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+            Assert.assertEquals(1, recorder.discards.size());
+            Assert.assertSame(expired, recorder.discards.get(0));
+            Assert.assertEquals(2, recorder.receives.size());
+            Assert.assertTrue(recorder.receives.contains(valid));
+            Assert.assertTrue(recorder.receives.contains(heartbeat));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected RequestMessage<?> request(final MsgType type, final int timeout, final long receiveTime) {
+        MessageHeader header = new MessageHeader(type.getType(), (byte) 3);
+        header.setTimeout(timeout);
+        RequestMessage<?> result = new RequestMessage<>(header);
+        result.setReceiveTime(receiveTime);
+        return result;
+    }
+
+    /**
+     * 记录收到和丢弃的消息
+     */
+    protected static class Recorder implements ChannelHandler {
+
+        protected List<Object> receives = new CopyOnWriteArrayList<>();
+        protected List<Object> discards = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object received(final ChannelContext context, final Object message) {
+            receives.add(message);
+            return message;
+        }
+
+        @Override
+        public boolean sheddable(final ChannelContext context, final Object message) {
+            return ((RequestMessage<?>) message).getHeader().getMsgType() == MsgType.BizReq.getType();
+        }
+
+        @Override
+        public void discard(final ChannelContext context, final Object message, final boolean expired) {
+            if (expired) {
+                discards.add(message);
+            }
+        }
+    }
+}
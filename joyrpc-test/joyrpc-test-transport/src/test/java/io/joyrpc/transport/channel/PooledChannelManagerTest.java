@@ -0,0 +1,93 @@
+package io.joyrpc.transport.channel;
+
+import io.joyrpc.extension.URL;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.joyrpc.transport.transport.ClientTransport;
+import io.joyrpc.util.Status;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+
+public class PooledChannelManagerTest {
+
+    protected static final String PREFIX = "ch-pooled-joy-127.0.0.1-22000-";
+
+    @Test
+    public void testSingle() {
+        URL url = URL.valueOf("joy://127.0.0.1:22000?channel.connections=1");
+        PooledChannelManager manager = new PooledChannelManager(url);
+        Assert.assertEquals(PREFIX + 0, manager.getChannelKey(transport(url)));
+        Assert.assertNull(manager.getChannelKey(null));
+    }
+
+    @Test
+    public void testLeastRequests() {
+        URL url = URL.valueOf("joy://127.0.0.1:22000?channel.connections=2");
+        PooledChannelManager manager = new PooledChannelManager(url);
+        ClientTransport transport = transport(url);
+        open(manager, transport, PREFIX + 0, 3);
+        open(manager, transport, PREFIX + 1, 1);
+        //不管轮询从哪个连接开始，都选择待应答请求最少的连接
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(PREFIX + 1, manager.getChannelKey(transport));
+        }
+        Assert.assertEquals(3, (int) manager.getRequests().get(PREFIX + 0));
+        Assert.assertEquals(1, (int) manager.getRequests().get(PREFIX + 1));
+        Assert.assertEquals(0, (long) manager.getRefs().get(PREFIX + 0));
+        Assert.assertEquals(0, (int) manager.getQueueSizes().get(PREFIX + 0));
+        //没有开启刷新合并
+        Assert.assertEquals(-1, manager.getMessagesPerFlush().get(PREFIX + 0), 0);
+    }
+
+    @Test
+    public void testAdaptive() {
+        URL url = URL.valueOf("joy://127.0.0.1:22000?channel.connections=2&channel.adaptive=true&channel.adaptive.requests=4");
+        PooledChannelManager manager = new PooledChannelManager(url);
+        ClientTransport transport = transport(url);
+        NettyChannel channel = open(manager, transport, PREFIX + 0, 3);
+        //已有连接没有达到阈值，复用已有连接
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(PREFIX + 0, manager.getChannelKey(transport));
+        }
+        //达到阈值才使用新的连接
+        channel.getFutureManager().create(channel.getFutureManager().generateId(), 5000);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(PREFIX + 1, manager.getChannelKey(transport));
+        }
+    }
+
+    /**
+     * 模拟已经打开的连接
+     *
+     * @param manager   管理器
+     * @param transport 传输通道
+     * @param name      连接名称
+     * @param requests  待应答请求数
+     * @return 物理连接
+     */
+    protected NettyChannel open(final PooledChannelManager manager, final ClientTransport transport,
+                                final String name, final int requests) {
+        NettyChannel channel = new NettyChannel(new EmbeddedChannel(), false);
+        for (int i = 0; i < requests; i++) {
+            channel.getFutureManager().create(channel.getFutureManager().generateId(), 5000);
+        }
+        AbstractChannelManager.PoolChannel pool = new AbstractChannelManager.PoolChannel(transport, null, null);
+        pool.channel = channel;
+        pool.status = Status.OPENED;
+        manager.channels.put(name, pool);
+        return channel;
+    }
+
+    /**
+     * 只提供URL的客户端传输通道
+     *
+     * @param url URL
+     * @return 客户端传输通道
+     */
+    protected ClientTransport transport(final URL url) {
+        return (ClientTransport) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ClientTransport.class},
+                (proxy, method, args) -> "getUrl".equals(method.getName()) ? url : null);
+    }
+}
@@ -0,0 +1,133 @@
+package io.joyrpc.transport.netty4.channel;
+
+import io.joyrpc.exception.ChannelClosedException;
+import io.joyrpc.exception.OverloadException;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.transport.channel.SendResult;
+import io.joyrpc.util.SystemClock;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NettyChannelTest {
+
+    @Test
+    public void testQueue() {
+        EmbeddedChannel embedded = new InetEmbeddedChannel();
+        NettyChannel channel = unwritable(embedded, 2);
+        List<SendResult> results = new ArrayList<>();
+        //不可写的时候进入发送队列
+        channel.send("a", results::add);
+        channel.send("b", results::add);
+        Assert.assertEquals(2, channel.getQueueSize());
+        Assert.assertFalse(channel.isSendable());
+        Assert.assertTrue(results.isEmpty());
+        //队列满了快速失败
+        channel.send("c", results::add);
+        Assert.assertEquals(1, results.size());
+        Assert.assertTrue(results.get(0).getThrowable() instanceof OverloadException);
+        //恢复可写后按照顺序发送
+        embedded.flush();
+        Assert.assertTrue(embedded.isWritable());
+        Assert.assertEquals(0, channel.getQueueSize());
+        Assert.assertEquals(3, results.size());
+        Assert.assertTrue(results.get(1).isSuccess());
+        Assert.assertTrue(results.get(2).isSuccess());
+        ((ByteBuf) embedded.readOutbound()).release();
+        Assert.assertEquals("a", embedded.readOutbound());
+        Assert.assertEquals("b", embedded.readOutbound());
+        embedded.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDeadline() {
+        EmbeddedChannel embedded = new InetEmbeddedChannel();
+        NettyChannel channel = unwritable(embedded, 2);
+        List<SendResult> results = new ArrayList<>();
+        //在队列中已经超时的消息不再发送
+        MessageHeader header = new MessageHeader(MsgType.BizReq.getType(), (byte) 3);
+        header.setTimeout(100);
+        RequestMessage<Object> request = new RequestMessage<>(header);
+        request.setCreateTime(SystemClock.now() - 1000);
+        channel.send(request, results::add);
+        channel.send("a", results::add);
+        embedded.flush();
+        Assert.assertEquals(2, results.size());
+        Assert.assertTrue(results.get(0).getThrowable() instanceof OverloadException);
+        Assert.assertTrue(results.get(1).isSuccess());
+        ((ByteBuf) embedded.readOutbound()).release();
+        Assert.assertEquals("a", embedded.readOutbound());
+        Assert.assertNull(embedded.readOutbound());
+        embedded.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testClose() {
+        EmbeddedChannel embedded = new InetEmbeddedChannel();
+        NettyChannel channel = unwritable(embedded, 2);
+        List<SendResult> results = new ArrayList<>();
+        channel.send("a", results::add);
+        //关闭的时候队列中的消息快速失败
+        embedded.close();
+        channel.flushQueue();
+        Assert.assertEquals(0, channel.getQueueSize());
+        Assert.assertEquals(1, results.size());
+        Assert.assertTrue(results.get(0).getThrowable() instanceof ChannelClosedException);
+        channel.send("b", results::add);
+        Assert.assertTrue(results.get(1).getThrowable() instanceof ChannelClosedException);
+        embedded.finishAndReleaseAll();
+    }
+
+    /**
+     * 使用网络地址的测试通道，异常信息中需要输出地址
+     */
+    protected static class InetEmbeddedChannel extends EmbeddedChannel {
+
+        @Override
+        protected SocketAddress localAddress0() {
+            return new InetSocketAddress("127.0.0.1", 22000);
+        }
+
+        @Override
+        protected SocketAddress remoteAddress0() {
+            return new InetSocketAddress("127.0.0.1", 22001);
+        }
+    }
+
+    /**
+     * 写入未刷新的数据超过高水位线，让通道不可写
+     *
+     * @param embedded  通道
+     * @param queueSize 发送队列大小
+     * @return 通道
+     */
+    protected NettyChannel unwritable(final EmbeddedChannel embedded, final int queueSize) {
+        NettyChannel channel = new NettyChannel(embedded, false, queueSize);
+        embedded.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+                //同连接处理器，恢复可写的时候发送队列中的消息
+                if (ctx.channel().isWritable()) {
+                    channel.flushQueue();
+                }
+                ctx.fireChannelWritabilityChanged();
+            }
+        });
+        embedded.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        embedded.write(Unpooled.buffer(32).writeZero(32));
+        Assert.assertFalse(embedded.isWritable());
+        return channel;
+    }
+}
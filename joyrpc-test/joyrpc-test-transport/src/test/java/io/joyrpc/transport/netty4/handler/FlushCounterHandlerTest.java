@@ -0,0 +1,79 @@
+package io.joyrpc.transport.netty4.handler;
+
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FlushCounterHandlerTest {
+
+    @Test
+    public void testConsolidation() {
+        EmbeddedChannel embedded = echo(256);
+        FlushCounterHandler counter = (FlushCounterHandler) embedded.pipeline().get(FlushCounterHandler.FLUSH_COUNTER);
+        NettyChannel channel = new NettyChannel(embedded, true);
+        Assert.assertEquals(0, channel.getMessagesPerFlush(), 0);
+        //一次读取多个请求，读完成的时候合并刷新
+        read(embedded, "a", "b", "c", "d");
+        Assert.assertEquals(4, counter.getMessages());
+        Assert.assertEquals(1, counter.getFlushes());
+        Assert.assertEquals(4, channel.getMessagesPerFlush(), 0);
+        read(embedded, "e", "f");
+        Assert.assertEquals(6, counter.getMessages());
+        Assert.assertEquals(2, counter.getFlushes());
+        Assert.assertEquals(3, channel.getMessagesPerFlush(), 0);
+        for (int i = 0; i < 6; i++) {
+            Assert.assertNotNull(embedded.readOutbound());
+        }
+        embedded.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testMaxMessages() {
+        EmbeddedChannel embedded = echo(2);
+        FlushCounterHandler counter = (FlushCounterHandler) embedded.pipeline().get(FlushCounterHandler.FLUSH_COUNTER);
+        //读取过程中达到最大合并次数立即刷新
+        read(embedded, "a", "b", "c", "d", "e");
+        Assert.assertEquals(5, counter.getMessages());
+        Assert.assertEquals(3, counter.getFlushes());
+        embedded.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDisabled() {
+        NettyChannel channel = new NettyChannel(new EmbeddedChannel(), true);
+        Assert.assertEquals(-1, channel.getMessagesPerFlush(), 0);
+    }
+
+    /**
+     * 创建每个请求单独刷新应答的通道
+     *
+     * @param maxMessages 最多合并的刷新次数
+     * @return 通道
+     */
+    protected EmbeddedChannel echo(final int maxMessages) {
+        EmbeddedChannel embedded = new EmbeddedChannel(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+                ctx.writeAndFlush(msg);
+            }
+        });
+        FlushCounterHandler.bind(embedded.pipeline(), maxMessages);
+        return embedded;
+    }
+
+    /**
+     * 模拟一次读取多个请求
+     *
+     * @param embedded 通道
+     * @param messages 请求
+     */
+    protected void read(final EmbeddedChannel embedded, final String... messages) {
+        for (String message : messages) {
+            embedded.pipeline().fireChannelRead(message);
+        }
+        embedded.pipeline().fireChannelReadComplete();
+    }
+}
@@ -0,0 +1,111 @@
+package io.joyrpc.transport.netty4.handler;
+
+import io.joyrpc.constants.Constants;
+import io.joyrpc.protocol.MsgType;
+import io.joyrpc.protocol.joy.JoyServerProtocol;
+import io.joyrpc.protocol.message.Invocation;
+import io.joyrpc.protocol.message.MessageHeader;
+import io.joyrpc.protocol.message.RequestMessage;
+import io.joyrpc.transport.channel.Channel;
+import io.joyrpc.transport.codec.Codec;
+import io.joyrpc.transport.netty4.buffer.NettyChannelBuffer;
+import io.joyrpc.transport.netty4.channel.NettyChannel;
+import io.joyrpc.transport.session.DefaultSession;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SimpleEncodeHandlerTest {
+
+    protected Codec codec = new JoyServerProtocol().getCodec();
+
+    @Test
+    public void testNotNegotiated() throws Exception {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = channel(embedded);
+        embedded.pipeline().addLast(new SimpleEncodeHandler(codec, channel));
+        byte[] bytes = new byte[100];
+        Assert.assertTrue(embedded.writeOutbound(request(bytes, false)));
+        ByteBuf buf = embedded.readOutbound();
+        //对端没有协商，按照原有格式编码
+        Assert.assertFalse(buf instanceof CompositeByteBuf);
+        RequestMessage<Invocation> message = decode(channel, buf);
+        Assert.assertNull(message.getHeader().getAttribute(Constants.HEAD_BINARY));
+        Assert.assertArrayEquals(bytes, (byte[]) message.getPayLoad().getArgs()[1]);
+    }
+
+    @Test
+    public void testNegotiated() throws Exception {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = channel(embedded);
+        embedded.pipeline().addLast(new SimpleEncodeHandler(codec, channel));
+        byte[] bytes = new byte[100];
+        bytes[99] = 9;
+        Assert.assertTrue(embedded.writeOutbound(request(bytes, true)));
+        ByteBuf buf = embedded.readOutbound();
+        Assert.assertTrue(buf instanceof CompositeByteBuf);
+        RequestMessage<Invocation> message = decode(channel, buf);
+        Assert.assertArrayEquals(bytes, (byte[]) message.getPayLoad().getArgs()[1]);
+    }
+
+    @Test
+    public void testWriteFailure() throws Exception {
+        EmbeddedChannel embedded = new EmbeddedChannel();
+        Channel channel = channel(embedded);
+        embedded.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+                ReferenceCountUtil.release(msg);
+                promise.setFailure(new IOException("broken pipe"));
+            }
+        });
+        embedded.pipeline().addLast(new SimpleEncodeHandler(codec, channel));
+        //组合缓冲区写失败，调用方的promise也要失败
+        ChannelFuture future = embedded.writeAndFlush(request(new byte[100], true));
+        Assert.assertTrue(future.isDone());
+        Assert.assertFalse(future.isSuccess());
+        Assert.assertTrue(future.cause() instanceof IOException);
+        future = embedded.writeAndFlush(request(new byte[100], false));
+        Assert.assertFalse(future.isSuccess());
+    }
+
+    protected Channel channel(final EmbeddedChannel embedded) {
+        Channel result = new NettyChannel(embedded, false);
+        result.setAttribute(Channel.BINARY_THRESHOLD, 16);
+        return result;
+    }
+
+    protected RequestMessage<Invocation> request(final byte[] bytes, final boolean negotiated) {
+        Invocation invocation = new Invocation("io.joyrpc.HelloService", "1.0", "hello", new Class[]{String.class, byte[].class});
+        invocation.setArgs(new Object[]{"x", bytes});
+        MessageHeader header = new MessageHeader(MsgType.BizReq.getType(), (byte) 3);
+        header.setSerialization((byte) 3);
+        DefaultSession session = new DefaultSession(1);
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(Constants.KEY_BINARY, String.valueOf(negotiated));
+        session.putAll(attributes);
+        header.setSession(session);
+        return new RequestMessage<>(header, invocation);
+    }
+
+    protected RequestMessage<Invocation> decode(final Channel channel, final ByteBuf buf) throws Exception {
+        //去掉魔术位
+        buf.skipBytes(2);
+        try {
+            return (RequestMessage<Invocation>) codec.decode(() -> channel, new NettyChannelBuffer(buf));
+        } finally {
+            buf.release();
+        }
+    }
+}
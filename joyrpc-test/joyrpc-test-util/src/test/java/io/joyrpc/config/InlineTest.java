@@ -0,0 +1,89 @@
+package io.joyrpc.config;
+
+import io.joyrpc.config.InterfaceOption.Inline;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InlineTest {
+
+    protected static final long THRESHOLD = 1000000L;
+
+    @Test
+    public void testPromotion() {
+        Inline inline = new Inline(true, THRESHOLD);
+        Assert.assertFalse(inline.isEnabled());
+        //采样次数不够不内联
+        call(inline, Inline.WARMUP - 1, THRESHOLD / 10);
+        Assert.assertFalse(inline.isEnabled());
+        call(inline, 1, THRESHOLD / 10);
+        Assert.assertTrue(inline.isEnabled());
+    }
+
+    @Test
+    public void testSlowNotPromoted() {
+        Inline inline = new Inline(true, THRESHOLD);
+        call(inline, Inline.WARMUP * 2, THRESHOLD);
+        Assert.assertFalse(inline.isEnabled());
+    }
+
+    @Test
+    public void testDemotion() {
+        Inline inline = promote();
+        //单次超过预算立即退回
+        call(inline, 1, THRESHOLD * 4);
+        Assert.assertFalse(inline.isEnabled());
+        //重新采样后才能再次内联
+        call(inline, Inline.WARMUP - 1, THRESHOLD / 10);
+        Assert.assertFalse(inline.isEnabled());
+        call(inline, 1, THRESHOLD / 10);
+        Assert.assertTrue(inline.isEnabled());
+    }
+
+    @Test
+    public void testGradualDemotion() {
+        Inline inline = promote();
+        //不超过预算但是平均持续变慢
+        int count = 0;
+        while (inline.isEnabled() && count++ < 100) {
+            call(inline, 1, THRESHOLD * 2);
+        }
+        Assert.assertFalse(inline.isEnabled());
+        Assert.assertTrue(count > 1);
+    }
+
+    @Test
+    public void testHung() throws InterruptedException {
+        Inline inline = promote();
+        //调用没有完成，超过预算后退回
+        inline.begin();
+        Assert.assertTrue(inline.isEnabled());
+        Thread.sleep(THRESHOLD * 4 / 1000000L + 10);
+        Assert.assertFalse(inline.isEnabled());
+        inline.record(THRESHOLD * 10);
+        Assert.assertFalse(inline.isEnabled());
+    }
+
+    @Test
+    public void testForced() throws InterruptedException {
+        Inline inline = new Inline(false, 0);
+        Assert.assertTrue(inline.isEnabled());
+        inline.begin();
+        Thread.sleep(5);
+        inline.record(THRESHOLD * 10);
+        Assert.assertTrue(inline.isEnabled());
+    }
+
+    protected Inline promote() {
+        Inline inline = new Inline(true, THRESHOLD);
+        call(inline, Inline.WARMUP, THRESHOLD / 10);
+        Assert.assertTrue(inline.isEnabled());
+        return inline;
+    }
+
+    protected void call(final Inline inline, final int count, final long nanos) {
+        for (int i = 0; i < count; i++) {
+            inline.begin();
+            inline.record(nanos);
+        }
+    }
+}
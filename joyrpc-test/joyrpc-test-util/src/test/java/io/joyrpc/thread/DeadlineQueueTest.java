@@ -0,0 +1,129 @@
+package io.joyrpc.thread;
+
+import io.joyrpc.util.SystemClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeadlineQueueTest {
+
+    @Test
+    public void testOrder() {
+        DeadlineQueue queue = new DeadlineQueue(-1, 5, 100);
+        long now = SystemClock.now();
+        Task t1 = new Task(now + 3000);
+        Task t2 = new Task(now + 1000);
+        Runnable t3 = () -> {
+        };
+        Task t4 = new Task(now + 2000);
+        queue.offer(t1);
+        queue.offer(t2);
+        queue.offer(t3);
+        queue.offer(t4);
+        Assert.assertEquals(4, queue.size());
+        //没有截止时间的任务按照到达时间排队，截止时间早的先出队
+        Assert.assertSame(t3, queue.poll());
+        Assert.assertSame(t2, queue.poll());
+        Assert.assertSame(t4, queue.poll());
+        Assert.assertSame(t1, queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testNoDeadline() throws InterruptedException {
+        DeadlineQueue queue = new DeadlineQueue(-1, 1, 20);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Runnable task = () -> {
+            };
+            tasks.add(task);
+            queue.offer(task);
+            //业务请求没有超时时间，按照入队时间和其它任务一起排队
+            Task request = new Task(0);
+            tasks.add(request);
+            queue.offer(request);
+        }
+        //截止时间晚于入队时间的请求不会插队
+        Task late = new Task(SystemClock.now() + 5000);
+        tasks.add(late);
+        queue.offer(late);
+        Thread.sleep(40);
+        //没有截止时间的任务先进先出，排队再久也不会超时丢弃
+        for (Runnable task : tasks) {
+            Assert.assertSame(task, queue.poll());
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertEquals(0, queue.getShed());
+        Assert.assertEquals(0, queue.getExpired());
+    }
+
+    @Test
+    public void testCapacity() {
+        DeadlineQueue queue = new DeadlineQueue(1, 5, 100);
+        Assert.assertTrue(queue.offer(new Task(0)));
+        Assert.assertFalse(queue.offer(new Task(0)));
+        Assert.assertEquals(0, queue.remainingCapacity());
+    }
+
+    @Test
+    public void testExpired() {
+        DeadlineQueue queue = new DeadlineQueue(-1, 5, 100);
+        long now = SystemClock.now();
+        Task t1 = new Task(now - 1000);
+        Task t2 = new Task(now + 1000);
+        queue.offer(t1);
+        queue.offer(t2);
+        Assert.assertSame(t2, queue.poll());
+        Assert.assertEquals(Boolean.TRUE, t1.expired);
+        Assert.assertEquals(1, queue.getExpired());
+        Assert.assertEquals(0, queue.getShed());
+    }
+
+    @Test
+    public void testShed() throws InterruptedException {
+        DeadlineQueue queue = new DeadlineQueue(-1, 1, 20);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task(0);
+            tasks.add(task);
+            queue.offer(task);
+        }
+        Thread.sleep(10);
+        //排队时间第一次超过目标值，开始观察
+        Assert.assertSame(tasks.get(0), queue.poll());
+        Assert.assertEquals(0, queue.getShed());
+        Thread.sleep(30);
+        //整个观察窗口内都超过目标值，丢弃一个
+        Assert.assertSame(tasks.get(2), queue.poll());
+        Assert.assertEquals(Boolean.FALSE, tasks.get(1).expired);
+        Assert.assertEquals(1, queue.getShed());
+        //还没有到下次丢弃的时间
+        Assert.assertSame(tasks.get(3), queue.poll());
+        Assert.assertEquals(1, queue.getShed());
+    }
+
+    protected static class Task implements DeadlineQueue.Deadline {
+        protected final long deadline;
+        protected Boolean expired;
+
+        public Task(final long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public void discard(final boolean expired) {
+            this.expired = expired;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
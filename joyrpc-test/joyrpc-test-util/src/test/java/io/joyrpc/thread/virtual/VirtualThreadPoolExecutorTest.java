@@ -0,0 +1,137 @@
+package io.joyrpc.thread.virtual;
+
+import io.joyrpc.thread.NamedThreadFactory;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadPoolExecutorTest {
+
+    @Before
+    public void setUp() {
+        //虚拟线程需要JDK21及以上版本
+        boolean supported;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+        Assume.assumeTrue("requires java 21+", supported);
+    }
+
+    @Test
+    public void testException() throws Exception {
+        VirtualThreadPoolExecutor executor = create(1);
+        try {
+            for (int i = 0; i < 10; i++) {
+                executor.execute(() -> {
+                    throw new IllegalStateException("error");
+                });
+                waitIdle(executor);
+            }
+            //异常任务也要释放许可
+            Assert.assertEquals(10, executor.getCompletedTaskCount());
+            Assert.assertEquals(0, executor.getActiveCount());
+            CountDownLatch latch = new CountDownLatch(1);
+            executor.execute(latch::countDown);
+            Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejection() throws Exception {
+        VirtualThreadPoolExecutor executor = create(2);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(latch));
+            executor.execute(() -> await(latch));
+            Assert.assertEquals(2, executor.getActiveCount());
+            try {
+                executor.execute(() -> await(latch));
+                Assert.fail();
+            } catch (RejectedExecutionException ignored) {
+            }
+            //调大并发数后可以继续提交
+            executor.setMaximumPoolSize(3);
+            executor.execute(() -> await(latch));
+            Assert.assertEquals(3, executor.getLargestPoolSize());
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        VirtualThreadPoolExecutor executor = create(4);
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(() -> await(latch));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.isShutdown());
+        Assert.assertTrue(executor.isTerminating());
+        Assert.assertFalse(executor.isTerminated());
+        //任务未完成，等待超时
+        Assert.assertFalse(executor.awaitTermination(50, TimeUnit.MILLISECONDS));
+        try {
+            executor.execute(() -> {
+            });
+            Assert.fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+        latch.countDown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertTrue(executor.isTerminated());
+        Assert.assertEquals(4, executor.getCompletedTaskCount());
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        VirtualThreadPoolExecutor executor = create(2);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        //立即关闭会中断正在执行的任务
+        Assert.assertTrue(executor.shutdownNow().isEmpty());
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertTrue(executor.isTerminated());
+    }
+
+    protected VirtualThreadPoolExecutor create(final int concurrency) {
+        return new VirtualThreadPoolExecutor("test-virtual-", concurrency, new NamedThreadFactory("test"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    protected void waitIdle(final VirtualThreadPoolExecutor executor) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (executor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    protected void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ignored) {
+        }
+    }
+}
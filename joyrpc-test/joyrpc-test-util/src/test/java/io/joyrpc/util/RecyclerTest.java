@@ -0,0 +1,95 @@
+package io.joyrpc.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class RecyclerTest {
+
+    @Test
+    public void testRecycle() {
+        Recycler<Value> recycler = new Recycler<>(Value::new, 2);
+        Value v1 = recycler.get();
+        Value v2 = recycler.get();
+        Value v3 = recycler.get();
+        Assert.assertEquals(3, recycler.getOutstanding());
+        v1.recycle();
+        v2.recycle();
+        //超过容量丢弃
+        v3.recycle();
+        Assert.assertEquals(0, recycler.getOutstanding());
+        Assert.assertEquals(2, recycler.getIdles());
+        Value v4 = recycler.get();
+        Assert.assertSame(v2, v4);
+        v4.recycle();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDoubleRecycle() {
+        Recycler<Value> recycler = new Recycler<>(Value::new, 2);
+        Value value = recycler.get();
+        value.recycle();
+        value.recycle();
+    }
+
+    @Test
+    public void testCrossThread() throws ExecutionException, InterruptedException {
+        Recycler<Value> recycler = new Recycler<>(Value::new, 2);
+        Value value = recycler.get();
+        //在其它线程回收，放回归属线程
+        CompletableFuture.runAsync(value::recycle).get();
+        Assert.assertEquals(0, recycler.getOutstanding());
+        Assert.assertEquals(0, recycler.getIdles());
+        Assert.assertSame(value, recycler.get());
+        //其它线程借出的对象在当前线程回收，不会放入当前线程的空闲栈
+        Value other = CompletableFuture.supplyAsync(recycler::get).get();
+        Assert.assertNotSame(value, other);
+        other.recycle();
+        Assert.assertEquals(0, recycler.getIdles());
+        Assert.assertNotSame(other, recycler.get());
+    }
+
+    @Test
+    public void testCrossThreadCapacity() throws ExecutionException, InterruptedException {
+        Recycler<Value> recycler = new Recycler<>(Value::new, 2);
+        Value[] values = new Value[]{recycler.get(), recycler.get(), recycler.get()};
+        CompletableFuture.runAsync(() -> {
+            for (Value value : values) {
+                value.recycle();
+            }
+        }).get();
+        //超过容量丢弃
+        Value v1 = recycler.get();
+        Value v2 = recycler.get();
+        Value v3 = recycler.get();
+        Assert.assertTrue(v1 == values[0] || v1 == values[1]);
+        Assert.assertTrue(v2 == values[0] || v2 == values[1]);
+        Assert.assertNotSame(v1, v2);
+        Assert.assertNotSame(values[2], v3);
+    }
+
+    @Test
+    public void testRecycled() {
+        Recycler<Value> recycler = new Recycler<>(Value::new, 2);
+        Value value = recycler.get();
+        Assert.assertFalse(value.handle.isRecycled());
+        value.recycle();
+        Assert.assertTrue(value.handle.isRecycled());
+        Assert.assertSame(value, recycler.get());
+        Assert.assertFalse(value.handle.isRecycled());
+    }
+
+    protected static class Value {
+        protected final Recycler.Handle<Value> handle;
+
+        public Value(Recycler.Handle<Value> handle) {
+            this.handle = handle;
+        }
+
+        public void recycle() {
+            handle.recycle(this);
+        }
+    }
+}